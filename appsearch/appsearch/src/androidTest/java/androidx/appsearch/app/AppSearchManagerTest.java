@@ -122,6 +122,35 @@ public class AppSearchManagerTest {
         assertThat(result.getFailures()).isEmpty();
     }
 
+    @Test
+    public void testGetLatencyStats() throws Exception {
+        // Schema registration
+        checkIsResultSuccess(mDb1.setSchema(
+                new SetSchemaRequest.Builder().addSchema(AppSearchEmail.SCHEMA).build()));
+
+        // Index two documents in one request
+        AppSearchEmail email1 = new AppSearchEmail.Builder("uri1")
+                .setSubject("testPut example")
+                .build();
+        AppSearchEmail email2 = new AppSearchEmail.Builder("uri2")
+                .setSubject("testPut example")
+                .build();
+        checkIsBatchResultSuccess(mDb1.putDocuments(
+                new PutDocumentsRequest.Builder().addGenericDocument(email1, email2).build()));
+        doQuery(mDb1, "example");
+
+        LatencyStats stats = mDb1.getLatencyStats();
+        assertThat(stats.getPutCount()).isEqualTo(1);
+        assertThat(stats.getPutDocumentCount()).isEqualTo(2);
+        assertThat(stats.getTotalPutLatencyNanos()).isAtLeast(stats.getMaxPutLatencyNanos());
+        assertThat(stats.getQueryCount()).isEqualTo(1);
+        assertThat(stats.getTotalQueryLatencyNanos()).isAtLeast(stats.getMaxQueryLatencyNanos());
+
+        // Other databases are counted separately
+        assertThat(mDb2.getLatencyStats().getPutCount()).isEqualTo(0);
+        assertThat(mDb2.getLatencyStats().getQueryCount()).isEqualTo(0);
+    }
+
     @Test
     public void testUpdateSchema() throws Exception {
         // Schema registration
@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.junit.Assert.assertThrows;
 
+import androidx.appsearch.app.AppSearchBatchResult;
+import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.exceptions.AppSearchException;
 import androidx.test.core.app.ApplicationProvider;
 
@@ -40,7 +42,12 @@ import com.google.android.icing.proto.TermMatchType;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class AppSearchImplTest {
     private AppSearchImpl mAppSearchImpl;
@@ -341,4 +348,80 @@ public class AppSearchImplTest {
         assertThat(mAppSearchImpl.getSchemaProto().getTypesList())
                 .containsExactlyElementsIn(exceptedProto.getTypesList());
     }
+
+    @Test
+    public void testPutDocuments() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database", schema, /*forceOverride=*/false);
+
+        List<DocumentProto> documents = new ArrayList<>();
+        documents.add(DocumentProto.newBuilder()
+                .setUri("uri1")
+                .setSchema("type")
+                .setNamespace("namespace")
+                .build());
+        documents.add(DocumentProto.newBuilder()
+                .setUri("uri2")
+                .setSchema("unknownType")
+                .setNamespace("namespace")
+                .build());
+        AppSearchBatchResult<String, Void> result =
+                mAppSearchImpl.putDocuments("database", documents);
+
+        assertThat(result.getSuccesses()).containsExactly("uri1", null);
+        assertThat(result.getFailures().keySet()).containsExactly("uri2");
+        assertThat(result.getFailures().get("uri2").getResultCode())
+                .isNotEqualTo(AppSearchResult.RESULT_OK);
+        assertThat(mAppSearchImpl.getDocument("database", "namespace", "uri1"))
+                .isEqualTo(documents.get(0));
+    }
+
+    @Test
+    public void testQueryWhilePuttingIntoAnotherDatabase() throws Exception {
+        SchemaProto schema = SchemaProto.newBuilder()
+                .addTypes(SchemaTypeConfigProto.newBuilder()
+                        .setSchemaType("type").build())
+                .build();
+        mAppSearchImpl.setSchema("database1", schema, /*forceOverride=*/false);
+        mAppSearchImpl.setSchema("database2", schema, /*forceOverride=*/false);
+        mAppSearchImpl.putDocument("database2", DocumentProto.newBuilder()
+                .setUri("uri")
+                .setSchema("type")
+                .setNamespace("namespace")
+                .build());
+
+        final int documentCount = 500;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> putFuture = executor.submit(() -> {
+                List<DocumentProto> documents = new ArrayList<>();
+                for (int i = 0; i < documentCount; i++) {
+                    documents.add(DocumentProto.newBuilder()
+                            .setUri("uri" + i)
+                            .setSchema("type")
+                            .setNamespace("namespace")
+                            .build());
+                }
+                mAppSearchImpl.putDocuments("database1", documents).checkSuccess();
+                return null;
+            });
+            while (!putFuture.isDone()) {
+                SearchResultProto searchResultProto = mAppSearchImpl.query("database2",
+                        SearchSpecProto.getDefaultInstance(),
+                        ResultSpecProto.getDefaultInstance(),
+                        ScoringSpecProto.getDefaultInstance());
+                assertThat(searchResultProto.getResultsCount()).isEqualTo(1);
+            }
+            putFuture.get();
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < documentCount; i++) {
+            assertThat(mAppSearchImpl.getDocument("database1", "namespace", "uri" + i))
+                    .isNotNull();
+        }
+    }
 }
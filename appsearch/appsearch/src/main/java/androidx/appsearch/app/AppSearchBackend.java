@@ -114,6 +114,14 @@ public interface AppSearchBackend {
     @NonNull
     AppSearchResult<Void> removeAll(@NonNull String databaseName);
 
+    /**
+     * Returns the latencies of the queries and puts executed against the given database.
+     *
+     * @see AppSearchManager#getLatencyStats
+     */
+    @NonNull
+    LatencyStats getLatencyStats(@NonNull String databaseName);
+
     /** Clears all documents, schemas and all other information owned by this app. */
     @VisibleForTesting
     @NonNull
@@ -52,8 +52,9 @@ public class AppSearchManager {
     private final AppSearchBackend mBackend;
     // Never call Executor.shutdownNow(), it will cancel the futures it's returned. And since
     // execute() won't return anything, we will hang forever waiting for the execution.
-    // AppSearch multi-thread execution is guarded by Read & Write Lock in AppSearchImpl, all
-    // mutate requests will need to gain write lock and query requests need to gain read lock.
+    // AppSearch multi-thread execution is guarded by Read & Write Locks of each database in
+    // AppSearchImpl, all mutate requests will need to gain the write lock of their database and
+    // query requests need to gain its read lock.
     private final ExecutorService mExecutorService = Executors.newCachedThreadPool();
 
     /** Builder class for {@link AppSearchManager} objects. */
@@ -734,6 +735,20 @@ public class AppSearchManager {
         return execute(() -> mBackend.removeAll(mDatabaseName));
     }
 
+    /**
+     * Returns the latencies of the queries and puts executed against this database.
+     *
+     * <p>The statistics are kept by the backend, so they include the operations of all the
+     * {@link AppSearchManager} instances which share this database and backend.
+     *
+     * @return A snapshot of the latencies recorded so far.
+     * @hide
+     */
+    @NonNull
+    public LatencyStats getLatencyStats() {
+        return mBackend.getLatencyStats(mDatabaseName);
+    }
+
     /** Executes the callable task and set result to ListenableFuture. */
     private <T> ListenableFuture<T> execute(Callable<T> callable) {
         ResolvableFuture<T> future = ResolvableFuture.create();
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.app;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Latency statistics of the queries and puts executed against an {@link AppSearchManager}
+ * database since its backend was created.
+ *
+ * <p>Latencies are measured in the backend, so they include the time spent waiting for other
+ * operations on the same database, but not the time spent waiting for an executor thread.
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class LatencyStats {
+    private final int mQueryCount;
+    private final long mTotalQueryLatencyNanos;
+    private final long mMaxQueryLatencyNanos;
+    private final int mPutCount;
+    private final int mPutDocumentCount;
+    private final long mTotalPutLatencyNanos;
+    private final long mMaxPutLatencyNanos;
+
+    LatencyStats(int queryCount, long totalQueryLatencyNanos, long maxQueryLatencyNanos,
+            int putCount, int putDocumentCount, long totalPutLatencyNanos,
+            long maxPutLatencyNanos) {
+        mQueryCount = queryCount;
+        mTotalQueryLatencyNanos = totalQueryLatencyNanos;
+        mMaxQueryLatencyNanos = maxQueryLatencyNanos;
+        mPutCount = putCount;
+        mPutDocumentCount = putDocumentCount;
+        mTotalPutLatencyNanos = totalPutLatencyNanos;
+        mMaxPutLatencyNanos = maxPutLatencyNanos;
+    }
+
+    /** Returns the number of queries executed. */
+    public int getQueryCount() {
+        return mQueryCount;
+    }
+
+    /** Returns the sum of the latencies of all queries, in nanoseconds. */
+    public long getTotalQueryLatencyNanos() {
+        return mTotalQueryLatencyNanos;
+    }
+
+    /** Returns the latency of the slowest query, in nanoseconds. */
+    public long getMaxQueryLatencyNanos() {
+        return mMaxQueryLatencyNanos;
+    }
+
+    /**
+     * Returns the number of put requests executed. A single request can index many documents.
+     */
+    public int getPutCount() {
+        return mPutCount;
+    }
+
+    /** Returns the number of documents indexed by all put requests, including failed ones. */
+    public int getPutDocumentCount() {
+        return mPutDocumentCount;
+    }
+
+    /** Returns the sum of the latencies of all put requests, in nanoseconds. */
+    public long getTotalPutLatencyNanos() {
+        return mTotalPutLatencyNanos;
+    }
+
+    /** Returns the latency of the slowest put request, in nanoseconds. */
+    public long getMaxPutLatencyNanos() {
+        return mMaxPutLatencyNanos;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return "{ queries: " + mQueryCount
+                + ", totalQueryLatencyNanos: " + mTotalQueryLatencyNanos
+                + ", maxQueryLatencyNanos: " + mMaxQueryLatencyNanos
+                + ", puts: " + mPutCount
+                + ", putDocuments: " + mPutDocumentCount
+                + ", totalPutLatencyNanos: " + mTotalPutLatencyNanos
+                + ", maxPutLatencyNanos: " + mMaxPutLatencyNanos + " }";
+    }
+
+    /**
+     * Accumulates the latencies of the operations of a database. This class is thread safe.
+     * @hide
+     */
+    public static final class Recorder {
+        private int mQueryCount;
+        private long mTotalQueryLatencyNanos;
+        private long mMaxQueryLatencyNanos;
+        private int mPutCount;
+        private int mPutDocumentCount;
+        private long mTotalPutLatencyNanos;
+        private long mMaxPutLatencyNanos;
+
+        /** Records a query which took {@code latencyNanos}. */
+        public synchronized void recordQuery(long latencyNanos) {
+            mQueryCount++;
+            mTotalQueryLatencyNanos += latencyNanos;
+            mMaxQueryLatencyNanos = Math.max(mMaxQueryLatencyNanos, latencyNanos);
+        }
+
+        /**
+         * Records a put request of {@code documentCount} documents which took
+         * {@code latencyNanos}.
+         */
+        public synchronized void recordPut(int documentCount, long latencyNanos) {
+            mPutCount++;
+            mPutDocumentCount += documentCount;
+            mTotalPutLatencyNanos += latencyNanos;
+            mMaxPutLatencyNanos = Math.max(mMaxPutLatencyNanos, latencyNanos);
+        }
+
+        /** Returns a snapshot of the latencies recorded so far. */
+        @NonNull
+        public synchronized LatencyStats getStats() {
+            return new LatencyStats(mQueryCount, mTotalQueryLatencyNanos, mMaxQueryLatencyNanos,
+                    mPutCount, mPutDocumentCount, mTotalPutLatencyNanos, mMaxPutLatencyNanos);
+        }
+    }
+}
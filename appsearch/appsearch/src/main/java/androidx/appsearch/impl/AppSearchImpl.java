@@ -24,6 +24,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.exceptions.AppSearchException;
 
@@ -53,10 +54,15 @@ import com.google.android.icing.proto.SetSchemaResultProto;
 import com.google.android.icing.proto.StatusProto;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
@@ -84,12 +90,17 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *          {@link #query(String, SearchSpecProto, ResultSpecProto, ScoringSpecProto)}.
  * </ul>
  *
- * <p>Methods in this class belong to two groups, the query group and the mutate group.
+ * <p>Methods in this class belong to two groups, the query group and the mutate group, and are
+ * guarded by two levels of locks. IcingSearchEngine synchronizes its own calls, the locks only
+ * keep the state of this class consistent with Icing.
  * <ul>
- *     <li>All methods are going to modify global parameters and data in Icing should be executed
- *     under WRITE lock to keep thread safety.
- *     <li>All methods are going to access global parameters or query data from Icing
- *     should be executed under READ lock to improve query performance.
+ *     <li>Methods which change the state of all databases, like {@link #initialize},
+ *     {@link #reset} and optimizing Icing, are executed under the global WRITE lock.
+ *     <li>All other methods are executed under the global READ lock, and under the lock of the
+ *     database they access: the database WRITE lock for the mutate group, and the database READ
+ *     lock for the query group. Mutations of one database don't block queries of another.
+ *     <li>{@link #setSchema} also holds {@link #mSchemaLock}, since the schemas of all databases
+ *     are set in Icing together.
  * </ul>
  * @hide
  */
@@ -105,19 +116,25 @@ public final class AppSearchImpl {
     @VisibleForTesting
     static final int CHECK_OPTIMIZE_INTERVAL = 100;
     private final ReentrantReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
+    // The locks of each database, created on first use.
+    private final ConcurrentHashMap<String, ReentrantReadWriteLock> mDatabaseLocks =
+            new ConcurrentHashMap<>();
+    private final Object mSchemaLock = new Object();
     private final CountDownLatch mInitCompleteLatch = new CountDownLatch(1);
     // The map contains schemaTypes and namespaces for all database. All values in the map have
-    // been already added database name prefix.
-    private final HashMap<String, Set<String>> mSchemaMap = new HashMap<>();
-    private final HashMap<String, Set<String>> mNamespaceMap = new HashMap<>();
+    // been already added database name prefix. The set of a database is guarded by the lock of
+    // that database.
+    private final ConcurrentHashMap<String, Set<String>> mSchemaMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> mNamespaceMap =
+            new ConcurrentHashMap<>();
     private IcingSearchEngine mIcingSearchEngine;
     private volatile boolean mInitialized = false;
 
     /**
-     * The counter to check when to call {@link #checkForOptimize(boolean)}. The interval is
+     * The counter to check when to call {@link #checkForOptimize(int, boolean)}. The interval is
      * {@link #CHECK_OPTIMIZE_INTERVAL}.
      */
-    private int mOptimizeIntervalCount = 0;
+    private final AtomicInteger mOptimizeIntervalCount = new AtomicInteger();
 
     /** Gets the singleton instance of {@link AppSearchImpl} */
     @NonNull
@@ -211,31 +228,37 @@ public final class AppSearchImpl {
             boolean forceOverride) throws AppSearchException, InterruptedException {
         checkInitialized();
 
-        SchemaProto schemaProto = getSchemaProto();
+        SetSchemaResultProto setSchemaResultProto;
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
+        try {
+            synchronized (mSchemaLock) {
+                SchemaProto schemaProto = getSchemaProto();
 
-        SchemaProto.Builder existingSchemaBuilder = schemaProto.toBuilder();
+                SchemaProto.Builder existingSchemaBuilder = schemaProto.toBuilder();
 
-        // Combine the existing schema (which may have types from other databases) with this
-        // database's new schema. Modifies the existingSchemaBuilder.
-        Set<String> newTypeNames = rewriteSchema(databaseName, existingSchemaBuilder, origSchema);
+                // Combine the existing schema (which may have types from other databases) with
+                // this database's new schema. Modifies the existingSchemaBuilder.
+                Set<String> newTypeNames =
+                        rewriteSchema(databaseName, existingSchemaBuilder, origSchema);
 
-        SetSchemaResultProto setSchemaResultProto;
-        mReadWriteLock.writeLock().lock();
-        try {
-            setSchemaResultProto = mIcingSearchEngine.setSchema(existingSchemaBuilder.build(),
-                    forceOverride);
-            checkSuccess(setSchemaResultProto.getStatus());
-            mSchemaMap.put(databaseName, newTypeNames);
-            if (setSchemaResultProto.getDeletedSchemaTypesCount() > 0
-                    || (setSchemaResultProto.getIncompatibleSchemaTypesCount() > 0
-                    && forceOverride)) {
-                // Any existing schemas which is not in origSchema will be deleted, and all
-                // documents of these types were also deleted. And so well if we force override
-                // incompatible schemas.
-                checkForOptimize(/* force= */true);
+                setSchemaResultProto = mIcingSearchEngine.setSchema(
+                        existingSchemaBuilder.build(), forceOverride);
+                checkSuccess(setSchemaResultProto.getStatus());
+                mSchemaMap.put(databaseName, newTypeNames);
             }
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
+        }
+        if (setSchemaResultProto.getDeletedSchemaTypesCount() > 0
+                || (setSchemaResultProto.getIncompatibleSchemaTypesCount() > 0
+                && forceOverride)) {
+            // Any existing schemas which is not in origSchema will be deleted, and all
+            // documents of these types were also deleted. And so well if we force override
+            // incompatible schemas.
+            checkForOptimize(/* force= */true);
         }
     }
 
@@ -257,19 +280,72 @@ public final class AppSearchImpl {
         rewriteDocumentTypes(getDatabasePrefix(databaseName), documentBuilder, /*add=*/ true);
 
         PutResultProto putResultProto;
-        mReadWriteLock.writeLock().lock();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
         try {
             putResultProto = mIcingSearchEngine.put(documentBuilder.build());
             addToMap(mNamespaceMap, databaseName, documentBuilder.getNamespace());
-            // The existing documents with same URI will be deleted, so there maybe some resources
-            // could be released after optimize().
-            checkForOptimize(/* force= */false);
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
+        // The existing documents with same URI will be deleted, so there maybe some resources
+        // could be released after optimize().
+        checkForOptimize(/* force= */false);
         checkSuccess(putResultProto.getStatus());
     }
 
+    /**
+     * Adds documents to the AppSearch index, taking the locks once for all of them.
+     *
+     * <p>This method belongs to mutate group.
+     *
+     * @param databaseName The databaseName these documents reside in.
+     * @param documents    The documents to index.
+     * @return The result of indexing each document, keyed by URI.
+     * @throws AppSearchException on IcingSearchEngine error.
+     * @throws InterruptedException if the current thread was interrupted during execution.
+     */
+    @NonNull
+    public AppSearchBatchResult<String, Void> putDocuments(@NonNull String databaseName,
+            @NonNull List<DocumentProto> documents)
+            throws AppSearchException, InterruptedException {
+        checkInitialized();
+
+        String prefix = getDatabasePrefix(databaseName);
+        List<DocumentProto> rewrittenDocuments = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            DocumentProto.Builder documentBuilder = documents.get(i).toBuilder();
+            rewriteDocumentTypes(prefix, documentBuilder, /*add=*/ true);
+            rewrittenDocuments.add(documentBuilder.build());
+        }
+
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
+        try {
+            for (int i = 0; i < rewrittenDocuments.size(); i++) {
+                DocumentProto document = rewrittenDocuments.get(i);
+                PutResultProto putResultProto = mIcingSearchEngine.put(document);
+                addToMap(mNamespaceMap, databaseName, document.getNamespace());
+                try {
+                    checkSuccess(putResultProto.getStatus());
+                    resultBuilder.setSuccess(document.getUri(), /*result=*/ null);
+                } catch (AppSearchException e) {
+                    resultBuilder.setResult(document.getUri(), e.toAppSearchResult());
+                }
+            }
+        } finally {
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
+        }
+        checkForOptimize(rewrittenDocuments.size(), /* force= */false);
+        return resultBuilder.build();
+    }
+
     /**
      * Retrieves a document from the AppSearch index by URI.
      *
@@ -287,11 +363,14 @@ public final class AppSearchImpl {
             @NonNull String uri) throws AppSearchException, InterruptedException {
         checkInitialized();
         GetResultProto getResultProto;
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
         mReadWriteLock.readLock().lock();
+        databaseLock.readLock().lock();
         try {
             getResultProto = mIcingSearchEngine.get(
                     getDatabasePrefix(databaseName) + namespace, uri);
         } finally {
+            databaseLock.readLock().unlock();
             mReadWriteLock.readLock().unlock();
         }
         checkSuccess(getResultProto.getStatus());
@@ -326,7 +405,9 @@ public final class AppSearchImpl {
 
         SearchSpecProto.Builder searchSpecBuilder = searchSpec.toBuilder();
         SearchResultProto searchResultProto;
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
         mReadWriteLock.readLock().lock();
+        databaseLock.readLock().lock();
         try {
             // Only rewrite SearchSpec for non empty database.
             // rewriteSearchSpecForNonEmptyDatabase will return false for empty database, we
@@ -341,6 +422,7 @@ public final class AppSearchImpl {
             searchResultProto = mIcingSearchEngine.search(
                     searchSpecBuilder.build(), scoringSpec, resultSpec);
         } finally {
+            databaseLock.readLock().unlock();
             mReadWriteLock.readLock().unlock();
         }
         checkSuccess(searchResultProto.getStatus());
@@ -381,13 +463,16 @@ public final class AppSearchImpl {
 
         String qualifiedNamespace = getDatabasePrefix(databaseName) + namespace;
         DeleteResultProto deleteResultProto;
-        mReadWriteLock.writeLock().lock();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
         try {
             deleteResultProto = mIcingSearchEngine.delete(qualifiedNamespace, uri);
-            checkForOptimize(/* force= */false);
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
+        checkForOptimize(/* force= */false);
         checkSuccess(deleteResultProto.getStatus());
     }
 
@@ -407,17 +492,20 @@ public final class AppSearchImpl {
 
         String qualifiedType = getDatabasePrefix(databaseName) + schemaType;
         DeleteBySchemaTypeResultProto deleteBySchemaTypeResultProto;
-        mReadWriteLock.writeLock().lock();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
         try {
             Set<String> existingSchemaTypes = mSchemaMap.get(databaseName);
             if (existingSchemaTypes == null || !existingSchemaTypes.contains(qualifiedType)) {
                 return;
             }
             deleteBySchemaTypeResultProto = mIcingSearchEngine.deleteBySchemaType(qualifiedType);
-            checkForOptimize(/* force= */true);
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
+        checkForOptimize(/* force= */true);
         checkSuccess(deleteBySchemaTypeResultProto.getStatus());
     }
 
@@ -437,17 +525,20 @@ public final class AppSearchImpl {
 
         String qualifiedNamespace = getDatabasePrefix(databaseName) + namespace;
         DeleteByNamespaceResultProto deleteByNamespaceResultProto;
-        mReadWriteLock.writeLock().lock();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
         try {
             Set<String> existingNamespaces = mNamespaceMap.get(databaseName);
             if (existingNamespaces == null || !existingNamespaces.contains(qualifiedNamespace)) {
                 return;
             }
             deleteByNamespaceResultProto = mIcingSearchEngine.deleteByNamespace(qualifiedNamespace);
-            checkForOptimize(/* force= */true);
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
+        checkForOptimize(/* force= */true);
         checkSuccess(deleteByNamespaceResultProto.getStatus());
     }
 
@@ -466,7 +557,9 @@ public final class AppSearchImpl {
     public void removeAll(@NonNull String databaseName)
             throws AppSearchException, InterruptedException {
         checkInitialized();
-        mReadWriteLock.writeLock().lock();
+        ReentrantReadWriteLock databaseLock = getDatabaseLock(databaseName);
+        mReadWriteLock.readLock().lock();
+        databaseLock.writeLock().lock();
         try {
             Set<String> existingNamespaces = mNamespaceMap.get(databaseName);
             if (existingNamespaces == null) {
@@ -483,10 +576,11 @@ public final class AppSearchImpl {
                         StatusProto.Code.OK, StatusProto.Code.NOT_FOUND);
             }
             mNamespaceMap.remove(databaseName);
-            checkForOptimize(/* force= */true);
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
+        checkForOptimize(/* force= */true);
     }
 
     /**
@@ -504,7 +598,7 @@ public final class AppSearchImpl {
         mReadWriteLock.writeLock().lock();
         try {
             resetResultProto = mIcingSearchEngine.reset();
-            mOptimizeIntervalCount = 0;
+            mOptimizeIntervalCount.set(0);
             mSchemaMap.clear();
             mNamespaceMap.clear();
         } finally {
@@ -638,8 +732,8 @@ public final class AppSearchImpl {
      * <p>If user input empty filter lists, will look up {@link #mSchemaMap} and
      * {@link #mNamespaceMap} and put all values belong to current database to narrow down Icing
      * search area.
-     * <p>This method should be only called in query methods and get the READ lock to keep thread
-     * safety.
+     * <p>This method should be only called in query methods and get the READ lock of the database
+     * to keep thread safety.
      * @return false if the current database is brand new and contains nothing. We should just
      * return an empty query result to user.
      * @throws AppSearchException if there is no schema type or document has been saved in this
@@ -718,8 +812,11 @@ public final class AppSearchImpl {
         return input.substring(prefix.length());
     }
 
-    @GuardedBy("mReadWriteLock")
-    private void addToMap(HashMap<String, Set<String>> map, String databaseName,
+    /**
+     * Adds a value to the set of a database. The caller must hold the WRITE lock of the database,
+     * or the global WRITE lock.
+     */
+    private void addToMap(Map<String, Set<String>> map, String databaseName,
             String prefixedValue) {
         Set<String> values = map.get(databaseName);
         if (values == null) {
@@ -729,6 +826,20 @@ public final class AppSearchImpl {
         values.add(prefixedValue);
     }
 
+    /** Returns the lock of the given database, creating it if needed. */
+    @NonNull
+    private ReentrantReadWriteLock getDatabaseLock(@NonNull String databaseName) {
+        ReentrantReadWriteLock databaseLock = mDatabaseLocks.get(databaseName);
+        if (databaseLock == null) {
+            ReentrantReadWriteLock newLock = new ReentrantReadWriteLock();
+            databaseLock = mDatabaseLocks.putIfAbsent(databaseName, newLock);
+            if (databaseLock == null) {
+                databaseLock = newLock;
+            }
+        }
+        return databaseLock;
+    }
+
     /**
      * Ensure the instance is intialized.
      *
@@ -778,20 +889,36 @@ public final class AppSearchImpl {
     /**
      * Checks whether {@link IcingSearchEngine#optimize()} should be called to release resources.
      *
-     * <p>This method should be only called in mutate methods and get the WRITE lock to keep thread
-     * safety.
+     * @see #checkForOptimize(int, boolean)
+     */
+    private void checkForOptimize(boolean force) throws AppSearchException {
+        checkForOptimize(/* mutationCount= */1, force);
+    }
+
+    /**
+     * Checks whether {@link IcingSearchEngine#optimize()} should be called to release resources.
+     *
+     * <p>This method should be only called by mutate methods, after releasing the READ locks,
+     * since it gets the global WRITE lock to keep thread safety.
      * <p>{@link IcingSearchEngine#optimize()} should be called only if
      * {@link GetOptimizeInfoResultProto} shows there is enough resources could be released.
      * <p>{@link IcingSearchEngine#getOptimizeInfo()} should be called once per
      * {@link #CHECK_OPTIMIZE_INTERVAL} of remove executions.
      *
+     * @param mutationCount the number of mutations which were executed.
      * @param force whether we should directly call {@link IcingSearchEngine#getOptimizeInfo()}.
      */
-    @GuardedBy("mReadWriteLock")
-    private void checkForOptimize(boolean force) throws AppSearchException {
-        ++mOptimizeIntervalCount;
-        if (force || mOptimizeIntervalCount >= CHECK_OPTIMIZE_INTERVAL) {
-            mOptimizeIntervalCount = 0;
+    private void checkForOptimize(int mutationCount, boolean force) throws AppSearchException {
+        if (mOptimizeIntervalCount.addAndGet(mutationCount) < CHECK_OPTIMIZE_INTERVAL && !force) {
+            return;
+        }
+        mReadWriteLock.writeLock().lock();
+        try {
+            if (mOptimizeIntervalCount.get() < CHECK_OPTIMIZE_INTERVAL && !force) {
+                // Another mutation checked while we were waiting for the lock.
+                return;
+            }
+            mOptimizeIntervalCount.set(0);
             GetOptimizeInfoResultProto optimizeInfo = getOptimizeInfoResult();
             checkSuccess(optimizeInfo.getStatus());
             // Second threshold, decide when to call optimize().
@@ -806,6 +933,8 @@ public final class AppSearchImpl {
             // TODO(b/147699081): Return OptimizeResultProto & log lost data detail once we add
             //  a field to indicate lost_schema and lost_documents in OptimizeResultProto.
             //  go/icing-library-apis.
+        } finally {
+            mReadWriteLock.writeLock().unlock();
         }
     }
 
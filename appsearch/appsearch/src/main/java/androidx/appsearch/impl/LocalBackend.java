@@ -30,6 +30,7 @@ import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
 import androidx.appsearch.app.GenericDocumentToProtoConverter;
+import androidx.appsearch.app.LatencyStats;
 import androidx.appsearch.app.SchemaToProtoConverter;
 import androidx.appsearch.app.SearchResults;
 import androidx.appsearch.app.SearchSpec;
@@ -44,7 +45,10 @@ import com.google.android.icing.proto.SearchResultProto;
 import com.google.android.icing.proto.SearchSpecProto;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An implementation of {@link androidx.appsearch.app.AppSearchBackend} which stores data locally
@@ -55,6 +59,8 @@ import java.util.List;
 public class LocalBackend implements AppSearchBackend {
     private final Context mContext;
     private final AppSearchImpl mAppSearchImpl;
+    private final ConcurrentHashMap<String, LatencyStats.Recorder> mLatencyRecorders =
+            new ConcurrentHashMap<>();
 
     /** Builder class for {@link LocalBackend} objects. */
     public static final class Builder {
@@ -128,18 +134,36 @@ public class LocalBackend implements AppSearchBackend {
             @NonNull String databaseName, @NonNull AppSearchManager.PutDocumentsRequest request) {
         Preconditions.checkNotNull(databaseName);
         Preconditions.checkNotNull(request);
+        long startNanos = System.nanoTime();
         AppSearchBatchResult.Builder<String, Void> resultBuilder =
                 new AppSearchBatchResult.Builder<>();
+        List<DocumentProto> documentProtos = new ArrayList<>(request.getDocuments().size());
         for (int i = 0; i < request.getDocuments().size(); i++) {
             GenericDocument document = request.getDocuments().get(i);
             try {
-                DocumentProto documentProto = GenericDocumentToProtoConverter.convert(document);
-                mAppSearchImpl.putDocument(databaseName, documentProto);
-                resultBuilder.setSuccess(document.getUri(), /*result=*/ null);
+                documentProtos.add(GenericDocumentToProtoConverter.convert(document));
             } catch (Throwable t) {
                 resultBuilder.setResult(document.getUri(), throwableToFailedResult(t));
             }
         }
+        try {
+            AppSearchBatchResult<String, Void> putResult =
+                    mAppSearchImpl.putDocuments(databaseName, documentProtos);
+            for (String uri : putResult.getSuccesses().keySet()) {
+                resultBuilder.setSuccess(uri, /*result=*/ null);
+            }
+            for (Map.Entry<String, AppSearchResult<Void>> entry
+                    : putResult.getFailures().entrySet()) {
+                resultBuilder.setResult(entry.getKey(), entry.getValue());
+            }
+        } catch (Throwable t) {
+            AppSearchResult<Void> failedResult = throwableToFailedResult(t);
+            for (int i = 0; i < documentProtos.size(); i++) {
+                resultBuilder.setResult(documentProtos.get(i).getUri(), failedResult);
+            }
+        }
+        getLatencyRecorder(databaseName).recordPut(
+                request.getDocuments().size(), System.nanoTime() - startNanos);
         return resultBuilder.build();
     }
 
@@ -181,6 +205,7 @@ public class LocalBackend implements AppSearchBackend {
         Preconditions.checkNotNull(databaseName);
         Preconditions.checkNotNull(queryExpression);
         Preconditions.checkNotNull(searchSpec);
+        long startNanos = System.nanoTime();
         try {
             SearchSpecProto searchSpecProto =
                     SearchSpecToProtoConverter.toSearchSpecProto(searchSpec);
@@ -193,6 +218,8 @@ public class LocalBackend implements AppSearchBackend {
             return AppSearchResult.newSuccessfulResult(new SearchResults(searchResultProto));
         } catch (Throwable t) {
             return throwableToFailedResult(t);
+        } finally {
+            getLatencyRecorder(databaseName).recordQuery(System.nanoTime() - startNanos);
         }
     }
 
@@ -268,6 +295,13 @@ public class LocalBackend implements AppSearchBackend {
         }
     }
 
+    @Override
+    @NonNull
+    public LatencyStats getLatencyStats(@NonNull String databaseName) {
+        Preconditions.checkNotNull(databaseName);
+        return getLatencyRecorder(databaseName).getStats();
+    }
+
     @VisibleForTesting
     @Override
     @NonNull
@@ -280,6 +314,19 @@ public class LocalBackend implements AppSearchBackend {
         }
     }
 
+    @NonNull
+    private LatencyStats.Recorder getLatencyRecorder(@NonNull String databaseName) {
+        LatencyStats.Recorder recorder = mLatencyRecorders.get(databaseName);
+        if (recorder == null) {
+            LatencyStats.Recorder newRecorder = new LatencyStats.Recorder();
+            recorder = mLatencyRecorders.putIfAbsent(databaseName, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
     @NonNull
     private <ValueType> AppSearchResult<ValueType> throwableToFailedResult(
             @NonNull Throwable t) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.benchmark
+
+import android.annotation.SuppressLint
+import android.graphics.ImageFormat
+import android.graphics.Rect
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.camera.core.ImageProxy
+import androidx.camera.core.internal.utils.ByteArrayPool
+import androidx.camera.core.internal.utils.ImageUtil
+import androidx.camera.testing.fakes.FakeImageInfo
+import androidx.camera.testing.fakes.FakeImageProxy
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.nio.ByteBuffer
+import java.util.Random
+
+/**
+ * Measures the JPEG conversion of synthetic YUV_420_888 frames, with the chroma planes laid out
+ * either interleaved (pixel stride 2) or planar (pixel stride 1).
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SuppressLint("RestrictedApi")
+class ImageUtilBenchmark(
+    private val interleaved: Boolean,
+    private val cropped: Boolean
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun yuvToJpeg() {
+        val image = createYuvImage(WIDTH, HEIGHT, interleaved)
+        if (cropped) {
+            image.cropRect = Rect(WIDTH / 4, HEIGHT / 4, WIDTH * 3 / 4, HEIGHT * 3 / 4)
+        } else {
+            image.cropRect = Rect(0, 0, WIDTH, HEIGHT)
+        }
+        // ImageCapture keeps the NV21 buffers in a pool across captures
+        val nv21Pool = ByteArrayPool(2)
+        benchmarkRule.measureRepeated {
+            ImageUtil.imageToJpegByteArray(image, nv21Pool)
+        }
+    }
+
+    companion object {
+        private const val WIDTH = 1920
+        private const val HEIGHT = 1080
+        // Row strides of camera buffers are usually padded.
+        private const val ROW_STRIDE = 2048
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "interleaved={0}, cropped={1}")
+        fun data() = listOf(true, false).flatMap { interleaved ->
+            listOf(true, false).map { cropped -> arrayOf(interleaved, cropped) }
+        }
+
+        private fun createYuvImage(width: Int, height: Int, interleaved: Boolean): FakeImageProxy {
+            val random = Random(0)
+            val y = ByteArray(ROW_STRIDE * height).also { random.nextBytes(it) }
+            val chromaHeight = height / 2
+            val uPlane: ImageProxy.PlaneProxy
+            val vPlane: ImageProxy.PlaneProxy
+            if (interleaved) {
+                val vu = ByteArray(ROW_STRIDE * chromaHeight).also { random.nextBytes(it) }
+                val size = ROW_STRIDE * (chromaHeight - 1) + width - 1
+                vPlane = createPlane(ByteBuffer.wrap(vu, 0, size).slice(), 2)
+                uPlane = createPlane(ByteBuffer.wrap(vu, 1, size).slice(), 2)
+            } else {
+                val u = ByteArray(ROW_STRIDE * chromaHeight).also { random.nextBytes(it) }
+                val v = ByteArray(ROW_STRIDE * chromaHeight).also { random.nextBytes(it) }
+                uPlane = createPlane(ByteBuffer.wrap(u), 1)
+                vPlane = createPlane(ByteBuffer.wrap(v), 1)
+            }
+            return FakeImageProxy(FakeImageInfo()).apply {
+                format = ImageFormat.YUV_420_888
+                this.width = width
+                this.height = height
+                setPlanes(arrayOf(createPlane(ByteBuffer.wrap(y), 1), uPlane, vPlane))
+            }
+        }
+
+        private fun createPlane(buffer: ByteBuffer, pixelStride: Int): ImageProxy.PlaneProxy =
+            object : ImageProxy.PlaneProxy {
+                override fun getRowStride() = ROW_STRIDE
+
+                override fun getPixelStride() = pixelStride
+
+                override fun getBuffer() = buffer
+            }
+    }
+}
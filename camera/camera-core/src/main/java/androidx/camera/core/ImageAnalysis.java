@@ -17,8 +17,10 @@
 package androidx.camera.core;
 
 import static androidx.camera.core.impl.ImageAnalysisConfig.OPTION_BACKPRESSURE_STRATEGY;
+import static androidx.camera.core.impl.ImageAnalysisConfig.OPTION_DROP_POLICY;
 import static androidx.camera.core.impl.ImageAnalysisConfig.OPTION_IMAGE_QUEUE_DEPTH;
 import static androidx.camera.core.impl.ImageAnalysisConfig.OPTION_IMAGE_READER_PROXY_PROVIDER;
+import static androidx.camera.core.impl.ImageAnalysisConfig.OPTION_MAX_CONCURRENT_ANALYSES;
 import static androidx.camera.core.impl.ImageOutputConfig.OPTION_MAX_RESOLUTION;
 import static androidx.camera.core.impl.ImageOutputConfig.OPTION_SUPPORTED_RESOLUTIONS;
 import static androidx.camera.core.impl.ImageOutputConfig.OPTION_TARGET_ASPECT_RATIO;
@@ -125,6 +127,39 @@ public final class ImageAnalysis extends UseCase {
      * @see Builder#setImageQueueDepth(int)
      */
     public static final int STRATEGY_BLOCK_PRODUCER = 1;
+    /**
+     * Analyze several images concurrently, keeping images that arrive while all analyses are busy
+     * in a bounded ring buffer.
+     *
+     * <p>Up to {@link Builder#setMaxConcurrentAnalyses(int)} images are delivered to the
+     * analyzer at the same time, so the {@link Executor} passed to
+     * {@link #setAnalyzer(Executor, Analyzer)} should be able to run that many tasks in parallel.
+     * Images produced while all of them are being analyzed wait in a ring buffer and are
+     * delivered in order once an analyzed image is closed. When the ring buffer is full, an image
+     * is dropped according to {@link Builder#setDropPolicy(int)}.
+     *
+     * <p>The images being analyzed and the images waiting in the ring buffer share the image
+     * queue depth set by {@link Builder#setImageQueueDepth(int)}, with one image kept free so the
+     * producer is never blocked. The ring buffer therefore holds the image queue depth minus the
+     * maximum number of concurrent analyses minus one images, and the image queue depth must be
+     * at least the maximum number of concurrent analyses plus two.
+     *
+     * @see Builder#setMaxConcurrentAnalyses(int)
+     * @see Builder#setDropPolicy(int)
+     * @see #getDroppedImageCount()
+     * @see #getAverageAnalysisLatencyNanos()
+     */
+    public static final int STRATEGY_RING_BUFFER = 2;
+
+    /**
+     * When the ring buffer of {@link #STRATEGY_RING_BUFFER} is full, drop the oldest waiting
+     * image to make room for the incoming one.
+     */
+    public static final int DROP_OLDEST = 0;
+    /**
+     * When the ring buffer of {@link #STRATEGY_RING_BUFFER} is full, drop the incoming image.
+     */
+    public static final int DROP_NEWEST = 1;
 
     /**
      * Provides a static configuration with implementation-agnostic options.
@@ -159,6 +194,13 @@ public final class ImageAnalysis extends UseCase {
 
         if (combinedConfig.getBackpressureStrategy() == STRATEGY_BLOCK_PRODUCER) {
             mImageAnalysisAbstractAnalyzer = new ImageAnalysisBlockingAnalyzer();
+        } else if (combinedConfig.getBackpressureStrategy() == STRATEGY_RING_BUFFER) {
+            mImageAnalysisAbstractAnalyzer = new ImageAnalysisRingBufferAnalyzer(
+                    config.getBackgroundExecutor(CameraXExecutors.highPriorityExecutor()),
+                    combinedConfig.getImageQueueDepth(Defaults.DEFAULT_IMAGE_QUEUE_DEPTH),
+                    combinedConfig.getMaxConcurrentAnalyses(
+                            Defaults.DEFAULT_MAX_CONCURRENT_ANALYSES),
+                    combinedConfig.getDropPolicy(Defaults.DEFAULT_DROP_POLICY));
         } else {
             mImageAnalysisAbstractAnalyzer = new ImageAnalysisNonBlockingAnalyzer(
                     config.getBackgroundExecutor(CameraXExecutors.highPriorityExecutor()));
@@ -174,8 +216,8 @@ public final class ImageAnalysis extends UseCase {
                 CameraXExecutors.highPriorityExecutor()));
 
         int imageQueueDepth =
-                config.getBackpressureStrategy() == STRATEGY_BLOCK_PRODUCER
-                        ? config.getImageQueueDepth() : NON_BLOCKING_IMAGE_DEPTH;
+                config.getBackpressureStrategy() == STRATEGY_KEEP_ONLY_LATEST
+                        ? NON_BLOCKING_IMAGE_DEPTH : config.getImageQueueDepth();
         SafeCloseImageReaderProxy imageReaderProxy;
         if (config.getImageReaderProxyProvider() != null) {
             imageReaderProxy = new SafeCloseImageReaderProxy(
@@ -391,6 +433,55 @@ public final class ImageAnalysis extends UseCase {
         return ((ImageAnalysisConfig) getUseCaseConfig()).getImageQueueDepth();
     }
 
+    /**
+     * Returns the maximum number of images analyzed at the same time, for the
+     * {@link #STRATEGY_RING_BUFFER} backpressure mode.
+     *
+     * <p>If not set with {@link ImageAnalysis.Builder#setMaxConcurrentAnalyses(int)}, it defaults
+     * to 1.
+     *
+     * @see ImageAnalysis.Builder#setMaxConcurrentAnalyses(int)
+     */
+    public int getMaxConcurrentAnalyses() {
+        return ((ImageAnalysisConfig) getUseCaseConfig()).getMaxConcurrentAnalyses();
+    }
+
+    /**
+     * Returns which image is dropped when the ring buffer is full, for the
+     * {@link #STRATEGY_RING_BUFFER} backpressure mode.
+     *
+     * <p>If not set with {@link ImageAnalysis.Builder#setDropPolicy(int)}, it defaults to
+     * {@link #DROP_OLDEST}.
+     *
+     * @see ImageAnalysis.Builder#setDropPolicy(int)
+     */
+    @DropPolicy
+    public int getDropPolicy() {
+        return ((ImageAnalysisConfig) getUseCaseConfig()).getDropPolicy();
+    }
+
+    /**
+     * Returns the number of images dropped without being analyzed, for the
+     * {@link #STRATEGY_RING_BUFFER} backpressure mode.
+     *
+     * <p>This includes images dropped from a full ring buffer and images that could not be
+     * delivered because no analyzer was set. Other backpressure strategies always return 0.
+     */
+    public long getDroppedImageCount() {
+        return mImageAnalysisAbstractAnalyzer.getDroppedImageCount();
+    }
+
+    /**
+     * Returns the average time in nanoseconds from an image being acquired from the producer to
+     * the analyzer closing it, for the {@link #STRATEGY_RING_BUFFER} backpressure mode.
+     *
+     * <p>The latency includes the time an image waited in the ring buffer. It is 0 until an
+     * image has been analyzed, and other backpressure strategies always return 0.
+     */
+    public long getAverageAnalysisLatencyNanos() {
+        return mImageAnalysisAbstractAnalyzer.getAverageAnalysisLatencyNanos();
+    }
+
     @Override
     @NonNull
     public String toString() {
@@ -491,12 +582,24 @@ public final class ImageAnalysis extends UseCase {
      * @hide
      * @see Builder#setBackpressureStrategy(int)
      */
-    @IntDef({STRATEGY_KEEP_ONLY_LATEST, STRATEGY_BLOCK_PRODUCER})
+    @IntDef({STRATEGY_KEEP_ONLY_LATEST, STRATEGY_BLOCK_PRODUCER, STRATEGY_RING_BUFFER})
     @Retention(RetentionPolicy.SOURCE)
     @RestrictTo(Scope.LIBRARY_GROUP)
     public @interface BackpressureStrategy {
     }
 
+    /**
+     * Which image to drop when the ring buffer of {@link #STRATEGY_RING_BUFFER} is full.
+     *
+     * @hide
+     * @see Builder#setDropPolicy(int)
+     */
+    @IntDef({DROP_OLDEST, DROP_NEWEST})
+    @Retention(RetentionPolicy.SOURCE)
+    @RestrictTo(Scope.LIBRARY_GROUP)
+    public @interface DropPolicy {
+    }
+
     /**
      * Interface for analyzing images.
      *
@@ -556,6 +659,9 @@ public final class ImageAnalysis extends UseCase {
         @BackpressureStrategy
         private static final int DEFAULT_BACKPRESSURE_STRATEGY = STRATEGY_KEEP_ONLY_LATEST;
         private static final int DEFAULT_IMAGE_QUEUE_DEPTH = 6;
+        private static final int DEFAULT_MAX_CONCURRENT_ANALYSES = 1;
+        @DropPolicy
+        private static final int DEFAULT_DROP_POLICY = DROP_OLDEST;
         private static final Size DEFAULT_TARGET_RESOLUTION = new Size(640, 480);
         private static final Size DEFAULT_MAX_RESOLUTION = new Size(1920, 1080);
         private static final int DEFAULT_SURFACE_OCCUPANCY_PRIORITY = 1;
@@ -566,6 +672,8 @@ public final class ImageAnalysis extends UseCase {
             Builder builder = new Builder()
                     .setBackpressureStrategy(DEFAULT_BACKPRESSURE_STRATEGY)
                     .setImageQueueDepth(DEFAULT_IMAGE_QUEUE_DEPTH)
+                    .setMaxConcurrentAnalyses(DEFAULT_MAX_CONCURRENT_ANALYSES)
+                    .setDropPolicy(DEFAULT_DROP_POLICY)
                     .setDefaultResolution(DEFAULT_TARGET_RESOLUTION)
                     .setMaxResolution(DEFAULT_MAX_RESOLUTION)
                     .setSurfaceOccupancyPriority(DEFAULT_SURFACE_OCCUPANCY_PRIORITY);
@@ -626,8 +734,8 @@ public final class ImageAnalysis extends UseCase {
          * Sets the backpressure strategy to apply to the image producer to deal with scenarios
          * where images may be produced faster than they can be analyzed.
          *
-         * <p>The available values are {@link #STRATEGY_BLOCK_PRODUCER} and
-         * {@link #STRATEGY_KEEP_ONLY_LATEST}.
+         * <p>The available values are {@link #STRATEGY_BLOCK_PRODUCER},
+         * {@link #STRATEGY_KEEP_ONLY_LATEST} and {@link #STRATEGY_RING_BUFFER}.
          *
          * <p>If not set, the backpressure strategy will default to
          * {@link #STRATEGY_KEEP_ONLY_LATEST}.
@@ -643,7 +751,7 @@ public final class ImageAnalysis extends UseCase {
 
         /**
          * Sets the number of images available to the camera pipeline for
-         * {@link #STRATEGY_BLOCK_PRODUCER} mode.
+         * {@link #STRATEGY_BLOCK_PRODUCER} and {@link #STRATEGY_RING_BUFFER} modes.
          *
          * <p>The image queue depth is the number of images available to the camera to fill with
          * data. This includes the image currently being analyzed by {@link
@@ -657,8 +765,13 @@ public final class ImageAnalysis extends UseCase {
          * a single frame period for the current frame rate, <i>on average</i>, to avoid stalling
          * the camera pipeline.
          *
-         * <p>The value only applies to {@link #STRATEGY_BLOCK_PRODUCER} mode.
-         * For {@link #STRATEGY_KEEP_ONLY_LATEST} the value is ignored.
+         * <p>When the backpressure strategy is set to {@link #STRATEGY_RING_BUFFER}, the
+         * image queue depth bounds the images being analyzed together with the images waiting in
+         * the ring buffer.
+         *
+         * <p>The value only applies to {@link #STRATEGY_BLOCK_PRODUCER} and
+         * {@link #STRATEGY_RING_BUFFER} modes. For {@link #STRATEGY_KEEP_ONLY_LATEST} the value
+         * is ignored.
          *
          * <p>If not set, and this option is used by the selected backpressure strategy,
          * the default will be a queue depth of 6 images.
@@ -672,6 +785,42 @@ public final class ImageAnalysis extends UseCase {
             return this;
         }
 
+        /**
+         * Sets the maximum number of images analyzed at the same time for
+         * {@link #STRATEGY_RING_BUFFER} mode.
+         *
+         * <p>The {@link Executor} passed to {@link ImageAnalysis#setAnalyzer(Executor, Analyzer)}
+         * should be able to run this many tasks in parallel. The image queue depth must be at
+         * least this value plus two.
+         *
+         * <p>The value only applies to {@link #STRATEGY_RING_BUFFER} mode. If not set, only one
+         * image is analyzed at a time.
+         *
+         * @param maxConcurrentAnalyses The maximum number of images analyzed at the same time.
+         * @return The current Builder.
+         */
+        @NonNull
+        public Builder setMaxConcurrentAnalyses(int maxConcurrentAnalyses) {
+            getMutableConfig().insertOption(OPTION_MAX_CONCURRENT_ANALYSES, maxConcurrentAnalyses);
+            return this;
+        }
+
+        /**
+         * Sets which image is dropped when the ring buffer is full for
+         * {@link #STRATEGY_RING_BUFFER} mode.
+         *
+         * <p>The available values are {@link #DROP_OLDEST} and {@link #DROP_NEWEST}. If not set,
+         * the drop policy will default to {@link #DROP_OLDEST}.
+         *
+         * @param dropPolicy The drop policy to use.
+         * @return The current Builder.
+         */
+        @NonNull
+        public Builder setDropPolicy(@DropPolicy int dropPolicy) {
+            getMutableConfig().insertOption(OPTION_DROP_POLICY, dropPolicy);
+            return this;
+        }
+
         /**
          * {@inheritDoc}
          *
@@ -701,7 +850,9 @@ public final class ImageAnalysis extends UseCase {
          *
          * @return A {@link ImageAnalysis} populated with the current state.
          * @throws IllegalArgumentException if attempting to set both target aspect ratio and
-         *                                  target resolution.
+         *                                  target resolution, or if the image queue depth is too
+         *                                  small for the maximum number of concurrent analyses
+         *                                  in {@link #STRATEGY_RING_BUFFER} mode.
          */
         @Override
         @NonNull
@@ -131,4 +131,19 @@ abstract class ImageAnalysisAbstractAnalyzer implements ImageReaderProxy.OnImage
         return mIsClosed.get();
     }
 
+    /**
+     * Returns the number of images dropped without being analyzed, if tracked by the strategy.
+     */
+    long getDroppedImageCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the average time from acquiring an image to the analyzer closing it, if tracked by
+     * the strategy.
+     */
+    long getAverageAnalysisLatencyNanos() {
+        return 0;
+    }
+
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import android.os.SystemClock;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis.DropPolicy;
+import androidx.camera.core.impl.ImageReaderProxy;
+import androidx.camera.core.impl.utils.executor.CameraXExecutors;
+import androidx.camera.core.impl.utils.futures.FutureCallback;
+import androidx.camera.core.impl.utils.futures.Futures;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OnImageAvailableListener which keeps several images in flight. Up to a fixed number of images
+ * are analyzed concurrently, and images arriving while all of them are busy wait in a bounded
+ * ring. When the ring is full, either the oldest waiting image or the incoming image is dropped.
+ *
+ * <p>The ring holds {@code imageQueueDepth - maxConcurrentAnalyses - 1} images, so that the images
+ * being analyzed, the waiting images and the image being acquired never exceed the maximum number
+ * of images of the {@link ImageReaderProxy}.
+ *
+ * <p> Used with {@link ImageAnalysis}.
+ */
+final class ImageAnalysisRingBufferAnalyzer extends ImageAnalysisAbstractAnalyzer {
+
+    // The executor for draining the ring once an analyzed image is closed.
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final Executor mBackgroundExecutor;
+
+    private final int mMaxConcurrentAnalyses;
+
+    @DropPolicy
+    private final int mDropPolicy;
+
+    // Waiting images and the time they were acquired, in acquisition order starting at mHead.
+    // Images removed from the ring must be closed or posted for analysis.
+    @GuardedBy("this")
+    private final ImageProxy[] mImages;
+    @GuardedBy("this")
+    private final long[] mAcquireTimesNanos;
+    @GuardedBy("this")
+    private int mHead;
+    @GuardedBy("this")
+    private int mSize;
+
+    // Number of images posted for analysis which haven't been closed yet.
+    @GuardedBy("this")
+    private int mInFlight;
+
+    private final AtomicLong mDroppedImageCount = new AtomicLong();
+    private final AtomicLong mAnalyzedImageCount = new AtomicLong();
+    private final AtomicLong mTotalLatencyNanos = new AtomicLong();
+
+    ImageAnalysisRingBufferAnalyzer(@NonNull Executor executor, int imageQueueDepth,
+            int maxConcurrentAnalyses, @DropPolicy int dropPolicy) {
+        if (maxConcurrentAnalyses < 1 || imageQueueDepth < maxConcurrentAnalyses + 2) {
+            throw new IllegalArgumentException("Image queue depth " + imageQueueDepth
+                    + " is too small for " + maxConcurrentAnalyses + " concurrent analyses.");
+        }
+        mBackgroundExecutor = executor;
+        mMaxConcurrentAnalyses = maxConcurrentAnalyses;
+        mDropPolicy = dropPolicy;
+        int capacity = imageQueueDepth - maxConcurrentAnalyses - 1;
+        mImages = new ImageProxy[capacity];
+        mAcquireTimesNanos = new long[capacity];
+        open();
+    }
+
+    @Override
+    public void onImageAvailable(@NonNull ImageReaderProxy imageReaderProxy) {
+        ImageProxy imageProxy = imageReaderProxy.acquireNextImage();
+        if (imageProxy == null) {
+            return;
+        }
+        enqueue(imageProxy, SystemClock.elapsedRealtimeNanos());
+    }
+
+    @Override
+    synchronized void open() {
+        super.open();
+        clearRing();
+    }
+
+    @Override
+    synchronized void close() {
+        super.close();
+        clearRing();
+    }
+
+    @Override
+    long getDroppedImageCount() {
+        return mDroppedImageCount.get();
+    }
+
+    @Override
+    long getAverageAnalysisLatencyNanos() {
+        long count = mAnalyzedImageCount.get();
+        return count == 0 ? 0 : mTotalLatencyNanos.get() / count;
+    }
+
+    /**
+     * Returns the number of images waiting in the ring.
+     */
+    synchronized int getWaitingImageCount() {
+        return mSize;
+    }
+
+    /**
+     * Posts the image for analysis if fewer than the maximum number of images are being analyzed,
+     * otherwise adds it to the ring, dropping an image if the ring is full.
+     */
+    private synchronized void enqueue(@NonNull ImageProxy imageProxy, long acquireTimeNanos) {
+        if (isClosed()) {
+            imageProxy.close();
+            return;
+        }
+
+        // The ring is always drained before an analysis slot is left unused, so it is empty here.
+        if (mInFlight < mMaxConcurrentAnalyses) {
+            post(imageProxy, acquireTimeNanos);
+            return;
+        }
+
+        if (mSize == mImages.length) {
+            mDroppedImageCount.incrementAndGet();
+            if (mDropPolicy == ImageAnalysis.DROP_NEWEST) {
+                imageProxy.close();
+                return;
+            }
+            removeOldest().close();
+        }
+        int tail = (mHead + mSize) % mImages.length;
+        mImages[tail] = imageProxy;
+        mAcquireTimesNanos[tail] = acquireTimeNanos;
+        mSize++;
+    }
+
+    /**
+     * Posts waiting images for analysis until either the ring is empty or the maximum number of
+     * images are being analyzed.
+     */
+    synchronized void drain() {
+        while (mSize > 0 && mInFlight < mMaxConcurrentAnalyses) {
+            long acquireTimeNanos = mAcquireTimesNanos[mHead];
+            ImageProxy imageProxy = removeOldest();
+            if (isClosed()) {
+                imageProxy.close();
+            } else {
+                post(imageProxy, acquireTimeNanos);
+            }
+        }
+    }
+
+    /**
+     * Called once an image posted for analysis is closed.
+     */
+    void onImageClosed(long acquireTimeNanos, boolean analyzed) {
+        if (analyzed) {
+            mTotalLatencyNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - acquireTimeNanos);
+            mAnalyzedImageCount.incrementAndGet();
+        }
+        synchronized (this) {
+            mInFlight--;
+        }
+        mBackgroundExecutor.execute(this::drain);
+    }
+
+    @GuardedBy("this")
+    private void post(@NonNull ImageProxy imageProxy, long acquireTimeNanos) {
+        mInFlight++;
+        final RingAnalyzingImageProxy postedImage = new RingAnalyzingImageProxy(imageProxy,
+                acquireTimeNanos, this);
+
+        ListenableFuture<Void> analyzeFuture = analyzeImage(postedImage);
+
+        // Callback to close the image only after analysis complete regardless of success
+        Futures.addCallback(analyzeFuture, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                // No-op. The analysis slot is released when the user closes the image.
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // The image never reached the user, so it counts as dropped.
+                mDroppedImageCount.incrementAndGet();
+                postedImage.closeUnanalyzed();
+            }
+        }, CameraXExecutors.directExecutor());
+    }
+
+    @GuardedBy("this")
+    @NonNull
+    private ImageProxy removeOldest() {
+        ImageProxy imageProxy = mImages[mHead];
+        mImages[mHead] = null;
+        mHead = (mHead + 1) % mImages.length;
+        mSize--;
+        return imageProxy;
+    }
+
+    @GuardedBy("this")
+    private void clearRing() {
+        while (mSize > 0) {
+            removeOldest().close();
+        }
+        mHead = 0;
+    }
+
+    /**
+     * An {@link ImageProxy} which releases its analysis slot and records the analysis latency
+     * once it is closed.
+     */
+    static class RingAnalyzingImageProxy extends ForwardingImageProxy {
+
+        // So that if the user holds onto the ImageProxy instance the analyzer can still be GC'ed
+        private final WeakReference<ImageAnalysisRingBufferAnalyzer> mAnalyzerWeakReference;
+
+        private final AtomicBoolean mClosed = new AtomicBoolean(false);
+        private volatile boolean mAnalyzed = true;
+
+        RingAnalyzingImageProxy(ImageProxy image, long acquireTimeNanos,
+                ImageAnalysisRingBufferAnalyzer analyzer) {
+            super(image);
+            mAnalyzerWeakReference = new WeakReference<>(analyzer);
+
+            addOnImageCloseListener((imageProxy) -> {
+                if (mClosed.getAndSet(true)) {
+                    return;
+                }
+                ImageAnalysisRingBufferAnalyzer ringAnalyzer = mAnalyzerWeakReference.get();
+                if (ringAnalyzer != null) {
+                    ringAnalyzer.onImageClosed(acquireTimeNanos, mAnalyzed);
+                }
+            });
+        }
+
+        void closeUnanalyzed() {
+            mAnalyzed = false;
+            close();
+        }
+
+        boolean isClosed() {
+            return mClosed.get();
+        }
+    }
+}
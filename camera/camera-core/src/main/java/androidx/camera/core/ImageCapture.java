@@ -102,6 +102,7 @@ import androidx.camera.core.impl.utils.futures.FutureChain;
 import androidx.camera.core.impl.utils.futures.Futures;
 import androidx.camera.core.internal.IoConfig;
 import androidx.camera.core.internal.TargetConfig;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.camera.core.internal.utils.ImageUtil;
 import androidx.concurrent.futures.CallbackToFutureAdapter;
 import androidx.core.util.Preconditions;
@@ -234,6 +235,9 @@ public final class ImageCapture extends UseCase {
     @NonNull
     @SuppressWarnings("WeakerAccess") /* synthetic accessor */
     final Executor mIoExecutor;
+    // Frame-sized NV21 buffers reused to save YUV captures, dropped when the camera is detached.
+    @SuppressWarnings("WeakerAccess") /* synthetic accessor */
+    final ByteArrayPool mNv21Pool = new ByteArrayPool(2);
     private final CaptureCallbackChecker mSessionCallbackChecker = new CaptureCallbackChecker();
     @CaptureMode
     private final int mCaptureMode;
@@ -699,7 +703,8 @@ public final class ImageCapture extends UseCase {
                                         outputFileOptions,
                                         image.getImageInfo().getRotationDegrees(),
                                         executor,
-                                        imageSavedCallbackWrapper));
+                                        imageSavedCallbackWrapper,
+                                        mNv21Pool));
                     }
 
                     @Override
@@ -723,6 +728,7 @@ public final class ImageCapture extends UseCase {
     @Override
     public void onStateDetached() {
         abortImageCaptureRequests();
+        mNv21Pool.clear();
     }
 
     private void abortImageCaptureRequests() {
@@ -26,6 +26,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.camera.core.impl.utils.Exif;
+import androidx.camera.core.internal.utils.ByteArrayPool;
 import androidx.camera.core.internal.utils.ImageUtil;
 import androidx.camera.core.internal.utils.ImageUtil.CodecFailedException;
 
@@ -60,6 +61,9 @@ final class ImageSaver implements Runnable {
     private final Executor mExecutor;
     // The callback to call on completion
     final OnImageSavedCallback mCallback;
+    // The pool of the intermediate buffers used to encode YUV images, if any
+    @Nullable
+    private final ByteArrayPool mNv21Pool;
 
     ImageSaver(
             ImageProxy image,
@@ -67,11 +71,22 @@ final class ImageSaver implements Runnable {
             int orientation,
             Executor executor,
             OnImageSavedCallback callback) {
+        this(image, outputFileOptions, orientation, executor, callback, null);
+    }
+
+    ImageSaver(
+            ImageProxy image,
+            @NonNull ImageCapture.OutputFileOptions outputFileOptions,
+            int orientation,
+            Executor executor,
+            OnImageSavedCallback callback,
+            @Nullable ByteArrayPool nv21Pool) {
         mImage = image;
         mOutputFileOptions = outputFileOptions;
         mOrientation = orientation;
         mCallback = callback;
         mExecutor = executor;
+        mNv21Pool = nv21Pool;
     }
 
     @Override
@@ -95,7 +110,7 @@ final class ImageSaver implements Runnable {
 
         try (ImageProxy imageToClose = mImage;
              FileOutputStream output = new FileOutputStream(file)) {
-            byte[] bytes = ImageUtil.imageToJpegByteArray(mImage);
+            byte[] bytes = ImageUtil.imageToJpegByteArray(mImage, mNv21Pool);
             output.write(bytes);
 
             Exif exif = Exif.createFromFile(file);
@@ -25,6 +25,7 @@ import androidx.annotation.RestrictTo;
 import androidx.annotation.RestrictTo.Scope;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageAnalysis.BackpressureStrategy;
+import androidx.camera.core.ImageAnalysis.DropPolicy;
 import androidx.camera.core.ImageReaderProxyProvider;
 import androidx.camera.core.internal.ThreadConfig;
 
@@ -44,6 +45,10 @@ public final class ImageAnalysisConfig
                     BackpressureStrategy.class);
     public static final Option<Integer> OPTION_IMAGE_QUEUE_DEPTH =
             Option.create("camerax.core.imageAnalysis.imageQueueDepth", int.class);
+    public static final Option<Integer> OPTION_MAX_CONCURRENT_ANALYSES =
+            Option.create("camerax.core.imageAnalysis.maxConcurrentAnalyses", int.class);
+    public static final Option<Integer> OPTION_DROP_POLICY =
+            Option.create("camerax.core.imageAnalysis.dropPolicy", DropPolicy.class);
     public static final Option<ImageReaderProxyProvider> OPTION_IMAGE_READER_PROXY_PROVIDER =
             Option.create("camerax.core.imageAnalysis.imageReaderProxyProvider",
                     ImageReaderProxyProvider.class);
@@ -66,8 +71,9 @@ public final class ImageAnalysisConfig
      * Retrieves the backpressure strategy applied to the image producer to deal with scenarios
      * where images may be produced faster than they can be analyzed.
      *
-     * <p>The available values are {@link BackpressureStrategy#STRATEGY_BLOCK_PRODUCER} and {@link
-     * BackpressureStrategy#STRATEGY_KEEP_ONLY_LATEST}.
+     * <p>The available values are {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER},
+     * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST} and
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER}.
      *
      * @param valueIfMissing The value to return if this configuration option has not been set.
      * @return The stored value or <code>valueIfMissing</code> if the value does not exist in this
@@ -82,8 +88,9 @@ public final class ImageAnalysisConfig
     /**
      * Returns the mode that the image is acquired from {@link ImageReader}.
      *
-     * <p>The available values are {@link BackpressureStrategy#STRATEGY_BLOCK_PRODUCER} and {@link
-     * BackpressureStrategy#STRATEGY_KEEP_ONLY_LATEST}.
+     * <p>The available values are {@link ImageAnalysis#STRATEGY_BLOCK_PRODUCER},
+     * {@link ImageAnalysis#STRATEGY_KEEP_ONLY_LATEST} and
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER}.
      *
      * @return The stored value, if it exists in this configuration.
      * @throws IllegalArgumentException if the option does not exist in this configuration.
@@ -122,6 +129,56 @@ public final class ImageAnalysisConfig
         return retrieveOption(OPTION_IMAGE_QUEUE_DEPTH);
     }
 
+    /**
+     * Returns the maximum number of images analyzed at the same time in
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER} mode.
+     *
+     * @param valueIfMissing The value to return if this configuration option has not been set.
+     * @return The stored value or <code>valueIfMissing</code> if the value does not exist in this
+     * configuration.
+     * @see ImageAnalysis.Builder#setMaxConcurrentAnalyses(int)
+     */
+    public int getMaxConcurrentAnalyses(int valueIfMissing) {
+        return retrieveOption(OPTION_MAX_CONCURRENT_ANALYSES, valueIfMissing);
+    }
+
+    /**
+     * Returns the maximum number of images analyzed at the same time in
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER} mode.
+     *
+     * @return The stored value, if it exists in this configuration.
+     * @throws IllegalArgumentException if the option does not exist in this configuration.
+     */
+    public int getMaxConcurrentAnalyses() {
+        return retrieveOption(OPTION_MAX_CONCURRENT_ANALYSES);
+    }
+
+    /**
+     * Returns which image is dropped when the ring buffer of
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER} mode is full.
+     *
+     * @param valueIfMissing The value to return if this configuration option has not been set.
+     * @return The stored value or <code>valueIfMissing</code> if the value does not exist in this
+     * configuration.
+     * @see ImageAnalysis.Builder#setDropPolicy(int)
+     */
+    @DropPolicy
+    public int getDropPolicy(@DropPolicy int valueIfMissing) {
+        return retrieveOption(OPTION_DROP_POLICY, valueIfMissing);
+    }
+
+    /**
+     * Returns which image is dropped when the ring buffer of
+     * {@link ImageAnalysis#STRATEGY_RING_BUFFER} mode is full.
+     *
+     * @return The stored value, if it exists in this configuration.
+     * @throws IllegalArgumentException if the option does not exist in this configuration.
+     */
+    @DropPolicy
+    public int getDropPolicy() {
+        return retrieveOption(OPTION_DROP_POLICY);
+    }
+
     /**
      * Gets the caller provided {@link ImageReaderProxy}.
      *
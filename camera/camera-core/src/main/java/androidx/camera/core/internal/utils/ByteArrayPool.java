@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core.internal.utils;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A bounded pool of byte arrays, used to avoid allocating a new frame-sized buffer for every
+ * image.
+ *
+ * <p>This class is thread safe.
+ */
+public final class ByteArrayPool {
+    private final Object mLock = new Object();
+    private final int mMaxArrays;
+
+    @GuardedBy("mLock")
+    private final ArrayDeque<byte[]> mArrays = new ArrayDeque<>();
+
+    /**
+     * @param maxArrays the maximum number of arrays kept by the pool once they are released.
+     */
+    public ByteArrayPool(int maxArrays) {
+        if (maxArrays < 1) {
+            throw new IllegalArgumentException("maxArrays must be at least 1.");
+        }
+        mMaxArrays = maxArrays;
+    }
+
+    /**
+     * Returns an array of at least the given size, taken from the pool if possible. The content
+     * of the array is undefined.
+     */
+    @NonNull
+    public byte[] acquire(int minSize) {
+        synchronized (mLock) {
+            for (Iterator<byte[]> iterator = mArrays.iterator(); iterator.hasNext(); ) {
+                byte[] array = iterator.next();
+                if (array.length >= minSize) {
+                    iterator.remove();
+                    return array;
+                }
+            }
+        }
+        return new byte[minSize];
+    }
+
+    /**
+     * Returns an array to the pool. The array must not be used by the caller afterwards.
+     *
+     * <p>If the pool is full, the smallest array is dropped.
+     */
+    public void release(@NonNull byte[] array) {
+        synchronized (mLock) {
+            if (mArrays.size() >= mMaxArrays) {
+                byte[] smallest = array;
+                for (byte[] pooled : mArrays) {
+                    if (pooled.length < smallest.length) {
+                        smallest = pooled;
+                    }
+                }
+                if (smallest == array) {
+                    return;
+                }
+                mArrays.remove(smallest);
+            }
+            mArrays.addFirst(array);
+        }
+    }
+
+    /**
+     * Drops the arrays kept by the pool. Arrays acquired before are pooled again when they are
+     * released.
+     */
+    public void clear() {
+        synchronized (mLock) {
+            mArrays.clear();
+        }
+    }
+}
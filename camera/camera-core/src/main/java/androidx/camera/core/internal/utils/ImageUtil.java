@@ -29,6 +29,7 @@ import android.util.Size;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.camera.core.ImageProxy;
 
 import java.io.ByteArrayOutputStream;
@@ -62,11 +63,23 @@ public final class ImageUtil {
     @Nullable
     public static byte[] imageToJpegByteArray(@NonNull ImageProxy image)
             throws CodecFailedException {
+        return imageToJpegByteArray(image, null);
+    }
+
+    /**
+     * {@link android.media.Image} to JPEG byte array.
+     *
+     * @param nv21Pool the pool the intermediate NV21 buffer of a YUV image is taken from, or
+     *                 {@code null} to allocate it.
+     */
+    @Nullable
+    public static byte[] imageToJpegByteArray(@NonNull ImageProxy image,
+            @Nullable ByteArrayPool nv21Pool) throws CodecFailedException {
         byte[] data = null;
         if (image.getFormat() == ImageFormat.JPEG) {
             data = jpegImageToJpegByteArray(image);
         } else if (image.getFormat() == ImageFormat.YUV_420_888) {
-            data = yuvImageToJpegByteArray(image);
+            data = yuvImageToJpegByteArray(image, nv21Pool);
         } else {
             Log.w(TAG, "Unrecognized image format: " + image.getFormat());
         }
@@ -172,44 +185,96 @@ public final class ImageUtil {
         return out.toByteArray();
     }
 
-    private static byte[] yuv_420_888toNv21(ImageProxy image) {
+    /**
+     * Returns the region of the image that {@link YuvImage#compressToJpeg} would encode for the
+     * given crop rect, i.e. with an even offset and even dimensions.
+     */
+    @VisibleForTesting
+    @NonNull
+    static Rect getNv21Region(int width, int height, @Nullable Rect cropRect) {
+        Rect region = cropRect == null ? new Rect(0, 0, width, height) : new Rect(cropRect);
+        if (!region.intersect(0, 0, width, height)) {
+            region.setEmpty();
+        }
+        int regionWidth = region.width() & ~1;
+        int regionHeight = region.height() & ~1;
+        region.left &= ~1;
+        region.top &= ~1;
+        region.right = region.left + regionWidth;
+        region.bottom = region.top + regionHeight;
+        return region;
+    }
+
+    /**
+     * Copies the given region of a {@link ImageFormat#YUV_420_888} image into the given array in
+     * {@link ImageFormat#NV21} format, with a row stride of the region's width.
+     *
+     * @param region the region to copy, with an even offset and even dimensions.
+     * @param nv21   the destination array, of at least {@code width * height * 3 / 2} bytes.
+     */
+    @VisibleForTesting
+    static void yuv_420_888toNv21(@NonNull ImageProxy image, @NonNull Rect region,
+            @NonNull byte[] nv21) {
         ImageProxy.PlaneProxy yPlane = image.getPlanes()[0];
         ImageProxy.PlaneProxy uPlane = image.getPlanes()[1];
         ImageProxy.PlaneProxy vPlane = image.getPlanes()[2];
 
-        ByteBuffer yBuffer = yPlane.getBuffer();
-        ByteBuffer uBuffer = uPlane.getBuffer();
-        ByteBuffer vBuffer = vPlane.getBuffer();
-        yBuffer.rewind();
-        uBuffer.rewind();
-        vBuffer.rewind();
-
-        int ySize = yBuffer.remaining();
-
+        // Duplicates share the content of the planes but not their position, so the image is
+        // left untouched.
+        ByteBuffer yBuffer = yPlane.getBuffer().duplicate();
+        ByteBuffer uBuffer = uPlane.getBuffer().duplicate();
+        ByteBuffer vBuffer = vPlane.getBuffer().duplicate();
+        yBuffer.clear();
+        uBuffer.clear();
+        vBuffer.clear();
+
+        int width = region.width();
+        int height = region.height();
         int position = 0;
-        // TODO(b/115743986): Pull these bytes from a pool instead of allocating for every image.
-        byte[] nv21 = new byte[ySize + (image.getWidth() * image.getHeight() / 2)];
-
-        // Add the full y buffer to the array. If rowStride > 1, some padding may be skipped.
-        for (int row = 0; row < image.getHeight(); row++) {
-            yBuffer.get(nv21, position, image.getWidth());
-            position += image.getWidth();
-            yBuffer.position(
-                    Math.min(ySize, yBuffer.position() - image.getWidth() + yPlane.getRowStride()));
+
+        // Copy the luma rows of the region, skipping the row padding and the pixels outside of
+        // the region. Luma pixels of a YUV_420_888 image are never interleaved.
+        int yRowStride = yPlane.getRowStride();
+        for (int row = region.top; row < region.bottom; row++) {
+            yBuffer.position(row * yRowStride + region.left);
+            yBuffer.get(nv21, position, width);
+            position += width;
         }
 
-        int chromaHeight = image.getHeight() / 2;
-        int chromaWidth = image.getWidth() / 2;
+        int chromaTop = region.top / 2;
+        int chromaLeft = region.left / 2;
+        int chromaHeight = height / 2;
+        int chromaWidth = width / 2;
+        if (chromaHeight == 0 || chromaWidth == 0) {
+            return;
+        }
         int vRowStride = vPlane.getRowStride();
         int uRowStride = uPlane.getRowStride();
         int vPixelStride = vPlane.getPixelStride();
         int uPixelStride = uPlane.getPixelStride();
 
+        if (vPixelStride == 2 && uPixelStride == 2 && vRowStride == uRowStride
+                && areUvPlanesInterleaved(uBuffer, vBuffer)) {
+            // The V plane already holds VUVU...V rows, which is NV21 except for the last U value
+            // of each row.
+            int rowLength = chromaWidth * 2 - 1;
+            for (int row = chromaTop; row < chromaTop + chromaHeight; row++) {
+                int offset = row * vRowStride + chromaLeft * 2;
+                vBuffer.position(offset);
+                vBuffer.get(nv21, position, rowLength);
+                position += rowLength;
+                nv21[position++] = uBuffer.get(offset + rowLength - 1);
+            }
+            return;
+        }
+
         // Interleave the u and v frames, filling up the rest of the buffer. Use two line buffers to
         // perform faster bulk gets from the byte buffers.
         byte[] vLineBuffer = new byte[vRowStride];
         byte[] uLineBuffer = new byte[uRowStride];
-        for (int row = 0; row < chromaHeight; row++) {
+        for (int row = chromaTop; row < chromaTop + chromaHeight; row++) {
+            vBuffer.position(row * vRowStride + chromaLeft * vPixelStride);
+            uBuffer.position(row * uRowStride + chromaLeft * uPixelStride);
             vBuffer.get(vLineBuffer, 0, Math.min(vRowStride, vBuffer.remaining()));
             uBuffer.get(uLineBuffer, 0, Math.min(uRowStride, uBuffer.remaining()));
             int vLineBufferPosition = 0;
@@ -221,8 +286,34 @@ public final class ImageUtil {
                 uLineBufferPosition += uPixelStride;
             }
         }
+    }
 
-        return nv21;
+    /**
+     * Checks if the U and V planes are views of the same VUVU... memory, which is how most
+     * devices lay out YUV_420_888 images with a pixel stride of 2.
+     *
+     * <p>The memory address of a plane isn't available, so a probe value is written to the second
+     * byte of the V plane, which is the first U value if the planes are interleaved, and the V
+     * plane is restored right after. Unlike comparing the values of the planes, this doesn't
+     * depend on the content of the image. Read-only planes are treated as separate.
+     */
+    @VisibleForTesting
+    static boolean areUvPlanesInterleaved(@NonNull ByteBuffer uBuffer,
+            @NonNull ByteBuffer vBuffer) {
+        // The V plane does not contain the last U value and the U plane does not contain the
+        // first V value.
+        int length = vBuffer.capacity() - 1;
+        if (length < 1 || uBuffer.capacity() < length || vBuffer.isReadOnly()) {
+            return false;
+        }
+        byte v1 = vBuffer.get(1);
+        byte probe = (byte) ~uBuffer.get(0);
+        vBuffer.put(1, probe);
+        try {
+            return uBuffer.get(0) == probe;
+        } finally {
+            vBuffer.put(1, v1);
+        }
     }
 
     private static boolean isCropAspectRatioHasEffect(Size sourceSize, Rational aspectRatio) {
@@ -263,13 +354,24 @@ public final class ImageUtil {
         return data;
     }
 
-    private static byte[] yuvImageToJpegByteArray(ImageProxy image)
-            throws CodecFailedException {
-        return ImageUtil.nv21ToJpeg(
-                ImageUtil.yuv_420_888toNv21(image),
-                image.getWidth(),
-                image.getHeight(),
+    private static byte[] yuvImageToJpegByteArray(ImageProxy image,
+            @Nullable ByteArrayPool nv21Pool) throws CodecFailedException {
+        // Only convert the cropped region, so that the encoder does not have to skip over the
+        // rest of the frame.
+        Rect region = getNv21Region(image.getWidth(), image.getHeight(),
                 shouldCropImage(image) ? image.getCropRect() : null);
+        int width = region.width();
+        int height = region.height();
+        int size = width * height * 3 / 2;
+        byte[] nv21 = nv21Pool != null ? nv21Pool.acquire(size) : new byte[size];
+        try {
+            yuv_420_888toNv21(image, region, nv21);
+            return ImageUtil.nv21ToJpeg(nv21, width, height, null);
+        } finally {
+            if (nv21Pool != null) {
+                nv21Pool.release(nv21);
+            }
+        }
     }
 
     /** Exception for error during transcoding image. */
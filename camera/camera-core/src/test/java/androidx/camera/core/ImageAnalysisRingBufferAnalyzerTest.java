@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.camera.core;
+
+import static android.os.Looper.getMainLooper;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Build;
+
+import androidx.camera.core.impl.ImageReaderProxy;
+import androidx.camera.core.impl.MutableTagBundle;
+import androidx.camera.core.impl.utils.executor.CameraXExecutors;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+import java.util.List;
+
+@SmallTest
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+@Config(minSdk = Build.VERSION_CODES.LOLLIPOP)
+public class ImageAnalysisRingBufferAnalyzerTest {
+    // Leaves room for 2 waiting images next to the analyzed one.
+    private static final int IMAGE_QUEUE_DEPTH = 4;
+
+    private ImageAnalysis.Analyzer mAnalyzer;
+    private ImageReaderProxy mImageReaderProxy;
+    private ImageProxy[] mImageProxies;
+
+    @Before
+    public void setup() {
+        MutableTagBundle tagBundle = MutableTagBundle.create();
+        mImageProxies = new ImageProxy[4];
+        for (int i = 0; i < mImageProxies.length; i++) {
+            ImageInfo imageInfo = mock(ImageInfo.class);
+            when(imageInfo.getTagBundle()).thenReturn(tagBundle);
+            when(imageInfo.getTimestamp()).thenReturn((long) i);
+            mImageProxies[i] = mock(ImageProxy.class);
+            when(mImageProxies[i].getImageInfo()).thenReturn(imageInfo);
+        }
+
+        mImageReaderProxy = mock(ImageReaderProxy.class);
+        when(mImageReaderProxy.acquireNextImage()).thenReturn(mImageProxies[0],
+                mImageProxies[1], mImageProxies[2], mImageProxies[3]);
+
+        mAnalyzer = mock(ImageAnalysis.Analyzer.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsWhenImageQueueDepthTooSmall() {
+        new ImageAnalysisRingBufferAnalyzer(CameraXExecutors.directExecutor(), 2, 1,
+                ImageAnalysis.DROP_OLDEST);
+    }
+
+    @Test
+    public void imagesWaitWhileAnalysisIsBusy() {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(1, ImageAnalysis.DROP_OLDEST);
+
+        produceImages(ringAnalyzer, 3);
+
+        assertAnalyzedTimestamps(0L);
+        assertThat(ringAnalyzer.getWaitingImageCount()).isEqualTo(2);
+        assertThat(ringAnalyzer.getDroppedImageCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void imagesAnalyzedConcurrently() {
+        // Depth 4 with 2 concurrent analyses leaves room for a single waiting image.
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(2, ImageAnalysis.DROP_OLDEST);
+
+        produceImages(ringAnalyzer, 3);
+
+        assertAnalyzedTimestamps(0L, 1L);
+        assertThat(ringAnalyzer.getWaitingImageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void dropOldest_closesOldestWaitingImage() {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(1, ImageAnalysis.DROP_OLDEST);
+
+        produceImages(ringAnalyzer, 4);
+
+        verify(mImageProxies[1], times(1)).close();
+        verify(mImageProxies[3], never()).close();
+        assertThat(ringAnalyzer.getWaitingImageCount()).isEqualTo(2);
+        assertThat(ringAnalyzer.getDroppedImageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void dropNewest_closesIncomingImage() {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(1, ImageAnalysis.DROP_NEWEST);
+
+        produceImages(ringAnalyzer, 4);
+
+        verify(mImageProxies[1], never()).close();
+        verify(mImageProxies[3], times(1)).close();
+        assertThat(ringAnalyzer.getDroppedImageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void closingAnalyzedImagePostsOldestWaitingImage() {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(1, ImageAnalysis.DROP_OLDEST);
+        produceImages(ringAnalyzer, 3);
+        ArgumentCaptor<ImageProxy> imageCaptor = ArgumentCaptor.forClass(ImageProxy.class);
+        verify(mAnalyzer).analyze(imageCaptor.capture());
+
+        imageCaptor.getValue().close();
+        shadowOf(getMainLooper()).idle();
+
+        verify(mImageProxies[0], times(1)).close();
+        assertAnalyzedTimestamps(0L, 1L);
+        assertThat(ringAnalyzer.getWaitingImageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void imagesClosedWhenAnalyzerClosed() {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = createAnalyzer(1, ImageAnalysis.DROP_OLDEST);
+        produceImages(ringAnalyzer, 3);
+
+        ringAnalyzer.close();
+
+        verify(mImageProxies[1], times(1)).close();
+        verify(mImageProxies[2], times(1)).close();
+        assertThat(ringAnalyzer.getWaitingImageCount()).isEqualTo(0);
+    }
+
+    private ImageAnalysisRingBufferAnalyzer createAnalyzer(int maxConcurrentAnalyses,
+            @ImageAnalysis.DropPolicy int dropPolicy) {
+        ImageAnalysisRingBufferAnalyzer ringAnalyzer = new ImageAnalysisRingBufferAnalyzer(
+                CameraXExecutors.directExecutor(), IMAGE_QUEUE_DEPTH, maxConcurrentAnalyses,
+                dropPolicy);
+        ringAnalyzer.setAnalyzer(CameraXExecutors.mainThreadExecutor(), mAnalyzer);
+        return ringAnalyzer;
+    }
+
+    private void produceImages(ImageAnalysisRingBufferAnalyzer ringAnalyzer, int count) {
+        for (int i = 0; i < count; i++) {
+            ringAnalyzer.onImageAvailable(mImageReaderProxy);
+        }
+        shadowOf(getMainLooper()).idle();
+    }
+
+    private void assertAnalyzedTimestamps(Long... timestamps) {
+        ArgumentCaptor<ImageProxy> imageCaptor = ArgumentCaptor.forClass(ImageProxy.class);
+        verify(mAnalyzer, times(timestamps.length)).analyze(imageCaptor.capture());
+        List<ImageProxy> analyzed = imageCaptor.getAllValues();
+        for (int i = 0; i < timestamps.length; i++) {
+            assertThat(analyzed.get(i).getImageInfo().getTimestamp()).isEqualTo(timestamps[i]);
+        }
+    }
+}
@@ -47,6 +47,7 @@ import org.robolectric.annotation.Config;
 import org.robolectric.annotation.internal.DoNotInstrument;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Unit tests for {@link ImageUtil}.
@@ -61,6 +62,9 @@ public class ImageUtilTest {
     private static final Rational ASPECT_RATIO = new Rational(WIDTH, HEIGHT);
     private static final int CROP_WIDTH = 100;
     private static final int CROP_HEIGHT = 100;
+    private static final int YUV_WIDTH = 8;
+    private static final int YUV_HEIGHT = 4;
+    private static final byte GRAY_CHROMA = (byte) 128;
     private static final String JPEG_IMAGE_DATA_BASE_64 =
             "/9j/4AAQSkZJRgABAQAAAQABAAD/2wBDAAEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEB"
                     + "AQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQEBAQH/2wBDAQEBAQEBAQEBAQEBAQEBAQEBAQEB"
@@ -164,4 +168,170 @@ public class ImageUtilTest {
             assertEquals(HEIGHT, resultRect.height());
         }
     }
+
+    @Test
+    public void canConvertInterleavedYuvToNv21() {
+        // U and V are views of the same VUVU... memory, with padding at the end of each row.
+        byte[] chroma = new byte[10 * (YUV_HEIGHT / 2)];
+        for (int row = 0; row < YUV_HEIGHT / 2; row++) {
+            for (int col = 0; col < YUV_WIDTH / 2; col++) {
+                chroma[row * 10 + col * 2] = chromaV(row, col);
+                chroma[row * 10 + col * 2 + 1] = chromaU(row, col);
+            }
+        }
+        ByteBuffer vBuffer = ByteBuffer.wrap(chroma, 0, chroma.length - 1).slice();
+        ByteBuffer uBuffer = ByteBuffer.wrap(chroma, 1, chroma.length - 1).slice();
+        FakeImageProxy image = createYuvImage(createPlane(uBuffer, 10, 2),
+                createPlane(vBuffer, 10, 2));
+
+        assertNv21Region(image, new Rect(0, 0, YUV_WIDTH, YUV_HEIGHT));
+        assertNv21Region(image, new Rect(2, 2, 6, 4));
+    }
+
+    @Test
+    public void canConvertSeparatePixelStrideTwoYuvToNv21() {
+        // U and V have a pixel stride of 2 but are not views of the same memory.
+        byte[] u = new byte[10 * (YUV_HEIGHT / 2)];
+        byte[] v = new byte[10 * (YUV_HEIGHT / 2)];
+        for (int row = 0; row < YUV_HEIGHT / 2; row++) {
+            for (int col = 0; col < YUV_WIDTH / 2; col++) {
+                u[row * 10 + col * 2] = chromaU(row, col);
+                v[row * 10 + col * 2] = chromaV(row, col);
+            }
+        }
+        FakeImageProxy image = createYuvImage(
+                createPlane(ByteBuffer.wrap(u, 0, u.length - 1).slice(), 10, 2),
+                createPlane(ByteBuffer.wrap(v, 0, v.length - 1).slice(), 10, 2));
+
+        assertNv21Region(image, new Rect(0, 0, YUV_WIDTH, YUV_HEIGHT));
+        assertNv21Region(image, new Rect(2, 2, 6, 4));
+    }
+
+    @Test
+    public void separatePlanesWithIdenticalChromaAreNotInterleaved() {
+        // A gray image: every byte of both chroma planes, including the gaps between pixels, is
+        // the same, so only the layout tells the planes apart.
+        byte[] u = new byte[10 * (YUV_HEIGHT / 2) - 1];
+        byte[] v = new byte[10 * (YUV_HEIGHT / 2) - 1];
+        Arrays.fill(u, GRAY_CHROMA);
+        Arrays.fill(v, GRAY_CHROMA);
+        ByteBuffer uBuffer = ByteBuffer.wrap(u);
+        ByteBuffer vBuffer = ByteBuffer.wrap(v);
+
+        assertThat(ImageUtil.areUvPlanesInterleaved(uBuffer, vBuffer)).isFalse();
+        byte[] gray = new byte[u.length];
+        Arrays.fill(gray, GRAY_CHROMA);
+        assertThat(u).isEqualTo(gray);
+        assertThat(v).isEqualTo(gray);
+
+        FakeImageProxy image = createYuvImage(createPlane(uBuffer, 10, 2),
+                createPlane(vBuffer, 10, 2));
+        Rect region = new Rect(2, 2, 6, 4);
+        byte[] nv21 = new byte[region.width() * region.height() * 3 / 2];
+        ImageUtil.yuv_420_888toNv21(image, region, nv21);
+        for (int i = region.width() * region.height(); i < nv21.length; i++) {
+            assertThat(nv21[i]).isEqualTo(GRAY_CHROMA);
+        }
+    }
+
+    @Test
+    public void interleavedPlanesAreDetectedAndLeftUnchanged() {
+        byte[] chroma = new byte[10 * (YUV_HEIGHT / 2)];
+        Arrays.fill(chroma, GRAY_CHROMA);
+        ByteBuffer vBuffer = ByteBuffer.wrap(chroma, 0, chroma.length - 1).slice();
+        ByteBuffer uBuffer = ByteBuffer.wrap(chroma, 1, chroma.length - 1).slice();
+
+        assertThat(ImageUtil.areUvPlanesInterleaved(uBuffer, vBuffer)).isTrue();
+        assertThat(ImageUtil.areUvPlanesInterleaved(uBuffer,
+                vBuffer.asReadOnlyBuffer())).isFalse();
+        byte[] gray = new byte[chroma.length];
+        Arrays.fill(gray, GRAY_CHROMA);
+        assertThat(chroma).isEqualTo(gray);
+    }
+
+    @Test
+    public void canConvertPlanarYuvToNv21() {
+        byte[] u = new byte[6 * (YUV_HEIGHT / 2)];
+        byte[] v = new byte[6 * (YUV_HEIGHT / 2)];
+        for (int row = 0; row < YUV_HEIGHT / 2; row++) {
+            for (int col = 0; col < YUV_WIDTH / 2; col++) {
+                u[row * 6 + col] = chromaU(row, col);
+                v[row * 6 + col] = chromaV(row, col);
+            }
+        }
+        FakeImageProxy image = createYuvImage(createPlane(ByteBuffer.wrap(u), 6, 1),
+                createPlane(ByteBuffer.wrap(v), 6, 1));
+
+        assertNv21Region(image, new Rect(0, 0, YUV_WIDTH, YUV_HEIGHT));
+        assertNv21Region(image, new Rect(2, 2, 6, 4));
+    }
+
+    @Test
+    public void nv21RegionIsAlignedToEvenPixels() {
+        assertThat(ImageUtil.getNv21Region(YUV_WIDTH, YUV_HEIGHT, new Rect(1, 1, 6, 4)))
+                .isEqualTo(new Rect(0, 0, 4, 2));
+        assertThat(ImageUtil.getNv21Region(YUV_WIDTH, YUV_HEIGHT, null))
+                .isEqualTo(new Rect(0, 0, YUV_WIDTH, YUV_HEIGHT));
+    }
+
+    private static byte chromaU(int row, int col) {
+        return (byte) (100 + row * 16 + col);
+    }
+
+    private static byte chromaV(int row, int col) {
+        return (byte) (200 + row * 16 + col);
+    }
+
+    private static byte luma(int row, int col) {
+        return (byte) (row * 31 + col);
+    }
+
+    private static ImageProxy.PlaneProxy createPlane(ByteBuffer buffer, int rowStride,
+            int pixelStride) {
+        ImageProxy.PlaneProxy plane = mock(ImageProxy.PlaneProxy.class);
+        when(plane.getBuffer()).thenReturn(buffer);
+        when(plane.getRowStride()).thenReturn(rowStride);
+        when(plane.getPixelStride()).thenReturn(pixelStride);
+        return plane;
+    }
+
+    private static FakeImageProxy createYuvImage(ImageProxy.PlaneProxy uPlane,
+            ImageProxy.PlaneProxy vPlane) {
+        // Luma rows are padded to 12 bytes.
+        byte[] y = new byte[12 * YUV_HEIGHT];
+        for (int row = 0; row < YUV_HEIGHT; row++) {
+            for (int col = 0; col < YUV_WIDTH; col++) {
+                y[row * 12 + col] = luma(row, col);
+            }
+        }
+        FakeImageProxy image = new FakeImageProxy(new FakeImageInfo());
+        image.setFormat(ImageFormat.YUV_420_888);
+        image.setWidth(YUV_WIDTH);
+        image.setHeight(YUV_HEIGHT);
+        image.setPlanes(new ImageProxy.PlaneProxy[]{
+                createPlane(ByteBuffer.wrap(y), 12, 1), uPlane, vPlane});
+        return image;
+    }
+
+    private static void assertNv21Region(ImageProxy image, Rect region) {
+        byte[] expected = new byte[region.width() * region.height() * 3 / 2];
+        int position = 0;
+        for (int row = region.top; row < region.bottom; row++) {
+            for (int col = region.left; col < region.right; col++) {
+                expected[position++] = luma(row, col);
+            }
+        }
+        for (int row = region.top / 2; row < region.bottom / 2; row++) {
+            for (int col = region.left / 2; col < region.right / 2; col++) {
+                expected[position++] = chromaV(row, col);
+                expected[position++] = chromaU(row, col);
+            }
+        }
+
+        // A larger, dirty array as it would come from the pool.
+        byte[] nv21 = new byte[expected.length + 7];
+        Arrays.fill(nv21, (byte) -1);
+        ImageUtil.yuv_420_888toNv21(image, region, nv21);
+        assertThat(Arrays.copyOf(nv21, expected.length)).isEqualTo(expected);
+    }
 }
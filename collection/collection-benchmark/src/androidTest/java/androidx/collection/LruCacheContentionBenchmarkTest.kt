@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.runners.Parameterized.Parameters
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import kotlin.random.Random
+
+/**
+ * Measures the time for a fixed number of threads to each perform a batch of cache operations
+ * on one shared cache.
+ */
+@RunWith(Parameterized::class)
+class LruCacheContentionBenchmarkTest(private val threads: Int) {
+    // Despite the fixed seed, the algorithm which produces random values may vary across
+    // OS versions. Since we're not doing cross-device comparison this is acceptable.
+    private val keys = Random(0).let { random ->
+        Array(threads) { IntArray(OPERATIONS_PER_THREAD) { random.nextInt(KEY_RANGE) } }
+    }
+    private val executor: ExecutorService = Executors.newFixedThreadPool(threads)
+
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @After fun shutdown() {
+        executor.shutdown()
+    }
+
+    @Test fun lruCache() {
+        val cache = LruCache<Int, Int>(MAX_SIZE)
+        benchmark.measureRepeated {
+            run { threadKeys ->
+                for (key in threadKeys) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key)
+                    }
+                }
+            }
+        }
+    }
+
+    @Test fun concurrentLruCache() {
+        val cache = ConcurrentLruCache<Int, Int>(MAX_SIZE)
+        benchmark.measureRepeated {
+            run { threadKeys ->
+                for (key in threadKeys) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key)
+                    }
+                }
+            }
+        }
+    }
+
+    @Test fun concurrentLruCacheWithFrequencyAdmission() {
+        val cache = ConcurrentLruCache<Int, Int>(MAX_SIZE, threads, true)
+        benchmark.measureRepeated {
+            run { threadKeys ->
+                for (key in threadKeys) {
+                    if (cache.get(key) == null) {
+                        cache.put(key, key)
+                    }
+                }
+            }
+        }
+    }
+
+    private inline fun run(crossinline block: (IntArray) -> Unit) {
+        executor.invokeAll(keys.map { threadKeys -> Callable { block(threadKeys) } })
+            .forEach { it.get() }
+    }
+
+    companion object {
+        private const val MAX_SIZE = 256
+        private const val KEY_RANGE = 1_024
+        private const val OPERATIONS_PER_THREAD = 1_000
+
+        @JvmStatic
+        @Parameters(name = "threads={0}")
+        fun parameters() = listOf(1, 2, 4, 8)
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.runners.Parameterized.Parameters
+import kotlin.random.Random
+
+/**
+ * Compares the open-addressing primitive maps against the sorted-array containers they are
+ * intended to replace for large key sets.
+ */
+@RunWith(Parameterized::class)
+class PrimitiveMapBenchmarkTest(private val size: Int) {
+    // Despite the fixed seed, the algorithm which produces random values may vary across
+    // OS versions. Since we're not doing cross-device comparison this is acceptable.
+    private val keys = Random(0).let { random -> IntArray(size) { random.nextInt() } }
+    private val stringKeys = Array(size) { "key" }
+
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @Test fun intIntMapPut() {
+        benchmark.measureRepeated {
+            val map = IntIntMap()
+            for (key in keys) {
+                map.put(key, key)
+            }
+        }
+    }
+
+    @Test fun sparseArrayPut() {
+        benchmark.measureRepeated {
+            val map = SparseArrayCompat<Int>()
+            for (key in keys) {
+                map.put(key, key)
+            }
+        }
+    }
+
+    @Test fun intIntMapGet() {
+        val map = IntIntMap()
+        keys.forEach { map.put(it, it) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.get(key)
+            }
+        }
+    }
+
+    @Test fun sparseArrayGet() {
+        val map = SparseArrayCompat<Int>()
+        keys.forEach { map.put(it, it) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.get(key)
+            }
+        }
+    }
+
+    @Test fun intIntMapRemoveAndPut() {
+        val map = IntIntMap()
+        keys.forEach { map.put(it, it) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.remove(key)
+                map.put(key, key)
+            }
+        }
+    }
+
+    @Test fun sparseArrayRemoveAndPut() {
+        val map = SparseArrayCompat<Int>()
+        keys.forEach { map.put(it, it) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.remove(key)
+                map.put(key, key)
+            }
+        }
+    }
+
+    @Test fun longObjectMapPut() {
+        benchmark.measureRepeated {
+            val map = LongObjectMap<String>()
+            for (i in keys.indices) {
+                map.put(keys[i].toLong(), stringKeys[i])
+            }
+        }
+    }
+
+    @Test fun longSparseArrayPut() {
+        benchmark.measureRepeated {
+            val map = LongSparseArray<String>()
+            for (i in keys.indices) {
+                map.put(keys[i].toLong(), stringKeys[i])
+            }
+        }
+    }
+
+    @Test fun longObjectMapGet() {
+        val map = LongObjectMap<String>()
+        keys.forEachIndexed { i, key -> map.put(key.toLong(), stringKeys[i]) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.get(key.toLong())
+            }
+        }
+    }
+
+    @Test fun longSparseArrayGet() {
+        val map = LongSparseArray<String>()
+        keys.forEachIndexed { i, key -> map.put(key.toLong(), stringKeys[i]) }
+        benchmark.measureRepeated {
+            for (key in keys) {
+                map.get(key.toLong())
+            }
+        }
+    }
+
+    @Test fun objectIntMapPut() {
+        benchmark.measureRepeated {
+            val map = ObjectIntMap<String>()
+            for (i in keys.indices) {
+                map.put(stringKeys[i], keys[i])
+            }
+        }
+    }
+
+    @Test fun simpleArrayMapPut() {
+        benchmark.measureRepeated {
+            val map = SimpleArrayMap<String, Int>()
+            for (i in keys.indices) {
+                map.put(stringKeys[i], keys[i])
+            }
+        }
+    }
+
+    @Test fun objectIntMapGet() {
+        val map = ObjectIntMap<String>()
+        keys.forEachIndexed { i, key -> map.put(stringKeys[i], key) }
+        benchmark.measureRepeated {
+            for (key in stringKeys) {
+                map.get(key)
+            }
+        }
+    }
+
+    @Test fun simpleArrayMapGet() {
+        val map = SimpleArrayMap<String, Int>()
+        keys.forEachIndexed { i, key -> map.put(stringKeys[i], key) }
+        benchmark.measureRepeated {
+            for (key in stringKeys) {
+                map.get(key)
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameters(name = "size={0}")
+        fun parameters() = listOf(10, 100, 1_000, 10_000)
+    }
+}
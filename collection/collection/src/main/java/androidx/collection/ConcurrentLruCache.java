@@ -0,0 +1,537 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache with the same contract as {@link LruCache} that is designed to be shared by many
+ * threads.
+ *
+ * <p>Instead of guarding a single map with one monitor, entries are spread over a number of
+ * segments, each with its own lock and its own access-ordered map. Operations on keys which fall
+ * into different segments do not contend. The size budget is shared by all segments; when it is
+ * exceeded, the least recently used entry of each segment is evicted in turn. Eviction order is
+ * therefore an approximation of a global least-recently-used order.
+ *
+ * <p>The cache can optionally filter admissions by access frequency, in the style of TinyLFU.
+ * When enabled, a new entry which would require an eviction is only admitted if its key has
+ * been accessed more often recently than the least recently used entry of its segment. This
+ * prevents a burst of keys which are used only once from flushing frequently used entries.
+ * Rejected entries are reported to {@link #entryRemoved} as evicted.
+ *
+ * <p>{@link #create} and {@link #entryRemoved} are called without holding any lock. As in
+ * {@link LruCache}, {@link #sizeOf} may be called while holding the lock of the entry's segment,
+ * so it should be cheap and must not call back into the cache.
+ */
+public class ConcurrentLruCache<K, V> {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final Segment<K, V>[] mSegments;
+    private final AtomicInteger mSize = new AtomicInteger();
+    private final AtomicInteger mEvictionCursor = new AtomicInteger();
+    private volatile int mMaxSize;
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     */
+    public ConcurrentLruCache(int maxSize) {
+        this(maxSize, DEFAULT_CONCURRENCY_LEVEL, false);
+    }
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param concurrencyLevel the expected number of threads using the cache concurrently. This
+     *     is rounded up to a power of two to give the number of segments.
+     * @param frequencyAdmission whether new entries which require an eviction are only admitted
+     *     when their key is used more frequently than the entry they would replace.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLruCache(int maxSize, int concurrencyLevel, boolean frequencyAdmission) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel <= 0");
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount < (1 << 16)) {
+            segmentCount <<= 1;
+        }
+        mMaxSize = maxSize;
+        mSegments = new Segment[segmentCount];
+        int sketchSize = Math.max(1, maxSize / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            mSegments[i] = new Segment<>(frequencyAdmission ? new FrequencySketch(sketchSize)
+                    : null);
+        }
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. If a value was returned, it is moved to the
+     * head of its segment's queue. This returns null if a value is not cached and cannot
+     * be created.
+     */
+    @Nullable
+    public final V get(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        int hash = ContainerHelpers.hashObject(key);
+        Segment<K, V> segment = segmentFor(hash);
+        V mapValue;
+        synchronized (segment) {
+            segment.recordAccess(hash);
+            mapValue = segment.map.get(key);
+            if (mapValue != null) {
+                segment.hitCount++;
+                return mapValue;
+            }
+            segment.missCount++;
+        }
+
+        /*
+         * Attempt to create a value. This may take a long time, and the map
+         * may be different when create() returns. If a conflicting value was
+         * added to the map while create() was working, we leave that value in
+         * the map and release the created value.
+         */
+
+        V createdValue = create(key);
+        if (createdValue == null) {
+            return null;
+        }
+
+        int createdSize = safeSizeOf(key, createdValue);
+        synchronized (segment) {
+            segment.createCount++;
+            mapValue = segment.map.put(key, createdValue);
+
+            if (mapValue != null) {
+                // There was a conflict so undo that last put
+                segment.map.put(key, mapValue);
+            } else {
+                segment.size += createdSize;
+                mSize.addAndGet(createdSize);
+            }
+        }
+
+        if (mapValue != null) {
+            entryRemoved(false, key, createdValue, mapValue);
+            return mapValue;
+        } else {
+            trimToSize(mMaxSize);
+            return createdValue;
+        }
+    }
+
+    /**
+     * Caches {@code value} for {@code key}. The value is moved to the head of
+     * its segment's queue.
+     *
+     * <p>When frequency admission is enabled and {@code key} is not already cached, the value
+     * may be rejected instead of cached, in which case it is passed to {@link #entryRemoved} as
+     * evicted.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V put(@NonNull K key, @NonNull V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+
+        int hash = ContainerHelpers.hashObject(key);
+        Segment<K, V> segment = segmentFor(hash);
+        int valueSize = safeSizeOf(key, value);
+        V previous;
+        boolean rejected;
+        synchronized (segment) {
+            segment.putCount++;
+            segment.recordAccess(hash);
+            previous = segment.map.get(key);
+            rejected = previous == null && mSize.get() + valueSize > mMaxSize
+                    && segment.rejects(hash);
+            if (rejected) {
+                segment.rejectionCount++;
+            } else {
+                segment.map.put(key, value);
+                int delta = valueSize;
+                if (previous != null) {
+                    delta -= safeSizeOf(key, previous);
+                }
+                segment.size += delta;
+                mSize.addAndGet(delta);
+            }
+        }
+
+        if (rejected) {
+            entryRemoved(true, key, value, null);
+            return null;
+        }
+
+        if (previous != null) {
+            entryRemoved(false, key, previous, value);
+        }
+
+        trimToSize(mMaxSize);
+        return previous;
+    }
+
+    /**
+     * Remove least recently used entries, taking each segment in turn, until the total of
+     * remaining entries is at or below the requested size.
+     *
+     * @param maxSize the maximum size of the cache before returning. May be -1
+     *            to evict even 0-sized elements.
+     */
+    public void trimToSize(int maxSize) {
+        while (mSize.get() > maxSize) {
+            Segment<K, V> segment = nextEvictionSegment();
+            if (segment == null) {
+                break;
+            }
+
+            K key;
+            V value;
+            synchronized (segment) {
+                if (segment.size < 0 || (segment.map.isEmpty() && segment.size != 0)) {
+                    throw new IllegalStateException(getClass().getName()
+                            + ".sizeOf() is reporting inconsistent results!");
+                }
+
+                if (segment.map.isEmpty()) {
+                    continue;
+                }
+
+                Map.Entry<K, V> toEvict = segment.map.entrySet().iterator().next();
+                key = toEvict.getKey();
+                value = toEvict.getValue();
+                segment.map.remove(key);
+                int evictedSize = safeSizeOf(key, value);
+                segment.size -= evictedSize;
+                mSize.addAndGet(-evictedSize);
+                segment.evictionCount++;
+            }
+
+            entryRemoved(true, key, value, null);
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V remove(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Segment<K, V> segment = segmentFor(ContainerHelpers.hashObject(key));
+        V previous;
+        synchronized (segment) {
+            previous = segment.map.remove(key);
+            if (previous != null) {
+                int previousSize = safeSizeOf(key, previous);
+                segment.size -= previousSize;
+                mSize.addAndGet(-previousSize);
+            }
+        }
+
+        if (previous != null) {
+            entryRemoved(false, key, previous, null);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Called for entries that have been evicted, rejected or removed. This method is
+     * invoked when a value is evicted to make space, rejected by frequency admission, removed
+     * by a call to {@link #remove}, or replaced by a call to {@link #put}. The default
+     * implementation does nothing.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted true if the entry is being removed to make space or was not admitted,
+     *     false if the removal was caused by a {@link #put} or {@link #remove}.
+     * @param newValue the new value for {@code key}, if it exists. If non-null,
+     *     this removal was caused by a {@link #put}. Otherwise it was caused by
+     *     an eviction, a rejection or a {@link #remove}.
+     */
+    protected void entryRemoved(boolean evicted, @NonNull K key, @NonNull V oldValue,
+            @Nullable V newValue) {
+    }
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * <p>If a value for {@code key} exists in the cache when this method
+     * returns, the created value will be released with {@link #entryRemoved}
+     * and discarded. This can occur when multiple threads request the same key
+     * at the same time (causing multiple values to be created), or when one
+     * thread calls {@link #put} while another is creating a value for the same
+     * key.
+     */
+    @Nullable
+    protected V create(@NonNull K key) {
+        return null;
+    }
+
+    private int safeSizeOf(K key, V value) {
+        int result = sizeOf(key, value);
+        if (result < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * <p>An entry's size must not change while it is in the cache. This method may be called
+     * while holding the lock of the entry's segment, so it must not access the cache.
+     */
+    protected int sizeOf(@NonNull K key, @NonNull V value) {
+        return 1;
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        trimToSize(-1); // -1 will evict 0-sized elements
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache.
+     */
+    public final int size() {
+        return mSize.get();
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public final int maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value that was
+     * already present in the cache.
+     */
+    public final int hitCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.hitCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned null or required a new
+     * value to be created.
+     */
+    public final int missCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.missCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #create(Object)} returned a value.
+     */
+    public final int createCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.createCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times {@link #put} was called.
+     */
+    public final int putCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.putCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public final int evictionCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.evictionCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of values passed to {@link #put} which were not admitted because their
+     * key was used less frequently than the entry they would have replaced. This is always zero
+     * unless frequency admission is enabled.
+     */
+    public final int rejectionCount() {
+        int count = 0;
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                count += segment.rejectionCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache. Entries are ordered from least
+     * recently accessed to most recently accessed within each segment, but segments are not
+     * ordered relative to each other.
+     */
+    @NonNull
+    public final Map<K, V> snapshot() {
+        Map<K, V> snapshot = new LinkedHashMap<>();
+        for (Segment<K, V> segment : mSegments) {
+            synchronized (segment) {
+                snapshot.putAll(segment.map);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override public final String toString() {
+        int hitCount = hitCount();
+        int missCount = missCount();
+        int accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return String.format(Locale.US,
+                "ConcurrentLruCache[maxSize=%d,hits=%d,misses=%d,hitRate=%d%%]",
+                mMaxSize, hitCount, missCount, hitPercent);
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return mSegments[hash & (mSegments.length - 1)];
+    }
+
+    @Nullable
+    private Segment<K, V> nextEvictionSegment() {
+        int start = mEvictionCursor.getAndIncrement();
+        for (int i = 0; i < mSegments.length; i++) {
+            Segment<K, V> segment = mSegments[(start + i) & (mSegments.length - 1)];
+            synchronized (segment) {
+                if (!segment.map.isEmpty()) {
+                    return segment;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static final class Segment<K, V> {
+        final LinkedHashMap<K, V> map = new LinkedHashMap<>(0, 0.75f, true);
+        @Nullable final FrequencySketch sketch;
+
+        /** Size of this segment in units. Guarded by this segment's monitor. */
+        int size;
+
+        int putCount;
+        int createCount;
+        int evictionCount;
+        int rejectionCount;
+        int hitCount;
+        int missCount;
+
+        Segment(@Nullable FrequencySketch sketch) {
+            this.sketch = sketch;
+        }
+
+        void recordAccess(int hash) {
+            if (sketch != null) {
+                sketch.increment(hash);
+            }
+        }
+
+        /**
+         * Returns true if a new key with the given hash is used less frequently than the least
+         * recently used entry of this segment, and so should not replace it.
+         */
+        boolean rejects(int hash) {
+            FrequencySketch sketch = this.sketch;
+            if (sketch == null || map.isEmpty()) {
+                return false;
+            }
+            K victim = map.keySet().iterator().next();
+            return sketch.frequency(hash) <= sketch.frequency(ContainerHelpers.hashObject(victim));
+        }
+    }
+}
@@ -80,6 +80,35 @@ class ContainerHelpers {
         return ~lo;  // value not present
     }
 
+    // Spreads the bits of a key's hash so that sequential keys do not cluster when masked to the
+    // size of an open-addressed table.
+    static int hashInt(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hashLong(long key) {
+        return hashInt((int) (key ^ (key >>> 32)));
+    }
+
+    static int hashObject(Object key) {
+        return key == null ? 0 : hashInt(key.hashCode());
+    }
+
+    // Returns the smallest power of two table size which can hold capacity entries without
+    // exceeding a load factor of 3/4.
+    static int hashTableSize(int capacity) {
+        int size = 4;
+        while (hashTableCapacity(size) < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    static int hashTableCapacity(int tableSize) {
+        return tableSize - (tableSize >>> 2);
+    }
+
     private ContainerHelpers() {
     }
 }
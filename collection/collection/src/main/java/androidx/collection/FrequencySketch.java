@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+/**
+ * A count-min sketch of 4-bit counters used to estimate how often a key has been accessed
+ * recently. All counters are periodically halved so that the estimate favors recent accesses.
+ *
+ * <p>This class is not thread safe.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] mTable;
+    private final int mSampleSize;
+    private int mAdditions;
+
+    /**
+     * @param expectedSize the number of entries the sketch should track accurately.
+     */
+    FrequencySketch(int expectedSize) {
+        int tableSize = 8;
+        while (tableSize < expectedSize && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        mTable = new long[tableSize];
+        mSampleSize = 10 * tableSize;
+    }
+
+    /** Returns the estimated number of recent accesses for a key with the given hash, up to 15. */
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = spread(hash, i);
+            int shift = (int) (h >>> 60) << 2;
+            int count = (int) ((mTable[(int) h & (mTable.length - 1)] >>> shift) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /** Records an access of a key with the given hash. */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = spread(hash, i);
+            int shift = (int) (h >>> 60) << 2;
+            int index = (int) h & (mTable.length - 1);
+            if (((mTable[index] >>> shift) & 0xfL) != 0xfL) {
+                mTable[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++mAdditions == mSampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < mTable.length; i++) {
+            mTable[i] = (mTable[i] >>> 1) & RESET_MASK;
+        }
+        mAdditions >>>= 1;
+    }
+
+    private static long spread(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h + (h >>> 32);
+    }
+}
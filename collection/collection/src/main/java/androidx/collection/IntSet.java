@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * IntSet is a set of integers backed by an open-addressing hash table. Values are not boxed,
+ * and no entry object is allocated per element.
+ *
+ * <p>Lookups, insertions and removals take constant time on average, which makes it appropriate
+ * for sets holding thousands of elements or more.</p>
+ *
+ * <p>Elements are stored densely so it is possible to iterate over the items in this set using
+ * {@link #valueAt(int)} with indices in the range <code>0...size()-1</code>. The order of
+ * iteration is unspecified. Removing an element moves the last element into the removed index,
+ * so when removing while iterating, iterate from the last index towards the first.</p>
+ */
+public class IntSet implements Cloneable {
+    private int[] mValues;
+    // Open-addressed index over mValues. Each slot holds the index of an element plus one, or
+    // zero when the slot is empty.
+    private int[] mSlots;
+    private int mSize;
+
+    /**
+     * Creates a new IntSet containing no elements.
+     */
+    public IntSet() {
+        this(10);
+    }
+
+    /**
+     * Creates a new IntSet containing no elements that will not require any additional memory
+     * allocation to store the specified number of elements. If you supply an initial capacity of
+     * 0, the set will be initialized with a light-weight representation not requiring any
+     * additional array allocations.
+     */
+    public IntSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0");
+        }
+        if (initialCapacity == 0) {
+            mValues = ContainerHelpers.EMPTY_INTS;
+            mSlots = ContainerHelpers.EMPTY_INTS;
+        } else {
+            int tableSize = ContainerHelpers.hashTableSize(initialCapacity);
+            mValues = new int[ContainerHelpers.hashTableCapacity(tableSize)];
+            mSlots = new int[tableSize];
+        }
+    }
+
+    @Override
+    public IntSet clone() {
+        IntSet clone;
+        try {
+            clone = (IntSet) super.clone();
+            clone.mValues = mValues.clone();
+            clone.mSlots = mSlots.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    /**
+     * Adds the specified value to this set.
+     *
+     * @return true if this set did not already contain the value.
+     */
+    public boolean add(int value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+
+        if (mSize >= mValues.length) {
+            ensureCapacity(mSize + 1);
+        }
+        int index = mSize++;
+        mValues[index] = value;
+        insertSlot(value, index);
+        return true;
+    }
+
+    /**
+     * Adds all of the values in {@code other} to this set.
+     */
+    public void addAll(@NonNull IntSet other) {
+        ensureCapacity(mSize + other.mSize);
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            add(other.mValues[i]);
+        }
+    }
+
+    /**
+     * Removes the specified value from this set.
+     *
+     * @return true if this set contained the value.
+     */
+    public boolean remove(int value) {
+        int i = indexOf(value);
+        if (i >= 0) {
+            removeAt(i);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the value at the specified index. The value previously at index
+     * <code>size()-1</code> takes its place.
+     */
+    public void removeAt(int index) {
+        if (index >= mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        int last = mSize - 1;
+        deleteSlot(slotOf(index));
+        if (index != last) {
+            mSlots[slotOf(last)] = index + 1;
+            mValues[index] = mValues[last];
+        }
+        mSize = last;
+    }
+
+    /**
+     * Ensures the set can hold at least {@code minimumCapacity} values without growing.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        if (minimumCapacity <= mValues.length) {
+            return;
+        }
+        int tableSize = ContainerHelpers.hashTableSize(minimumCapacity);
+        mValues = Arrays.copyOf(mValues, ContainerHelpers.hashTableCapacity(tableSize));
+        mSlots = new int[tableSize];
+        for (int i = 0; i < mSize; i++) {
+            insertSlot(mValues[i], i);
+        }
+    }
+
+    /**
+     * Returns the number of values in this set.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value at that index.
+     */
+    public int valueAt(int index) {
+        if (index >= mSize) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return mValues[index];
+    }
+
+    /**
+     * Returns the index for which {@link #valueAt} would return the
+     * specified value, or a negative number if the value is not in this set.
+     */
+    public int indexOf(int value) {
+        if (mSize == 0) {
+            return -1;
+        }
+        int[] slots = mSlots;
+        int mask = slots.length - 1;
+        int slot = ContainerHelpers.hashInt(value) & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (mValues[entry - 1] == value) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /** Returns true if the specified value is in this set. */
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes all values from this IntSet.
+     */
+    public void clear() {
+        if (mSize != 0) {
+            Arrays.fill(mSlots, 0);
+            mSize = 0;
+        }
+    }
+
+    private void insertSlot(int value, int index) {
+        int[] slots = mSlots;
+        int mask = slots.length - 1;
+        int slot = ContainerHelpers.hashInt(value) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private int slotOf(int index) {
+        int[] slots = mSlots;
+        int mask = slots.length - 1;
+        int slot = ContainerHelpers.hashInt(mValues[index]) & mask;
+        while (slots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empties a slot by shifting back any following entries of the same probe run so that no
+    // tombstones are needed.
+    private void deleteSlot(int slot) {
+        int[] slots = mSlots;
+        int mask = slots.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int entry = slots[next];
+            if (entry == 0) {
+                break;
+            }
+            int home = ContainerHelpers.hashInt(mValues[entry - 1]) & mask;
+            boolean reachable = slot <= next
+                    ? slot < home && home <= next
+                    : slot < home || home <= next;
+            if (!reachable) {
+                slots[slot] = entry;
+                slot = next;
+            }
+        }
+        slots[slot] = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its values.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 14);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mValues[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+}
@@ -32,11 +32,24 @@
  *         prevents boxing compared to a traditional {@link java.util.Map}.
  *     </li>
  *     <li>
+ *         <b>{@link androidx.collection.IntIntMap} / {@link androidx.collection.LongObjectMap} /
+ *         {@link androidx.collection.ObjectIntMap} / {@link androidx.collection.IntSet}</b>
+ *         <p>
+ *         Hash tables with primitive keys or values which avoid boxing and scale to large data
+ *         sets.
+ *     </li>
+ *     <li>
  *         <b>{@link androidx.collection.LruCache}</b>
  *         <p>
  *         A map-like cache which keeps frequently-used entries and automatically evicts others.
  *     </li>
  *     <li>
+ *         <b>{@link androidx.collection.ConcurrentLruCache}</b>
+ *         <p>
+ *         A variant of {@code LruCache} with lock-striped segments for caches shared by many
+ *         threads.
+ *     </li>
+ *     <li>
  *         <b>{@link androidx.collection.CircularArray} /
  *         {@link androidx.collection.CircularIntArray}</b>
  *         <p>
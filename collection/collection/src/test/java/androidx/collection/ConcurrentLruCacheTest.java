@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class ConcurrentLruCacheTest {
+    @Test
+    public void putAndGet() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+        assertNull(cache.put("a", "A"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("A", cache.put("a", "B"));
+        assertEquals("B", cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.putCount());
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWithinSegment() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3, 1, false);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.get("a");
+        cache.put("d", "D");
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void sizeNeverExceedsMaxSize() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(50);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 50);
+        }
+        assertEquals(50, cache.snapshot().size());
+    }
+
+    @Test
+    public void entryRemovedReportsEvictionsAndReplacements() {
+        final List<String> log = new ArrayList<>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(
+                1, 1, false) {
+            @Override
+            protected void entryRemoved(boolean evicted, @NonNull String key,
+                    @NonNull String oldValue, @Nullable String newValue) {
+                log.add(key + "=" + oldValue + "," + newValue + "," + evicted);
+            }
+        };
+        cache.put("a", "A");
+        cache.put("a", "A2");
+        cache.put("b", "B");
+        cache.remove("b");
+        assertEquals(3, log.size());
+        assertEquals("a=A,A2,false", log.get(0));
+        assertEquals("a=A2,null,true", log.get(1));
+        assertEquals("b=B,null,false", log.get(2));
+    }
+
+    @Test
+    public void createIsUsedOnMiss() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(10) {
+            @Override
+            protected String create(@NonNull String key) {
+                return key.toUpperCase();
+            }
+        };
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, cache.createCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void sizeOfCountsTowardsMaxSize() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(10) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull String value) {
+                return value.length();
+            }
+        };
+        cache.put("a", "12345");
+        cache.put("b", "12345");
+        assertEquals(10, cache.size());
+        cache.put("c", "1");
+        assertTrue(cache.size() <= 10);
+        cache.evictAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void resizeTrims() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+        cache.resize(4);
+        assertEquals(4, cache.size());
+        assertEquals(4, cache.maxSize());
+    }
+
+    @Test
+    public void frequencyAdmissionKeepsHotEntriesDuringScan() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100, 1, true);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(i, i);
+                cache.get(i);
+            }
+        }
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+        int retained = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        assertTrue("retained " + retained, retained > 90);
+        assertTrue(cache.rejectionCount() > 0);
+    }
+
+    @Test
+    public void withoutFrequencyAdmissionScanFlushesCache() {
+        ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100, 1, false);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        for (int i = 1000; i < 2000; i++) {
+            cache.put(i, i);
+        }
+        assertFalse(cache.snapshot().containsKey(0));
+        assertEquals(0, cache.rejectionCount());
+    }
+
+    @Test
+    public void concurrentAccessKeepsSizeConsistent() throws InterruptedException {
+        final ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100, 4, true);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final Random random = new Random(t);
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = random.nextInt(500);
+                        if (random.nextBoolean()) {
+                            cache.put(key, key);
+                        } else {
+                            cache.get(key);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(cache.size(), cache.snapshot().size());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class IntIntMapTest {
+    @Test
+    public void getOrDefaultPrefersStoredValue() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        assertEquals(1, map.get(1, 2));
+    }
+
+    @Test
+    public void getOrDefaultUsesDefaultWhenAbsent() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(1, map.get(1, 1));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void putReplacesExistingValue() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        map.put(1, 2);
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(1));
+    }
+
+    @Test
+    public void zeroCapacityGrows() {
+        IntIntMap map = new IntIntMap(0);
+        assertFalse(map.containsKey(0));
+        map.put(0, 1);
+        assertEquals(1, map.get(0));
+    }
+
+    @Test
+    public void replaceWhenAbsentDoesNotStore() {
+        IntIntMap map = new IntIntMap();
+        assertFalse(map.replace(1, 1));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void replaceStoresWhenPresent() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        assertTrue(map.replace(1, 2));
+        assertEquals(2, map.get(1));
+    }
+
+    @Test
+    public void removeValueMismatchDoesNotRemove() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        assertFalse(map.remove(1, 2));
+        assertTrue(map.containsKey(1));
+    }
+
+    @Test
+    public void removeValueMatchRemoves() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        assertTrue(map.remove(1, 1));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void removeAtMovesLastMapping() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 10);
+        map.put(2, 20);
+        map.put(3, 30);
+        int removedKey = map.keyAt(0);
+        int lastKey = map.keyAt(2);
+        map.removeAt(0);
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey(removedKey));
+        assertEquals(lastKey, map.keyAt(0));
+        assertEquals(0, map.indexOfKey(lastKey));
+    }
+
+    @Test
+    public void isEmpty() {
+        IntIntMap map = new IntIntMap();
+        assertTrue(map.isEmpty());
+        map.put(1, 1);
+        assertFalse(map.isEmpty());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void containsValue() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 11);
+
+        assertTrue(map.containsValue(11));
+        assertFalse(map.containsValue(12));
+    }
+
+    @Test
+    public void putAll() {
+        IntIntMap dest = new IntIntMap();
+        dest.put(1, 1);
+        dest.put(3, 3);
+
+        IntIntMap source = new IntIntMap();
+        source.put(1, 10);
+        source.put(2, 20);
+
+        dest.putAll(source);
+        assertEquals(3, dest.size());
+        assertEquals(10, dest.get(1));
+        assertEquals(20, dest.get(2));
+        assertEquals(3, dest.get(3));
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        IntIntMap clone = map.clone();
+        clone.put(2, 2);
+        map.remove(1);
+        assertEquals(1, clone.get(1));
+        assertFalse(map.containsKey(2));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        IntIntMap map = new IntIntMap(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            // Multiples of 1024 collide heavily in the low bits to exercise probing.
+            int key = random.nextInt(2_000) * 1024;
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals((int) expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), map.get(entry.getKey(), -1));
+        }
+    }
+}
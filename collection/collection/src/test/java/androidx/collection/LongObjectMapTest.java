@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class LongObjectMapTest {
+    @Test
+    public void getOrDefaultPrefersStoredValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertEquals("1", map.get(1L, "2"));
+    }
+
+    @Test
+    public void getOrDefaultReturnsNullWhenNullStored() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, null);
+        assertNull(map.get(1L, "1"));
+    }
+
+    @Test
+    public void putIfAbsentDoesNotOverwriteStoredValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertEquals("1", map.putIfAbsent(1L, "2"));
+        assertEquals("1", map.get(1L));
+    }
+
+    @Test
+    public void putIfAbsentStoresValueWhenAbsent() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.putIfAbsent(1L, "2"));
+        assertEquals("2", map.get(1L));
+    }
+
+    @Test
+    public void replaceStoresAndReturnsOldValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertEquals("1", map.replace(1L, "2"));
+        assertEquals("2", map.get(1L));
+    }
+
+    @Test
+    public void replaceValueMismatchDoesNotReplace() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertFalse(map.replace(1L, "2", "3"));
+        assertEquals("1", map.get(1L));
+    }
+
+    @Test
+    public void replaceValueMatchReplaces() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertTrue(map.replace(1L, "1", "2"));
+        assertEquals("2", map.get(1L));
+    }
+
+    @Test
+    public void removeNullValueMatchRemoves() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, null);
+        assertTrue(map.remove(1L, null));
+        assertFalse(map.containsKey(1L));
+    }
+
+    @Test
+    public void removeValueMismatchDoesNotRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        assertFalse(map.remove(1L, "2"));
+        assertTrue(map.containsKey(1L));
+    }
+
+    @Test
+    public void keysDifferingInHighBitsAreDistinct() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "low");
+        map.put(1L << 32, "high");
+        assertEquals(2, map.size());
+        assertEquals("low", map.get(1L));
+        assertEquals("high", map.get(1L << 32));
+    }
+
+    @Test
+    public void clearReleasesValues() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "1");
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        LongObjectMap<Integer> map = new LongObjectMap<>(0);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000) * 0x100000000L;
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+    }
+}
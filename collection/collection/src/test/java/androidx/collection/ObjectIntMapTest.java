@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class ObjectIntMapTest {
+    @Test
+    public void getOrDefaultUsesDefaultWhenAbsent() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertEquals(-1, map.get("a", -1));
+        assertEquals(0, map.get("a"));
+    }
+
+    @Test
+    public void keysComparedByEquality() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put(new String("a"), 1);
+        assertEquals(1, map.get(new String("a")));
+        assertTrue(map.containsKey("a"));
+    }
+
+    @Test
+    public void nullKey() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put(null, 1);
+        map.put("a", 2);
+        assertEquals(1, map.get(null));
+        map.remove(null);
+        assertFalse(map.containsKey(null));
+        assertEquals(2, map.get("a"));
+    }
+
+    @Test
+    public void removeValueMatchRemoves() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("a", 1);
+        assertFalse(map.remove("a", 2));
+        assertTrue(map.remove("a", 1));
+        assertFalse(map.containsKey("a"));
+    }
+
+    @Test
+    public void removeAtReleasesKey() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("a", 1);
+        map.removeAt(0);
+        assertTrue(map.isEmpty());
+        map.put("b", 2);
+        assertEquals("b", map.keyAt(0));
+    }
+
+    @Test
+    public void toStringContainsMappings() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertEquals("{}", map.toString());
+        map.put("a", 1);
+        assertEquals("{a=1}", map.toString());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        ObjectIntMap<Integer> map = new ObjectIntMap<>(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            Integer key = random.nextInt(2_000) * 1024;
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals((int) expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.emoji.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.emoji.bundled.BundledEmojiCompatConfig
+import androidx.emoji.text.EmojiCompat
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures adding emoji spans to chat messages, as done when binding a message or on every
+ * keystroke in an edit text.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = 19)
+class EmojiProcessBenchmark(private val name: String, private val text: String) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Before
+    fun setup() {
+        val context = ApplicationProvider.getApplicationContext() as Context
+        val latch = CountDownLatch(1)
+        EmojiCompat.init(BundledEmojiCompatConfig(context).setReplaceAll(true))
+            .registerInitCallback(object : EmojiCompat.InitCallback() {
+                override fun onInitialized() {
+                    latch.countDown()
+                }
+            })
+        assertTrue(latch.await(10, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun process() {
+        val emojiCompat = EmojiCompat.get()
+        benchmarkRule.measureRepeated {
+            emojiCompat.process(text)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun data() = arrayOf(
+            arrayOf("noEmoji", "Running a bit late, I'll be there in about ten minutes."),
+            arrayOf("fewEmojis", "Happy birthday!!! 🎂🎉 Have a great day ❤️"),
+            // woman technologist, thumbs up with skin tone, flag of France and a family
+            arrayOf(
+                "sequences",
+                "\uD83D\uDC69\u200D\uD83D\uDCBB at work, \uD83D\uDC4D\uD83C\uDFFD " +
+                    "\uD83C\uDDEB\uD83C\uDDF7 \uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC67"
+            ),
+            arrayOf("longMessage", List(20) { "ok 😂 sure thing, see you soon" }
+                .joinToString(" "))
+        )
+    }
+}
@@ -92,6 +92,73 @@ public class MetadataRepoTest {
         assertEquals(null, getNode(new int[]{1, 2, 3, 4, 5}));
     }
 
+    @Test
+    public void testFlatTrie_matchesTrie() {
+        final int[] codePoint1 = new int[]{0x1F469, 0x200D, 0x1F4BB};
+        final EmojiMetadata metadata1 = new TestEmojiMetadata(codePoint1);
+
+        final int[] codePoint2 = new int[]{0x1F469};
+        final EmojiMetadata metadata2 = new TestEmojiMetadata(codePoint2);
+
+        final int[] codePoint3 = new int[]{0x2764, 0xFE0F};
+        final EmojiMetadata metadata3 = new TestEmojiMetadata(codePoint3);
+
+        mMetadataRepo.put(metadata1);
+        mMetadataRepo.put(metadata2);
+        mMetadataRepo.put(metadata3);
+
+        assertSame(metadata1, getFlatTrieNode(codePoint1));
+        assertSame(metadata2, getFlatTrieNode(codePoint2));
+        assertSame(metadata3, getFlatTrieNode(codePoint3));
+
+        assertEquals(null, getFlatTrieNode(new int[]{0x1F469, 0x200D}));
+        assertEquals(null, getFlatTrieNode(new int[]{0x2764}));
+        assertEquals(null, getFlatTrieNode(new int[]{0x2765}));
+        assertEquals(null, getFlatTrieNode(new int[]{'a'}));
+        assertEquals(null, getFlatTrieNode(new int[]{0x2764, 0xFE0F, 0xFE0F}));
+    }
+
+    @Test
+    public void testFlatTrie_updatedAfterPut() {
+        final int[] codePoint1 = new int[]{1, 2};
+        final EmojiMetadata metadata1 = new TestEmojiMetadata(codePoint1);
+        mMetadataRepo.put(metadata1);
+        assertSame(metadata1, getFlatTrieNode(codePoint1));
+
+        final int[] codePoint2 = new int[]{1, 3};
+        final EmojiMetadata metadata2 = new TestEmojiMetadata(codePoint2);
+        mMetadataRepo.put(metadata2);
+        assertSame(metadata1, getFlatTrieNode(codePoint1));
+        assertSame(metadata2, getFlatTrieNode(codePoint2));
+    }
+
+    @Test
+    public void testProcessor_seesPutAfterProcessing() {
+        final EmojiProcessor processor = new EmojiProcessor(mMetadataRepo,
+                new EmojiCompat.SpanFactory(), false, null);
+        final int[] codePoint1 = new int[]{1, 2};
+        final EmojiMetadata metadata1 = new TestEmojiMetadata(codePoint1);
+        mMetadataRepo.put(metadata1);
+        assertSame(metadata1, processor.getEmojiMetadata(new String(codePoint1, 0, 2)));
+
+        // the idle state machine was built for the trie which put() replaces
+        final int[] codePoint2 = new int[]{1, 3};
+        final EmojiMetadata metadata2 = new TestEmojiMetadata(codePoint2);
+        mMetadataRepo.put(metadata2);
+        assertSame(metadata2, processor.getEmojiMetadata(new String(codePoint2, 0, 2)));
+        assertSame(metadata1, processor.getEmojiMetadata(new String(codePoint1, 0, 2)));
+    }
+
+    final EmojiMetadata getFlatTrieNode(final int[] codepoints) {
+        final MetadataRepo.FlatTrie trie = mMetadataRepo.getFlatTrie();
+        int node = MetadataRepo.FlatTrie.ROOT;
+        for (int codepoint : codepoints) {
+            node = trie.getChild(node, codepoint);
+            if (node == MetadataRepo.FlatTrie.NO_NODE) return null;
+        }
+        return trie.getData(node);
+    }
+
     final EmojiMetadata getNode(final int[] codepoints) {
         return getNode(mMetadataRepo.getRootNode(), codepoints, 0);
     }
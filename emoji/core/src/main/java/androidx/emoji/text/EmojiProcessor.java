@@ -44,6 +44,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Processes the CharSequence and adds the emojis.
@@ -104,6 +105,12 @@ final class EmojiProcessor {
      */
     private final int[] mEmojiAsDefaultStyleExceptions;
 
+    /**
+     * State machine kept between calls, so that processing text doesn't allocate one each time.
+     * Taken out while in use, so that concurrent calls don't share it.
+     */
+    private final AtomicReference<ProcessorSm> mIdleProcessorSm = new AtomicReference<>();
+
     EmojiProcessor(@NonNull final MetadataRepo metadataRepo,
             @NonNull final EmojiCompat.SpanFactory spanFactory,
             final boolean useEmojiAsDefaultStyle,
@@ -115,25 +122,43 @@ final class EmojiProcessor {
     }
 
     EmojiMetadata getEmojiMetadata(@NonNull final CharSequence charSequence) {
-        final ProcessorSm sm = new ProcessorSm(mMetadataRepo.getRootNode(),
-                mUseEmojiAsDefaultStyle, mEmojiAsDefaultStyleExceptions);
-        final int end = charSequence.length();
-        int currentOffset = 0;
-
-        while (currentOffset < end) {
-            final int codePoint = Character.codePointAt(charSequence, currentOffset);
-            final int action = sm.check(codePoint);
-            if (action != ACTION_ADVANCE_END) {
-                return null;
+        final ProcessorSm sm = obtainProcessorSm();
+        try {
+            final int end = charSequence.length();
+            int currentOffset = 0;
+
+            while (currentOffset < end) {
+                final int codePoint = Character.codePointAt(charSequence, currentOffset);
+                final int action = sm.check(codePoint);
+                if (action != ACTION_ADVANCE_END) {
+                    return null;
+                }
+                currentOffset += Character.charCount(codePoint);
             }
-            currentOffset += Character.charCount(codePoint);
-        }
 
-        if (sm.isInFlushableState()) {
-            return sm.getCurrentMetadata();
+            if (sm.isInFlushableState()) {
+                return sm.getCurrentMetadata();
+            }
+
+            return null;
+        } finally {
+            mIdleProcessorSm.set(sm);
         }
+    }
 
-        return null;
+    /**
+     * Returns the idle state machine reset to the root of the trie, or a new one if it is in use
+     * or was built for a trie which has since been replaced by {@link MetadataRepo#put}. It should
+     * be given back by setting {@link #mIdleProcessorSm} once done.
+     */
+    private ProcessorSm obtainProcessorSm() {
+        final MetadataRepo.FlatTrie trie = mMetadataRepo.getFlatTrie();
+        final ProcessorSm sm = mIdleProcessorSm.getAndSet(null);
+        if (sm == null || sm.mTrie != trie) {
+            return new ProcessorSm(trie, mUseEmojiAsDefaultStyle, mEmojiAsDefaultStyleExceptions);
+        }
+        sm.reset();
+        return sm;
     }
 
     /**
@@ -217,8 +242,7 @@ final class EmojiProcessor {
             }
             // add new ones
             int addedCount = 0;
-            final ProcessorSm sm = new ProcessorSm(mMetadataRepo.getRootNode(),
-                    mUseEmojiAsDefaultStyle, mEmojiAsDefaultStyleExceptions);
+            final ProcessorSm sm = obtainProcessorSm();
 
             int currentOffset = start;
             int codePoint = Character.codePointAt(charSequence, currentOffset);
@@ -268,6 +292,7 @@ final class EmojiProcessor {
                     addedCount++;
                 }
             }
+            mIdleProcessorSm.set(sm);
             return spannable == null ? charSequence : spannable;
         } finally {
             if (isSpannableBuilder) {
@@ -487,20 +512,20 @@ final class EmojiProcessor {
         private int mState = STATE_DEFAULT;
 
         /**
-         * Root of the trie
+         * The trie, whose nodes are referred to by their index.
          */
-        private final MetadataRepo.Node mRootNode;
+        final MetadataRepo.FlatTrie mTrie;
 
         /**
          * Pointer to the node after last codepoint.
          */
-        private MetadataRepo.Node mCurrentNode;
+        private int mCurrentNode = MetadataRepo.FlatTrie.ROOT;
 
         /**
          * The node where ACTION_FLUSH is called. Required since after flush action is
          * returned mCurrentNode is reset to be the root.
          */
-        private MetadataRepo.Node mFlushNode;
+        private int mFlushNode = MetadataRepo.FlatTrie.NO_NODE;
 
         /**
          * The code point that was checked.
@@ -522,10 +547,9 @@ final class EmojiProcessor {
          */
         private final int[] mEmojiAsDefaultStyleExceptions;
 
-        ProcessorSm(MetadataRepo.Node rootNode, boolean useEmojiAsDefaultStyle,
+        ProcessorSm(MetadataRepo.FlatTrie trie, boolean useEmojiAsDefaultStyle,
                 int[] emojiAsDefaultStyleExceptions) {
-            mRootNode = rootNode;
-            mCurrentNode = rootNode;
+            mTrie = trie;
             mUseEmojiAsDefaultStyle = useEmojiAsDefaultStyle;
             mEmojiAsDefaultStyleExceptions = emojiAsDefaultStyleExceptions;
         }
@@ -533,10 +557,10 @@ final class EmojiProcessor {
         @Action
         int check(final int codePoint) {
             final int action;
-            MetadataRepo.Node node = mCurrentNode.get(codePoint);
+            final int node = mTrie.getChild(mCurrentNode, codePoint);
             switch (mState) {
                 case STATE_WALKING:
-                    if (node != null) {
+                    if (node != MetadataRepo.FlatTrie.NO_NODE) {
                         mCurrentNode = node;
                         mCurrentDepth += 1;
                         action = ACTION_ADVANCE_END;
@@ -545,7 +569,7 @@ final class EmojiProcessor {
                             action = reset();
                         } else if (isEmojiStyle(codePoint)) {
                             action = ACTION_ADVANCE_END;
-                        } else if (mCurrentNode.getData() != null) {
+                        } else if (mTrie.getData(mCurrentNode) != null) {
                             if (mCurrentDepth == 1) {
                                 if (shouldUseEmojiPresentationStyleForSingleCodepoint()) {
                                     mFlushNode = mCurrentNode;
@@ -566,7 +590,7 @@ final class EmojiProcessor {
                     break;
                 case STATE_DEFAULT:
                 default:
-                    if (node == null) {
+                    if (node == MetadataRepo.FlatTrie.NO_NODE) {
                         action = reset();
                     } else {
                         mState = STATE_WALKING;
@@ -582,9 +606,9 @@ final class EmojiProcessor {
         }
 
         @Action
-        private int reset() {
+        int reset() {
             mState = STATE_DEFAULT;
-            mCurrentNode = mRootNode;
+            mCurrentNode = MetadataRepo.FlatTrie.ROOT;
             mCurrentDepth = 0;
             return ACTION_ADVANCE_BOTH;
         }
@@ -593,14 +617,14 @@ final class EmojiProcessor {
          * @return the metadata node when ACTION_FLUSH is returned
          */
         EmojiMetadata getFlushMetadata() {
-            return mFlushNode.getData();
+            return mTrie.getData(mFlushNode);
         }
 
         /**
          * @return current pointer to the metadata node in the trie
          */
         EmojiMetadata getCurrentMetadata() {
-            return mCurrentNode.getData();
+            return mTrie.getData(mCurrentNode);
         }
 
         /**
@@ -611,12 +635,13 @@ final class EmojiProcessor {
          * @return whether the current state requires an emoji to be added
          */
         boolean isInFlushableState() {
-            return mState == STATE_WALKING && mCurrentNode.getData() != null
+            return mState == STATE_WALKING && mTrie.getData(mCurrentNode) != null
                     && (mCurrentDepth > 1 || shouldUseEmojiPresentationStyleForSingleCodepoint());
         }
 
         private boolean shouldUseEmojiPresentationStyleForSingleCodepoint() {
-            if (mCurrentNode.getData().isDefaultEmoji()) {
+            final EmojiMetadata data = mTrie.getData(mCurrentNode);
+            if (data.isDefaultEmoji()) {
                 // The codepoint is emoji style by default.
                 return true;
             }
@@ -630,7 +655,7 @@ final class EmojiProcessor {
                 if (mEmojiAsDefaultStyleExceptions == null) {
                     return true;
                 }
-                final int codepoint = mCurrentNode.getData().getCodepointAt(0);
+                final int codepoint = data.getCodepointAt(0);
                 final int index = Arrays.binarySearch(mEmojiAsDefaultStyleExceptions, codepoint);
                 if (index < 0) {
                     // Index is negative, so the codepoint was not found in the array of exceptions.
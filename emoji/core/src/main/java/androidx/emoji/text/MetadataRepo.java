@@ -32,6 +32,8 @@ import androidx.text.emoji.flatbuffer.MetadataList;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Class to hold the emoji metadata required to process and draw emojis.
@@ -60,6 +62,11 @@ public final class MetadataRepo {
      */
     private final Node mRootNode;
 
+    /**
+     * Flat copy of the trie used for matching, or {@code null} until it is built.
+     */
+    private volatile FlatTrie mFlatTrie;
+
     /**
      * Typeface to be used to render emojis.
      */
@@ -143,6 +150,7 @@ public final class MetadataRepo {
             Character.toChars(metadata.getId(), mEmojiCharArray, i * 2);
             put(metadata);
         }
+        mFlatTrie = new FlatTrie(mRootNode);
     }
 
     /**
@@ -169,6 +177,20 @@ public final class MetadataRepo {
         return mRootNode;
     }
 
+    /**
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    FlatTrie getFlatTrie() {
+        FlatTrie flatTrie = mFlatTrie;
+        if (flatTrie == null) {
+            // Only happens after put() was called directly, building it twice is harmless.
+            flatTrie = new FlatTrie(mRootNode);
+            mFlatTrie = flatTrie;
+        }
+        return flatTrie;
+    }
+
     /**
      * @hide
      */
@@ -198,6 +220,7 @@ public final class MetadataRepo {
                 "invalid metadata codepoint length");
 
         mRootNode.put(data, 0, data.getCodepointsLength() - 1);
+        mFlatTrie = null;
     }
 
     /**
@@ -208,8 +231,10 @@ public final class MetadataRepo {
      */
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     static class Node {
-        private final SparseArray<Node> mChildren;
-        private EmojiMetadata mData;
+        @SuppressWarnings("WeakerAccess") /* synthetic access */
+        final SparseArray<Node> mChildren;
+        @SuppressWarnings("WeakerAccess") /* synthetic access */
+        EmojiMetadata mData;
 
         private Node() {
             this(1);
@@ -243,4 +268,94 @@ public final class MetadataRepo {
             }
         }
     }
+
+    /**
+     * Copy of the trie in flat arrays, used to match emojis without following references between
+     * nodes. Nodes are numbered in breadth first order, the root being {@link #ROOT}, so the
+     * children of a node are consecutive nodes, sorted by the codepoint leading to them.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    static final class FlatTrie {
+        static final int ROOT = 0;
+        static final int NO_NODE = -1;
+
+        /**
+         * Codepoint leading to each node from its parent.
+         */
+        private final int[] mCodepoints;
+
+        /**
+         * First child of each node, the children of node i being the nodes from
+         * {@code mFirstChild[i]} to {@code mFirstChild[i + 1]}, exclusive.
+         */
+        private final int[] mFirstChild;
+
+        /**
+         * Metadata of each node, {@code null} if no emoji ends at the node.
+         */
+        private final EmojiMetadata[] mData;
+
+        /**
+         * Bit set of the codepoints in the Basic Multilingual Plane which start an emoji, so that
+         * most characters of a text are rejected without searching the root's children.
+         */
+        private final long[] mRootBmpCodepoints = new long[(Character.MAX_VALUE + 1) / 64];
+
+        @SuppressWarnings("WeakerAccess") /* synthetic access */
+        FlatTrie(@NonNull final Node root) {
+            final ArrayList<Node> nodes = new ArrayList<>();
+            nodes.add(root);
+            for (int i = 0; i < nodes.size(); i++) {
+                final SparseArray<Node> children = nodes.get(i).mChildren;
+                for (int j = 0; j < children.size(); j++) {
+                    nodes.add(children.valueAt(j));
+                }
+            }
+
+            final int size = nodes.size();
+            mCodepoints = new int[size];
+            mFirstChild = new int[size + 1];
+            mData = new EmojiMetadata[size];
+            int next = 1;
+            for (int i = 0; i < size; i++) {
+                final Node node = nodes.get(i);
+                final SparseArray<Node> children = node.mChildren;
+                mFirstChild[i] = next;
+                mData[i] = node.mData;
+                for (int j = 0; j < children.size(); j++) {
+                    mCodepoints[next++] = children.keyAt(j);
+                }
+            }
+            mFirstChild[size] = next;
+
+            for (int i = mFirstChild[ROOT]; i < mFirstChild[ROOT + 1]; i++) {
+                final int codepoint = mCodepoints[i];
+                if (codepoint <= Character.MAX_VALUE) {
+                    mRootBmpCodepoints[codepoint >>> 6] |= 1L << codepoint;
+                }
+            }
+        }
+
+        /**
+         * @return the child of the node for the codepoint, or {@link #NO_NODE} if there is none
+         */
+        int getChild(final int node, final int codepoint) {
+            if (node == ROOT && codepoint <= Character.MAX_VALUE
+                    && (mRootBmpCodepoints[codepoint >>> 6] & (1L << codepoint)) == 0) {
+                return NO_NODE;
+            }
+            final int index = Arrays.binarySearch(mCodepoints, mFirstChild[node],
+                    mFirstChild[node + 1], codepoint);
+            return index < 0 ? NO_NODE : index;
+        }
+
+        /**
+         * @return the metadata of the emoji ending at the node, or {@code null}
+         */
+        EmojiMetadata getData(final int node) {
+            return mData[node];
+        }
+    }
 }
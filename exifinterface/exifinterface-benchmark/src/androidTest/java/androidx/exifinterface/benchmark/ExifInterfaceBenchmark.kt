@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.exifinterface.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.exifinterface.benchmark.test.R
+import androidx.exifinterface.media.ExifInterface
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.io.File
+
+/**
+ * Measures reading all the Exif tags of an image, compared to reading only the few tags needed to
+ * display it in a gallery.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class ExifInterfaceBenchmark(private val fileName: String, private val resId: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val context = ApplicationProvider.getApplicationContext() as Context
+
+    private lateinit var file: File
+
+    @Before
+    fun setup() {
+        file = File(context.cacheDir, fileName)
+        context.resources.openRawResource(resId).use { input ->
+            file.outputStream().use { output -> input.copyTo(output) }
+        }
+    }
+
+    @After
+    fun teardown() {
+        file.delete()
+    }
+
+    @Test
+    fun allTags() {
+        benchmarkRule.measureRepeated {
+            ExifInterface(file).getAttributeInt(ExifInterface.TAG_ORIENTATION, 0)
+        }
+    }
+
+    @Test
+    fun someTags() {
+        benchmarkRule.measureRepeated {
+            ExifInterface(file, GALLERY_TAGS).getAttributeInt(ExifInterface.TAG_ORIENTATION, 0)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun data() = arrayOf(
+            arrayOf("jpeg_with_exif_byte_order_mm.jpg", R.raw.jpeg_with_exif_byte_order_mm),
+            arrayOf("jpeg_with_exif_with_xmp.jpg", R.raw.jpeg_with_exif_with_xmp),
+            arrayOf("dng_with_exif_with_xmp.dng", R.raw.dng_with_exif_with_xmp),
+            arrayOf("png_with_exif_byte_order_ii.png", R.raw.png_with_exif_byte_order_ii),
+            arrayOf("webp_with_exif.webp", R.raw.webp_with_exif)
+        )
+
+        private val GALLERY_TAGS = setOf(
+            ExifInterface.TAG_ORIENTATION,
+            ExifInterface.TAG_DATETIME,
+            ExifInterface.TAG_DATETIME_ORIGINAL
+        )
+    }
+}
@@ -63,8 +63,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -759,6 +762,68 @@ public class ExifInterfaceTest {
         assertEquals(isoValue, exif.getAttribute(newTag));
     }
 
+    @Test
+    @LargeTest
+    public void testReadOnlyGivenTags() throws IOException {
+        final Set<String> tags = new HashSet<>(Arrays.asList(
+                ExifInterface.TAG_ORIENTATION, ExifInterface.TAG_DATETIME));
+        for (String fileName : new String[] {JPEG_WITH_EXIF_BYTE_ORDER_II,
+                JPEG_WITH_EXIF_BYTE_ORDER_MM, PNG_WITH_EXIF_BYTE_ORDER_II, WEBP_WITH_EXIF}) {
+            File imageFile = getFileFromExternalDir(fileName);
+            ExifInterface allTags = new ExifInterface(imageFile);
+            ExifInterface someTags = new ExifInterface(imageFile, tags);
+
+            assertEquals(allTags.getAttribute(ExifInterface.TAG_ORIENTATION),
+                    someTags.getAttribute(ExifInterface.TAG_ORIENTATION));
+            assertEquals(allTags.getAttribute(ExifInterface.TAG_DATETIME),
+                    someTags.getAttribute(ExifInterface.TAG_DATETIME));
+            assertEquals(allTags.getAttribute(ExifInterface.TAG_IMAGE_WIDTH),
+                    someTags.getAttribute(ExifInterface.TAG_IMAGE_WIDTH));
+            assertEquals(allTags.hasThumbnail(), someTags.hasThumbnail());
+            if (allTags.hasThumbnail()) {
+                assertTrue(Arrays.equals(allTags.getThumbnailRange(),
+                        someTags.getThumbnailRange()));
+            }
+            assertNull(someTags.getAttribute(ExifInterface.TAG_FLASH));
+            assertNull(someTags.getAttribute(ExifInterface.TAG_GPS_LATITUDE));
+        }
+    }
+
+    @Test
+    @LargeTest
+    public void testReadOnlyGivenTags_fromInputStream() throws IOException {
+        final Set<String> tags = new HashSet<>(Arrays.asList(ExifInterface.TAG_ORIENTATION));
+        File imageFile = getFileFromExternalDir(JPEG_WITH_EXIF_BYTE_ORDER_MM);
+        ExifInterface allTags = new ExifInterface(imageFile);
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(imageFile));
+            ExifInterface someTags = new ExifInterface(in,
+                    ExifInterface.STREAM_TYPE_FULL_IMAGE_DATA, tags);
+            assertEquals(allTags.getAttributeInt(ExifInterface.TAG_ORIENTATION, 0),
+                    someTags.getAttributeInt(ExifInterface.TAG_ORIENTATION, 0));
+            assertNull(someTags.getAttribute(ExifInterface.TAG_MAKER_NOTE));
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    @Test
+    @LargeTest
+    public void testSaveAttributes_afterReadingOnlyGivenTags() throws IOException {
+        File imageFile = getFileFromExternalDir(JPEG_WITH_EXIF_BYTE_ORDER_II);
+        ExifInterface exif = new ExifInterface(imageFile,
+                new HashSet<>(Arrays.asList(ExifInterface.TAG_ORIENTATION)));
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION,
+                Integer.toString(ExifInterface.ORIENTATION_ROTATE_90));
+        try {
+            exif.saveAttributes();
+            fail();
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
     private void printExifTagsAndValues(String fileName, ExifInterface exifInterface) {
         // Prints thumbnail information.
         if (exifInterface.hasThumbnail()) {
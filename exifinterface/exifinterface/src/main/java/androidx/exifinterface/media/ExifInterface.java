@@ -3785,6 +3785,16 @@ public class ExifInterface {
     // Mappings from tag number to IFD type for pointer tags.
     @SuppressWarnings("unchecked")
     private static final HashMap<Integer, Integer> sExifPointerTagMap = new HashMap();
+    // Tags which are always read, even when only a set of tags is requested, because the type of
+    // the image, the size of the image and the location of the thumbnail are derived from them.
+    private static final HashSet<String> sTagSetForParsing = new HashSet<>(Arrays.asList(
+            TAG_NEW_SUBFILE_TYPE, TAG_SUBFILE_TYPE, TAG_IMAGE_WIDTH, TAG_IMAGE_LENGTH,
+            TAG_BITS_PER_SAMPLE, TAG_COMPRESSION, TAG_PHOTOMETRIC_INTERPRETATION, TAG_STRIP_OFFSETS,
+            TAG_STRIP_BYTE_COUNTS, TAG_JPEG_INTERCHANGE_FORMAT, TAG_JPEG_INTERCHANGE_FORMAT_LENGTH,
+            TAG_PIXEL_X_DIMENSION, TAG_PIXEL_Y_DIMENSION, TAG_DEFAULT_CROP_SIZE, TAG_MAKE,
+            TAG_MODEL, TAG_DNG_VERSION, TAG_ORF_THUMBNAIL_IMAGE, TAG_ORF_PREVIEW_IMAGE_START,
+            TAG_ORF_PREVIEW_IMAGE_LENGTH, TAG_ORF_ASPECT_FRAME, TAG_RW2_ISO,
+            TAG_RW2_JPG_FROM_RAW));
 
     // See JPEG File Interchange Format Version 1.02.
     // The following values are defined for handling JPEG streams. In this implementation, we are
@@ -3865,6 +3875,9 @@ public class ExifInterface {
     private AssetManager.AssetInputStream mAssetInputStream;
     private int mMimeType;
     private boolean mIsExifDataOnly;
+    // The tags to read, or null to read all of them.
+    @Nullable
+    private Set<String> mTagsToRead;
     @SuppressWarnings("unchecked")
     private final HashMap<String, ExifAttribute>[] mAttributes = new HashMap[EXIF_TAGS.length];
     private Set<Integer> mAttributesOffsets = new HashSet<>(EXIF_TAGS.length);
@@ -3908,6 +3921,31 @@ public class ExifInterface {
         initForFilename(file.getAbsolutePath());
     }
 
+    /**
+     * Reads only the given Exif tags from the specified image file. The values of other tags are
+     * skipped instead of being read, which makes reading faster when only a few tags are needed,
+     * for example when scanning many images for their orientation and date. Attributes of other
+     * tags, including tags from which the values returned by methods like {@link #getDateTime()}
+     * or {@link #getLatLong()} are computed, are not available unless they are in the set.
+     * Attributes cannot be saved with {@link #saveAttributes()}.
+     *
+     * @param file the file of the image data
+     * @param tags the names of the tags to read, like {@link #TAG_ORIENTATION}
+     * @throws NullPointerException if file or tags is null
+     * @throws IOException if an I/O error occurs while retrieving file descriptor via
+     *         {@link FileInputStream#getFD()}.
+     */
+    public ExifInterface(@NonNull File file, @NonNull Set<String> tags) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file cannot be null");
+        }
+        if (tags == null) {
+            throw new NullPointerException("tags cannot be null");
+        }
+        mTagsToRead = new HashSet<>(tags);
+        initForFilename(file.getAbsolutePath());
+    }
+
     /**
      * Reads Exif tags from the specified image file.
      *
@@ -3937,34 +3975,31 @@ public class ExifInterface {
         if (fileDescriptor == null) {
             throw new NullPointerException("fileDescriptor cannot be null");
         }
-        mAssetInputStream = null;
-        mFilename = null;
+        initForFileDescriptor(fileDescriptor);
+    }
 
-        boolean isFdDuped = false;
-        if (Build.VERSION.SDK_INT >= 21 && isSeekableFD(fileDescriptor)) {
-            mSeekableFileDescriptor = fileDescriptor;
-            // Keep the original file descriptor in order to save attributes when it's seekable.
-            // Otherwise, just close the given file descriptor after reading it because the save
-            // feature won't be working.
-            try {
-                fileDescriptor = Os.dup(fileDescriptor);
-                isFdDuped = true;
-            } catch (Exception e) {
-                throw new IOException("Failed to duplicate file descriptor", e);
-            }
-        } else {
-            mSeekableFileDescriptor = null;
+    /**
+     * Reads only the given Exif tags from the specified image file descriptor. This constructor
+     * will not rewind the offset of the given file descriptor. Developers should close the file
+     * descriptor after use. See {@link #ExifInterface(File, Set)} for which attributes are
+     * available.
+     *
+     * @param fileDescriptor the file descriptor of the image data
+     * @param tags the names of the tags to read, like {@link #TAG_ORIENTATION}
+     * @throws NullPointerException if file descriptor or tags is null
+     * @throws IOException if an error occurs while duplicating the file descriptor via
+     *         {@link Os#dup(FileDescriptor)}.
+     */
+    public ExifInterface(@NonNull FileDescriptor fileDescriptor, @NonNull Set<String> tags)
+            throws IOException {
+        if (fileDescriptor == null) {
+            throw new NullPointerException("fileDescriptor cannot be null");
         }
-        FileInputStream in = null;
-        try {
-            in = new FileInputStream(fileDescriptor);
-            loadAttributes(in);
-        } finally {
-            closeQuietly(in);
-            if (isFdDuped) {
-                closeFileDescriptor(fileDescriptor);
-            }
+        if (tags == null) {
+            throw new NullPointerException("tags cannot be null");
         }
+        mTagsToRead = new HashSet<>(tags);
+        initForFileDescriptor(fileDescriptor);
     }
 
     /**
@@ -3997,32 +4032,32 @@ public class ExifInterface {
         if (inputStream == null) {
             throw new NullPointerException("inputStream cannot be null");
         }
-        mFilename = null;
+        initForInputStream(inputStream, streamType);
+    }
 
-        boolean shouldBeExifDataOnly = (streamType == STREAM_TYPE_EXIF_DATA_ONLY);
-        if (shouldBeExifDataOnly) {
-            inputStream = new BufferedInputStream(inputStream, SIGNATURE_CHECK_SIZE);
-            if (!isExifDataOnly((BufferedInputStream) inputStream)) {
-                Log.w(TAG, "Given data does not follow the structure of an Exif-only data.");
-                return;
-            }
-            mIsExifDataOnly = true;
-            mAssetInputStream = null;
-            mSeekableFileDescriptor = null;
-        } else {
-            if (inputStream instanceof AssetManager.AssetInputStream) {
-                mAssetInputStream = (AssetManager.AssetInputStream) inputStream;
-                mSeekableFileDescriptor = null;
-            } else if (inputStream instanceof FileInputStream
-                    && isSeekableFD(((FileInputStream) inputStream).getFD())) {
-                mAssetInputStream = null;
-                mSeekableFileDescriptor = ((FileInputStream) inputStream).getFD();
-            } else {
-                mAssetInputStream = null;
-                mSeekableFileDescriptor = null;
-            }
+    /**
+     * Reads only the given Exif tags from the specified image input stream based on the stream
+     * type. The given input stream will proceed from its current position. Developers should close
+     * the input stream after use. See {@link #ExifInterface(File, Set)} for which attributes are
+     * available.
+     *
+     * @param inputStream the input stream that contains the image data
+     * @param streamType the type of input stream
+     * @param tags the names of the tags to read, like {@link #TAG_ORIENTATION}
+     * @throws NullPointerException if the input stream or tags is null
+     * @throws IOException if an I/O error occurs while retrieving file descriptor via
+     *         {@link FileInputStream#getFD()}.
+     */
+    public ExifInterface(@NonNull InputStream inputStream, @ExifStreamType int streamType,
+            @NonNull Set<String> tags) throws IOException {
+        if (inputStream == null) {
+            throw new NullPointerException("inputStream cannot be null");
         }
-        loadAttributes(inputStream);
+        if (tags == null) {
+            throw new NullPointerException("tags cannot be null");
+        }
+        mTagsToRead = new HashSet<>(tags);
+        initForInputStream(inputStream, streamType);
     }
 
     /**
@@ -4604,6 +4639,16 @@ public class ExifInterface {
         }
     }
 
+    // Returns whether the value of the given tag should be read from the image.
+    private boolean isTagToRead(String tag) {
+        if (mTagsToRead == null || mTagsToRead.contains(tag) || sTagSetForParsing.contains(tag)) {
+            return true;
+        }
+        // ORF and PEF files keep thumbnail and color space information in the MakerNote.
+        return TAG_MAKER_NOTE.equals(tag)
+                && (mMimeType == IMAGE_TYPE_ORF || mMimeType == IMAGE_TYPE_PEF);
+    }
+
     private static boolean isSeekableFD(FileDescriptor fd) {
         if (Build.VERSION.SDK_INT >= 21) {
             try {
@@ -4637,7 +4682,8 @@ public class ExifInterface {
      * other. It's best to use {@link #setAttribute(String,String)} to set all attributes to write
      * and make a single call rather than multiple calls for each attribute.
      * <p>
-     * This method is supported for JPEG, PNG and WebP files.
+     * This method is supported for JPEG, PNG and WebP files, which were read with all of their
+     * tags.
      * <p class="note">
      * Note: after calling this method, any attempts to obtain range information
      * from {@link #getAttributeRange(String)} or {@link #getThumbnailRange()}
@@ -4649,6 +4695,10 @@ public class ExifInterface {
      * </p>
      */
     public void saveAttributes() throws IOException {
+        if (mTagsToRead != null) {
+            throw new IOException("ExifInterface does not support saving attributes when only "
+                    + "some of the tags were read.");
+        }
         if (!isSupportedFormatForSavingAttributes()) {
             throw new IOException("ExifInterface only supports saving attributes on JPEG, PNG, "
                     + "or WebP formats.");
@@ -5214,6 +5264,67 @@ public class ExifInterface {
         }
     }
 
+    private void initForFileDescriptor(FileDescriptor fileDescriptor) throws IOException {
+        mAssetInputStream = null;
+        mFilename = null;
+
+        boolean isFdDuped = false;
+        if (Build.VERSION.SDK_INT >= 21 && isSeekableFD(fileDescriptor)) {
+            mSeekableFileDescriptor = fileDescriptor;
+            // Keep the original file descriptor in order to save attributes when it's seekable.
+            // Otherwise, just close the given file descriptor after reading it because the save
+            // feature won't be working.
+            try {
+                fileDescriptor = Os.dup(fileDescriptor);
+                isFdDuped = true;
+            } catch (Exception e) {
+                throw new IOException("Failed to duplicate file descriptor", e);
+            }
+        } else {
+            mSeekableFileDescriptor = null;
+        }
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(fileDescriptor);
+            loadAttributes(in);
+        } finally {
+            closeQuietly(in);
+            if (isFdDuped) {
+                closeFileDescriptor(fileDescriptor);
+            }
+        }
+    }
+
+    private void initForInputStream(InputStream inputStream, @ExifStreamType int streamType)
+            throws IOException {
+        mFilename = null;
+
+        boolean shouldBeExifDataOnly = (streamType == STREAM_TYPE_EXIF_DATA_ONLY);
+        if (shouldBeExifDataOnly) {
+            inputStream = new BufferedInputStream(inputStream, SIGNATURE_CHECK_SIZE);
+            if (!isExifDataOnly((BufferedInputStream) inputStream)) {
+                Log.w(TAG, "Given data does not follow the structure of an Exif-only data.");
+                return;
+            }
+            mIsExifDataOnly = true;
+            mAssetInputStream = null;
+            mSeekableFileDescriptor = null;
+        } else {
+            if (inputStream instanceof AssetManager.AssetInputStream) {
+                mAssetInputStream = (AssetManager.AssetInputStream) inputStream;
+                mSeekableFileDescriptor = null;
+            } else if (inputStream instanceof FileInputStream
+                    && isSeekableFD(((FileInputStream) inputStream).getFD())) {
+                mAssetInputStream = null;
+                mSeekableFileDescriptor = ((FileInputStream) inputStream).getFD();
+            } else {
+                mAssetInputStream = null;
+                mSeekableFileDescriptor = null;
+            }
+        }
+        loadAttributes(inputStream);
+    }
+
     private static double convertRationalLatLonToDouble(String rationalString, String ref) {
         try {
             String [] parts = rationalString.split(",", -1);
@@ -5564,11 +5675,11 @@ public class ExifInterface {
                     } else if (startsWith(bytes, IDENTIFIER_XMP_APP1)) {
                         // See XMP Specification Part 3: Storage in Files, 1.1.3 JPEG, Table 6
                         final int offset = start + IDENTIFIER_XMP_APP1.length;
-                        final byte[] value = Arrays.copyOfRange(bytes,
-                                IDENTIFIER_XMP_APP1.length, bytes.length);
                         // TODO: check if ignoring separate XMP data when tag 700 already exists is
                         //  valid.
-                        if (getAttribute(TAG_XMP) == null) {
+                        if (getAttribute(TAG_XMP) == null && isTagToRead(TAG_XMP)) {
+                            final byte[] value = Arrays.copyOfRange(bytes,
+                                    IDENTIFIER_XMP_APP1.length, bytes.length);
                             mAttributes[IFD_TYPE_PRIMARY].put(TAG_XMP, new ExifAttribute(
                                     IFD_FORMAT_BYTE, value.length, offset, value));
                             mXmpIsFromSeparateMarker = true;
@@ -5578,6 +5689,10 @@ public class ExifInterface {
                 }
 
                 case MARKER_COM: {
+                    if (!isTagToRead(TAG_USER_COMMENT)) {
+                        // Skip the comment below without reading it.
+                        break;
+                    }
                     byte[] bytes = new byte[length];
                     if (in.read(bytes) != length) {
                         throw new IOException("Invalid exif");
@@ -6803,6 +6918,11 @@ public class ExifInterface {
                 dataInputStream.seek(nextEntryOffset);
                 continue;
             }
+            if (!isTagToRead(tag.name) && !sExifPointerTagMap.containsKey(tagNumber)) {
+                // Skip the tag entry without reading its value since it wasn't requested.
+                dataInputStream.seek(nextEntryOffset);
+                continue;
+            }
 
             // Read a value from data field or seek to the value offset which is stored in data
             // field if the size of the entry value is bigger than 4.
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the adapters generated by the lifecycle annotation processor for the
+ * {@link OnLifecycleEvent} annotated observers of a module.
+ * <p>
+ * The first time an observer of a given class is added to a {@link Lifecycle}, its adapter is
+ * looked up by name with {@link Class#forName(String)}. Registering an index replaces that lookup
+ * for the observer classes it contains. Only classes which have a generated adapter are indexed:
+ * the classes without one are still looked up by name, and their methods are still read with
+ * reflection.
+ * <p>
+ * The annotation processor generates an index when the {@code lifecycle.adapterIndex} option is
+ * set to the fully qualified name of the index class, for instance with
+ * {@code -Alifecycle.adapterIndex=com.example.AppLifecycleAdapterIndex}. Register it before adding
+ * observers, e.g. in {@code Application.onCreate()}:
+ * <pre>
+ * LifecycleAdapterIndex.register(new AppLifecycleAdapterIndex());
+ * </pre>
+ * Observer classes which aren't in a registered index, such as the classes of other modules or
+ * the subclasses of an observer which don't have annotated methods of their own, are still looked
+ * up with reflection. {@link #getReflectiveObserverClasses()} returns them.
+ */
+public abstract class LifecycleAdapterIndex {
+    private final Map<Class<?>, Class<?>> mAdapterClasses = new HashMap<>();
+
+    /**
+     * Creates an empty index, which the generated subclass fills.
+     */
+    protected LifecycleAdapterIndex() {
+    }
+
+    /**
+     * Adds the adapter generated for the given observer class.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    protected final void putAdapterClass(@NonNull Class<?> observerClass,
+            @NonNull Class<?> adapterClass) {
+        mAdapterClasses.put(observerClass, adapterClass);
+    }
+
+    @Nullable
+    Class<?> getAdapterClass(@NonNull Class<?> observerClass) {
+        return mAdapterClasses.get(observerClass);
+    }
+
+    /**
+     * Registers an index, so that the adapters of its observer classes are found without looking
+     * them up by name. It must be called on the main thread, before adding the observers.
+     *
+     * @param index The index generated by the lifecycle annotation processor.
+     */
+    public static void register(@NonNull LifecycleAdapterIndex index) {
+        Lifecycling.registerIndex(index);
+    }
+
+    /**
+     * Returns the observer classes which were looked up with reflection since the process
+     * started, because they weren't in any registered index.
+     */
+    @NonNull
+    public static Set<Class<?>> getReflectiveObserverClasses() {
+        return Lifecycling.getReflectiveObserverClasses();
+    }
+}
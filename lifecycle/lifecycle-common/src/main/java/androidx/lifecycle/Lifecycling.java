@@ -25,8 +25,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Internal class to handle lifecycle conversion etc.
@@ -42,6 +44,9 @@ public class Lifecycling {
     private static Map<Class<?>, Integer> sCallbackCache = new HashMap<>();
     private static Map<Class<?>, List<Constructor<? extends GeneratedAdapter>>> sClassToAdapters =
             new HashMap<>();
+    private static List<LifecycleAdapterIndex> sIndexes = new ArrayList<>();
+    // Classes which weren't found in sIndexes, in the order they were looked up.
+    private static Set<Class<?>> sReflectiveClasses = new LinkedHashSet<>();
 
     // Left for binary compatibility when lifecycle-common goes up 2.1 as transitive dep
     // but lifecycle-runtime stays 2.0
@@ -112,6 +117,28 @@ public class Lifecycling {
         }
     }
 
+    static void registerIndex(@NonNull LifecycleAdapterIndex index) {
+        sIndexes.add(index);
+    }
+
+    @NonNull
+    static Set<Class<?>> getReflectiveObserverClasses() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(sReflectiveClasses));
+    }
+
+    @Nullable
+    private static Constructor<? extends GeneratedAdapter> indexedConstructor(Class<?> klass) {
+        for (int i = 0; i < sIndexes.size(); i++) {
+            Class<?> adapterClass = sIndexes.get(i).getAdapterClass(klass);
+            if (adapterClass != null) {
+                @SuppressWarnings("unchecked") final Class<? extends GeneratedAdapter> aClass =
+                        (Class<? extends GeneratedAdapter>) adapterClass;
+                return adapterConstructor(aClass, klass);
+            }
+        }
+        return null;
+    }
+
     @Nullable
     private static Constructor<? extends GeneratedAdapter> generatedConstructor(Class<?> klass) {
         try {
@@ -124,14 +151,21 @@ public class Lifecycling {
             @SuppressWarnings("unchecked") final Class<? extends GeneratedAdapter> aClass =
                     (Class<? extends GeneratedAdapter>) Class.forName(
                             fullPackage.isEmpty() ? adapterName : fullPackage + "." + adapterName);
+            return adapterConstructor(aClass, klass);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Constructor<? extends GeneratedAdapter> adapterConstructor(
+            Class<? extends GeneratedAdapter> aClass, Class<?> klass) {
+        try {
             Constructor<? extends GeneratedAdapter> constructor =
                     aClass.getDeclaredConstructor(klass);
             if (!constructor.isAccessible()) {
                 constructor.setAccessible(true);
             }
             return constructor;
-        } catch (ClassNotFoundException e) {
-            return null;
         } catch (NoSuchMethodException e) {
             // this should not happen
             throw new RuntimeException(e);
@@ -151,10 +185,15 @@ public class Lifecycling {
     private static int resolveObserverCallbackType(Class<?> klass) {
         // anonymous class bug:35073837
         if (klass.getCanonicalName() == null) {
+            sReflectiveClasses.add(klass);
             return REFLECTIVE_CALLBACK;
         }
 
-        Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
+        Constructor<? extends GeneratedAdapter> constructor = indexedConstructor(klass);
+        if (constructor == null) {
+            sReflectiveClasses.add(klass);
+            constructor = generatedConstructor(klass);
+        }
         if (constructor != null) {
             sClassToAdapters.put(klass, Collections
                     .<Constructor<? extends GeneratedAdapter>>singletonList(constructor));
@@ -19,8 +19,10 @@ package androidx.lifecycle;
 import static androidx.lifecycle.Lifecycle.Event.ON_ANY;
 import static androidx.lifecycle.Lifecycling.lifecycleEventObserver;
 
+import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import androidx.annotation.NonNull;
@@ -29,6 +31,8 @@ import androidx.lifecycle.observers.DerivedSequence2;
 import androidx.lifecycle.observers.DerivedWithNewMethods;
 import androidx.lifecycle.observers.DerivedWithNoNewMethods;
 import androidx.lifecycle.observers.DerivedWithOverridenMethodsWithLfAnnotation;
+import androidx.lifecycle.observers.IndexedObserver;
+import androidx.lifecycle.observers.IndexedObserverAdapter;
 import androidx.lifecycle.observers.InterfaceImpl1;
 import androidx.lifecycle.observers.InterfaceImpl2;
 import androidx.lifecycle.observers.InterfaceImpl3;
@@ -86,6 +90,26 @@ public class LifecyclingTest {
         assertThat(callback1, instanceOf(SingleGeneratedAdapterObserver.class));
     }
 
+    @Test
+    public void testIndexedAdapter() {
+        LifecycleAdapterIndex.register(new LifecycleAdapterIndex() {
+            {
+                putAdapterClass(IndexedObserver.class, IndexedObserverAdapter.class);
+            }
+        });
+        LifecycleEventObserver callback = lifecycleEventObserver(new IndexedObserver());
+        assertThat(callback, instanceOf(SingleGeneratedAdapterObserver.class));
+        assertThat(LifecycleAdapterIndex.getReflectiveObserverClasses(),
+                not(hasItem(IndexedObserver.class)));
+    }
+
+    @Test
+    public void testReflectiveObserverClasses() {
+        lifecycleEventObserver(new DerivedWithNewMethods());
+        assertThat(LifecycleAdapterIndex.getReflectiveObserverClasses(),
+                hasItem(DerivedWithNewMethods.class));
+    }
+
     // MUST BE HERE TILL Lifecycle 3.0.0 release for back-compatibility with other modules
     @SuppressWarnings("deprecation")
     @Test
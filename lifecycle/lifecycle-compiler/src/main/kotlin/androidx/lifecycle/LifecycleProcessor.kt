@@ -16,23 +16,63 @@
 
 package androidx.lifecycle
 
+import androidx.lifecycle.model.AdapterClass
 import javax.annotation.processing.AbstractProcessor
 import javax.annotation.processing.RoundEnvironment
 import javax.annotation.processing.SupportedAnnotationTypes
 import javax.lang.model.SourceVersion
 import javax.lang.model.element.TypeElement
 
+/**
+ * Annotation processor option which makes the processor generate a [LifecycleAdapterIndex] of all
+ * the adapters of the module, with the given fully qualified class name. Observers generated by
+ * other processors after the round which generates the index aren't in it.
+ */
+const val ADAPTER_INDEX_OPTION = "lifecycle.adapterIndex"
+
+/**
+ * Annotation processor options to tell Gradle whether the processor is isolating, or aggregating
+ * because it generates an index of all the adapters.
+ */
+private const val ISOLATING_ANNOTATION_PROCESSORS_INDICATOR =
+    "org.gradle.annotation.processing.isolating"
+private const val AGGREGATING_ANNOTATION_PROCESSORS_INDICATOR =
+    "org.gradle.annotation.processing.aggregating"
+
 @SupportedAnnotationTypes("androidx.lifecycle.OnLifecycleEvent")
 class LifecycleProcessor : AbstractProcessor() {
+
+    private val indexedAdapters = mutableListOf<AdapterClass>()
+    private var indexWritten = false
+
     override fun process(
         annotations: MutableSet<out TypeElement>,
         roundEnv: RoundEnvironment
     ): Boolean {
         val input = collectAndVerifyInput(processingEnv, roundEnv)
-        writeModels(transformToOutput(processingEnv, input), processingEnv)
+        val adapters = transformToOutput(processingEnv, input)
+        writeModels(adapters, processingEnv)
+        val indexName = processingEnv.options[ADAPTER_INDEX_OPTION]
+        if (indexName != null && !indexWritten) {
+            indexedAdapters.addAll(adapters)
+            // The index is written in the first round without new observers, rather than in the
+            // last round, where javac warns that generated files aren't processed any more.
+            if (adapters.isEmpty()) {
+                writeIndex(indexName, indexedAdapters, processingEnv)
+                indexWritten = true
+            }
+        }
         return true
     }
 
+    override fun getSupportedOptions(): MutableSet<String> {
+        return if (processingEnv.options.containsKey(ADAPTER_INDEX_OPTION)) {
+            mutableSetOf(ADAPTER_INDEX_OPTION, AGGREGATING_ANNOTATION_PROCESSORS_INDICATOR)
+        } else {
+            mutableSetOf(ADAPTER_INDEX_OPTION, ISOLATING_ANNOTATION_PROCESSORS_INDICATOR)
+        }
+    }
+
     override fun getSupportedSourceVersion(): SourceVersion {
         return SourceVersion.latest()
     }
@@ -28,6 +28,7 @@ import com.squareup.javapoet.ParameterSpec
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
 import javax.annotation.processing.ProcessingEnvironment
+import javax.lang.model.element.Element
 import javax.lang.model.element.Modifier
 import javax.lang.model.element.TypeElement
 import javax.tools.StandardLocation
@@ -130,6 +131,58 @@ private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnviron
     generateKeepRule(adapter.type, processingEnv)
 }
 
+/**
+ * Writes a [LifecycleAdapterIndex] named [indexName] which maps the observer classes to their
+ * adapters. Observers which can't be referenced from the package of the index, such as private
+ * nested classes, are left out and their adapters are still found with reflection.
+ */
+fun writeIndex(
+    indexName: String,
+    adapters: List<AdapterClass>,
+    processingEnv: ProcessingEnvironment
+) {
+    val indexClassName = ClassName.bestGuess(indexName)
+    val constructor = MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .apply {
+                adapters
+                        .map { it.type }
+                        .filter { it.isAccessibleFrom(indexClassName.packageName()) }
+                        .sortedBy { it.qualifiedName.toString() }
+                        .forEach { type ->
+                            addStatement("putAdapterClass($T.class, $T.class)",
+                                    ClassName.get(type),
+                                    ClassName.get(type.getPackageQName(), getAdapterName(type)))
+                        }
+            }
+            .build()
+    val indexTypeSpecBuilder = TypeSpec.classBuilder(indexClassName)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .superclass(ClassName.get(LifecycleAdapterIndex::class.java))
+            .addMethod(constructor)
+    adapters.forEach { indexTypeSpecBuilder.addOriginatingElement(it.type) }
+
+    addGeneratedAnnotationIfAvailable(indexTypeSpecBuilder, processingEnv)
+
+    JavaFile.builder(indexClassName.packageName(), indexTypeSpecBuilder.build())
+            .build().writeTo(processingEnv.filer)
+}
+
+private fun TypeElement.isAccessibleFrom(packageName: String): Boolean {
+    val samePackage = getPackageQName() == packageName
+    var element: Element = this
+    while (element is TypeElement) {
+        if (element.modifiers.contains(Modifier.PRIVATE)) {
+            return false
+        }
+        if (!samePackage && !element.modifiers.contains(Modifier.PUBLIC)) {
+            return false
+        }
+        element = element.enclosingElement
+    }
+    return true
+}
+
 private fun addGeneratedAnnotationIfAvailable(
     adapterTypeSpecBuilder: TypeSpec.Builder,
     processingEnv: ProcessingEnvironment
@@ -110,6 +110,34 @@ class ValidCasesTest {
                 .and().generatesProGuardRule("bar.DifferentPackagesDerived2.pro")
     }
 
+    @Test
+    fun testAdapterIndex() {
+        processClassWithIndex("foo.TestAdapterIndex", "foo.OnAnyMethod", "foo.InheritanceOk2")
+                .compilesWithoutWarnings().and().generatesSources(
+                        load("foo.TestAdapterIndex", "expected")
+                )
+    }
+
+    @Test
+    fun testAdapterIndexInOtherPackage() {
+        // package private observers can't be referenced from the index
+        processClassWithIndex("bar.OtherPackageAdapterIndex", "foo.OnAnyMethod",
+                "foo.InheritanceOk2").compilesWithoutError().and().generatesSources(
+                load("bar.OtherPackageAdapterIndex", "expected")
+        )
+    }
+
+    private fun processClassWithIndex(
+        indexName: String,
+        className: String,
+        vararg fullClassNames: String
+    ): CompileTester {
+        val javaFiles = fullClassNames.map { load(it, "") }.toTypedArray()
+        return JavaSourcesSubject.assertThat(load(className, ""), *javaFiles)
+                .withCompilerOptions("-A$ADAPTER_INDEX_OPTION=$indexName")
+                .processedWith(LifecycleProcessor())
+    }
+
     private fun <T> CompileTester.GeneratedPredicateClause<T>.generatesProGuardRule(name: String):
             CompileTester.SuccessfulFileClause<T> {
         return generatesFileNamed(StandardLocation.CLASS_OUTPUT, "", "META-INF/proguard/$name")
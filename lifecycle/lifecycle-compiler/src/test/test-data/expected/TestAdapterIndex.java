@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foo;
+
+import androidx.lifecycle.LifecycleAdapterIndex;
+import javax.annotation.Generated;
+
+@Generated("androidx.lifecycle.LifecycleProcessor")
+public final class TestAdapterIndex extends LifecycleAdapterIndex {
+  public TestAdapterIndex() {
+    putAdapterClass(InheritanceOk2Base.class, InheritanceOk2Base_LifecycleAdapter.class);
+    putAdapterClass(InheritanceOk2Derived.class, InheritanceOk2Derived_LifecycleAdapter.class);
+    putAdapterClass(OnAnyMethod.class, OnAnyMethod_LifecycleAdapter.class);
+  }
+}
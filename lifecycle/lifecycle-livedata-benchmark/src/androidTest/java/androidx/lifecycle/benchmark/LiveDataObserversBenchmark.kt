@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle.benchmark
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.lifecycle.LiveData
+import androidx.lifecycle.MediatorLiveData
+import androidx.lifecycle.MutableLiveData
+import androidx.lifecycle.Observer
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import kotlin.random.Random
+
+/**
+ * Measures observers coming and going on a LiveData shared by [OBSERVER_COUNT] observers, as
+ * when the rows of a large list observe the same LiveData.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+class LiveDataObserversBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    // LiveData requires observers to be added on the main thread
+    @get:Rule
+    val instantTaskExecutorRule = InstantTaskExecutorRule()
+
+    private val observers = List(OBSERVER_COUNT) { newObserver() }
+
+    @Test
+    fun observeAndRemoveAll() {
+        val liveData = MutableLiveData(0)
+        val removalOrder = observers.shuffled(Random(0))
+        benchmarkRule.measureRepeated {
+            for (observer in observers) {
+                liveData.observeForever(observer)
+            }
+            for (observer in removalOrder) {
+                liveData.removeObserver(observer)
+            }
+        }
+    }
+
+    @Test
+    fun observeAndRemoveOne() {
+        val liveData = MutableLiveData(0)
+        for (observer in observers) {
+            liveData.observeForever(observer)
+        }
+        val observer = newObserver()
+        benchmarkRule.measureRepeated {
+            liveData.observeForever(observer)
+            liveData.removeObserver(observer)
+        }
+    }
+
+    @Test
+    fun addAndRemoveAllSources() {
+        val mediator = MediatorLiveData<Int>()
+        val sources = List<LiveData<Int>>(OBSERVER_COUNT) { MutableLiveData(it) }
+        val removalOrder = sources.shuffled(Random(0))
+        val onChanged = newObserver()
+        benchmarkRule.measureRepeated {
+            for (source in sources) {
+                mediator.addSource(source, onChanged)
+            }
+            for (source in removalOrder) {
+                mediator.removeSource(source)
+            }
+        }
+    }
+
+    // a new instance on every call, unlike a lambda which doesn't capture anything
+    private fun newObserver() = object : Observer<Int> {
+        override fun onChanged(t: Int?) {
+        }
+    }
+
+    companion object {
+        private const val OBSERVER_COUNT = 1_000
+    }
+}
@@ -23,7 +23,7 @@ import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.arch.core.executor.ArchTaskExecutor;
-import androidx.arch.core.internal.SafeIterableMap;
+import androidx.arch.core.internal.FastSafeIterableMap;
 
 import java.util.Iterator;
 import java.util.Map;
@@ -63,8 +63,8 @@ public abstract class LiveData<T> {
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     static final Object NOT_SET = new Object();
 
-    private SafeIterableMap<Observer<? super T>, ObserverWrapper> mObservers =
-            new SafeIterableMap<>();
+    private FastSafeIterableMap<Observer<? super T>, ObserverWrapper> mObservers =
+            new FastSafeIterableMap<>();
 
     // how many observers are in active state
     @SuppressWarnings("WeakerAccess") /* synthetic access */
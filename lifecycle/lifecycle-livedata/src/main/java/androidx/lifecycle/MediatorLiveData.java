@@ -20,7 +20,7 @@ import androidx.annotation.CallSuper;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.arch.core.internal.SafeIterableMap;
+import androidx.arch.core.internal.FastSafeIterableMap;
 
 import java.util.Map;
 
@@ -67,7 +67,7 @@ import java.util.Map;
  */
 @SuppressWarnings("WeakerAccess")
 public class MediatorLiveData<T> extends MutableLiveData<T> {
-    private SafeIterableMap<LiveData<?>, Source<?>> mSources = new SafeIterableMap<>();
+    private FastSafeIterableMap<LiveData<?>, Source<?>> mSources = new FastSafeIterableMap<>();
 
     /**
      * Starts to listen the given {@code source} LiveData, {@code onChanged} observer will be called
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.palette.benchmark
+
+import android.graphics.Bitmap
+import android.graphics.Color
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.palette.graphics.Palette
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.Random
+
+/**
+ * Measures generating a palette from a bitmap, at the default resize area and at full size, and
+ * from a bitmap whose swatches are already cached.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class PaletteBenchmark(private val size: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var bitmap: Bitmap
+
+    @Before
+    fun setup() {
+        bitmap = createBitmap(size)
+    }
+
+    @After
+    fun teardown() {
+        bitmap.recycle()
+    }
+
+    @Test
+    fun generate() {
+        benchmarkRule.measureRepeated {
+            Palette.from(bitmap).generate()
+        }
+    }
+
+    @Test
+    fun generateFullSize() {
+        benchmarkRule.measureRepeated {
+            Palette.from(bitmap).resizeBitmapArea(-1).generate()
+        }
+    }
+
+    @Test
+    fun generateCached() {
+        val cache = Palette.SwatchCache(1)
+        benchmarkRule.measureRepeated {
+            Palette.from(bitmap).setSwatchCache(cache).generate()
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "size={0}")
+        fun data() = arrayOf(256, 1024)
+
+        /**
+         * Creates a bitmap with smooth gradients and some noise, so that it has many distinct
+         * colors like a photo.
+         */
+        private fun createBitmap(size: Int): Bitmap {
+            val random = Random(0)
+            val pixels = IntArray(size * size) { index ->
+                val x = index % size
+                val y = index / size
+                Color.rgb(
+                    (x * 255 / size + random.nextInt(16)).coerceAtMost(255),
+                    (y * 255 / size + random.nextInt(16)).coerceAtMost(255),
+                    ((x + y) * 127 / size + random.nextInt(16)).coerceAtMost(255)
+                )
+            }
+            return Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888)
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.palette.graphics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Bitmap;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@RunWith(AndroidJUnit4.class)
+public class QuantizerTests {
+    private static final int QUANTIZE_WORD_WIDTH = 5;
+
+    @Test
+    @SmallTest
+    public void testParallelHistogram() {
+        final Random random = new Random(42);
+        final int[] pixels = new int[ColorCutQuantizer.MIN_PIXELS_PER_TILE * 5 + 17];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt() | 0xFF000000;
+        }
+        final int[] expectedPixels = Arrays.copyOf(pixels, pixels.length);
+        final int[] expectedHistogram = new int[1 << 15];
+        ColorCutQuantizer.countPixels(expectedPixels, 0, expectedPixels.length,
+                expectedHistogram);
+
+        assertArrayEquals(expectedHistogram, ColorCutQuantizer.buildHistogram(pixels));
+        assertArrayEquals(expectedPixels, pixels);
+    }
+
+    @Test
+    @SmallTest
+    public void testSplitPointMatchesComparisonSort() {
+        final Random random = new Random(42);
+        final int[] pixels = new int[20000];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt() | 0xFF000000;
+        }
+        // Keep all of the distinct colors, so that the boxes can be picked from them
+        final ColorCutQuantizer quantizer =
+                new ColorCutQuantizer(pixels, Integer.MAX_VALUE, null);
+        final int[] colors = quantizer.mColors;
+        final Set<Integer> dimensions = new HashSet<>();
+
+        for (int run = 0; run < 200; run++) {
+            // Mostly small boxes, whose longest dimension is often green or blue
+            final int size = 2 + random.nextInt(random.nextBoolean() ? 32 : colors.length - 1);
+            final int lower = random.nextInt(colors.length - size + 1);
+            final int upper = lower + size - 1;
+            for (int i = upper; i > lower; i--) {
+                final int j = lower + random.nextInt(i - lower + 1);
+                final int color = colors[i];
+                colors[i] = colors[j];
+                colors[j] = color;
+            }
+
+            final ColorCutQuantizer.Vbox box = quantizer.new Vbox(lower, upper);
+            final int dimension = box.getLongestColorDimension();
+            dimensions.add(dimension);
+            final int[] expected = Arrays.copyOf(colors, colors.length);
+            final int expectedSplitPoint = findSplitPointWithComparisonSort(expected,
+                    quantizer.mHistogram, dimension, lower, upper);
+
+            assertEquals(expectedSplitPoint, box.findSplitPoint());
+            assertArrayEquals(expected, colors);
+        }
+        assertEquals(3, dimensions.size());
+    }
+
+    /**
+     * The split point search of the quantizer before boxes were sorted with a counting sort.
+     */
+    private static int findSplitPointWithComparisonSort(int[] colors, int[] hist, int dimension,
+            int lower, int upper) {
+        int population = 0;
+        for (int i = lower; i <= upper; i++) {
+            population += hist[colors[i]];
+        }
+        modifySignificantOctet(colors, dimension, lower, upper);
+        Arrays.sort(colors, lower, upper + 1);
+        modifySignificantOctet(colors, dimension, lower, upper);
+
+        final int midPoint = population / 2;
+        for (int i = lower, count = 0; i <= upper; i++) {
+            count += hist[colors[i]];
+            if (count >= midPoint) {
+                return Math.min(upper - 1, i);
+            }
+        }
+        return lower;
+    }
+
+    private static void modifySignificantOctet(int[] a, int dimension, int lower, int upper) {
+        switch (dimension) {
+            case ColorCutQuantizer.COMPONENT_RED:
+                break;
+            case ColorCutQuantizer.COMPONENT_GREEN:
+                for (int i = lower; i <= upper; i++) {
+                    final int color = a[i];
+                    a[i] = ColorCutQuantizer.quantizedGreen(color) << (QUANTIZE_WORD_WIDTH * 2)
+                            | ColorCutQuantizer.quantizedRed(color) << QUANTIZE_WORD_WIDTH
+                            | ColorCutQuantizer.quantizedBlue(color);
+                }
+                break;
+            case ColorCutQuantizer.COMPONENT_BLUE:
+                for (int i = lower; i <= upper; i++) {
+                    final int color = a[i];
+                    a[i] = ColorCutQuantizer.quantizedBlue(color) << (QUANTIZE_WORD_WIDTH * 2)
+                            | ColorCutQuantizer.quantizedGreen(color) << QUANTIZE_WORD_WIDTH
+                            | ColorCutQuantizer.quantizedRed(color);
+                }
+                break;
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testLargeBitmapConsistency() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final List<Palette.Swatch> first =
+                Palette.from(bitmap).resizeBitmapArea(-1).generate().getSwatches();
+        final List<Palette.Swatch> second =
+                Palette.from(bitmap).resizeBitmapArea(-1).generate().getSwatches();
+        assertEquals(first, second);
+    }
+}
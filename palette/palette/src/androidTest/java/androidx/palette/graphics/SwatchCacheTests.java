@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package androidx.palette.graphics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+@RunWith(AndroidJUnit4.class)
+public class SwatchCacheTests {
+
+    @Test
+    @SmallTest
+    public void testCachedSwatchesReused() {
+        final Palette.SwatchCache cache = new Palette.SwatchCache(4);
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+
+        final List<Palette.Swatch> first =
+                Palette.from(bitmap).setSwatchCache(cache).generate().getSwatches();
+        final List<Palette.Swatch> second =
+                Palette.from(bitmap).setSwatchCache(cache).generate().getSwatches();
+        assertEquals(first, second);
+        assertSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    @SmallTest
+    public void testDifferentOptionsNotShared() {
+        final Palette.SwatchCache cache = new Palette.SwatchCache(4);
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+
+        final List<Palette.Swatch> all =
+                Palette.from(bitmap).setSwatchCache(cache).generate().getSwatches();
+        final List<Palette.Swatch> region = Palette.from(bitmap)
+                .setSwatchCache(cache)
+                .setRegion(0, 0, bitmap.getWidth() / 2, bitmap.getHeight() / 2)
+                .generate()
+                .getSwatches();
+        assertNotEquals(all, region);
+    }
+
+    @Test
+    @SmallTest
+    public void testModifiedBitmapRequantized() {
+        final Palette.SwatchCache cache = new Palette.SwatchCache(4);
+        final Bitmap bitmap = TestUtils.loadSampleBitmap().copy(Bitmap.Config.ARGB_8888, true);
+
+        Palette.from(bitmap).setSwatchCache(cache).generate();
+        bitmap.eraseColor(Color.BLUE);
+        final List<Palette.Swatch> swatches =
+                Palette.from(bitmap).setSwatchCache(cache).generate().getSwatches();
+        assertEquals(1, swatches.size());
+        TestUtils.assertCloseColors(Color.BLUE, swatches.get(0).getRgb());
+    }
+}
@@ -17,16 +17,20 @@
 package androidx.palette.graphics;
 
 import android.graphics.Color;
+import android.os.Build;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.graphics.ColorUtils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * An color quantizer based on the Median-cut algorithm, but optimized for picking out distinct
@@ -48,6 +52,14 @@ final class ColorCutQuantizer {
 
     private static final int QUANTIZE_WORD_WIDTH = 5;
     private static final int QUANTIZE_WORD_MASK = (1 << QUANTIZE_WORD_WIDTH) - 1;
+    private static final int HISTOGRAM_SIZE = 1 << (QUANTIZE_WORD_WIDTH * 3);
+
+    /**
+     * The minimum number of pixels counted by each task of a parallel histogram pass. Counting
+     * fewer pixels than this on a thread doesn't make up for merging its histogram.
+     */
+    @VisibleForTesting
+    static final int MIN_PIXELS_PER_TILE = 1 << 15;
 
     final int[] mColors;
     final int[] mHistogram;
@@ -56,6 +68,10 @@ final class ColorCutQuantizer {
 
     private final float[] mTempHsl = new float[3];
 
+    // Buffers of the radix sort used to split boxes, allocated by the first split
+    @Nullable private int[] mSortBuffer;
+    @Nullable private int[] mSortCounts;
+
     /**
      * Constructor.
      *
@@ -66,14 +82,7 @@ final class ColorCutQuantizer {
     ColorCutQuantizer(int[] pixels, int maxColors, @Nullable Palette.Filter[] filters) {
         mFilters = filters;
 
-        final int[] hist = mHistogram = new int[1 << (QUANTIZE_WORD_WIDTH * 3)];
-        for (int i = 0; i < pixels.length; i++) {
-            final int quantizedColor = quantizeFromRgb888(pixels[i]);
-            // Now update the pixel value to the quantized value
-            pixels[i] = quantizedColor;
-            // And update the histogram
-            hist[quantizedColor]++;
-        }
+        final int[] hist = mHistogram = buildHistogram(pixels);
 
         // Now let's count the number of distinct colors
         int distinctColorCount = 0;
@@ -116,6 +125,33 @@ final class ColorCutQuantizer {
         return mQuantizedColors;
     }
 
+    /**
+     * Quantizes the pixels in place and counts the population of each quantized color. Large
+     * images are split into tiles which are counted in parallel.
+     */
+    @VisibleForTesting
+    static int[] buildHistogram(int[] pixels) {
+        if (Build.VERSION.SDK_INT >= 24 && pixels.length >= 2 * MIN_PIXELS_PER_TILE) {
+            final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            if (parallelism > 1) {
+                return Api24Impl.buildHistogram(pixels, parallelism);
+            }
+        }
+        final int[] hist = new int[HISTOGRAM_SIZE];
+        countPixels(pixels, 0, pixels.length, hist);
+        return hist;
+    }
+
+    static void countPixels(int[] pixels, int from, int to, int[] hist) {
+        for (int i = from; i < to; i++) {
+            final int quantizedColor = quantizeFromRgb888(pixels[i]);
+            // Now update the pixel value to the quantized value
+            pixels[i] = quantizedColor;
+            // And update the histogram
+            hist[quantizedColor]++;
+        }
+    }
+
     private List<Palette.Swatch> quantizePixels(int maxColors) {
         // Create the priority queue which is sorted by volume descending. This means we always
         // split the largest box in the queue
@@ -173,7 +209,8 @@ final class ColorCutQuantizer {
     /**
      * Represents a tightly fitting box around a color space.
      */
-    private class Vbox {
+    @VisibleForTesting
+    class Vbox {
         // lower and upper index are inclusive
         private int mLowerIndex;
         private int mUpperIndex;
@@ -306,16 +343,27 @@ final class ColorCutQuantizer {
             final int[] colors = mColors;
             final int[] hist = mHistogram;
 
-            // We need to sort the colors in this box based on the longest color dimension.
-            // As we can't use a Comparator to define the sort logic, we modify each color so that
-            // its most significant is the desired dimension
-            modifySignificantOctet(colors, longestDimension, mLowerIndex, mUpperIndex);
-
-            // Now sort... Arrays.sort uses a exclusive toIndex so we need to add 1
-            Arrays.sort(colors, mLowerIndex, mUpperIndex + 1);
-
-            // Now revert all of the colors so that they are packed as RGB again
-            modifySignificantOctet(colors, longestDimension, mLowerIndex, mUpperIndex);
+            // We need to sort the colors in this box based on the longest color dimension, then
+            // on the remaining components as if the colors were packed with the longest dimension
+            // as their most significant component (RGB, GRB or BGR). Sorting one component at a
+            // time, from the least significant one, only takes a pass over the box per component.
+            switch (longestDimension) {
+                case COMPONENT_RED:
+                    sortByComponent(COMPONENT_BLUE, mMinBlue, mMaxBlue);
+                    sortByComponent(COMPONENT_GREEN, mMinGreen, mMaxGreen);
+                    sortByComponent(COMPONENT_RED, mMinRed, mMaxRed);
+                    break;
+                case COMPONENT_GREEN:
+                    sortByComponent(COMPONENT_BLUE, mMinBlue, mMaxBlue);
+                    sortByComponent(COMPONENT_RED, mMinRed, mMaxRed);
+                    sortByComponent(COMPONENT_GREEN, mMinGreen, mMaxGreen);
+                    break;
+                case COMPONENT_BLUE:
+                    sortByComponent(COMPONENT_RED, mMinRed, mMaxRed);
+                    sortByComponent(COMPONENT_GREEN, mMinGreen, mMaxGreen);
+                    sortByComponent(COMPONENT_BLUE, mMinBlue, mMaxBlue);
+                    break;
+            }
 
             final int midPoint = mPopulation / 2;
             for (int i = mLowerIndex, count = 0; i <= mUpperIndex; i++)  {
@@ -330,6 +378,43 @@ final class ColorCutQuantizer {
             return mLowerIndex;
         }
 
+        /**
+         * Stable counting sort of the colors in this box by a single component.
+         */
+        private void sortByComponent(int component, int min, int max) {
+            if (min == max) {
+                // All of the colors have the same value, so they are already sorted
+                return;
+            }
+            final int[] colors = mColors;
+            int[] buffer = mSortBuffer;
+            int[] counts = mSortCounts;
+            if (buffer == null || counts == null) {
+                buffer = mSortBuffer = new int[colors.length];
+                counts = mSortCounts = new int[QUANTIZE_WORD_MASK + 2];
+            }
+            final int shift = component == COMPONENT_RED
+                    ? QUANTIZE_WORD_WIDTH + QUANTIZE_WORD_WIDTH
+                    : component == COMPONENT_GREEN ? QUANTIZE_WORD_WIDTH : 0;
+
+            // Count the colors with each value, then turn the counts into start offsets
+            for (int i = min; i <= max + 1; i++) {
+                counts[i] = 0;
+            }
+            for (int i = mLowerIndex; i <= mUpperIndex; i++) {
+                counts[((colors[i] >> shift) & QUANTIZE_WORD_MASK) + 1]++;
+            }
+            counts[min] = mLowerIndex;
+            for (int i = min + 1; i <= max; i++) {
+                counts[i] += counts[i - 1];
+            }
+            for (int i = mLowerIndex; i <= mUpperIndex; i++) {
+                final int color = colors[i];
+                buffer[counts[(color >> shift) & QUANTIZE_WORD_MASK]++] = color;
+            }
+            System.arraycopy(buffer, mLowerIndex, colors, mLowerIndex, getColorCount());
+        }
+
         /**
          * @return the average color of this box.
          */
@@ -359,39 +444,6 @@ final class ColorCutQuantizer {
         }
     }
 
-    /**
-     * Modify the significant octet in a packed color int. Allows sorting based on the value of a
-     * single color component. This relies on all components being the same word size.
-     *
-     * @see Vbox#findSplitPoint()
-     */
-    static void modifySignificantOctet(final int[] a, final int dimension,
-            final int lower, final int upper) {
-        switch (dimension) {
-            case COMPONENT_RED:
-                // Already in RGB, no need to do anything
-                break;
-            case COMPONENT_GREEN:
-                // We need to do a RGB to GRB swap, or vice-versa
-                for (int i = lower; i <= upper; i++) {
-                    final int color = a[i];
-                    a[i] = quantizedGreen(color) << (QUANTIZE_WORD_WIDTH + QUANTIZE_WORD_WIDTH)
-                            | quantizedRed(color) << QUANTIZE_WORD_WIDTH
-                            | quantizedBlue(color);
-                }
-                break;
-            case COMPONENT_BLUE:
-                // We need to do a RGB to BGR swap, or vice-versa
-                for (int i = lower; i <= upper; i++) {
-                    final int color = a[i];
-                    a[i] = quantizedBlue(color) << (QUANTIZE_WORD_WIDTH + QUANTIZE_WORD_WIDTH)
-                            | quantizedGreen(color) << QUANTIZE_WORD_WIDTH
-                            | quantizedRed(color);
-                }
-                break;
-        }
-    }
-
     private boolean shouldIgnoreColor(int color565) {
         final int rgb = approximateToRgb888(color565);
         ColorUtils.colorToHSL(rgb, mTempHsl);
@@ -423,6 +475,57 @@ final class ColorCutQuantizer {
         }
     };
 
+    @RequiresApi(24)
+    static class Api24Impl {
+        private Api24Impl() {
+            // This class is not instantiable.
+        }
+
+        static int[] buildHistogram(int[] pixels, int parallelism) {
+            final int tileSize = Math.max(MIN_PIXELS_PER_TILE,
+                    (pixels.length + parallelism - 1) / parallelism);
+            return ForkJoinPool.commonPool().invoke(
+                    new HistogramTask(pixels, 0, pixels.length, tileSize));
+        }
+    }
+
+    /**
+     * Counts a range of pixels into its own histogram, splitting it in two halves counted in
+     * parallel while it is larger than a tile.
+     */
+    @RequiresApi(24)
+    static class HistogramTask extends RecursiveTask<int[]> {
+        private final int[] mPixels;
+        private final int mFrom;
+        private final int mTo;
+        private final int mTileSize;
+
+        HistogramTask(int[] pixels, int from, int to, int tileSize) {
+            mPixels = pixels;
+            mFrom = from;
+            mTo = to;
+            mTileSize = tileSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (mTo - mFrom <= mTileSize) {
+                final int[] hist = new int[HISTOGRAM_SIZE];
+                countPixels(mPixels, mFrom, mTo, hist);
+                return hist;
+            }
+            final int middle = (mFrom + mTo) >>> 1;
+            final HistogramTask left = new HistogramTask(mPixels, mFrom, middle, mTileSize);
+            left.fork();
+            final int[] hist = new HistogramTask(mPixels, middle, mTo, mTileSize).compute();
+            final int[] leftHist = left.join();
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                hist[i] += leftHist[i];
+            }
+            return hist;
+        }
+    }
+
     /**
      * Quantized a RGB888 value to have a word width of {@value #QUANTIZE_WORD_WIDTH}.
      */
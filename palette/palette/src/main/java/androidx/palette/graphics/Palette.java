@@ -23,9 +23,11 @@ import android.util.Log;
 import android.util.SparseBooleanArray;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Px;
+import androidx.collection.LruCache;
 import androidx.collection.SimpleArrayMap;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.util.Preconditions;
@@ -601,6 +603,7 @@ public final class Palette {
 
         private final List<Filter> mFilters = new ArrayList<>();
         @Nullable private Rect mRegion;
+        @Nullable private SwatchCache mSwatchCache;
 
         /**
          * Construct a new {@link Builder} using a source {@link Bitmap}
@@ -746,6 +749,19 @@ public final class Palette {
             return this;
         }
 
+        /**
+         * Set a cache to look up the swatches of the bitmap in before quantizing it, and to store
+         * them in after.
+         * <p>This only works when the original input is a {@link Bitmap}.</p>
+         *
+         * @param cache the cache to use, or {@code null} to always quantize the bitmap.
+         */
+        @NonNull
+        public Builder setSwatchCache(@Nullable SwatchCache cache) {
+            mSwatchCache = cache;
+            return this;
+        }
+
         /**
          * Add a target profile to be generated in the palette.
          *
@@ -776,9 +792,19 @@ public final class Palette {
          */
         @NonNull
         public Palette generate() {
-            List<Swatch> swatches;
+            List<Swatch> swatches = null;
+
+            final SwatchCache cache = mSwatchCache;
+            SwatchCache.Key cacheKey = null;
+            if (cache != null && mBitmap != null) {
+                cacheKey = new SwatchCache.Key(mBitmap, mRegion, mMaxColors, mResizeArea,
+                        mResizeMaxDimension, mFilters);
+                swatches = cache.get(cacheKey);
+            }
 
-            if (mBitmap != null) {
+            if (swatches != null) {
+                // The bitmap was already quantized with the same options
+            } else if (mBitmap != null) {
                 // We have a Bitmap so we need to use quantization to reduce the number of colors
 
                 // First we'll scale down the bitmap if needed
@@ -809,6 +835,9 @@ public final class Palette {
                 }
 
                 swatches = quantizer.getQuantizedColors();
+                if (cache != null && cacheKey != null) {
+                    cache.put(cacheKey, swatches);
+                }
             } else if (mSwatches != null) {
                 // Else we're using the provided swatches
                 swatches = mSwatches;
@@ -932,6 +961,99 @@ public final class Palette {
         boolean isAllowed(@ColorInt int rgb, @NonNull float[] hsl);
     }
 
+    /**
+     * A cache of the swatches quantized from bitmaps, which can be shared by {@link Builder}s
+     * to skip the quantization of a bitmap which didn't change since a palette was last generated
+     * from it with the same options.
+     * <p>
+     * Bitmaps are identified by their {@link Bitmap#getGenerationId() generation id}, which
+     * changes whenever the bitmap is modified.
+     *
+     * @see Builder#setSwatchCache(SwatchCache)
+     */
+    public static final class SwatchCache {
+        private final LruCache<Key, List<Swatch>> mCache;
+
+        /**
+         * Construct a new cache.
+         *
+         * @param maxSize the maximum number of quantized bitmaps to keep.
+         */
+        public SwatchCache(@IntRange(from = 1) int maxSize) {
+            mCache = new LruCache<>(maxSize);
+        }
+
+        /**
+         * Clear the cache.
+         */
+        public void evictAll() {
+            mCache.evictAll();
+        }
+
+        @Nullable
+        List<Swatch> get(@NonNull Key key) {
+            return mCache.get(key);
+        }
+
+        void put(@NonNull Key key, @NonNull List<Swatch> swatches) {
+            mCache.put(key, swatches);
+        }
+
+        /**
+         * Identifies the contents of a bitmap and the options the swatches were quantized with.
+         */
+        static final class Key {
+            private final int mGenerationId;
+            private final int mWidth;
+            private final int mHeight;
+            @Nullable private final Rect mRegion;
+            private final int mMaxColors;
+            private final int mResizeArea;
+            private final int mResizeMaxDimension;
+            private final List<Filter> mFilters;
+
+            Key(Bitmap bitmap, @Nullable Rect region, int maxColors, int resizeArea,
+                    int resizeMaxDimension, List<Filter> filters) {
+                mGenerationId = bitmap.getGenerationId();
+                mWidth = bitmap.getWidth();
+                mHeight = bitmap.getHeight();
+                mRegion = region != null ? new Rect(region) : null;
+                mMaxColors = maxColors;
+                mResizeArea = resizeArea;
+                mResizeMaxDimension = resizeMaxDimension;
+                mFilters = new ArrayList<>(filters);
+            }
+
+            @Override
+            public boolean equals(@Nullable Object o) {
+                if (this == o) return true;
+                if (!(o instanceof Key)) return false;
+                final Key key = (Key) o;
+                return mGenerationId == key.mGenerationId
+                        && mWidth == key.mWidth
+                        && mHeight == key.mHeight
+                        && mMaxColors == key.mMaxColors
+                        && mResizeArea == key.mResizeArea
+                        && mResizeMaxDimension == key.mResizeMaxDimension
+                        && (mRegion != null ? mRegion.equals(key.mRegion) : key.mRegion == null)
+                        && mFilters.equals(key.mFilters);
+            }
+
+            @Override
+            public int hashCode() {
+                int result = mGenerationId;
+                result = 31 * result + mWidth;
+                result = 31 * result + mHeight;
+                result = 31 * result + (mRegion != null ? mRegion.hashCode() : 0);
+                result = 31 * result + mMaxColors;
+                result = 31 * result + mResizeArea;
+                result = 31 * result + mResizeMaxDimension;
+                result = 31 * result + mFilters.hashCode();
+                return result;
+            }
+        }
+    }
+
     /**
      * The default filter.
      */
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.DiffUtil
+import androidx.test.filters.LargeTest
+import org.junit.AfterClass
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.Random
+import java.util.concurrent.Executors
+
+@LargeTest
+@RunWith(Parameterized::class)
+class ParallelDiffBenchmark(
+    val input: Input
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun serial() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(input.callback, false)
+        }
+    }
+
+    @Test
+    fun parallel() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(input.callback, false, executor)
+        }
+    }
+
+    companion object {
+        private val executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors()
+        )
+
+        @JvmStatic
+        @AfterClass
+        fun shutdownExecutor() {
+            executor.shutdown()
+        }
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "input_{0}")
+        fun params() = listOf(1000, 50000).flatMap { size ->
+            listOf(
+                Input("scattered_edits", size, mutate(size, size / 10, 0)),
+                Input("scattered_moves", size, mutate(size, 0, size / 10)),
+                Input("scattered_edits_and_moves", size, mutate(size, size / 20, size / 20))
+            )
+        }
+
+        /**
+         * Returns a list of [0, size) with random items removed, replaced by new items, and
+         * moved to random positions.
+         */
+        private fun mutate(size: Int, edits: Int, moves: Int): List<Int> {
+            val random = Random(size.toLong())
+            val list = (0 until size).toMutableList()
+            repeat(edits) {
+                list.removeAt(random.nextInt(list.size))
+                list.add(random.nextInt(list.size + 1), size + it)
+            }
+            repeat(moves) {
+                list.add(random.nextInt(list.size), list.removeAt(random.nextInt(list.size)))
+            }
+            return list
+        }
+    }
+
+    class Input(
+        val name: String,
+        val size: Int,
+        val after: List<Int>
+    ) {
+        private val before = (0 until size).toList()
+
+        val callback = object : DiffUtil.Callback() {
+            override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+                before[oldItemPosition] == after[newItemPosition]
+
+            override fun getOldListSize() = before.size
+
+            override fun getNewListSize() = after.size
+
+            override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+                before[oldItemPosition] == after[newItemPosition]
+
+            override fun getOldItemKey(oldItemPosition: Int) = before[oldItemPosition]
+
+            override fun getNewItemKey(newItemPosition: Int) = after[newItemPosition]
+        }
+
+        override fun toString() = name + "_size_$size"
+    }
+}
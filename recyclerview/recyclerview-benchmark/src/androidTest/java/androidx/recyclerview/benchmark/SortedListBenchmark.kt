@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.SortedList
+import androidx.test.filters.LargeTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import kotlin.random.Random
+
+/**
+ * Measures adding items to a [SortedList] of [INITIAL_SIZE] items, with the new items following
+ * different insert patterns.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class SortedListBenchmark(
+    val input: Input
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun addAll() {
+        var list = createList()
+        benchmarkRule.measureRepeated {
+            list.addAll(input.items, false)
+            runWithTimingDisabled {
+                list = createList()
+            }
+        }
+    }
+
+    @Test
+    fun addOneByOne() {
+        var list = createList()
+        benchmarkRule.measureRepeated {
+            list.beginBatchedUpdates()
+            for (item in input.items) {
+                list.add(item)
+            }
+            list.endBatchedUpdates()
+            runWithTimingDisabled {
+                list = createList()
+            }
+        }
+    }
+
+    private fun createList() = SortedList(Int::class.javaObjectType, callback).apply {
+        addAll(initialItems, false)
+    }
+
+    companion object {
+        private const val INITIAL_SIZE = 10_000
+        private const val NEW_SIZE = 1_000
+
+        // even numbers, so that odd numbers can be inserted in between
+        private val initialItems = Array(INITIAL_SIZE) { it * 2 }
+
+        private val callback = object : SortedList.Callback<Int>() {
+            override fun compare(o1: Int, o2: Int) = o1.compareTo(o2)
+
+            override fun areContentsTheSame(oldItem: Int, newItem: Int) = oldItem == newItem
+
+            override fun areItemsTheSame(item1: Int, item2: Int) = item1 == item2
+
+            override fun onChanged(position: Int, count: Int) {
+            }
+
+            override fun onMoved(fromPosition: Int, toPosition: Int) {
+            }
+
+            override fun onInserted(position: Int, count: Int) {
+            }
+
+            override fun onRemoved(position: Int, count: Int) {
+            }
+        }
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun params() = listOf(
+            Input(
+                name = "append",
+                items = Array(NEW_SIZE) { INITIAL_SIZE * 2 + it }
+            ),
+            Input(
+                name = "prepend",
+                items = Array(NEW_SIZE) { it - NEW_SIZE }
+            ),
+            Input(
+                name = "middle_run",
+                items = Array(NEW_SIZE) { INITIAL_SIZE + it * 2 + 1 }
+            ),
+            Input(
+                name = "few_runs",
+                items = Array(NEW_SIZE) { (it / 100) * 1_000 + (it % 100) * 2 + 1 }
+            ),
+            Input(
+                name = "random",
+                items = Random(0).let { random ->
+                    Array(NEW_SIZE) { random.nextInt(INITIAL_SIZE) * 2 + 1 }
+                }
+            ),
+            Input(
+                name = "existing",
+                items = Array(NEW_SIZE) { it * 2 }
+            )
+        )
+    }
+
+    class Input(
+        val name: String,
+        val items: Array<Int>
+    ) {
+        override fun toString() = name
+    }
+}
@@ -170,6 +170,38 @@ public class GapWorkerTest {
         assertEquals(900, list.get(3).distanceToItem);
     }
 
+    @Test
+    public void taskOrderSlack() {
+        ArrayList<GapWorker.Task> list = new ArrayList<>();
+        list.add(new GapWorker.Task());
+        list.add(new GapWorker.Task());
+        list.add(new GapWorker.Task());
+        list.add(new GapWorker.Task());
+
+        list.get(0).immediate = false;
+        list.get(0).viewVelocity = 900;
+        list.get(0).slackNs = 3000;
+
+        list.get(1).immediate = true;
+        list.get(1).viewVelocity = 100;
+        list.get(1).slackNs = 4000;
+
+        list.get(2).immediate = false;
+        list.get(2).viewVelocity = 100;
+        list.get(2).slackNs = 1000;
+
+        list.get(3).immediate = false;
+        list.get(3).viewVelocity = 500;
+        list.get(3).slackNs = 2000;
+
+        Collections.sort(list, GapWorker.sTaskComparator);
+
+        assertEquals(4000, list.get(0).slackNs);
+        assertEquals(1000, list.get(1).slackNs);
+        assertEquals(2000, list.get(2).slackNs);
+        assertEquals(3000, list.get(3).slackNs);
+    }
+
     @SdkSuppress(minSdkVersion = Build.VERSION_CODES.LOLLIPOP)
     @Test
     public void gapWorkerWithoutLayout() {
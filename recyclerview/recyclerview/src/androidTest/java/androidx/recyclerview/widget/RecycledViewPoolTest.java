@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import android.content.Context;
@@ -138,6 +139,111 @@ public class RecycledViewPoolTest {
         assertThat(pool.getRecycledViewCount(1), is(equalTo(clears ? 0 : 1)));
     }
 
+    @Test
+    public void hitMissAndDiscardCounts() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(1, 1);
+        pool.putRecycledView(makeHolder(1));
+        pool.putRecycledView(makeHolder(1));
+
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(2));
+
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test
+    public void adaptiveSizing_growsAfterDiscardAndMiss() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        for (int i = 0; i < 6; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        assertEquals(5, pool.getRecycledViewCount(1));
+        for (int i = 0; i < 6; i++) {
+            pool.getRecycledView(1);
+        }
+
+        for (int i = 0; i < 7; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        assertEquals(6, pool.getRecycledViewCount(1));
+    }
+
+    @Test
+    public void adaptiveSizing_disabled_keepsCapacity() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        for (int i = 0; i < 6; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        for (int i = 0; i < 6; i++) {
+            pool.getRecycledView(1);
+        }
+
+        for (int i = 0; i < 7; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        assertEquals(5, pool.getRecycledViewCount(1));
+    }
+
+    @Test
+    public void adaptiveSizing_budgetTakesCapacityFromCheapestType() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxTotalRecycledViews(10);
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInCreateTime(2, 10);
+        for (int i = 0; i < 5; i++) {
+            pool.putRecycledView(makeHolder(2));
+        }
+        for (int i = 0; i < 6; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        for (int i = 0; i < 6; i++) {
+            pool.getRecycledView(1);
+        }
+
+        for (int i = 0; i < 6; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        assertEquals(6, pool.getRecycledViewCount(1));
+        assertEquals(4, pool.getRecycledViewCount(2));
+    }
+
+    @Test
+    public void adaptiveSizing_keepsCapacitySetByApp() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxRecycledViews(1, 2);
+        for (int i = 0; i < 3; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        for (int i = 0; i < 3; i++) {
+            pool.getRecycledView(1);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            pool.putRecycledView(makeHolder(1));
+        }
+        assertEquals(2, pool.getRecycledViewCount(1));
+    }
+
+    @Test
+    public void estimatePrefetchCost_includesCreateOnlyWithoutRecycledView() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        assertEquals(0, pool.estimatePrefetchCostNs(1));
+
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInBindTime(1, 100);
+        assertEquals(1100, pool.estimatePrefetchCostNs(1));
+
+        pool.putRecycledView(makeHolder(1));
+        assertEquals(100, pool.estimatePrefetchCostNs(1));
+    }
+
     private static class MockViewHolder extends RecyclerView.ViewHolder {
         MockViewHolder(Context context) {
             super(new View(context));
@@ -26,8 +26,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * DiffUtil is a utility class that calculates the difference between two lists and outputs a
@@ -74,6 +79,10 @@ import java.util.List;
  *     <li>1000 items and 200 modifications without moves: 13.54 ms, median: 13.36 ms
  * </ul>
  * <p>
+ * For large lists with many changes where items have unique keys, see
+ * {@link #calculateDiff(Callback, boolean, Executor)} which splits the lists into independent
+ * segments that are diffed in parallel.
+ * <p>
  * Due to implementation constraints, the max size of the list can be 2^26.
  *
  * @see ListAdapter
@@ -84,6 +93,9 @@ public class DiffUtil {
         // utility class, no instance.
     }
 
+    // The minimum number of items from both lists that is worth diffing on a separate thread.
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 2048;
+
     private static final Comparator<Diagonal> DIAGONAL_COMPARATOR = new Comparator<Diagonal>() {
         @Override
         public int compare(Diagonal o1, Diagonal o2) {
@@ -126,12 +138,6 @@ public class DiffUtil {
 
         final List<Diagonal> diagonals = new ArrayList<>();
 
-        // instead of a recursive implementation, we keep our own stack to avoid potential stack
-        // overflow exceptions
-        final List<Range> stack = new ArrayList<>();
-
-        stack.add(new Range(0, oldSize, 0, newSize));
-
         final int max = (oldSize + newSize + 1) / 2;
         // allocate forward and backward k-lines. K lines are diagonal lines in the matrix. (see the
         // paper for details)
@@ -139,6 +145,236 @@ public class DiffUtil {
         final CenteredArray forward = new CenteredArray(max * 2 + 1);
         final CenteredArray backward = new CenteredArray(max * 2 + 1);
 
+        findDiagonals(new Range(0, oldSize, 0, newSize), cb, forward, backward, diagonals);
+        // sort snakes
+        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+
+        return new DiffResult(cb, diagonals,
+                forward.backingData(), backward.backingData(),
+                detectMoves);
+    }
+
+    /**
+     * Calculates the list of update operations that can covert one list into the other one,
+     * diffing independent parts of the lists in parallel.
+     * <p>
+     * Items that have a key which is unique in both lists (see
+     * {@link Callback#getOldItemKey(int)} and {@link Callback#getNewItemKey(int)}) are matched
+     * first. The longest sequence of those matches that keeps the order of both lists anchors
+     * the diff, and the segments between two anchors are diffed with Myers' algorithm on the
+     * given executor. This takes the Myers' step from <code>O(N + D^2)</code> down to roughly
+     * <code>O(N log N)</code> when most items have unique keys, but the result is not
+     * guaranteed to be the minimal edit script.
+     * <p>
+     * The callback is called from the calling thread and from the executor's threads
+     * concurrently, so it must not mutate any state. If the callback does not provide keys, this
+     * method behaves like {@link #calculateDiff(Callback, boolean)}. Move detection still runs
+     * on the calling thread.
+     *
+     * @param cb The callback that acts as a gateway to the backing list data
+     * @param detectMoves True if DiffUtil should try to detect moved items, false otherwise.
+     * @param executor The executor to diff segments of the lists on.
+     *
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     */
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves,
+            @NonNull Executor executor) {
+        final int oldSize = cb.getOldListSize();
+        final int newSize = cb.getNewListSize();
+
+        final List<Diagonal> diagonals = new ArrayList<>();
+        final List<Range> segments = findAnchors(cb, oldSize, newSize, diagonals);
+
+        // group small segments together so that each task has a meaningful amount of work
+        final List<FutureTask<List<Diagonal>>> tasks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkSize = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            final Range segment = segments.get(i);
+            chunkSize += segment.oldSize() + segment.newSize();
+            if (chunkSize >= MIN_PARALLEL_CHUNK_SIZE || i == segments.size() - 1) {
+                tasks.add(new FutureTask<>(
+                        new SegmentDiff(cb, segments.subList(chunkStart, i + 1))));
+                chunkStart = i + 1;
+                chunkSize = 0;
+            }
+        }
+        // the calling thread diffs the first chunk itself instead of idling
+        for (int i = 1; i < tasks.size(); i++) {
+            executor.execute(tasks.get(i));
+        }
+        try {
+            for (FutureTask<List<Diagonal>> task : tasks) {
+                task.run(); // no-op if the executor already ran or is running it
+                diagonals.addAll(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating the diff", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+
+        return new DiffResult(cb, diagonals, new int[oldSize], new int[newSize], detectMoves);
+    }
+
+    /**
+     * Matches the items that have a key which is unique in both lists, keeping the longest
+     * sequence of matches that is increasing in both lists.
+     *
+     * @param diagonals The list to add the diagonals of the matched items to
+     * @return The ranges between the matched items that still need to be diffed.
+     */
+    private static List<Range> findAnchors(Callback cb, int oldSize, int newSize,
+            List<Diagonal> diagonals) {
+        // position of each key in the old list, or -1 if the key is not unique
+        final HashMap<Object, Integer> oldPositions = new HashMap<>();
+        for (int i = 0; i < oldSize; i++) {
+            final Object key = cb.getOldItemKey(i);
+            if (key != null) {
+                oldPositions.put(key, oldPositions.containsKey(key) ? -1 : i);
+            }
+        }
+        final HashMap<Object, Integer> newPositions = new HashMap<>();
+        for (int i = 0; i < newSize; i++) {
+            final Object key = cb.getNewItemKey(i);
+            if (key != null && oldPositions.containsKey(key)) {
+                newPositions.put(key, newPositions.containsKey(key) ? -1 : i);
+            }
+        }
+
+        // candidates, in old list order
+        final int[] matchX = new int[Math.min(oldSize, newSize)];
+        final int[] matchY = new int[matchX.length];
+        int matches = 0;
+        for (int i = 0; i < oldSize && matches < matchX.length; i++) {
+            final Object key = cb.getOldItemKey(i);
+            if (key == null || oldPositions.get(key) != i) {
+                continue;
+            }
+            final Integer newPosition = newPositions.get(key);
+            if (newPosition != null && newPosition >= 0
+                    && cb.areItemsTheSame(i, newPosition)) {
+                matchX[matches] = i;
+                matchY[matches] = newPosition;
+                matches++;
+            }
+        }
+
+        // longest increasing subsequence of the new positions, by patience sorting
+        final int[] tails = new int[matches];
+        final int[] previous = new int[matches];
+        int length = 0;
+        for (int i = 0; i < matches; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (matchY[tails[mid]] < matchY[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final int[] anchors = new int[length];
+        for (int i = length - 1, match = length > 0 ? tails[length - 1] : -1; i >= 0; i--) {
+            anchors[i] = match;
+            match = previous[match];
+        }
+
+        final List<Range> segments = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int runX = 0;
+        int runY = 0;
+        int runSize = 0;
+        for (int anchor : anchors) {
+            final int anchorX = matchX[anchor];
+            final int anchorY = matchY[anchor];
+            if (anchorX > x && anchorY > y) {
+                segments.add(new Range(x, anchorX, y, anchorY));
+            }
+            if (runSize > 0 && runX + runSize == anchorX && runY + runSize == anchorY) {
+                runSize++;
+            } else {
+                if (runSize > 0) {
+                    diagonals.add(new Diagonal(runX, runY, runSize));
+                }
+                runX = anchorX;
+                runY = anchorY;
+                runSize = 1;
+            }
+            x = anchorX + 1;
+            y = anchorY + 1;
+        }
+        if (runSize > 0) {
+            diagonals.add(new Diagonal(runX, runY, runSize));
+        }
+        if (oldSize > x && newSize > y) {
+            segments.add(new Range(x, oldSize, y, newSize));
+        }
+        return segments;
+    }
+
+    /**
+     * Diffs a list of ranges with Myers' algorithm.
+     */
+    private static class SegmentDiff implements Callable<List<Diagonal>> {
+        private final Callback mCallback;
+        private final List<Range> mSegments;
+
+        SegmentDiff(Callback callback, List<Range> segments) {
+            mCallback = callback;
+            mSegments = segments;
+        }
+
+        @Override
+        public List<Diagonal> call() {
+            int max = 0;
+            for (Range segment : mSegments) {
+                max = Math.max(max, (segment.oldSize() + segment.newSize() + 1) / 2);
+            }
+            final CenteredArray forward = new CenteredArray(max * 2 + 1);
+            final CenteredArray backward = new CenteredArray(max * 2 + 1);
+            final List<Diagonal> diagonals = new ArrayList<>();
+            for (Range segment : mSegments) {
+                findDiagonals(segment, mCallback, forward, backward, diagonals);
+            }
+            return diagonals;
+        }
+    }
+
+    /**
+     * Runs Myers' algorithm on the given range, adding the diagonals it finds to the given list.
+     */
+    private static void findDiagonals(
+            Range initialRange,
+            Callback cb,
+            CenteredArray forward,
+            CenteredArray backward,
+            List<Diagonal> diagonals) {
+        // instead of a recursive implementation, we keep our own stack to avoid potential stack
+        // overflow exceptions
+        final List<Range> stack = new ArrayList<>();
+
+        stack.add(initialRange);
+
         // We pool the ranges to avoid allocations for each recursive call.
         final List<Range> rangePool = new ArrayList<>();
         while (!stack.isEmpty()) {
@@ -171,12 +407,6 @@ public class DiffUtil {
             }
 
         }
-        // sort snakes
-        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
-
-        return new DiffResult(cb, diagonals,
-                forward.backingData(), backward.backingData(),
-                detectMoves);
     }
 
     /**
@@ -395,6 +625,42 @@ public class DiffUtil {
         public Object getChangePayload(int oldItemPosition, int newItemPosition) {
             return null;
         }
+
+        /**
+         * Returns a key that identifies the item at the given position of the old list, used by
+         * {@link DiffUtil#calculateDiff(Callback, boolean, Executor)} to match items quickly.
+         * <p>
+         * An item of the old list and an item of the new list with {@link Object#equals(Object)
+         * equal} keys must represent the same item, as defined by
+         * {@link #areItemsTheSame(int, int)}.
+         * <p>
+         * Default implementation returns {@code null}, which means the item does not have a key.
+         *
+         * @param oldItemPosition The position of the item in the old list
+         * @return The key of the item, or {@code null}.
+         *
+         * @see #getNewItemKey(int)
+         */
+        @Nullable
+        public Object getOldItemKey(int oldItemPosition) {
+            return null;
+        }
+
+        /**
+         * Returns a key that identifies the item at the given position of the new list, used by
+         * {@link DiffUtil#calculateDiff(Callback, boolean, Executor)} to match items quickly.
+         * <p>
+         * Default implementation returns {@code null}, which means the item does not have a key.
+         *
+         * @param newItemPosition The position of the item in the new list
+         * @return The key of the item, or {@code null}.
+         *
+         * @see #getOldItemKey(int)
+         */
+        @Nullable
+        public Object getNewItemKey(int newItemPosition) {
+            return null;
+        }
     }
 
     /**
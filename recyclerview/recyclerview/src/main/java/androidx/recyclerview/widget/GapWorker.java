@@ -41,6 +41,11 @@ final class GapWorker implements Runnable {
         public int distanceToItem;
         public RecyclerView view;
         public int position;
+        /**
+         * Time left to prefetch the item before it becomes visible: the time until it scrolls
+         * into view at the current velocity, minus the expected time to create and bind it.
+         */
+        public long slackNs;
 
         public void clear() {
             immediate = false;
@@ -48,6 +53,7 @@ final class GapWorker implements Runnable {
             distanceToItem = 0;
             view = null;
             position = 0;
+            slackNs = 0;
         }
     }
 
@@ -200,6 +206,12 @@ final class GapWorker implements Runnable {
                 return lhs.immediate ? -1 : 1;
             }
 
+            // then prioritize the _lowest_ slack, across all views, for the tasks which have to
+            // meet the deadline
+            if (!lhs.immediate && lhs.slackNs != rhs.slackNs) {
+                return lhs.slackNs < rhs.slackNs ? -1 : 1;
+            }
+
             // then prioritize _highest_ view velocity
             int deltaViewVelocity = rhs.viewVelocity - lhs.viewVelocity;
             if (deltaViewVelocity != 0) return deltaViewVelocity;
@@ -252,6 +264,7 @@ final class GapWorker implements Runnable {
                 task.distanceToItem = distanceToItem;
                 task.view = view;
                 task.position = prefetchRegistry.mPrefetchArray[j];
+                task.slackNs = computeSlackNs(view, task.position, viewVelocity, distanceToItem);
 
                 totalTaskIndex++;
             }
@@ -261,6 +274,22 @@ final class GapWorker implements Runnable {
         Collections.sort(mTasks, sTaskComparator);
     }
 
+    private long computeSlackNs(RecyclerView view, int position, int viewVelocity,
+            int distanceToItem) {
+        if (viewVelocity == 0) {
+            // not scrolling, no predictable visibility time
+            return Long.MAX_VALUE;
+        }
+        // Prefetch vectors are in pixels per frame. Note: positions are adapter positions
+        // because prefetch positions are only collected without pending adapter updates.
+        long visibleInNs = distanceToItem * mFrameIntervalNs / viewVelocity;
+        if (view.mAdapter == null || position >= view.mAdapter.getItemCount()) {
+            return visibleInNs;
+        }
+        final int viewType = view.mAdapter.getItemViewType(position);
+        return visibleInNs - view.mRecycler.getRecycledViewPool().estimatePrefetchCostNs(viewType);
+    }
+
     static boolean isPrefetchPositionAttached(RecyclerView view, int position) {
         final int childCount = view.mChildHelper.getUnfilteredChildCount();
         for (int i = 0; i < childCount; i++) {
@@ -288,6 +317,12 @@ final class GapWorker implements Runnable {
             holder = recycler.tryGetViewHolderForPositionByDeadline(
                     position, false, deadlineNs);
 
+            final RecyclerView.RecycledViewPool pool = recycler.getRecycledViewPool();
+            if (holder != null && holder.isBound() && !holder.isInvalid()) {
+                pool.mPrefetchCount++;
+            } else {
+                pool.mPrefetchDeadlineMissCount++;
+            }
             if (holder != null) {
                 if (holder.isBound() && !holder.isInvalid()) {
                     // Only give the view a chance to go into the cache if binding succeeded
@@ -38,6 +38,8 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
@@ -93,6 +95,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A flexible view for providing a limited window into a large data set.
@@ -5822,9 +5825,16 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      * and use {@link RecyclerView#setRecycledViewPool(RecycledViewPool)}.
      * <p>
      * RecyclerView automatically creates a pool for itself if you don't provide one.
+     * <p>
+     * By default, the pool holds up to 5 ViewHolders of each type, unless changed with
+     * {@link #setMaxRecycledViews(int, int)}. With {@link #setAdaptiveSizingEnabled(boolean)
+     * adaptive sizing}, the pool instead grows the capacity of the types it had to discard
+     * ViewHolders of and then miss, within a total budget which favors the types which are the
+     * most expensive to create.
      */
     public static class RecycledViewPool {
         private static final int DEFAULT_MAX_SCRAP = 5;
+        private static final int DEFAULT_MAX_TOTAL_SCRAP = 100;
 
         /**
          * Tracks both pooled holders, as well as create/bind timing metadata for the given type.
@@ -5843,14 +5853,34 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         static class ScrapData {
             final ArrayList<ViewHolder> mScrapHeap = new ArrayList<>();
             int mMaxScrap = DEFAULT_MAX_SCRAP;
+            // Whether mMaxScrap was set by the app, which adaptive sizing doesn't override.
+            boolean mMaxScrapSet = false;
+            // ViewHolders discarded because the heap was full, since the last time the capacity
+            // was grown.
+            int mDiscardedSinceGrow = 0;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            // Executor which prefetch creates ViewHolders on when it can't create them in time.
+            Executor mPrefetchCreateExecutor;
+            // ViewHolders being created on a background thread, not yet added to the heap.
+            int mPendingCreateCount = 0;
         }
 
         SparseArray<ScrapData> mScrap = new SparseArray<>();
 
         private int mAttachCount = 0;
 
+        private boolean mAdaptiveSizingEnabled = false;
+        private int mMaxTotalRecycledViews = DEFAULT_MAX_TOTAL_SCRAP;
+
+        private long mHitCount = 0;
+        private long mMissCount = 0;
+        private long mDiscardCount = 0;
+        long mPrefetchCount = 0;
+        long mPrefetchDeadlineMissCount = 0;
+
+        private static Handler sMainThreadHandler;
+
         /**
          * Discard all ViewHolders.
          */
@@ -5869,6 +5899,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void setMaxRecycledViews(int viewType, int max) {
             ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mMaxScrapSet = true;
+            setMaxScrap(scrapData, max);
+        }
+
+        private static void setMaxScrap(ScrapData scrapData, int max) {
             scrapData.mMaxScrap = max;
             final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
             while (scrapHeap.size() > max) {
@@ -5876,6 +5911,183 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             }
         }
 
+        /**
+         * Enables or disables adaptive sizing of the pool.
+         * <p>
+         * When enabled, the pool grows the capacity of a view type by one each time it misses a
+         * ViewHolder of that type after having discarded one because the type was full. The sum
+         * of the capacities of all types is kept within
+         * {@link #setMaxTotalRecycledViews(int) the total budget}: when growing a type would
+         * exceed it, the capacity is taken from the type with the lowest average create time,
+         * as long as it is cheaper to create than the growing type.
+         * <p>
+         * View types whose capacity was set with {@link #setMaxRecycledViews(int, int)} keep it,
+         * and don't count towards the total budget.
+         * <p>
+         * Disabling adaptive sizing keeps the current capacities.
+         *
+         * @param enabled Whether the pool adapts the capacity of each view type.
+         */
+        public void setAdaptiveSizingEnabled(boolean enabled) {
+            mAdaptiveSizingEnabled = enabled;
+        }
+
+        /**
+         * Returns whether the pool adapts the capacity of each view type.
+         *
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public boolean isAdaptiveSizingEnabled() {
+            return mAdaptiveSizingEnabled;
+        }
+
+        /**
+         * Sets the maximum total number of ViewHolders that adaptive sizing can give to the view
+         * types of the pool. Defaults to 100.
+         * <p>
+         * The budget only bounds how far adaptive sizing grows capacities, lowering it doesn't
+         * shrink the current ones.
+         *
+         * @param max Maximum number of ViewHolders held by the view types sized adaptively.
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public void setMaxTotalRecycledViews(int max) {
+            mMaxTotalRecycledViews = max;
+        }
+
+        /**
+         * Returns the number of times a ViewHolder was acquired from the pool with
+         * {@link #getRecycledView(int)}.
+         */
+        public long getHitCount() {
+            return mHitCount;
+        }
+
+        /**
+         * Returns the number of times {@link #getRecycledView(int)} found no ViewHolder of the
+         * requested type, so that a new one had to be created.
+         */
+        public long getMissCount() {
+            return mMissCount;
+        }
+
+        /**
+         * Returns the number of ViewHolders discarded by {@link #putRecycledView(ViewHolder)}
+         * because the pool was full for their type.
+         */
+        public long getDiscardCount() {
+            return mDiscardCount;
+        }
+
+        /**
+         * Returns the number of ViewHolders that prefetch created or bound ahead of time, in
+         * between frames, for the RecyclerViews using this pool.
+         */
+        public long getPrefetchCount() {
+            return mPrefetchCount;
+        }
+
+        /**
+         * Returns the number of times prefetch gave up on an item, for the RecyclerViews using
+         * this pool, because it expected that creating or binding it wouldn't complete before the
+         * next frame.
+         */
+        public long getPrefetchDeadlineMissCount() {
+            return mPrefetchDeadlineMissCount;
+        }
+
+        /**
+         * Sets an executor on which prefetch creates ViewHolders of the given type, when creating
+         * them on the main thread wouldn't complete before the next frame.
+         * <p>
+         * The ViewHolder is then added to the pool, to be bound by a later prefetch or layout.
+         * Only set an executor for view types which the adapter can create off the main thread,
+         * see {@link #prewarm(Adapter, RecyclerView, int, int, Executor)}.
+         *
+         * @param viewType ViewHolder type.
+         * @param executor The executor to create ViewHolders of that type on, or {@code null} to
+         *                 only create them on the main thread.
+         */
+        public void setPrefetchCreateExecutor(int viewType, @Nullable Executor executor) {
+            getScrapDataForType(viewType).mPrefetchCreateExecutor = executor;
+        }
+
+        /**
+         * Creates ViewHolders of the given type on a background thread, and adds them to the pool
+         * on the main thread, so that the first items of that type laid out don't need to be
+         * created during a scroll.
+         * <p>
+         * The adapter must be able to create ViewHolders off the main thread, which, for example,
+         * excludes views that create a {@link Handler} when constructed. ViewHolders which don't
+         * fit in the pool when they are added are discarded, see
+         * {@link #setMaxRecycledViews(int, int)}.
+         * <p>
+         * This method must be called on the main thread.
+         *
+         * @param adapter  The adapter which creates the ViewHolders.
+         * @param parent   The RecyclerView the ViewHolders will be attached to, used to create
+         *                 their views.
+         * @param viewType The type of the ViewHolders.
+         * @param count    The number of ViewHolders to create.
+         * @param executor The executor the ViewHolders are created on.
+         */
+        public void prewarm(@NonNull final Adapter<?> adapter, @NonNull final RecyclerView parent,
+                final int viewType, final int count, @NonNull Executor executor) {
+            createInBackground(adapter, parent, viewType, count, executor);
+        }
+
+        /**
+         * Creates a ViewHolder of the given type on its prefetch executor, if it has one and no
+         * ViewHolder of that type is already being created.
+         */
+        void createInBackgroundIfAllowed(Adapter<?> adapter, RecyclerView parent, int viewType) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            if (scrapData.mPrefetchCreateExecutor != null && scrapData.mPendingCreateCount == 0) {
+                createInBackground(adapter, parent, viewType, 1,
+                        scrapData.mPrefetchCreateExecutor);
+            }
+        }
+
+        private void createInBackground(final Adapter<?> adapter, final RecyclerView parent,
+                final int viewType, final int count, Executor executor) {
+            final Handler mainThreadHandler = getMainThreadHandler();
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mPendingCreateCount += count;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        final long startNs = System.nanoTime();
+                        final ViewHolder holder = adapter.createViewHolder(parent, viewType);
+                        final long createTimeNs = System.nanoTime() - startNs;
+                        mainThreadHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                scrapData.mPendingCreateCount--;
+                                factorInCreateTime(viewType, createTimeNs);
+                                if (ALLOW_THREAD_GAP_WORK) {
+                                    RecyclerView innerView =
+                                            findNestedRecyclerView(holder.itemView);
+                                    if (innerView != null) {
+                                        holder.mNestedRecyclerView =
+                                                new WeakReference<>(innerView);
+                                    }
+                                }
+                                putRecycledView(holder);
+                            }
+                        });
+                    }
+                }
+            });
+        }
+
+        private static Handler getMainThreadHandler() {
+            if (sMainThreadHandler == null) {
+                sMainThreadHandler = new Handler(Looper.getMainLooper());
+            }
+            return sMainThreadHandler;
+        }
+
         /**
          * Returns the current number of Views held by the RecycledViewPool of the given view type.
          */
@@ -5898,13 +6110,49 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
                 for (int i = scrapHeap.size() - 1; i >= 0; i--) {
                     if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
+                        mHitCount++;
                         return scrapHeap.remove(i);
                     }
                 }
             }
+            mMissCount++;
+            if (mAdaptiveSizingEnabled && scrapData != null && !scrapData.mMaxScrapSet
+                    && scrapData.mDiscardedSinceGrow > 0) {
+                // A larger capacity would have avoided this miss.
+                growMaxScrap(scrapData);
+            }
             return null;
         }
 
+        private void growMaxScrap(ScrapData scrapData) {
+            int total = 0;
+            for (int i = 0; i < mScrap.size(); i++) {
+                ScrapData data = mScrap.valueAt(i);
+                if (!data.mMaxScrapSet) {
+                    total += data.mMaxScrap;
+                }
+            }
+            if (total >= mMaxTotalRecycledViews) {
+                // Take the capacity from the type which is the cheapest to create.
+                ScrapData cheapest = null;
+                for (int i = 0; i < mScrap.size(); i++) {
+                    ScrapData data = mScrap.valueAt(i);
+                    if (data != scrapData && !data.mMaxScrapSet && data.mMaxScrap > 0
+                            && (cheapest == null
+                            || data.mCreateRunningAverageNs < cheapest.mCreateRunningAverageNs)) {
+                        cheapest = data;
+                    }
+                }
+                if (cheapest == null
+                        || cheapest.mCreateRunningAverageNs >= scrapData.mCreateRunningAverageNs) {
+                    return;
+                }
+                setMaxScrap(cheapest, cheapest.mMaxScrap - 1);
+            }
+            scrapData.mMaxScrap++;
+            scrapData.mDiscardedSinceGrow = 0;
+        }
+
         /**
          * Total number of ViewHolders held by the pool.
          *
@@ -5930,8 +6178,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void putRecycledView(ViewHolder scrap) {
             final int viewType = scrap.getItemViewType();
-            final ArrayList<ViewHolder> scrapHeap = getScrapDataForType(viewType).mScrapHeap;
-            if (mScrap.get(viewType).mMaxScrap <= scrapHeap.size()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (scrapData.mMaxScrap <= scrapHeap.size()) {
+                mDiscardCount++;
+                scrapData.mDiscardedSinceGrow++;
                 return;
             }
             if (DEBUG && scrapHeap.contains(scrap)) {
@@ -5970,6 +6221,21 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
+        /**
+         * Returns the expected time to prefetch an item of the given type: the time to bind it,
+         * plus the time to create it if the pool has no ViewHolder of that type.
+         */
+        long estimatePrefetchCostNs(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            if (scrapData == null) {
+                return 0;
+            }
+            if (scrapData.mScrapHeap.isEmpty()) {
+                return scrapData.mCreateRunningAverageNs + scrapData.mBindRunningAverageNs;
+            }
+            return scrapData.mBindRunningAverageNs;
+        }
+
         void attach() {
             mAttachCount++;
         }
@@ -6420,7 +6686,10 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     long start = getNanoTime();
                     if (deadlineNs != FOREVER_NS
                             && !mRecyclerPool.willCreateInTime(type, start, deadlineNs)) {
-                        // abort - we have a deadline we can't meet
+                        // abort - we have a deadline we can't meet, but the view may be created
+                        // in the background in time for a later prefetch
+                        mRecyclerPool.createInBackgroundIfAllowed(mAdapter, RecyclerView.this,
+                                type);
                         return null;
                     }
                     holder = mAdapter.createViewHolder(RecyclerView.this, type);
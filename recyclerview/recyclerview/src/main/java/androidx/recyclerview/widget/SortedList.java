@@ -46,6 +46,11 @@ public class SortedList<T> {
 
     private static final int MIN_CAPACITY = 10;
     private static final int CAPACITY_GROWTH = MIN_CAPACITY;
+    /**
+     * Number of consecutive items taken from the same input during a merge after which the merge
+     * starts galloping, i.e. searches for the end of the run instead of comparing item by item.
+     */
+    private static final int MIN_GALLOP = 7;
     private static final int INSERTION = 1;
     private static final int DELETION = 1 << 1;
     private static final int LOOKUP = 1 << 2;
@@ -419,6 +424,9 @@ public class SortedList<T> {
         mNewDataStart = 0;
 
         int newDataStart = 0;
+        // Number of items taken in a row from the old and the new data.
+        int oldWins = 0;
+        int newWins = 0;
         while (mOldDataStart < mOldDataSize || newDataStart < newDataSize) {
             if (mOldDataStart == mOldDataSize) {
                 // No more old items, copy the remaining new items.
@@ -440,6 +448,31 @@ public class SortedList<T> {
 
             T oldItem = mOldData[mOldDataStart];
             T newItem = newData[newDataStart];
+
+            if (oldWins >= MIN_GALLOP) {
+                // Old items keep being lower, copy all the ones lower than the new item at once.
+                int itemCount = gallop(mOldData, mOldDataStart, mOldDataSize, newItem, false);
+                System.arraycopy(mOldData, mOldDataStart, mData, mNewDataStart, itemCount);
+                mOldDataStart += itemCount;
+                mNewDataStart += itemCount;
+                oldWins = 0;
+                continue;
+            }
+            if (newWins >= MIN_GALLOP) {
+                // New items keep being lower, insert all the ones lower than the old item with a
+                // single event.
+                int itemCount = gallop(newData, newDataStart, newDataSize, oldItem, true);
+                if (itemCount > 0) {
+                    System.arraycopy(newData, newDataStart, mData, mNewDataStart, itemCount);
+                    newDataStart += itemCount;
+                    mNewDataStart += itemCount;
+                    mSize += itemCount;
+                    mCallback.onInserted(mNewDataStart - itemCount, itemCount);
+                }
+                newWins = 0;
+                continue;
+            }
+
             int compare = mCallback.compare(oldItem, newItem);
             if (compare > 0) {
                 // New item is lower, output it.
@@ -447,6 +480,8 @@ public class SortedList<T> {
                 mSize++;
                 newDataStart++;
                 mCallback.onInserted(mNewDataStart - 1, 1);
+                newWins++;
+                oldWins = 0;
             } else if (compare == 0 && mCallback.areItemsTheSame(oldItem, newItem)) {
                 // Items are the same. Output the new item, but consume both.
                 mData[mNewDataStart++] = newItem;
@@ -456,11 +491,15 @@ public class SortedList<T> {
                     mCallback.onChanged(mNewDataStart - 1, 1,
                             mCallback.getChangePayload(oldItem, newItem));
                 }
+                oldWins = 0;
+                newWins = 0;
             } else {
                 // Old item is lower than or equal to (but not the same as the new). Output it.
                 // New item with the same sort order will be inserted later.
                 mData[mNewDataStart++] = oldItem;
                 mOldDataStart++;
+                oldWins++;
+                newWins = 0;
             }
         }
 
@@ -471,6 +510,42 @@ public class SortedList<T> {
         }
     }
 
+    /**
+     * Returns the number of items at the beginning of {@code data[start, end)} which are lower
+     * than {@code bound}, using an exponential search followed by a binary search so that long
+     * runs take a logarithmic number of comparisons.
+     * <p>
+     * Items of the old data are lower if they compare strictly lower than the new item, while
+     * items of the new data are lower if the old item compares strictly higher than them, which
+     * matches the comparisons of {@link #merge(Object[], int)}.
+     *
+     * @param isNewData Whether {@code data} holds the new items and {@code bound} is an old item.
+     */
+    private int gallop(T[] data, int start, int end, T bound, boolean isNewData) {
+        final int length = end - start;
+        // data[start, start + low) is known to be lower.
+        int low = 0;
+        int high = 1;
+        while (high <= length && isLower(data[start + high - 1], bound, isNewData)) {
+            low = high;
+            high <<= 1;
+        }
+        high = Math.min(high - 1, length);
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (isLower(data[start + middle], bound, isNewData)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean isLower(T item, T bound, boolean isNewData) {
+        return isNewData ? mCallback.compare(bound, item) > 0 : mCallback.compare(item, bound) < 0;
+    }
+
     /**
      * Throws an exception if called while we are in the middle of a mutation operation (addAll or
      * replaceAll).
@@ -795,8 +870,10 @@ public class SortedList<T> {
                     "cannot add item to " + index + " because size is " + mSize);
         }
         if (mSize == mData.length) {
-            // we are at the limit enlarge
-            T[] newData = (T[]) Array.newInstance(mTClass, mData.length + CAPACITY_GROWTH);
+            // we are at the limit enlarge, by half of the current capacity so that adding n items
+            // one by one doesn't copy the whole array n / CAPACITY_GROWTH times
+            final int growth = Math.max(CAPACITY_GROWTH, mData.length >> 1);
+            T[] newData = (T[]) Array.newInstance(mTClass, mData.length + growth);
             System.arraycopy(mData, 0, newData, 0, index);
             newData[index] = item;
             System.arraycopy(mData, index, newData, index + 1, mSize - index);
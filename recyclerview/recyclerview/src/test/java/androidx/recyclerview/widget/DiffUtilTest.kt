@@ -31,12 +31,15 @@ import org.junit.runner.RunWith
 import org.junit.runners.JUnit4
 import java.util.Random
 import java.util.UUID
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 
 @RunWith(JUnit4::class)
 class DiffUtilTest {
     private val before = mutableListOf<Item>()
     private val after = mutableListOf<Item>()
     private val log = StringBuilder()
+    private var executor: Executor? = null
     private val callback = ItemListCallback(
         oldList = before,
         newList = after,
@@ -361,7 +364,27 @@ class DiffUtilTest {
         calculate().convertNewPositionToOld(2)
     }
 
-    private fun calculate() = DiffUtil.calculateDiff(callback, true)
+    private fun calculate() = executor.let {
+        if (it == null) {
+            DiffUtil.calculateDiff(callback, true)
+        } else {
+            DiffUtil.calculateDiff(callback, true, it)
+        }
+    }
+
+    @Test
+    fun testRandomParallel() {
+        val pool = Executors.newFixedThreadPool(4)
+        try {
+            executor = pool
+            for (i in 0..49) {
+                testRandom(i, 20)
+            }
+            testRandom(5000, 1000)
+        } finally {
+            pool.shutdown()
+        }
+    }
 
     @Test
     fun duplicate() {
@@ -729,6 +752,10 @@ class DiffUtilTest {
 
             return newList[newItemIndex].payload
         }
+
+        override fun getOldItemKey(oldItemIndex: Int) = oldList[oldItemIndex].id
+
+        override fun getNewItemKey(newItemIndex: Int) = newList[newItemIndex].id
     }
 
     companion object {
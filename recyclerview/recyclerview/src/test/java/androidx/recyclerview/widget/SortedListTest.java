@@ -471,6 +471,35 @@ public class SortedListTest {
         assertSequentialOrder();
     }
 
+    @Test
+    public void testAddAllMergeLongRuns() throws Throwable {
+        Item[] oldItems = new Item[100];
+        System.arraycopy(createItems(0, 49, 1), 0, oldItems, 0, 50);
+        System.arraycopy(createItems(150, 199, 1), 0, oldItems, 50, 50);
+        mList.addAll(oldItems);
+        assertIntegrity(100, "addAll, empty list");
+        mAdditions.clear();
+
+        // Insert a long run in the middle, then replace every item of a long run.
+        Item[] newItems = new Item[150];
+        System.arraycopy(createItems(50, 149, 1), 0, newItems, 0, 100);
+        System.arraycopy(createItems(150, 199, 1), 0, newItems, 100, 50);
+        for (int i = 100; i < 150; i++) {
+            newItems[i].data = 1;
+        }
+        mList.addAll(newItems);
+        assertIntegrity(200, "addAll, long runs");
+        assertEquals(1, mAdditions.size());
+        assertTrue(mAdditions.contains(new Pair(50, 100)));
+        assertEquals(1, mUpdates.size());
+        assertTrue(mUpdates.contains(new Pair(150, 50)));
+        for (int i = 150; i < 200; i++) {
+            assertSame(newItems[i - 50], mList.get(i));
+        }
+        assertEquals(0, mRemovals.size());
+        assertSequentialOrder();
+    }
+
     @Test
     public void testAddAllUpdates() throws Throwable {
         // Add first 5 even numbers.
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+@file:Suppress("DEPRECATION")
+
+package androidx.room.benchmark
+
+import android.annotation.SuppressLint
+import android.database.Cursor
+import android.os.Build
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.paging.ItemKeyedDataSource
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.paging.KeysetDataSource
+import androidx.room.paging.LimitOffsetDataSource
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class KeysetPagingBenchmark(private val page: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-wal", "-shm")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+        db.getItemDao().insert(List(ROW_COUNT) { Item(it) })
+    }
+
+    @After
+    fun teardown() {
+        db.close()
+    }
+
+    @SuppressLint("RestrictedApi")
+    @Test
+    fun limitOffset() {
+        val dataSource = object : LimitOffsetDataSource<Int>(
+            db, SimpleSQLiteQuery("SELECT id FROM Item ORDER BY id"), false, "Item"
+        ) {
+            override fun convertRows(cursor: Cursor) = readIds(cursor)
+        }
+        benchmarkRule.measureRepeated {
+            val ids = dataSource.loadRange((page - 1) * PAGE_SIZE, PAGE_SIZE)
+            assertEquals((page - 1) * PAGE_SIZE, ids.first())
+        }
+    }
+
+    @Test
+    fun keyset() {
+        val dataSource = object : KeysetDataSource<Int, Int>(
+            db, SimpleSQLiteQuery("SELECT id FROM Item"), "id", "Item"
+        ) {
+            override fun convertRows(cursor: Cursor) = readIds(cursor)
+
+            override fun getKey(item: Int) = item
+        }
+        // the key of the last item of the previous page, as a paged list would pass it.
+        val params = ItemKeyedDataSource.LoadParams((page - 1) * PAGE_SIZE - 1, PAGE_SIZE)
+        benchmarkRule.measureRepeated {
+            var ids: List<Int> = emptyList()
+            dataSource.loadAfter(
+                params,
+                object : ItemKeyedDataSource.LoadCallback<Int>() {
+                    override fun onResult(data: List<Int>) {
+                        ids = data
+                    }
+                }
+            )
+            assertEquals((page - 1) * PAGE_SIZE, ids.first())
+        }
+    }
+
+    private fun readIds(cursor: Cursor): MutableList<Int> {
+        val ids = ArrayList<Int>(cursor.count)
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getInt(0))
+        }
+        return ids
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "page={0}")
+        fun data() = arrayOf(1, 5000)
+
+        private const val DB_NAME = "keyset-paging-benchmark-test"
+        private const val PAGE_SIZE = 20
+        private const val ROW_COUNT = 5000 * PAGE_SIZE
+    }
+
+    @Database(entities = [Item::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getItemDao(): ItemDao
+    }
+
+    @Entity
+    data class Item(@PrimaryKey val id: Int)
+
+    @Dao
+    interface ItemDao {
+        @Insert
+        fun insert(items: List<Item>)
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.RoomSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures [RoomSQLiteQuery] acquisition when several threads run queries at the same time, both
+ * on its own and through DAO queries with IN-lists of different sizes on a WAL database.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN)
+class QueryPoolBenchmark(private val threadCount: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private val readers = Executors.newFixedThreadPool(threadCount)
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        for (postfix in arrayOf("", "-wal", "-shm")) {
+            val dbFile = context.getDatabasePath(DB_NAME + postfix)
+            if (dbFile.exists()) {
+                assertTrue(dbFile.delete())
+            }
+        }
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+        db.getItemDao().insert(List(ITEM_COUNT) { Item(it, "name$it") })
+    }
+
+    @After
+    fun teardown() {
+        readers.shutdown()
+        db.close()
+    }
+
+    @Test
+    fun acquireRelease() {
+        runConcurrently { index ->
+            RoomSQLiteQuery.acquire("SELECT 1", ARG_COUNTS[index % ARG_COUNTS.size]).release()
+        }
+    }
+
+    @Test
+    fun daoQueries() {
+        val dao = db.getItemDao()
+        val idLists = ARG_COUNTS.map { count -> List(count) { it } }
+        runConcurrently { index ->
+            dao.loadByIds(idLists[index % idLists.size])
+        }
+    }
+
+    private inline fun runConcurrently(crossinline block: (Int) -> Unit) {
+        benchmarkRule.measureRepeated {
+            val latch = CountDownLatch(threadCount)
+            repeat(threadCount) {
+                readers.execute {
+                    repeat(ITERATIONS_PER_THREAD) { index -> block(index) }
+                    latch.countDown()
+                }
+            }
+            latch.await(10, TimeUnit.SECONDS)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "threadCount={0}")
+        fun data() = arrayOf(1, 4, 16)
+
+        private const val DB_NAME = "query-pool-benchmark-test"
+        private const val ITEM_COUNT = 1000
+        private const val ITERATIONS_PER_THREAD = 100
+        private val ARG_COUNTS = intArrayOf(1, 3, 20, 100, 900)
+    }
+
+    @Database(entities = [Item::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getItemDao(): ItemDao
+    }
+
+    @Entity
+    data class Item(@PrimaryKey val id: Int, val name: String)
+
+    @Dao
+    interface ItemDao {
+        @Insert
+        fun insert(items: List<Item>)
+
+        @Query("SELECT * FROM Item WHERE id IN (:ids)")
+        fun loadByIds(ids: List<Int>): List<Item>
+    }
+}
@@ -91,6 +91,10 @@ object RoomTypeNames {
             ClassName.get("$ROOM_PACKAGE.util", "DBUtil")
     val CURSOR_UTIL: ClassName =
             ClassName.get("$ROOM_PACKAGE.util", "CursorUtil")
+    val ROW_ITERATOR: ClassName =
+            ClassName.get(ROOM_PACKAGE, "RowIterator")
+    val CURSOR_ROW_ITERATOR: ClassName =
+            ClassName.get("$ROOM_PACKAGE.util", "CursorRowIterator")
 }
 
 object PagingTypeNames {
@@ -604,6 +604,12 @@ object ProcessorErrors {
     val PAGING_SPECIFY_PAGING_SOURCE_TYPE = "For now, Room only supports PagingSource with Key of" +
             " type Int."
 
+    val ROW_ITERATOR_WITH_RELATION = "A RowIterator reads rows one at a time so its rows cannot" +
+            " have @Relation fields, which are loaded for the whole result at once."
+
+    val ROW_ITERATOR_IN_TRANSACTION = "A method returning a RowIterator cannot be annotated with" +
+            " @Transaction because the rows are read after the method returns."
+
     fun primaryKeyNull(field: String): String {
         return "You must annotate primary keys with @NonNull. \"$field\" is nullable. SQLite " +
                 "considers this a " +
@@ -26,6 +26,7 @@ import androidx.room.compiler.processing.XDeclaredType
 import androidx.room.compiler.processing.XMethodElement
 import androidx.room.compiler.processing.XType
 import androidx.room.solver.query.result.PojoRowAdapter
+import androidx.room.solver.query.result.RowIteratorQueryResultBinder
 import androidx.room.verifier.DatabaseVerificationErrors
 import androidx.room.verifier.DatabaseVerifier
 import androidx.room.vo.QueryMethod
@@ -210,6 +211,11 @@ private class InternalQueryProcessor(
         )
 
         val inTransaction = executableElement.hasAnnotation(Transaction::class)
+        context.checker.check(
+            !inTransaction || resultBinder !is RowIteratorQueryResultBinder,
+            executableElement,
+            ProcessorErrors.ROW_ITERATOR_IN_TRANSACTION
+        )
         if (query.type == QueryType.SELECT && !inTransaction) {
             // put a warning if it is has relations and not annotated w/ transaction
             if (rowAdapter is PojoRowAdapter && rowAdapter.relationCollectors.isNotEmpty()) {
@@ -25,6 +25,7 @@ import androidx.room.compiler.processing.XDeclaredType
 import androidx.room.compiler.processing.XMethodElement
 import androidx.room.compiler.processing.XVariableElement
 import androidx.room.processor.ProcessorErrors.RAW_QUERY_STRING_PARAMETER_REMOVED
+import androidx.room.solver.query.result.RowIteratorQueryResultBinder
 import androidx.room.vo.RawQueryMethod
 
 class RawQueryMethodProcessor(
@@ -50,6 +51,11 @@ class RawQueryMethodProcessor(
         val resultBinder = delegate.findResultBinder(returnType, query)
         val runtimeQueryParam = findRuntimeQueryParameter(delegate.extractParams())
         val inTransaction = executableElement.hasAnnotation(Transaction::class)
+        context.checker.check(
+            !inTransaction || resultBinder !is RowIteratorQueryResultBinder,
+            executableElement,
+            ProcessorErrors.ROW_ITERATOR_IN_TRANSACTION
+        )
         val rawQueryMethod = RawQueryMethod(
                 element = executableElement,
                 name = executableElement.name,
@@ -37,6 +37,7 @@ import androidx.room.solver.binderprovider.GuavaListenableFutureQueryResultBinde
 import androidx.room.solver.binderprovider.InstantQueryResultBinderProvider
 import androidx.room.solver.binderprovider.LiveDataQueryResultBinderProvider
 import androidx.room.solver.binderprovider.PagingSourceQueryResultBinderProvider
+import androidx.room.solver.binderprovider.RowIteratorQueryResultBinderProvider
 import androidx.room.solver.binderprovider.RxCallableQueryResultBinderProvider
 import androidx.room.solver.binderprovider.RxQueryResultBinderProvider
 import androidx.room.solver.prepared.binder.InstantPreparedQueryResultBinder
@@ -170,6 +171,7 @@ class TypeAdapterStore private constructor(
             add(DataSourceFactoryQueryResultBinderProvider(context))
             add(PagingSourceQueryResultBinderProvider(context))
             add(CoroutineFlowResultBinderProvider(context))
+            add(RowIteratorQueryResultBinderProvider(context))
             add(InstantQueryResultBinderProvider(context))
         }
 
@@ -158,6 +158,31 @@ class PojoRowAdapter(
         }
     }
 
+    /**
+     * Whether a row can be read into an instance created for a previous row by setting its fields
+     * again. This requires the pojo's fields to be set after calling a no-arg constructor, and the
+     * columns of the result to be known so that every row sets the same fields.
+     */
+    fun canReadInPlace(): Boolean {
+        val constructor = pojo.constructor ?: return false
+        return info != null &&
+                constructor.params.isEmpty() &&
+                pojo.embeddedFields.isEmpty() &&
+                relationCollectors.isEmpty()
+    }
+
+    /**
+     * Reads a row into the existing instance in [ownerVarName], see [canReadInPlace].
+     */
+    fun convertInPlace(ownerVarName: String, cursorVarName: String, scope: CodeGenScope) {
+        FieldReadWriteWriter.readFromCursorInPlace(
+            ownerVar = ownerVarName,
+            cursorVar = cursorVarName,
+            fieldsWithIndices = mapping.fieldsWithIndices,
+            scope = scope
+        )
+    }
+
     data class Mapping(
         val matchedFields: List<Field>,
         val unusedColumns: List<String>,
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.solver.query.result
+
+import androidx.room.ext.AndroidTypeNames
+import androidx.room.ext.L
+import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.T
+import androidx.room.solver.CodeGenScope
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.ParameterizedTypeName
+import com.squareup.javapoet.TypeSpec
+import javax.lang.model.element.Modifier
+
+/**
+ * Wraps the cursor into a RowIterator which converts each row when it is read.
+ * <p>
+ * If the row is a POJO which can be updated in place, the generated code reads the row into the
+ * previously returned object when the caller allows it.
+ */
+class RowIteratorQueryResultAdapter(rowAdapter: RowAdapter) : QueryResultAdapter(rowAdapter) {
+    val type = rowAdapter.out
+
+    override fun convert(outVarName: String, cursorVarName: String, scope: CodeGenScope) {
+        convert(outVarName, cursorVarName, null, scope)
+    }
+
+    /**
+     * Creates the iterator, which releases the query in [queryVarName], if any, with the cursor.
+     */
+    fun convert(
+        outVarName: String,
+        cursorVarName: String,
+        queryVarName: String?,
+        scope: CodeGenScope
+    ) {
+        rowAdapter?.onCursorReady(cursorVarName, scope)
+        val spec = TypeSpec.anonymousClassBuilder("$L, $L",
+                cursorVarName, queryVarName ?: "null").apply {
+            superclass(ParameterizedTypeName.get(RoomTypeNames.CURSOR_ROW_ITERATOR, type.typeName))
+            addMethod(createConvertRowMethod(scope))
+        }.build()
+        scope.builder().addStatement("final $T $L = $L",
+                ParameterizedTypeName.get(RoomTypeNames.ROW_ITERATOR, type.typeName),
+                outVarName, spec)
+    }
+
+    private fun createConvertRowMethod(scope: CodeGenScope): MethodSpec =
+            MethodSpec.methodBuilder("convertRow").apply {
+                addAnnotation(Override::class.java)
+                addModifiers(Modifier.PROTECTED)
+                returns(type.typeName)
+                val cursorParam = ParameterSpec.builder(AndroidTypeNames.CURSOR, "cursor")
+                        .addModifiers(Modifier.FINAL)
+                        .build()
+                val reusableParam = ParameterSpec.builder(type.typeName, "reusable")
+                        .addModifiers(Modifier.FINAL)
+                        .build()
+                addParameter(cursorParam)
+                addParameter(reusableParam)
+                val rowScope = scope.fork()
+                val itemVar = rowScope.getTmpVar("_item")
+                rowScope.builder().apply {
+                    addStatement("final $T $L", type.typeName, itemVar)
+                    val pojoAdapter = rowAdapter as? PojoRowAdapter
+                    if (pojoAdapter != null && pojoAdapter.canReadInPlace()) {
+                        beginControlFlow("if ($L != null)", reusableParam.name).apply {
+                            addStatement("$L = $L", itemVar, reusableParam.name)
+                            pojoAdapter.convertInPlace(itemVar, cursorParam.name, rowScope)
+                        }
+                        nextControlFlow("else").apply {
+                            pojoAdapter.convert(itemVar, cursorParam.name, rowScope)
+                        }
+                        endControlFlow()
+                    } else {
+                        rowAdapter?.convert(itemVar, cursorParam.name, rowScope)
+                    }
+                    addStatement("return $L", itemVar)
+                }
+                addCode(rowScope.builder().build())
+            }.build()
+}
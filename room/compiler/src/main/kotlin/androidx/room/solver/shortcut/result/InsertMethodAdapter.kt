@@ -69,6 +69,9 @@ class InsertMethodAdapter private constructor(private val insertionType: Inserti
             }
         }
 
+        // matches the EntityInsertionAdapter method that uses multi-row statements
+        private const val BATCHED_INSERT_METHOD_NAME = "insertBatched"
+
         private val MULTIPLE_ITEM_SET by lazy {
             setOf(InsertionType.INSERT_VOID,
                     InsertionType.INSERT_VOID_OBJECT,
@@ -140,6 +143,11 @@ class InsertMethodAdapter private constructor(private val insertionType: Inserti
                                 insertionType.returnTypeName, resultVar,
                                 insertionAdapter, insertionType.methodName,
                                 param.name)
+                    } else if (param.isMultiple) {
+                        // ids are not needed so the entities can be inserted with multi-row
+                        // statements
+                        addStatement("$N.$L($L)", insertionAdapter, BATCHED_INSERT_METHOD_NAME,
+                                param.name)
                     } else {
                         addStatement("$N.$L($L)", insertionAdapter, insertionType.methodName,
                                 param.name)
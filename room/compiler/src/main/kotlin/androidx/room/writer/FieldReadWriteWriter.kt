@@ -289,6 +289,24 @@ class FieldReadWriteWriter(fieldWithIndex: FieldWithIndex) {
             }
             visitNode(createNodeTree(outVar, fieldsWithIndices, scope))
         }
+
+        /**
+         * Reads the row into the fields of an existing instance in the given variable. The fields
+         * must all be direct fields which are not set through the constructor.
+         */
+        fun readFromCursorInPlace(
+            ownerVar: String,
+            cursorVar: String,
+            fieldsWithIndices: List<FieldWithIndex>,
+            scope: CodeGenScope
+        ) {
+            fieldsWithIndices.forEach {
+                FieldReadWriteWriter(it).readFromCursor(
+                        ownerVar = ownerVar,
+                        cursorVar = cursorVar,
+                        scope = scope)
+            }
+        }
     }
 
     /**
@@ -33,6 +33,7 @@ import androidx.room.solver.query.result.DataSourceFactoryQueryResultBinder
 import androidx.room.solver.query.result.ListQueryResultAdapter
 import androidx.room.solver.query.result.LiveDataQueryResultBinder
 import androidx.room.solver.query.result.PojoRowAdapter
+import androidx.room.solver.query.result.RowIteratorQueryResultBinder
 import androidx.room.solver.query.result.SingleEntityQueryResultAdapter
 import androidx.room.testing.TestInvocation
 import androidx.room.testing.TestProcessor
@@ -620,6 +621,57 @@ class QueryMethodProcessorTest(val enableVerification: Boolean) {
         }.compilesWithoutError()
     }
 
+    @Test
+    fun rowIterator() {
+        if (!enableVerification) {
+            return
+        }
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select * from user")
+                abstract androidx.room.RowIterator<User> iterateUsers();
+                """
+        ) { method, _ ->
+            assertThat(method.queryResultBinder,
+                instanceOf(RowIteratorQueryResultBinder::class.java))
+            assertThat(method.queryResultBinder.adapter?.rowAdapter,
+                instanceOf(PojoRowAdapter::class.java))
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun rowIterator_inTransaction() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Transaction
+                @Query("select * from user")
+                abstract androidx.room.RowIterator<User> iterateUsers();
+                """
+        ) { _, _ ->
+        }.failsToCompile()
+            .withErrorContaining(ProcessorErrors.ROW_ITERATOR_IN_TRANSACTION)
+    }
+
+    @Test
+    fun rowIterator_withRelation() {
+        if (!enableVerification) {
+            return
+        }
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                static class Merged extends User {
+                   @Relation(parentColumn = "name", entityColumn = "lastName",
+                             entity = User.class)
+                   java.util.List<User> users;
+                }
+                @Query("select * from user")
+                abstract androidx.room.RowIterator<Merged> iterateUsers();
+                """
+        ) { _, _ ->
+        }.failsToCompile()
+            .withErrorContaining(ProcessorErrors.ROW_ITERATOR_WITH_RELATION)
+    }
+
     @Test
     fun skipVerification() {
         singleQueryMethod<ReadQueryMethod>(
@@ -26,6 +26,7 @@ import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.RawQuery;
+import androidx.room.RowIterator;
 import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.room.integration.testapp.TestDatabase;
@@ -181,6 +182,9 @@ public abstract class UserDao {
     @Query("select mId from user where mId IN (:ids)")
     public abstract Cursor findUsersAsCursor(int... ids);
 
+    @Query("select * from user where mId IN (:ids) ORDER BY mId")
+    public abstract RowIterator<User> iterateByIds(int... ids);
+
     @Query("select * from user where mId = :id")
     public abstract io.reactivex.Flowable<User> rx2_flowableUserById(int id);
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.paging;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.paging.ItemKeyedDataSource;
+import androidx.room.RoomDatabase;
+import androidx.room.integration.testapp.test.TestDatabaseTest;
+import androidx.room.integration.testapp.test.TestUtil;
+import androidx.room.paging.KeysetDataSource;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+@SuppressWarnings("deprecation")
+public class KeysetDataSourceTest extends TestDatabaseTest {
+
+    @After
+    public void teardown() {
+        mUserDao.deleteEverything();
+    }
+
+    @Test
+    public void emptyPage() {
+        InitialResult result = loadInitial(null, 10, true);
+        assertThat(result.mData, is(Collections.<Integer>emptyList()));
+        assertThat(result.mTotalCount, is(-1));
+    }
+
+    @Test
+    public void initial() {
+        createUsers(10);
+        InitialResult result = loadInitial(null, 3, false);
+        assertThat(result.mData, is(Arrays.asList(0, 1, 2)));
+        assertThat(result.mTotalCount, is(-1));
+    }
+
+    @Test
+    public void initial_doesNotCountWithPlaceholders() {
+        createUsers(10);
+        InitialResult result = loadInitial(null, 3, true);
+        assertThat(result.mData, is(Arrays.asList(0, 1, 2)));
+        assertThat(result.mTotalCount, is(-1));
+    }
+
+    @Test
+    public void initial_aroundKey() {
+        createUsers(10);
+        InitialResult result = loadInitial(5, 4, true);
+        assertThat(result.mData, is(Arrays.asList(3, 4, 5, 6)));
+        assertThat(result.mTotalCount, is(-1));
+    }
+
+    @Test
+    public void loadAfter() {
+        createUsers(10);
+        List<Integer> result = load(true, 4, 2);
+        assertThat(result, is(Arrays.asList(5, 6)));
+        assertThat(load(true, 9, 2), is(Collections.<Integer>emptyList()));
+    }
+
+    @Test
+    public void loadBefore() {
+        createUsers(10);
+        List<Integer> result = load(false, 4, 2);
+        assertThat(result, is(Arrays.asList(2, 3)));
+        assertThat(load(false, 0, 2), is(Collections.<Integer>emptyList()));
+    }
+
+    private void createUsers(int count) {
+        for (int i = 0; i < count; i++) {
+            mUserDao.insert(TestUtil.createUser(i));
+        }
+    }
+
+    private InitialResult loadInitial(Integer key, int loadSize, boolean placeholders) {
+        final InitialResult result = new InitialResult();
+        new UserIdDataSource(mDatabase).loadInitial(
+                new ItemKeyedDataSource.LoadInitialParams<>(key, loadSize, placeholders),
+                new ItemKeyedDataSource.LoadInitialCallback<Integer>() {
+                    @Override
+                    public void onResult(@NonNull List<? extends Integer> data, int position,
+                            int totalCount) {
+                        result.mData = new ArrayList<>(data);
+                        result.mPosition = position;
+                        result.mTotalCount = totalCount;
+                    }
+
+                    @Override
+                    public void onResult(@NonNull List<? extends Integer> data) {
+                        result.mData = new ArrayList<>(data);
+                    }
+                });
+        return result;
+    }
+
+    private List<Integer> load(boolean after, int key, int loadSize) {
+        final List<Integer> result = new ArrayList<>();
+        UserIdDataSource dataSource = new UserIdDataSource(mDatabase);
+        ItemKeyedDataSource.LoadParams<Integer> params =
+                new ItemKeyedDataSource.LoadParams<>(key, loadSize);
+        ItemKeyedDataSource.LoadCallback<Integer> callback =
+                new ItemKeyedDataSource.LoadCallback<Integer>() {
+                    @Override
+                    public void onResult(@NonNull List<? extends Integer> data) {
+                        result.addAll(data);
+                    }
+                };
+        if (after) {
+            dataSource.loadAfter(params, callback);
+        } else {
+            dataSource.loadBefore(params, callback);
+        }
+        return result;
+    }
+
+    private static class InitialResult {
+        List<Integer> mData;
+        int mPosition = -1;
+        int mTotalCount = -1;
+    }
+
+    private static class UserIdDataSource extends KeysetDataSource<Integer, Integer> {
+        UserIdDataSource(RoomDatabase db) {
+            super(db, new SimpleSQLiteQuery("SELECT mId FROM User"), "mId", "User");
+        }
+
+        @NonNull
+        @Override
+        protected List<Integer> convertRows(@NonNull Cursor cursor) {
+            List<Integer> ids = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0));
+            }
+            return ids;
+        }
+
+        @NonNull
+        @Override
+        public Integer getKey(@NonNull Integer item) {
+            return item;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.integration.testapp.TestDatabase;
+import androidx.room.integration.testapp.dao.UserDao;
+import androidx.room.integration.testapp.vo.User;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+@SdkSuppress(minSdkVersion = 16)
+public class ReadConnectionPoolTest {
+
+    private static final String DATABASE_NAME = "read_pool.db";
+    private TestDatabase mDatabase;
+    private UserDao mUserDao;
+
+    @Before
+    public void openDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DATABASE_NAME);
+        mDatabase = Room.databaseBuilder(context, TestDatabase.class, DATABASE_NAME)
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .enableReadConnectionPool(3)
+                .build();
+        mUserDao = mDatabase.getUserDao();
+    }
+
+    @After
+    public void closeDatabase() {
+        mDatabase.close();
+        Context context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void readCommittedWrites() {
+        mUserDao.insert(TestUtil.createUser(1));
+        assertThat(mUserDao.load(1), is(notNullValue()));
+
+        mUserDao.updateById(1, "updated");
+        assertThat(mUserDao.load(1).getName(), is("updated"));
+    }
+
+    @Test
+    public void readUncommittedWritesInTransaction() {
+        mDatabase.runInTransaction(new Runnable() {
+            @Override
+            public void run() {
+                mUserDao.insert(TestUtil.createUser(1));
+                assertThat(mUserDao.load(1), is(notNullValue()));
+            }
+        });
+    }
+
+    @Test
+    public void readFromManyThreads() throws Exception {
+        final int userCount = 20;
+        for (int i = 0; i < userCount; i++) {
+            mUserDao.insert(TestUtil.createUser(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < userCount * 5; i++) {
+                final int id = i % (userCount + 1);
+                results.add(executor.submit(new Callable<User>() {
+                    @Override
+                    public User call() {
+                        return mUserDao.load(id);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final int id = i % (userCount + 1);
+                if (id == userCount) {
+                    assertThat(results.get(i).get(), is(nullValue()));
+                } else {
+                    assertThat(results.get(i).get().getId(), is(id));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SdkSuppress(minSdkVersion = 21)
+    public void readConnectionsAreReadOnly() {
+        assertThat(readLong(mDatabase.query("PRAGMA query_only", null)), is(0L));
+        assertThat(readLong(mDatabase.queryForRead(
+                new SimpleSQLiteQuery("PRAGMA query_only"), null)), is(1L));
+        try {
+            // the statement runs when the cursor is first moved
+            readLong(mDatabase.queryForRead(new SimpleSQLiteQuery("DELETE FROM User"), null));
+            throw new AssertionError("read connections should not write");
+        } catch (SQLiteException expected) {
+        }
+    }
+
+    @Test
+    @SdkSuppress(minSdkVersion = 21)
+    public void callbacksOpenReadConnections() {
+        mDatabase.close();
+        final List<Long> openedQueryOnly = Collections.synchronizedList(new ArrayList<Long>());
+        Context context = ApplicationProvider.getApplicationContext();
+        mDatabase = Room.databaseBuilder(context, TestDatabase.class, DATABASE_NAME)
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .enableReadConnectionPool(1)
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onOpen(SupportSQLiteDatabase db) {
+                        // a connection setting which the read connections need too
+                        db.execSQL("PRAGMA case_sensitive_like = true");
+                        openedQueryOnly.add(readLong(db.query("PRAGMA query_only")));
+                    }
+                })
+                .build();
+        mUserDao = mDatabase.getUserDao();
+        User user = TestUtil.createUser(1);
+        user.setName("Name");
+        mUserDao.insert(user);
+
+        // the writer is opened first, then the read connection
+        assertThat(mUserDao.findUsersByName("name").size(), is(0));
+        assertThat(openedQueryOnly, is(Arrays.asList(0L, 1L)));
+    }
+
+    @Test
+    public void readAfterReopen() {
+        mUserDao.insert(TestUtil.createUser(1));
+        assertThat(mUserDao.load(1), is(notNullValue()));
+        mDatabase.close();
+
+        Context context = ApplicationProvider.getApplicationContext();
+        mDatabase = Room.databaseBuilder(context, TestDatabase.class, DATABASE_NAME)
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .enableReadConnectionPool()
+                .build();
+        mUserDao = mDatabase.getUserDao();
+        assertThat(mUserDao.load(1), is(notNullValue()));
+    }
+
+    static long readLong(Cursor cursor) {
+        try {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertNotNull;
@@ -34,6 +35,7 @@ import android.database.sqlite.SQLiteConstraintException;
 import android.database.sqlite.SQLiteException;
 
 import androidx.room.Room;
+import androidx.room.RowIterator;
 import androidx.room.integration.testapp.TestDatabase;
 import androidx.room.integration.testapp.dao.BlobEntityDao;
 import androidx.room.integration.testapp.dao.PetDao;
@@ -466,6 +468,39 @@ public class SimpleEntityReadWriteTest {
         }
     }
 
+    @Test
+    public void readViaRowIterator() {
+        User[] users = TestUtil.createUsersArray(3, 5, 7, 9);
+        mUserDao.insertAll(users);
+        RowIterator<User> iterator = mUserDao.iterateByIds(3, 5, 9);
+        try {
+            assertThat(iterator.hasNext(), is(true));
+            assertThat(iterator.next(), is(users[0]));
+            assertThat(iterator.next(), is(users[1]));
+            assertThat(iterator.next(), is(users[3]));
+            assertThat(iterator.hasNext(), is(false));
+        } finally {
+            iterator.close();
+        }
+    }
+
+    @Test
+    public void readViaRowIterator_reuseRows() {
+        User[] users = TestUtil.createUsersArray(3, 5, 7, 9);
+        mUserDao.insertAll(users);
+        RowIterator<User> iterator = mUserDao.iterateByIds(3, 5, 9);
+        try {
+            iterator.setRowReuseEnabled(true);
+            User first = iterator.next();
+            assertThat(first, is(users[0]));
+            User second = iterator.next();
+            assertThat(second, sameInstance(first));
+            assertThat(second, is(users[1]));
+        } finally {
+            iterator.close();
+        }
+    }
+
     @Test
     public void readDirectWithTypeAdapter() {
         User user = TestUtil.createUser(3);
@@ -16,12 +16,19 @@
 
 package androidx.room;
 
+import android.os.Build;
+
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implementations of this class knows how to insert a particular entity.
@@ -34,6 +41,33 @@ import java.util.List;
 @SuppressWarnings({"WeakerAccess", "unused"})
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
+    /**
+     * The maximum number of host parameters in a statement (SQLITE_MAX_VARIABLE_NUMBER) on the
+     * oldest SQLite versions shipped with Android.
+     */
+    private static final int MAX_BIND_ARGS = 999;
+
+    /**
+     * The maximum number of rows in a multi-row statement. It is a power of two, and below the
+     * compound select limit (SQLITE_MAX_COMPOUND_SELECT, 500) that applies to multi-row VALUES
+     * before SQLite 3.8.8.
+     */
+    private static final int MAX_BATCH_ROWS = 256;
+
+    private static final String VALUES_KEYWORD = " VALUES ";
+
+    private final AtomicBoolean mBatchLock = new AtomicBoolean(false);
+
+    // Multi-row statements, indexed by the binary logarithm of their row count. Only used while
+    // holding mBatchLock.
+    private SupportSQLiteStatement[] mBatchStmts;
+
+    // The insert query up to and including the VALUES keyword, the row tuple and its number of
+    // arguments, parsed from createQuery() on first use.
+    private volatile String mBatchPrefix;
+    private String mBatchRow;
+    private int mBatchRowArgCount;
+
     /**
      * Creates an InsertionAdapter that can insert the entity type T into the given database.
      *
@@ -101,6 +135,144 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
         }
     }
 
+    /**
+     * Inserts the given entities into the database, using multi-row
+     * {@code INSERT ... VALUES (...), (...)} statements.
+     * <p>
+     * Entities are inserted in chunks whose size is a power of two, bounded by SQLite's host
+     * parameter limit, so that at most one compiled statement per chunk size is cached. Before
+     * API 16, whose SQLite doesn't support them, the entities are inserted one by one.
+     *
+     * @param entities Entities to insert
+     */
+    public final void insertBatched(T[] entities) {
+        insertBatched(Arrays.asList(entities));
+    }
+
+    /**
+     * Inserts the given entities into the database, using multi-row
+     * {@code INSERT ... VALUES (...), (...)} statements.
+     * <p>
+     * Entities are inserted in chunks whose size is a power of two, bounded by SQLite's host
+     * parameter limit, so that at most one compiled statement per chunk size is cached. Before
+     * API 16, whose SQLite doesn't support them, the entities are inserted one by one.
+     *
+     * @param entities Entities to insert
+     */
+    public final void insertBatched(Iterable<? extends T> entities) {
+        if (!(entities instanceof Collection) || !isMultiRowInsertSupported()
+                || !prepareBatch()) {
+            insert(entities);
+            return;
+        }
+        int remaining = ((Collection<? extends T>) entities).size();
+        if (remaining <= 1) {
+            insert(entities);
+            return;
+        }
+        assertNotMainThread();
+        final int maxRows = Math.min(MAX_BATCH_ROWS, MAX_BIND_ARGS / mBatchRowArgCount);
+        final boolean useCached = mBatchLock.compareAndSet(false, true);
+        try {
+            final Iterator<? extends T> iterator = entities.iterator();
+            final OffsetStatement offsetStmt = new OffsetStatement();
+            while (remaining > 0) {
+                final int log2Rows = 31 - Integer.numberOfLeadingZeros(
+                        Math.min(remaining, maxRows));
+                final int rows = 1 << log2Rows;
+                final SupportSQLiteStatement stmt = getBatchStmt(log2Rows, useCached);
+                try {
+                    offsetStmt.mDelegate = stmt;
+                    for (int i = 0; i < rows; i++) {
+                        offsetStmt.mOffset = i * mBatchRowArgCount;
+                        bind(offsetStmt, iterator.next());
+                    }
+                    stmt.executeInsert();
+                } finally {
+                    if (!useCached) {
+                        closeQuietly(stmt);
+                    }
+                }
+                remaining -= rows;
+            }
+        } finally {
+            if (useCached) {
+                mBatchLock.set(false);
+            }
+        }
+    }
+
+    /**
+     * Multi-row {@code VALUES} lists need SQLite 3.7.11, which first ships with API 16.
+     */
+    @VisibleForTesting
+    boolean isMultiRowInsertSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    /**
+     * Parses the insert query into the parts needed to build multi-row statements.
+     *
+     * @return {@code false} if the query can't be turned into a multi-row statement.
+     */
+    private boolean prepareBatch() {
+        if (mBatchPrefix != null) {
+            return mBatchRowArgCount > 0;
+        }
+        final String query = createQuery();
+        final int valuesIndex = query.lastIndexOf(VALUES_KEYWORD);
+        int argCount = 0;
+        if (valuesIndex >= 0) {
+            for (int i = valuesIndex; i < query.length(); i++) {
+                if (query.charAt(i) == '?') {
+                    argCount++;
+                }
+            }
+        }
+        synchronized (this) {
+            if (mBatchPrefix == null) {
+                mBatchRow = valuesIndex < 0 ? "" : query.substring(
+                        valuesIndex + VALUES_KEYWORD.length());
+                mBatchRowArgCount = argCount <= MAX_BIND_ARGS ? argCount : 0;
+                mBatchPrefix = valuesIndex < 0 ? query : query.substring(0,
+                        valuesIndex + VALUES_KEYWORD.length());
+            }
+        }
+        return mBatchRowArgCount > 0;
+    }
+
+    private SupportSQLiteStatement getBatchStmt(int log2Rows, boolean useCached) {
+        if (useCached) {
+            if (mBatchStmts == null) {
+                mBatchStmts = new SupportSQLiteStatement[Integer.numberOfTrailingZeros(
+                        MAX_BATCH_ROWS) + 1];
+            }
+            if (mBatchStmts[log2Rows] == null) {
+                mBatchStmts[log2Rows] = createBatchStmt(1 << log2Rows);
+            }
+            return mBatchStmts[log2Rows];
+        }
+        // the cached statements are in use, create a one off statement, closed once executed
+        return createBatchStmt(1 << log2Rows);
+    }
+
+    private static void closeQuietly(SupportSQLiteStatement stmt) {
+        try {
+            stmt.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private SupportSQLiteStatement createBatchStmt(int rows) {
+        final StringBuilder query = new StringBuilder(
+                mBatchPrefix.length() + rows * (mBatchRow.length() + 1));
+        query.append(mBatchPrefix).append(mBatchRow);
+        for (int i = 1; i < rows; i++) {
+            query.append(',').append(mBatchRow);
+        }
+        return mDatabase.compileStatement(query.toString());
+    }
+
     /**
      * Inserts the given entity into the database and returns the row id.
      *
@@ -248,4 +420,78 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
             release(stmt);
         }
     }
+
+    /**
+     * Binds the arguments of one row of a multi-row statement, shifting the argument indices
+     * used by {@link #bind(SupportSQLiteStatement, Object)} by the offset of the row.
+     * <p>
+     * It is a view of the row in the statement: {@link #clearBindings()} only clears the
+     * arguments of the row, executing it executes the whole statement, and closing it doesn't
+     * close the statement, which it doesn't own.
+     */
+    private class OffsetStatement implements SupportSQLiteStatement {
+        SupportSQLiteStatement mDelegate;
+        int mOffset;
+
+        @Override
+        public void bindNull(int index) {
+            mDelegate.bindNull(mOffset + index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            mDelegate.bindLong(mOffset + index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            mDelegate.bindDouble(mOffset + index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            mDelegate.bindString(mOffset + index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            mDelegate.bindBlob(mOffset + index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            for (int i = 1; i <= mBatchRowArgCount; i++) {
+                mDelegate.bindNull(mOffset + i);
+            }
+        }
+
+        @Override
+        public void execute() {
+            mDelegate.execute();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            return mDelegate.executeUpdateDelete();
+        }
+
+        @Override
+        public long executeInsert() {
+            return mDelegate.executeInsert();
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            return mDelegate.simpleQueryForLong();
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            return mDelegate.simpleQueryForString();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -60,6 +60,9 @@ import java.util.concurrent.locks.Lock;
 // memory table table, flipping the invalidated flag ON.
 // * When multi-instance invalidation is turned on, MultiInstanceInvalidationClient will be created.
 // It works as an Observer, and notifies other instances of table invalidation.
+// * When version tracking is turned on, the memory table is created with (table_id, version)
+// instead and each update increments the version of the table. The tracker remembers the last
+// version it saw for each table so a refresh only has to read the table, it never has to reset it.
 public class InvalidationTracker {
 
     private static final String[] TRIGGERS = new String[]{"UPDATE", "DELETE", "INSERT"};
@@ -74,6 +77,17 @@ public class InvalidationTracker {
             + "(" + TABLE_ID_COLUMN_NAME + " INTEGER PRIMARY KEY, "
             + INVALIDATED_COLUMN_NAME + " INTEGER NOT NULL DEFAULT 0)";
 
+    private static final String VERSION_COLUMN_NAME = "version";
+
+    @VisibleForTesting
+    static final String CREATE_VERSION_TRACKING_TABLE_SQL = "CREATE TEMP TABLE "
+            + UPDATE_TABLE_NAME + "(" + TABLE_ID_COLUMN_NAME + " INTEGER PRIMARY KEY, "
+            + VERSION_COLUMN_NAME + " INTEGER NOT NULL DEFAULT 0)";
+
+    @VisibleForTesting
+    static final String SELECT_TABLE_VERSIONS_SQL = "SELECT " + TABLE_ID_COLUMN_NAME + ", "
+            + VERSION_COLUMN_NAME + " FROM " + UPDATE_TABLE_NAME + ";";
+
     @VisibleForTesting
     static final String RESET_UPDATED_TABLES_SQL = "UPDATE " + UPDATE_TABLE_NAME
             + " SET " + INVALIDATED_COLUMN_NAME + " = 0 WHERE " + INVALIDATED_COLUMN_NAME + " = 1 ";
@@ -96,6 +110,11 @@ public class InvalidationTracker {
 
     private volatile boolean mInitialized = false;
 
+    private boolean mVersionTracking = false;
+
+    // The last version read for each table when version tracking is enabled. Guarded by itself.
+    private final long[] mTableVersions;
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     volatile SupportSQLiteStatement mCleanupStatement;
 
@@ -138,6 +157,7 @@ public class InvalidationTracker {
         mInvalidationLiveDataContainer = new InvalidationLiveDataContainer(mDatabase);
         final int size = tableNames.length;
         mTableNames = new String[size];
+        mTableVersions = new long[size];
         for (int id = 0; id < size; id++) {
             final String tableName = tableNames[id].toLowerCase(Locale.US);
             mTableIdLookup.put(tableName, id);
@@ -159,6 +179,21 @@ public class InvalidationTracker {
         }
     }
 
+    /**
+     * Makes the triggers increment a per-table version instead of flipping an invalidated flag.
+     * <p>
+     * Must be called before the database is opened.
+     */
+    void enableVersionTracking() {
+        synchronized (this) {
+            if (mInitialized) {
+                throw new IllegalStateException(
+                        "Cannot enable version tracking after the database is opened.");
+            }
+            mVersionTracking = true;
+        }
+    }
+
     /**
      * Internal method to initialize table tracking.
      * <p>
@@ -175,9 +210,14 @@ public class InvalidationTracker {
             // performed on a transaction, and recursive_triggers is not affected by transactions.
             database.execSQL("PRAGMA temp_store = MEMORY;");
             database.execSQL("PRAGMA recursive_triggers='ON';");
-            database.execSQL(CREATE_TRACKING_TABLE_SQL);
-            syncTriggers(database);
-            mCleanupStatement = database.compileStatement(RESET_UPDATED_TABLES_SQL);
+            if (mVersionTracking) {
+                database.execSQL(CREATE_VERSION_TRACKING_TABLE_SQL);
+                syncTriggers(database);
+            } else {
+                database.execSQL(CREATE_TRACKING_TABLE_SQL);
+                syncTriggers(database);
+                mCleanupStatement = database.compileStatement(RESET_UPDATED_TABLES_SQL);
+            }
             mInitialized = true;
         }
     }
@@ -229,11 +269,19 @@ public class InvalidationTracker {
                     .append(" ON `")
                     .append(tableName)
                     .append("` BEGIN UPDATE ")
-                    .append(UPDATE_TABLE_NAME)
-                    .append(" SET ").append(INVALIDATED_COLUMN_NAME).append(" = 1")
-                    .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ").append(tableId)
-                    .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0")
-                    .append("; END");
+                    .append(UPDATE_TABLE_NAME);
+            if (mVersionTracking) {
+                stringBuilder.append(" SET ").append(VERSION_COLUMN_NAME).append(" = ")
+                        .append(VERSION_COLUMN_NAME).append(" + 1")
+                        .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ")
+                        .append(tableId);
+            } else {
+                stringBuilder.append(" SET ").append(INVALIDATED_COLUMN_NAME).append(" = 1")
+                        .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ")
+                        .append(tableId)
+                        .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0");
+            }
+            stringBuilder.append("; END");
             writableDb.execSQL(stringBuilder.toString());
         }
     }
@@ -379,6 +427,12 @@ public class InvalidationTracker {
                     return;
                 }
 
+                if (mVersionTracking && !hasObservers()) {
+                    // Versions only move forward, changes made while nothing is observed will
+                    // still be detected by the next refresh.
+                    return;
+                }
+
                 if (mDatabase.mWriteAheadLoggingEnabled) {
                     // This transaction has to be on the underlying DB rather than the RoomDatabase
                     // in order to avoid a recursive loop after endTransaction.
@@ -410,6 +464,9 @@ public class InvalidationTracker {
         }
 
         private Set<Integer> checkUpdatedTable() {
+            if (mVersionTracking) {
+                return checkTableVersions();
+            }
             HashSet<Integer> invalidatedTableIds = new HashSet<>();
             Cursor cursor = mDatabase.query(new SimpleSQLiteQuery(SELECT_UPDATED_TABLES_SQL));
             //noinspection TryFinallyCanBeTryWithResources
@@ -426,8 +483,37 @@ public class InvalidationTracker {
             }
             return invalidatedTableIds;
         }
+
+        private Set<Integer> checkTableVersions() {
+            HashSet<Integer> invalidatedTableIds = new HashSet<>();
+            Cursor cursor = mDatabase.query(new SimpleSQLiteQuery(SELECT_TABLE_VERSIONS_SQL));
+            //noinspection TryFinallyCanBeTryWithResources
+            try {
+                synchronized (mTableVersions) {
+                    while (cursor.moveToNext()) {
+                        final int tableId = cursor.getInt(0);
+                        final long version = cursor.getLong(1);
+                        if (mTableVersions[tableId] != version) {
+                            mTableVersions[tableId] = version;
+                            invalidatedTableIds.add(tableId);
+                        }
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+            return invalidatedTableIds;
+        }
     };
 
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @SuppressLint("RestrictedApi")
+    boolean hasObservers() {
+        synchronized (mObserverMap) {
+            return mObserverMap.size() > 0;
+        }
+    }
+
     /**
      * Enqueues a task to refresh the list of updated tables.
      * <p>
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import java.util.List;
+
+/**
+ * A fixed set of extra database connections used to run reads in parallel with each other and
+ * with the writer connection of a database in write-ahead logging mode.
+ * <p>
+ * The connections are opened lazily, after the writer connection has been opened, so that they
+ * never run the creation or migration of the database. They are opened through the same factory as
+ * the writer, made read-only with {@code PRAGMA query_only} when they are configured, and then
+ * passed to the {@link RoomDatabase.Callback#onOpen(SupportSQLiteDatabase)} callbacks so that
+ * connection settings made there apply to them too. Room's own open callback, which sets up the
+ * invalidation tracker, only runs on the writer.
+ * <p>
+ * Each thread always reads through the same connection, so that picking one doesn't need any
+ * shared state. Each connection is a database of its own, which the platform may back with more
+ * than one SQLite connection.
+ */
+class ReadConnectionPool {
+
+    private final SupportSQLiteOpenHelper.Factory mFactory;
+    private final DatabaseConfiguration mConfiguration;
+    private final SupportSQLiteOpenHelper mWriter;
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @Nullable
+    final List<RoomDatabase.Callback> mCallbacks;
+    private final int mSize;
+    private volatile SupportSQLiteOpenHelper[] mHelpers;
+
+    ReadConnectionPool(@NonNull DatabaseConfiguration configuration,
+            @NonNull SupportSQLiteOpenHelper writer) {
+        SupportSQLiteOpenHelper.Factory factory = configuration.sqliteOpenHelperFactory;
+        if (factory instanceof SQLiteCopyOpenHelperFactory) {
+            // The writer takes care of copying the pre-packaged database.
+            factory = ((SQLiteCopyOpenHelperFactory) factory).getDelegate();
+        }
+        mFactory = factory;
+        mConfiguration = configuration;
+        mWriter = writer;
+        mCallbacks = configuration.callbacks;
+        mSize = configuration.readConnectionPoolSize;
+    }
+
+    /**
+     * Returns the connection the current thread should read through.
+     *
+     * @return An open database connection.
+     */
+    @NonNull
+    SupportSQLiteDatabase acquire() {
+        SupportSQLiteOpenHelper[] helpers = mHelpers;
+        if (helpers == null) {
+            helpers = createHelpers();
+        }
+        final int index = (int) ((Thread.currentThread().getId() & Long.MAX_VALUE) % mSize);
+        return helpers[index].getWritableDatabase();
+    }
+
+    private synchronized SupportSQLiteOpenHelper[] createHelpers() {
+        if (mHelpers != null) {
+            return mHelpers;
+        }
+        // Opening the writer first creates or migrates the database, so the read connections can
+        // simply expect its current version.
+        final int version = mWriter.getWritableDatabase().getVersion();
+        final SupportSQLiteOpenHelper.Callback callback =
+                new SupportSQLiteOpenHelper.Callback(version) {
+                    @Override
+                    public void onConfigure(@NonNull SupportSQLiteDatabase db) {
+                        // Ignored before SQLite 3.8.0 (API 21), where read connections can write.
+                        db.execSQL("PRAGMA query_only = 1");
+                    }
+
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        throw new IllegalStateException(
+                                "Read connections cannot create the database.");
+                    }
+
+                    @Override
+                    public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion,
+                            int newVersion) {
+                        throw new IllegalStateException(
+                                "Read connections cannot migrate the database.");
+                    }
+
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                        if (mCallbacks != null) {
+                            for (RoomDatabase.Callback callback : mCallbacks) {
+                                callback.onOpen(db);
+                            }
+                        }
+                    }
+                };
+        final SupportSQLiteOpenHelper[] helpers = new SupportSQLiteOpenHelper[mSize];
+        for (int i = 0; i < mSize; i++) {
+            helpers[i] = mFactory.create(
+                    SupportSQLiteOpenHelper.Configuration.builder(mConfiguration.context)
+                            .name(mConfiguration.name)
+                            .callback(callback)
+                            .build());
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                helpers[i].setWriteAheadLoggingEnabled(true);
+            }
+        }
+        mHelpers = helpers;
+        return helpers;
+    }
+
+    /**
+     * Closes the connections which were opened.
+     */
+    synchronized void close() {
+        final SupportSQLiteOpenHelper[] helpers = mHelpers;
+        if (helpers != null) {
+            for (SupportSQLiteOpenHelper helper : helpers) {
+                helper.close();
+            }
+            mHelpers = null;
+        }
+    }
+}
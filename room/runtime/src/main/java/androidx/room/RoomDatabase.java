@@ -26,6 +26,7 @@ import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.CallSuper;
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
@@ -85,6 +86,8 @@ public abstract class RoomDatabase {
     private Executor mQueryExecutor;
     private Executor mTransactionExecutor;
     private SupportSQLiteOpenHelper mOpenHelper;
+    @Nullable
+    private ReadConnectionPool mReadConnectionPool;
     private final InvalidationTracker mInvalidationTracker;
     private boolean mAllowMainThreadQueries;
     boolean mWriteAheadLoggingEnabled;
@@ -174,6 +177,9 @@ public abstract class RoomDatabase {
         mTransactionExecutor = new TransactionExecutor(configuration.transactionExecutor);
         mAllowMainThreadQueries = configuration.allowMainThreadQueries;
         mWriteAheadLoggingEnabled = wal;
+        if (wal && configuration.name != null && configuration.readConnectionPoolSize > 0) {
+            mReadConnectionPool = new ReadConnectionPool(configuration, mOpenHelper);
+        }
         if (configuration.multiInstanceInvalidation) {
             mInvalidationTracker.startMultiInstanceInvalidation(configuration.context,
                     configuration.name);
@@ -245,6 +251,9 @@ public abstract class RoomDatabase {
             closeLock.lock();
             try {
                 mInvalidationTracker.stopMultiInstanceInvalidation();
+                if (mReadConnectionPool != null) {
+                    mReadConnectionPool.close();
+                }
                 mOpenHelper.close();
             } finally {
                 closeLock.unlock();
@@ -330,6 +339,37 @@ public abstract class RoomDatabase {
         }
     }
 
+    /**
+     * Runs a query which doesn't modify the database.
+     * <p>
+     * If a read connection pool is enabled and the current thread isn't in a transaction, the
+     * query runs on one of the read connections instead of the writer connection.
+     *
+     * @param query The Query which includes the SQL and a bind callback for bind arguments.
+     * @param signal The cancellation signal to be attached to the query.
+     * @return Result of the query.
+     *
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    // used by DBUtil#query, which generated code calls for DAO queries
+    public Cursor queryForRead(@NonNull SupportSQLiteQuery query,
+            @Nullable CancellationSignal signal) {
+        final ReadConnectionPool readConnectionPool = mReadConnectionPool;
+        if (readConnectionPool == null || inTransaction()) {
+            return query(query, signal);
+        }
+        assertNotMainThread();
+        assertNotSuspendingTransaction();
+        final SupportSQLiteDatabase database = readConnectionPool.acquire();
+        if (signal != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return database.query(query, signal);
+        } else {
+            return database.query(query);
+        }
+    }
+
     /**
      * Wrapper for {@link SupportSQLiteDatabase#compileStatement(String)}.
      *
@@ -537,6 +577,9 @@ public abstract class RoomDatabase {
      * @param <T> The type of the abstract database class.
      */
     public static class Builder<T extends RoomDatabase> {
+        // Each read connection may hold several SQLite connections, see enableReadConnectionPool
+        private static final int DEFAULT_MAX_READ_CONNECTIONS = 4;
+
         private final Class<T> mDatabaseClass;
         private final String mName;
         private final Context mContext;
@@ -551,8 +594,10 @@ public abstract class RoomDatabase {
         private boolean mAllowMainThreadQueries;
         private JournalMode mJournalMode;
         private boolean mMultiInstanceInvalidation;
+        private boolean mInvalidationVersionTracking;
         private boolean mRequireMigration;
         private boolean mAllowDestructiveMigrationOnDowngrade;
+        private int mReadConnectionPoolSize;
         /**
          * Migrations, mapped by from-to pairs.
          */
@@ -848,6 +893,57 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Enables a pool of extra database connections, one per available processor up to
+         * 4, that are used to run the queries of {@link Dao} methods in parallel.
+         *
+         * @return This {@link Builder} instance.
+         *
+         * @see #enableReadConnectionPool(int)
+         */
+        @NonNull
+        public Builder<T> enableReadConnectionPool() {
+            return enableReadConnectionPool(Math.min(DEFAULT_MAX_READ_CONNECTIONS,
+                    Runtime.getRuntime().availableProcessors()));
+        }
+
+        /**
+         * Enables a pool of extra database connections that are used to run the queries of
+         * {@link Dao} methods in parallel.
+         * <p>
+         * In {@link JournalMode#WRITE_AHEAD_LOGGING} mode, readers don't block each other nor the
+         * writer, but queries running through the same connection still wait for each other. With
+         * a pool of read connections, queries of {@link Dao} methods that aren't run in a
+         * transaction use one of these connections, while writes and transactions keep going
+         * through the single writer connection.
+         * <p>
+         * Read connections are read-only on API 21 and above. {@link Callback#onOpen} is also
+         * called for each of them, so connection settings made there, such as PRAGMAs or attached
+         * databases, apply to all the connections. Writes made from {@link Callback#onOpen} fail
+         * on read connections.
+         * <p>
+         * Each read connection is a database of its own, which the platform may back with more
+         * than one SQLite connection, so the pool should be kept small.
+         * <p>
+         * The pool is only used when the journal mode resolves to
+         * {@link JournalMode#WRITE_AHEAD_LOGGING}, and is ignored if the builder is initialized
+         * with {@link Room#inMemoryDatabaseBuilder(Context, Class)}.
+         * <p>
+         * This is not enabled by default.
+         *
+         * @param poolSize The number of read connections to open.
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> enableReadConnectionPool(@IntRange(from = 1) int poolSize) {
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("Read connection pool size must be positive,"
+                        + " was " + poolSize);
+            }
+            mReadConnectionPoolSize = poolSize;
+            return this;
+        }
+
         /**
          * Sets the {@link Executor} that will be used to execute all non-blocking asynchronous
          * queries and tasks, including {@code LiveData} invalidation, {@code Flowable} scheduling
@@ -919,6 +1015,26 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Sets whether the {@link InvalidationTracker} of this {@link RoomDatabase} should track
+         * table changes with per-table version counters.
+         * <p>
+         * By default, each write to an observed table sets an invalidated flag that the tracker
+         * has to read and then reset after every transaction. With version tracking, writes
+         * increment a version counter instead and the tracker compares it with the last version
+         * it saw, so checking for changes never writes to the database. This is beneficial for
+         * databases that perform many small write transactions.
+         * <p>
+         * This is not enabled by default.
+         *
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> enableInvalidationVersionTracking() {
+            mInvalidationVersionTracking = true;
+            return this;
+        }
+
         /**
          * Allows Room to destructively recreate database tables if {@link Migration}s that would
          * migrate old database schemas to the latest schema version are not found.
@@ -1096,8 +1212,12 @@ public abstract class RoomDatabase {
                             mCopyFromAssetPath,
                             mCopyFromFile,
                             mCopyFromInputStream,
-                            mPrepackagedCallback);
+                            mPrepackagedCallback,
+                            mReadConnectionPoolSize);
             T db = Room.getGeneratedImplementation(mDatabaseClass, DB_IMPL_SUFFIX);
+            if (mInvalidationVersionTracking) {
+                db.getInvalidationTracker().enableVersionTracking();
+            }
             db.init(configuration);
             return db;
         }
@@ -1215,8 +1335,12 @@ public abstract class RoomDatabase {
 
         /**
          * Called when the database has been opened.
+         * <p>
+         * If a read connection pool is enabled, this is also called with each read connection
+         * when it is opened, after it was made read-only.
          *
          * @param db The database.
+         * @see Builder#enableReadConnectionPool(int)
          */
         public void onOpen(@NonNull SupportSQLiteDatabase db) {
         }
@@ -25,15 +25,16 @@ import androidx.sqlite.db.SupportSQLiteQuery;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * This class is used as an intermediate place to keep binding arguments so that we can run
  * Cursor queries with correct types rather than passing everything as a string.
  * <p>
  * Because it is relatively a big object, they are pooled and must be released after each use.
+ * The pool is bucketed by argument count, rounded up to a power of two, and doesn't take a lock.
  *
  * @hide
  */
@@ -42,13 +43,18 @@ import java.util.TreeMap;
 public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram {
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
-    // Maximum number of queries we'll keep cached.
-    static final int POOL_LIMIT = 15;
+    // Queries are pooled in buckets of power of two capacities, up to SQLite's default limit of
+    // 999 arguments rounded up. Bigger queries are neither pooled nor rounded up.
+    static final int MAX_POOLED_CAPACITY = 1024;
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
-    // Once we hit POOL_LIMIT, we'll bring the pool size back to the desired number. We always
-    // clear the bigger queries (# of arguments).
-    static final int DESIRED_POOL_SIZE = 10;
+    // Number of queries we'll keep cached for each capacity.
+    static final int SLOTS_PER_BUCKET = 4;
+    private static final int BUCKET_COUNT = Integer.numberOfTrailingZeros(MAX_POOLED_CAPACITY) + 1;
+    // Pool hits are counted in a few stripes, spread over different cache lines, so that
+    // concurrent readers don't contend on a single counter.
+    private static final int STAT_STRIPES = 8;
+    private static final int STAT_STRIPE_SPACING = 8;
     private volatile String mQuery;
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
@@ -74,9 +80,18 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
     int mArgCount;
 
 
+    // Bucket b keeps up to SLOTS_PER_BUCKET queries of capacity 1 << b, starting at index
+    // b * SLOTS_PER_BUCKET. Queries are claimed and returned with compare-and-set, so acquire and
+    // release never block.
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
-    static final TreeMap<Integer, RoomSQLiteQuery> sQueryPool = new TreeMap<>();
+    static final AtomicReferenceArray<RoomSQLiteQuery> sQueryPool =
+            new AtomicReferenceArray<>(BUCKET_COUNT * SLOTS_PER_BUCKET);
+
+    private static final AtomicLongArray sPoolHits =
+            new AtomicLongArray(STAT_STRIPES * STAT_STRIPE_SPACING);
+
+    private static final AtomicLong sAllocations = new AtomicLong();
 
     /**
      * Copies the given SupportSQLiteQuery and converts it into RoomSQLiteQuery.
@@ -138,19 +153,95 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public static RoomSQLiteQuery acquire(String query, int argumentCount) {
-        synchronized (sQueryPool) {
-            final Map.Entry<Integer, RoomSQLiteQuery> entry =
-                    sQueryPool.ceilingEntry(argumentCount);
-            if (entry != null) {
-                sQueryPool.remove(entry.getKey());
-                final RoomSQLiteQuery sqliteQuery = entry.getValue();
-                sqliteQuery.init(query, argumentCount);
-                return sqliteQuery;
+        final RoomSQLiteQuery sqliteQuery;
+        if (argumentCount > MAX_POOLED_CAPACITY) {
+            sqliteQuery = new RoomSQLiteQuery(argumentCount);
+            sAllocations.incrementAndGet();
+        } else {
+            final int bucket = bucketFor(argumentCount);
+            final RoomSQLiteQuery pooled = pollBucket(bucket);
+            if (pooled != null) {
+                sPoolHits.incrementAndGet(statStripe());
+                sqliteQuery = pooled;
+            } else {
+                sqliteQuery = new RoomSQLiteQuery(1 << bucket);
+                sAllocations.incrementAndGet();
             }
         }
-        RoomSQLiteQuery sqLiteQuery = new RoomSQLiteQuery(argumentCount);
-        sqLiteQuery.init(query, argumentCount);
-        return sqLiteQuery;
+        sqliteQuery.init(query, argumentCount);
+        return sqliteQuery;
+    }
+
+    /**
+     * Returns the number of {@link #acquire(String, int)} calls that were served from the pool.
+     *
+     * @return The number of pool hits.
+     */
+    public static long getPoolHitCount() {
+        long hits = 0;
+        for (int i = 0; i < STAT_STRIPES; i++) {
+            hits += sPoolHits.get(i * STAT_STRIPE_SPACING);
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of {@link #acquire(String, int)} calls that had to allocate a new query.
+     *
+     * @return The number of queries allocated.
+     */
+    public static long getAllocationCount() {
+        return sAllocations.get();
+    }
+
+    /**
+     * Returns the ratio of {@link #acquire(String, int)} calls that were served from the pool, or
+     * {@code 0} if no query was acquired yet.
+     *
+     * @return The pool hit rate, between {@code 0} and {@code 1}.
+     */
+    public static double getPoolHitRate() {
+        final long hits = getPoolHitCount();
+        final long total = hits + getAllocationCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @VisibleForTesting
+    static void clearPool() {
+        for (int i = 0; i < sQueryPool.length(); i++) {
+            sQueryPool.set(i, null);
+        }
+        for (int i = 0; i < sPoolHits.length(); i++) {
+            sPoolHits.set(i, 0);
+        }
+        sAllocations.set(0);
+    }
+
+    // Smallest b such that 1 << b >= argumentCount.
+    private static int bucketFor(int argumentCount) {
+        return argumentCount <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(argumentCount - 1);
+    }
+
+    private static RoomSQLiteQuery pollBucket(int bucket) {
+        final int base = bucket * SLOTS_PER_BUCKET;
+        final int start = threadHash();
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            final int slot = base + ((start + i) % SLOTS_PER_BUCKET);
+            final RoomSQLiteQuery query = sQueryPool.get(slot);
+            if (query != null && sQueryPool.compareAndSet(slot, query, null)) {
+                return query;
+            }
+        }
+        return null;
+    }
+
+    private static int statStripe() {
+        return (threadHash() % STAT_STRIPES) * STAT_STRIPE_SPACING;
+    }
+
+    // Spreads threads over pool slots and stat stripes.
+    private static int threadHash() {
+        return (int) (Thread.currentThread().getId() & Integer.MAX_VALUE);
     }
 
     private RoomSQLiteQuery(int capacity) {
@@ -179,21 +270,18 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public void release() {
-        synchronized (sQueryPool) {
-            sQueryPool.put(mCapacity, this);
-            prunePoolLocked();
+        if (mCapacity > MAX_POOLED_CAPACITY) {
+            return;
         }
-    }
-
-    private static void prunePoolLocked() {
-        if (sQueryPool.size() > POOL_LIMIT) {
-            int toBeRemoved = sQueryPool.size() - DESIRED_POOL_SIZE;
-            final Iterator<Integer> iterator = sQueryPool.descendingKeySet().iterator();
-            while (toBeRemoved-- > 0) {
-                iterator.next();
-                iterator.remove();
+        final int base = bucketFor(mCapacity) * SLOTS_PER_BUCKET;
+        final int start = threadHash();
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            final int slot = base + ((start + i) % SLOTS_PER_BUCKET);
+            if (sQueryPool.get(slot) == null && sQueryPool.compareAndSet(slot, null, this)) {
+                return;
             }
         }
+        // The bucket is full, let this one be collected.
     }
 
     @Override
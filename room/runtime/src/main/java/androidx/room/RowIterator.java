@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator over the rows of a query result, which converts each row only when it is read
+ * instead of loading the whole result into a list.
+ * <p>
+ * A {@link Dao} method annotated with {@link Query} can return a {@code RowIterator} to read
+ * results which are too large to keep in memory at once:
+ * <pre>
+ * {@literal @}Query("SELECT * FROM user")
+ * RowIterator&lt;User&gt; iterateAll();
+ * </pre>
+ * The iterator keeps the query cursor open until it is {@link #close() closed}, or until its last
+ * row has been read, so it should be closed if it isn't read to the end. The rows are read
+ * straight from the cursor and are not observed, so the method cannot be annotated with
+ * {@link Transaction} and its result cannot have {@link Relation} fields.
+ * <p>
+ * If the caller doesn't keep the rows it reads, it can call {@link #setRowReuseEnabled(boolean)}
+ * to have each row read into the object returned for the previous one, when the row type is a
+ * POJO whose fields are all set after calling its no-argument constructor.
+ *
+ * @param <T> The type of the rows.
+ */
+public interface RowIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * Sets whether {@link #next()} can return the object it returned for the previous row after
+     * updating it with the values of the next one. This is disabled by default.
+     * <p>
+     * When the row type cannot be updated in place, a new object is returned for every row.
+     *
+     * @param enabled {@code true} to reuse the returned objects, {@code false} to return a new
+     *                object for every row.
+     */
+    void setRowReuseEnabled(boolean enabled);
+
+    /**
+     * Closes the query cursor. Calling this method more than once has no effect.
+     */
+    @Override
+    void close();
+}
@@ -50,6 +50,14 @@ class SQLiteCopyOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
         mDelegate = factory;
     }
 
+    /**
+     * Returns the factory which opens the database once it has been copied.
+     */
+    @NonNull
+    SupportSQLiteOpenHelper.Factory getDelegate() {
+        return mDelegate;
+    }
+
     @NonNull
     @Override
     public SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Configuration configuration) {
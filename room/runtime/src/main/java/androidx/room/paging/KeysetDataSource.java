@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging;
+
+import android.annotation.SuppressLint;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+import androidx.room.RoomSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A data source implementation that pages a query by the values of a sort key, also known as
+ * keyset or seek pagination.
+ * <p>
+ * Unlike {@link LimitOffsetDataSource}, which has SQLite step over every row before the requested
+ * offset, each page is loaded with a {@code WHERE key > ? ORDER BY key LIMIT ?} query. When the
+ * key column is indexed, loading a page takes the same time regardless of how far into the
+ * result the page is.
+ * <p>
+ * The key column must be unique and non-null for the rows returned by the query, and the query
+ * must not have its own {@code ORDER BY} or {@code LIMIT} clauses. Keys can be integers, floating
+ * point numbers, strings or blobs.
+ * <p>
+ * Rows are never counted, since counting them would scan the whole result of the query again on
+ * every invalidation. Placeholders are not supported: the initial page is always returned without
+ * a position or a total count, which disables them for the {@code PagedList}.
+ *
+ * @param <K> Type of the key column.
+ * @param <T> Data type returned by the data source.
+ */
+@SuppressWarnings("deprecation")
+public abstract class KeysetDataSource<K, T> extends androidx.paging.ItemKeyedDataSource<K, T> {
+    private final RoomSQLiteQuery mSourceQuery;
+    private final String mFirstPageQuery;
+    private final String mLoadFromQuery;
+    private final String mLoadAfterQuery;
+    private final String mLoadBeforeQuery;
+    private final RoomDatabase mDb;
+    @SuppressWarnings("FieldCanBeLocal")
+    private final InvalidationTracker.Observer mObserver;
+
+    /**
+     * Creates a data source that pages the given query by the given key column.
+     *
+     * @param db        The database to run the queries on.
+     * @param query     The query to page. It must return the key column.
+     * @param keyColumn The name of the unique column the pages are sorted by.
+     * @param tables    The tables whose modification invalidates this data source.
+     */
+    protected KeysetDataSource(@NonNull RoomDatabase db, @NonNull SupportSQLiteQuery query,
+            @NonNull String keyColumn, @NonNull String... tables) {
+        mDb = db;
+        mSourceQuery = RoomSQLiteQuery.copyFrom(query);
+        final String source = "SELECT * FROM ( " + mSourceQuery.getSql() + " )";
+        final String key = "`" + keyColumn + "`";
+        mFirstPageQuery = source + " ORDER BY " + key + " ASC LIMIT ?";
+        mLoadFromQuery = source + " WHERE " + key + " >= ? ORDER BY " + key + " ASC LIMIT ?";
+        mLoadAfterQuery = source + " WHERE " + key + " > ? ORDER BY " + key + " ASC LIMIT ?";
+        mLoadBeforeQuery = source + " WHERE " + key + " < ? ORDER BY " + key + " DESC LIMIT ?";
+        mObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        db.getInvalidationTracker().addWeakObserver(mObserver);
+    }
+
+    @SuppressLint("RestrictedApi")
+    @Override
+    public boolean isInvalid() {
+        mDb.getInvalidationTracker().refreshVersionsSync();
+        return super.isInvalid();
+    }
+
+    /**
+     * Converts the rows of the given cursor into items, in the order of the cursor.
+     *
+     * @param cursor The cursor positioned before its first row.
+     * @return The items of the cursor.
+     */
+    @NonNull
+    protected abstract List<T> convertRows(@NonNull Cursor cursor);
+
+    @Override
+    public void loadInitial(@NonNull LoadInitialParams<K> params,
+            @NonNull LoadInitialCallback<T> callback) {
+        final K initialKey = params.requestedInitialKey;
+        List<T> list;
+        if (initialKey == null) {
+            list = query(mFirstPageQuery, null, params.requestedLoadSize);
+        } else {
+            // load around the initial key, half of the page before it.
+            mDb.beginTransaction();
+            try {
+                list = query(mLoadBeforeQuery, initialKey, params.requestedLoadSize / 2);
+                Collections.reverse(list);
+                list.addAll(query(mLoadFromQuery, initialKey,
+                        params.requestedLoadSize - list.size()));
+                mDb.setTransactionSuccessful();
+            } finally {
+                mDb.endTransaction();
+            }
+        }
+        // placeholders are not supported, see the class documentation
+        callback.onResult(list);
+    }
+
+    @Override
+    public void loadAfter(@NonNull LoadParams<K> params, @NonNull LoadCallback<T> callback) {
+        callback.onResult(query(mLoadAfterQuery, params.key, params.requestedLoadSize));
+    }
+
+    @Override
+    public void loadBefore(@NonNull LoadParams<K> params, @NonNull LoadCallback<T> callback) {
+        List<T> list = query(mLoadBeforeQuery, params.key, params.requestedLoadSize);
+        Collections.reverse(list);
+        callback.onResult(list);
+    }
+
+    private List<T> query(String sql, @Nullable K key, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        final int argCount = mSourceQuery.getArgCount() + (key == null ? 1 : 2);
+        final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(sql, argCount);
+        sqLiteQuery.copyArgumentsFrom(mSourceQuery);
+        if (key != null) {
+            bindKey(sqLiteQuery, argCount - 1, key);
+        }
+        sqLiteQuery.bindLong(argCount, limit);
+        Cursor cursor = mDb.query(sqLiteQuery);
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            return new ArrayList<>(convertRows(cursor));
+        } finally {
+            cursor.close();
+            sqLiteQuery.release();
+        }
+    }
+
+    private static void bindKey(RoomSQLiteQuery query, int index, Object key) {
+        if (key instanceof Long || key instanceof Integer || key instanceof Short
+                || key instanceof Byte) {
+            query.bindLong(index, ((Number) key).longValue());
+        } else if (key instanceof Double || key instanceof Float) {
+            query.bindDouble(index, ((Number) key).doubleValue());
+        } else if (key instanceof String) {
+            query.bindString(index, (String) key);
+        } else if (key instanceof byte[]) {
+            query.bindBlob(index, (byte[]) key);
+        } else {
+            throw new IllegalArgumentException("Cannot page by a key of type "
+                    + key.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.RoomSQLiteQuery;
+import androidx.room.RowIterator;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link RowIterator} reading the rows of a cursor, extended by generated code to convert each
+ * row.
+ *
+ * @param <T> The type of the rows.
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public abstract class CursorRowIterator<T> implements RowIterator<T> {
+
+    private final Cursor mCursor;
+    @Nullable
+    private final RoomSQLiteQuery mQuery;
+    private boolean mRowReuseEnabled;
+    @Nullable
+    private T mPreviousRow;
+    // Whether the cursor has been moved to the row the next call to next() returns.
+    private boolean mMoved;
+    private boolean mHasNext;
+    private boolean mClosed;
+
+    /**
+     * @param cursor The cursor to read, positioned before its first row.
+     * @param query  The query to release when the cursor is closed, or {@code null} if it
+     *               shouldn't be released.
+     */
+    protected CursorRowIterator(@NonNull Cursor cursor, @Nullable RoomSQLiteQuery query) {
+        mCursor = cursor;
+        mQuery = query;
+    }
+
+    /**
+     * Converts the current row of the cursor.
+     *
+     * @param cursor   The cursor, positioned on the row to convert.
+     * @param reusable The object returned for the previous row, which can be updated and returned
+     *                 instead of creating a new one, or {@code null} if a new one must be created.
+     * @return The row.
+     */
+    protected abstract T convertRow(@NonNull Cursor cursor, @Nullable T reusable);
+
+    @Override
+    public void setRowReuseEnabled(boolean enabled) {
+        mRowReuseEnabled = enabled;
+        if (!enabled) {
+            mPreviousRow = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!mMoved) {
+            mHasNext = !mClosed && mCursor.moveToNext();
+            mMoved = true;
+            if (!mHasNext) {
+                close();
+            }
+        }
+        return mHasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        mMoved = false;
+        final T row = convertRow(mCursor, mPreviousRow);
+        if (mRowReuseEnabled) {
+            mPreviousRow = row;
+        }
+        return row;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Query results cannot be removed.");
+    }
+
+    @Override
+    public void close() {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        mHasNext = false;
+        mMoved = true;
+        mPreviousRow = null;
+        mCursor.close();
+        if (mQuery != null) {
+            mQuery.release();
+        }
+    }
+}
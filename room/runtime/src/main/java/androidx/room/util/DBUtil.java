@@ -69,7 +69,8 @@ public class DBUtil {
      * <p>
      * This util method encapsulates copying the cursor if the {@code maybeCopy} parameter is
      * {@code true} and either the api level is below a certain threshold or the full result of the
-     * query does not fit in a single window.
+     * query does not fit in a single window. The query runs on a read connection if the database
+     * has a read connection pool.
      *
      * @param db          The database to perform the query on.
      * @param sqLiteQuery The query to perform.
@@ -80,7 +81,7 @@ public class DBUtil {
     @NonNull
     public static Cursor query(@NonNull RoomDatabase db, @NonNull SupportSQLiteQuery sqLiteQuery,
             boolean maybeCopy, @Nullable CancellationSignal signal) {
-        final Cursor cursor = db.query(sqLiteQuery, signal);
+        final Cursor cursor = db.queryForRead(sqLiteQuery, signal);
         if (maybeCopy && cursor instanceof AbstractWindowedCursor) {
             AbstractWindowedCursor windowedCursor = (AbstractWindowedCursor) cursor;
             int rowsInCursor = windowedCursor.getCount(); // Should fill the window.
@@ -108,6 +108,29 @@ public class BuilderTest {
         assertThat(db.mDatabaseConfiguration.transactionExecutor, is(executor2));
     }
 
+    @Test
+    public void readConnectionPool() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .enableReadConnectionPool(3)
+                .build();
+        DatabaseConfiguration config = ((BuilderTest_TestDatabase_Impl) db).mConfig;
+        assertThat(config.readConnectionPoolSize, is(3));
+    }
+
+    @Test
+    public void readConnectionPool_disabledByDefault() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+        DatabaseConfiguration config = ((BuilderTest_TestDatabase_Impl) db).mConfig;
+        assertThat(config.readConnectionPoolSize, is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readConnectionPool_invalidSize() {
+        Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .enableReadConnectionPool(0);
+    }
+
     @Test
     public void migration() {
         Migration m1 = new EmptyMigration(0, 1);
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public class EntityInsertionAdapterTest {
+    private static final String PREFIX = "INSERT OR ABORT INTO `Foo` (`id`,`value`) VALUES ";
+    private static final String ROW = "(nullif(?, 0),?)";
+
+    private RoomDatabase mDb;
+    private final Map<String, SupportSQLiteStatement> mStatements = new LinkedHashMap<>();
+
+    @Before
+    public void init() {
+        mDb = mock(RoomDatabase.class);
+        when(mDb.compileStatement(anyString())).thenAnswer(
+                new Answer<SupportSQLiteStatement>() {
+                    @Override
+                    public SupportSQLiteStatement answer(InvocationOnMock invocation) {
+                        SupportSQLiteStatement stmt = mock(SupportSQLiteStatement.class);
+                        mStatements.put((String) invocation.getArgument(0), stmt);
+                        return stmt;
+                    }
+                });
+    }
+
+    @Test
+    public void insertBatched_chunksByPowersOfTwo() {
+        createAdapter(PREFIX + ROW, 2).insertBatched(range(7));
+
+        assertThat(new ArrayList<>(mStatements.keySet()), is(Arrays.asList(
+                PREFIX + rows(4), PREFIX + rows(2), PREFIX + rows(1))));
+        SupportSQLiteStatement fourRows = mStatements.get(PREFIX + rows(4));
+        for (int i = 0; i < 4; i++) {
+            verify(fourRows).bindLong(2 * i + 1, i);
+            verify(fourRows).bindLong(2 * i + 2, i);
+        }
+        verify(fourRows).executeInsert();
+        SupportSQLiteStatement oneRow = mStatements.get(PREFIX + rows(1));
+        verify(oneRow).bindLong(1, 6);
+        verify(oneRow).bindLong(2, 6);
+    }
+
+    @Test
+    public void insertBatched_reusesStatements() {
+        EntityInsertionAdapter<Integer> adapter = createAdapter(PREFIX + ROW, 2);
+        adapter.insertBatched(range(4));
+        adapter.insertBatched(new Integer[]{0, 1, 2, 3});
+
+        verify(mDb, times(1)).compileStatement(anyString());
+        verify(mStatements.get(PREFIX + rows(4)), times(2)).executeInsert();
+    }
+
+    @Test
+    public void insertBatched_boundedByBindArgs() {
+        StringBuilder row = new StringBuilder("(?");
+        for (int i = 1; i < 400; i++) {
+            row.append(",?");
+        }
+        row.append(')');
+        createAdapter(PREFIX + row, 400).insertBatched(range(5));
+
+        // 999 arguments fit 2 rows of 400 arguments
+        assertThat(new ArrayList<>(mStatements.keySet()), is(Arrays.asList(
+                PREFIX + row + "," + row, PREFIX + row)));
+        verify(mStatements.get(PREFIX + row + "," + row), times(2)).executeInsert();
+    }
+
+    @Test
+    public void insertBatched_closesOneOffStatements() throws Exception {
+        final List<EntityInsertionAdapter<Integer>> adapter = new ArrayList<>();
+        adapter.add(new EntityInsertionAdapter<Integer>(mDb) {
+            @Override
+            boolean isMultiRowInsertSupported() {
+                return true;
+            }
+
+            @Override
+            protected void bind(SupportSQLiteStatement statement, Integer entity) {
+                statement.bindLong(1, entity);
+                statement.bindLong(2, entity);
+                if (entity == 0) {
+                    // the cached statements are in use while binding
+                    adapter.get(0).insertBatched(Arrays.asList(1, 2));
+                }
+            }
+
+            @Override
+            protected String createQuery() {
+                return PREFIX + ROW;
+            }
+        });
+        adapter.get(0).insertBatched(Arrays.asList(1, 0));
+
+        // both calls use a statement for 2 rows, the nested one is compiled separately
+        verify(mDb, times(2)).compileStatement(PREFIX + rows(2));
+        SupportSQLiteStatement oneOff = mStatements.get(PREFIX + rows(2));
+        verify(oneOff).executeInsert();
+        verify(oneOff).close();
+    }
+
+    @Test
+    public void insertBatched_singleEntityUsesInsertStatement() {
+        createAdapter(PREFIX + ROW, 2).insertBatched(Collections.singletonList(3));
+
+        assertThat(new ArrayList<>(mStatements.keySet()),
+                is(Collections.singletonList(PREFIX + ROW)));
+    }
+
+    @Test
+    public void insertBatched_insertsOneByOneBeforeJellyBean() {
+        createAdapter(PREFIX + ROW, 2, false).insertBatched(range(4));
+
+        assertThat(new ArrayList<>(mStatements.keySet()),
+                is(Collections.singletonList(PREFIX + ROW)));
+        SupportSQLiteStatement stmt = mStatements.get(PREFIX + ROW);
+        for (int i = 0; i < 4; i++) {
+            verify(stmt, times(2)).bindLong(anyInt(), eq((long) i));
+        }
+        verify(stmt, times(4)).executeInsert();
+    }
+
+    private EntityInsertionAdapter<Integer> createAdapter(String query, int argCount) {
+        return createAdapter(query, argCount, true);
+    }
+
+    private EntityInsertionAdapter<Integer> createAdapter(final String query,
+            final int argCount, final boolean multiRowInsertSupported) {
+        return new EntityInsertionAdapter<Integer>(mDb) {
+            @Override
+            boolean isMultiRowInsertSupported() {
+                return multiRowInsertSupported;
+            }
+
+            @Override
+            protected void bind(SupportSQLiteStatement statement, Integer entity) {
+                for (int i = 1; i <= argCount; i++) {
+                    statement.bindLong(i, entity);
+                }
+            }
+
+            @Override
+            protected String createQuery() {
+                return query;
+            }
+        };
+    }
+
+    private static List<Integer> range(int count) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private static String rows(int count) {
+        StringBuilder result = new StringBuilder(ROW);
+        for (int i = 1; i < count; i++) {
+            result.append(',').append(ROW);
+        }
+        return result.toString();
+    }
+}
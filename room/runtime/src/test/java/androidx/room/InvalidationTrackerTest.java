@@ -22,6 +22,7 @@ import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.hamcrest.core.IsCollectionContaining.hasItems;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
@@ -420,6 +421,110 @@ public class InvalidationTrackerTest {
         assertThat(observer.getInvalidatedTables(), hasItem("a"));
     }
 
+    @Test
+    public void versionTracking_createsVersionTriggers() {
+        InvalidationTracker tracker = createVersionTracker();
+        verify(mSqliteDb).execSQL(InvalidationTracker.CREATE_VERSION_TRACKING_TABLE_SQL);
+        verify(mSqliteDb, times(0))
+                .compileStatement(InvalidationTracker.RESET_UPDATED_TABLES_SQL);
+        reset(mSqliteDb);
+
+        tracker.addObserver(new LatchObserver(1, "a"));
+        ArgumentCaptor<String> sqlArgCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mSqliteDb, times(4)).execSQL(sqlArgCaptor.capture());
+        assertThat(sqlArgCaptor.getAllValues().get(1),
+                is("CREATE TEMP TRIGGER IF NOT EXISTS `room_table_modification_trigger_a_UPDATE` "
+                        + "AFTER UPDATE ON `a` BEGIN UPDATE room_table_modification_log "
+                        + "SET version = version + 1 WHERE table_id = 0; END"));
+    }
+
+    @Test
+    public void versionTracking_notifiesOnlyChangedVersions() throws Exception {
+        InvalidationTracker tracker = createVersionTracker();
+        LatchObserver observer = new LatchObserver(1, "A", "B");
+        tracker.addObserver(observer);
+
+        setTableVersions(new int[]{0, 1}, new long[]{1, 0});
+        tracker.mPendingRefresh.set(true);
+        tracker.mRefreshRunnable.run();
+        assertThat(observer.await(), is(true));
+        assertThat(observer.getInvalidatedTables().size(), is(1));
+        assertThat(observer.getInvalidatedTables(), hasItem("A"));
+
+        // versions did not move, nothing to notify
+        setTableVersions(new int[]{0, 1}, new long[]{1, 0});
+        observer.reset(1);
+        tracker.mPendingRefresh.set(true);
+        tracker.mRefreshRunnable.run();
+        assertThat(observer.await(), is(false));
+
+        setTableVersions(new int[]{0, 1}, new long[]{1, 3});
+        observer.reset(1);
+        tracker.mPendingRefresh.set(true);
+        tracker.mRefreshRunnable.run();
+        assertThat(observer.await(), is(true));
+        assertThat(observer.getInvalidatedTables().size(), is(1));
+        assertThat(observer.getInvalidatedTables(), hasItem("B"));
+        verify(mSqliteDb, times(0)).compileStatement(anyString());
+    }
+
+    @Test
+    public void versionTracking_skipsRefreshWithoutObservers() {
+        InvalidationTracker tracker = createVersionTracker();
+        tracker.mPendingRefresh.set(true);
+        tracker.mRefreshRunnable.run();
+        verify(mRoomDatabase, times(0)).query(any(SimpleSQLiteQuery.class));
+        assertThat(tracker.mPendingRefresh.get(), is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void versionTracking_cannotEnableAfterInit() {
+        mTracker.enableVersionTracking();
+    }
+
+    private InvalidationTracker createVersionTracker() {
+        reset(mSqliteDb);
+        InvalidationTracker tracker = new InvalidationTracker(mRoomDatabase, "a", "B");
+        tracker.enableVersionTracking();
+        tracker.internalInit(mSqliteDb);
+        return tracker;
+    }
+
+    /**
+     * Setup Cursor result to return the given versions for the given tableIds
+     */
+    private void setTableVersions(final int[] tableIds, final long[] versions) {
+        Cursor cursor = mock(Cursor.class);
+        final AtomicInteger index = new AtomicInteger(-1);
+        when(cursor.moveToNext()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return index.addAndGet(1) < tableIds.length;
+            }
+        });
+        when(cursor.getInt(0)).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                return tableIds[index.intValue()];
+            }
+        });
+        when(cursor.getLong(1)).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) throws Throwable {
+                return versions[index.intValue()];
+            }
+        });
+        doReturn(cursor).when(mRoomDatabase).query(
+                argThat(new ArgumentMatcher<SimpleSQLiteQuery>() {
+                    @Override
+                    public boolean matches(SimpleSQLiteQuery argument) {
+                        return argument.getSql().equals(
+                                InvalidationTracker.SELECT_TABLE_VERSIONS_SQL);
+                    }
+                })
+        );
+    }
+
     @Test
     public void failFastCreateLiveData() {
         // assert that sending a bad createLiveData table name fails instantly
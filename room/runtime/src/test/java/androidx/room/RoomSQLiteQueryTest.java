@@ -31,14 +31,17 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RunWith(JUnit4.class)
 public class RoomSQLiteQueryTest {
     @Before
     public void clear() {
-        RoomSQLiteQuery.sQueryPool.clear();
+        RoomSQLiteQuery.clearPool();
     }
 
     @Test
@@ -46,10 +49,11 @@ public class RoomSQLiteQueryTest {
         RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
         assertThat(query.getSql(), is("abc"));
         assertThat(query.mArgCount, is(3));
-        assertThat(query.mBlobBindings.length, is(4));
-        assertThat(query.mLongBindings.length, is(4));
-        assertThat(query.mStringBindings.length, is(4));
-        assertThat(query.mDoubleBindings.length, is(4));
+        assertThat(query.mCapacity, is(4));
+        assertThat(query.mBlobBindings.length, is(5));
+        assertThat(query.mLongBindings.length, is(5));
+        assertThat(query.mStringBindings.length, is(5));
+        assertThat(query.mDoubleBindings.length, is(5));
     }
 
     @Test
@@ -90,60 +94,112 @@ public class RoomSQLiteQueryTest {
     }
 
     @Test
-    public void dontKeepSameSizeTwice() {
-        RoomSQLiteQuery query1 = RoomSQLiteQuery.acquire("abc", 3);
-        RoomSQLiteQuery query2 = RoomSQLiteQuery.acquire("zx", 3);
-        RoomSQLiteQuery query3 = RoomSQLiteQuery.acquire("qw", 0);
+    public void keepSameSizeUpToSlotsPerBucket() {
+        List<RoomSQLiteQuery> queries = new ArrayList<>();
+        for (int i = 0; i < RoomSQLiteQuery.SLOTS_PER_BUCKET + 1; i++) {
+            queries.add(RoomSQLiteQuery.acquire("abc", 3));
+        }
+        for (RoomSQLiteQuery query : queries) {
+            query.release();
+        }
+        assertThat(pooledCount(), is(RoomSQLiteQuery.SLOTS_PER_BUCKET));
 
-        query1.release();
-        query2.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(1));
+        RoomSQLiteQuery.acquire("qw", 0).release();
+        assertThat(pooledCount(), is(RoomSQLiteQuery.SLOTS_PER_BUCKET + 1));
+    }
 
-        query3.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(2));
+    @Test
+    public void returnExistingForSameSizeClass() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
+        query.release();
+        assertThat(RoomSQLiteQuery.acquire("dsa", 4), sameInstance(query));
     }
 
     @Test
-    public void returnExistingForSmallerSize() {
+    public void returnNewForSmallerSizeClass() {
         RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
         query.release();
-        assertThat(RoomSQLiteQuery.acquire("dsa", 2), sameInstance(query));
+        assertThat(RoomSQLiteQuery.acquire("dsa", 2), not(sameInstance(query)));
     }
 
     @Test
     public void returnNewForBigger() {
         RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
         query.release();
-        assertThat(RoomSQLiteQuery.acquire("dsa", 4), not(sameInstance(query)));
+        assertThat(RoomSQLiteQuery.acquire("dsa", 5), not(sameInstance(query)));
     }
 
     @Test
-    public void pruneCache() {
-        for (int i = 0; i < RoomSQLiteQuery.POOL_LIMIT; i++) {
-            RoomSQLiteQuery.acquire("dsdsa", i).release();
-        }
-        pruneCacheTest();
+    public void poolLargeQueries() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 999);
+        assertThat(query.mCapacity, is(RoomSQLiteQuery.MAX_POOLED_CAPACITY));
+        query.release();
+        assertThat(RoomSQLiteQuery.acquire("dsa", 600), sameInstance(query));
     }
 
     @Test
-    public void pruneCacheReverseInsertion() {
-        List<RoomSQLiteQuery> queries = new ArrayList<>();
-        for (int i = RoomSQLiteQuery.POOL_LIMIT - 1; i >= 0; i--) {
-            queries.add(RoomSQLiteQuery.acquire("dsdsa", i));
+    public void dontPoolAboveMaxCapacity() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc",
+                RoomSQLiteQuery.MAX_POOLED_CAPACITY + 1);
+        assertThat(query.mCapacity, is(RoomSQLiteQuery.MAX_POOLED_CAPACITY + 1));
+        query.release();
+        assertThat(pooledCount(), is(0));
+    }
+
+    @Test
+    public void stats() {
+        assertThat(RoomSQLiteQuery.getPoolHitRate(), is(0.0));
+        RoomSQLiteQuery.acquire("abc", 3).release();
+        RoomSQLiteQuery.acquire("abc", 3).release();
+        RoomSQLiteQuery.acquire("abc", 3).release();
+        RoomSQLiteQuery.acquire("abc", 10).release();
+
+        assertThat(RoomSQLiteQuery.getAllocationCount(), is(2L));
+        assertThat(RoomSQLiteQuery.getPoolHitCount(), is(2L));
+        assertThat(RoomSQLiteQuery.getPoolHitRate(), is(0.5));
+    }
+
+    @Test
+    public void concurrentAcquireAndRelease() throws InterruptedException {
+        final int threadCount = 8;
+        final int iterations = 1000;
+        final Set<RoomSQLiteQuery> inUse =
+                Collections.newSetFromMap(new ConcurrentHashMap<RoomSQLiteQuery, Boolean>());
+        final AtomicBoolean sharedQuery = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < iterations; j++) {
+                        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", j % 8);
+                        if (!inUse.add(query)) {
+                            sharedQuery.set(true);
+                        }
+                        inUse.remove(query);
+                        query.release();
+                    }
+                }
+            }));
         }
-        for (RoomSQLiteQuery query : queries) {
-            query.release();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
         }
-        pruneCacheTest();
+        assertThat(sharedQuery.get(), is(false));
+        assertThat(RoomSQLiteQuery.getPoolHitCount() + RoomSQLiteQuery.getAllocationCount(),
+                is((long) threadCount * iterations));
     }
 
-    private void pruneCacheTest() {
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.POOL_LIMIT));
-        RoomSQLiteQuery.acquire("dsadsa", RoomSQLiteQuery.POOL_LIMIT + 1).release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.DESIRED_POOL_SIZE));
-        Iterator<RoomSQLiteQuery> itr = RoomSQLiteQuery.sQueryPool.values().iterator();
-        for (int i = 0; i < RoomSQLiteQuery.DESIRED_POOL_SIZE; i++) {
-            assertThat(itr.next().mCapacity, is(i));
+    private static int pooledCount() {
+        int count = 0;
+        for (int i = 0; i < RoomSQLiteQuery.sQueryPool.length(); i++) {
+            if (RoomSQLiteQuery.sQueryPool.get(i) != null) {
+                count++;
+            }
         }
+        return count;
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.RoomSQLiteQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.NoSuchElementException;
+
+@RunWith(JUnit4.class)
+public class CursorRowIteratorTest {
+    private Cursor mCursor;
+    private RoomSQLiteQuery mQuery;
+
+    @Before
+    public void init() {
+        mCursor = mock(Cursor.class);
+        when(mCursor.moveToNext()).thenReturn(true, true, false);
+        when(mCursor.getInt(0)).thenReturn(1, 2);
+        mQuery = mock(RoomSQLiteQuery.class);
+    }
+
+    @Test
+    public void readAllRows() {
+        HolderIterator iterator = new HolderIterator(mCursor, mQuery);
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.hasNext(), is(true));
+        assertThat(iterator.next().value, is(1));
+        assertThat(iterator.next().value, is(2));
+        assertThat(iterator.hasNext(), is(false));
+        verify(mCursor, times(3)).moveToNext();
+        verify(mCursor).close();
+        verify(mQuery).release();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void nextAfterLastRow() {
+        HolderIterator iterator = new HolderIterator(mCursor, mQuery);
+        iterator.next();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test
+    public void closeBeforeLastRow() {
+        HolderIterator iterator = new HolderIterator(mCursor, null);
+        iterator.next();
+        iterator.close();
+        iterator.close();
+        assertThat(iterator.hasNext(), is(false));
+        verify(mCursor).close();
+        verify(mCursor, times(1)).moveToNext();
+    }
+
+    @Test
+    public void newRowsByDefault() {
+        HolderIterator iterator = new HolderIterator(mCursor, mQuery);
+        Holder first = iterator.next();
+        Holder second = iterator.next();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(first.value, is(1));
+        assertThat(second.value, is(2));
+    }
+
+    @Test
+    public void reuseRows() {
+        HolderIterator iterator = new HolderIterator(mCursor, mQuery);
+        iterator.setRowReuseEnabled(true);
+        Holder first = iterator.next();
+        assertThat(first.value, is(1));
+        Holder second = iterator.next();
+        assertThat(second, sameInstance(first));
+        assertThat(second.value, is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void remove() {
+        HolderIterator iterator = new HolderIterator(mCursor, mQuery);
+        iterator.next();
+        iterator.remove();
+    }
+
+    static class Holder {
+        int value;
+    }
+
+    static class HolderIterator extends CursorRowIterator<Holder> {
+        HolderIterator(@NonNull Cursor cursor, @Nullable RoomSQLiteQuery query) {
+            super(cursor, query);
+        }
+
+        @Override
+        protected Holder convertRow(@NonNull Cursor cursor, @Nullable Holder reusable) {
+            Holder holder = reusable != null ? reusable : new Holder();
+            holder.value = cursor.getInt(0);
+            return holder;
+        }
+    }
+}
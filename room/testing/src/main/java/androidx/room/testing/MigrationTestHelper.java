@@ -168,7 +168,8 @@ public class MigrationTestHelper extends TestWatcher {
                 null,
                 null,
                 null,
-                null);
+                null,
+                0);
         RoomOpenHelper roomOpenHelper = new RoomOpenHelper(configuration,
                 new CreatingDelegate(schemaBundle.getDatabase()),
                 schemaBundle.getDatabase().getIdentityHash(),
@@ -230,7 +231,8 @@ public class MigrationTestHelper extends TestWatcher {
                 null,
                 null,
                 null,
-                null);
+                null,
+                0);
         RoomOpenHelper roomOpenHelper = new RoomOpenHelper(configuration,
                 new MigratingDelegate(schemaBundle.getDatabase(), validateDroppedTables),
                 // we pass the same hash twice since an old schema does not necessarily have
@@ -408,4 +408,99 @@ public class EncryptedSharedPreferencesTest {
                 testValue);
     }
 
+    @Test
+    public void testCachedReadsSeeWrites() throws Exception {
+        SharedPreferences cachedSharedPreferences = createCachedSharedPreferences();
+        final SharedPreferences sharedPreferences = EncryptedSharedPreferences
+                .create(mContext,
+                        PREFS_FILE,
+                        mMasterKey,
+                        EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                        EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
+
+        cachedSharedPreferences.edit()
+                .putString("StringTest", "value")
+                .putInt("IntTest", 1)
+                .commit();
+        Assert.assertEquals("value", cachedSharedPreferences.getString("StringTest", null));
+        Assert.assertEquals("value", sharedPreferences.getString("StringTest", null));
+        Assert.assertEquals(2, cachedSharedPreferences.getAll().size());
+
+        // Writes committed through another instance on another thread are seen as soon as the
+        // commit returns, without waiting for listeners to be called on the main thread.
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sharedPreferences.edit()
+                        .putString("StringTest", "updated")
+                        .remove("IntTest")
+                        .putLong("LongTest", 2L)
+                        .commit();
+            }
+        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals("updated", cachedSharedPreferences.getString("StringTest", null));
+        Assert.assertFalse(cachedSharedPreferences.contains("IntTest"));
+        Assert.assertEquals(2L, cachedSharedPreferences.getLong("LongTest", 0L));
+        Map<String, ?> all = cachedSharedPreferences.getAll();
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals("updated", all.get("StringTest"));
+        Assert.assertEquals(2L, all.get("LongTest"));
+    }
+
+    @Test
+    public void testCachedGetAll() throws Exception {
+        final int count = 100;
+        SharedPreferences cachedSharedPreferences = createCachedSharedPreferences();
+        SharedPreferences.Editor editor = cachedSharedPreferences.edit();
+        for (int i = 0; i < count; i++) {
+            editor.putString("String" + i, "value" + i);
+            editor.putLong("Long" + i, i);
+        }
+        editor.apply();
+
+        SharedPreferences sharedPreferences = createCachedSharedPreferences();
+        Map<String, ?> all = sharedPreferences.getAll();
+        Assert.assertEquals(count * 2, all.size());
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("value" + i, all.get("String" + i));
+            Assert.assertEquals((long) i, all.get("Long" + i));
+        }
+    }
+
+    @Test
+    public void testCachedRemoveAndClear() throws Exception {
+        SharedPreferences cachedSharedPreferences = createCachedSharedPreferences();
+        Set<String> stringSet = new ArraySet<>();
+        stringSet.add("a");
+        stringSet.add("b");
+        cachedSharedPreferences.edit()
+                .putStringSet("StringSetTest", stringSet)
+                .putBoolean("BooleanTest", true)
+                .commit();
+
+        // The cached set can't be changed by changing the returned one.
+        cachedSharedPreferences.getStringSet("StringSetTest", null).clear();
+        Assert.assertEquals(stringSet, cachedSharedPreferences.getStringSet("StringSetTest", null));
+
+        cachedSharedPreferences.edit().remove("BooleanTest").commit();
+        Assert.assertFalse(cachedSharedPreferences.contains("BooleanTest"));
+        Assert.assertFalse(cachedSharedPreferences.getBoolean("BooleanTest", false));
+
+        cachedSharedPreferences.edit().clear().putInt("IntTest", 1).apply();
+        Assert.assertEquals(1, cachedSharedPreferences.getAll().size());
+        Assert.assertEquals(1, cachedSharedPreferences.getInt("IntTest", 0));
+    }
+
+    private SharedPreferences createCachedSharedPreferences() throws Exception {
+        return EncryptedSharedPreferences
+                .create(mContext,
+                        PREFS_FILE,
+                        mMasterKey,
+                        EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                        EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM,
+                        true);
+    }
+
 }
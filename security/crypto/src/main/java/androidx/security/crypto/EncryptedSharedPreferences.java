@@ -42,11 +42,20 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -76,6 +85,12 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
 
     private static final String NULL_VALUE = "__NULL__";
 
+    // Below this number of entries, entries are decrypted or encrypted on the calling thread.
+    private static final int MIN_ENTRIES_FOR_PARALLEL_CRYPTO = 16;
+
+    private static final Object sCryptoExecutorLock = new Object();
+    private static ThreadPoolExecutor sCryptoExecutor;
+
     final SharedPreferences mSharedPreferences;
     final List<OnSharedPreferenceChangeListener> mListeners;
     final String mFileName;
@@ -84,17 +99,36 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
     final Aead mValueAead;
     final DeterministicAead mKeyDeterministicAead;
 
+    // The decrypted entries by plain text key and by encrypted key, when they are cached. Guarded
+    // by mCacheLock. An entry is only used while the underlying preferences still hold the
+    // encrypted value it was decrypted from, so changes made through other instances are seen as
+    // soon as they are committed, and are only decrypted when they are read.
+    final boolean mCacheDecryptedValues;
+    final Object mCacheLock = new Object();
+    final HashMap<String, CachedEntry> mCachedEntries = new HashMap<>();
+    final HashMap<String, CachedEntry> mCachedEntriesByEncryptedKey = new HashMap<>();
+
     EncryptedSharedPreferences(@NonNull String name,
             @NonNull String masterKeyAlias,
             @NonNull SharedPreferences sharedPreferences,
             @NonNull Aead aead,
             @NonNull DeterministicAead deterministicAead) {
+        this(name, masterKeyAlias, sharedPreferences, aead, deterministicAead, false);
+    }
+
+    EncryptedSharedPreferences(@NonNull String name,
+            @NonNull String masterKeyAlias,
+            @NonNull SharedPreferences sharedPreferences,
+            @NonNull Aead aead,
+            @NonNull DeterministicAead deterministicAead,
+            boolean cacheDecryptedValues) {
         mFileName = name;
         mSharedPreferences = sharedPreferences;
         mMasterKeyAlias = masterKeyAlias;
         mValueAead = aead;
         mKeyDeterministicAead = deterministicAead;
         mListeners = new ArrayList<>();
+        mCacheDecryptedValues = cacheDecryptedValues;
     }
 
     /**
@@ -117,7 +151,40 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             @NonNull PrefValueEncryptionScheme prefValueEncryptionScheme)
             throws GeneralSecurityException, IOException {
         return create(fileName, masterKey.getKeyAlias(), context,
-                prefKeyEncryptionScheme, prefValueEncryptionScheme);
+                prefKeyEncryptionScheme, prefValueEncryptionScheme, false);
+    }
+
+    /**
+     * Opens an instance of encrypted SharedPreferences, which optionally keeps all the decrypted
+     * keys and values in memory.
+     * <p>
+     * When values are cached, an entry is decrypted the first time it is read and later reads
+     * don't decrypt it again, unless it was changed through another instance for the same file.
+     * {@link #getAll()} decrypts the entries which aren't cached in parallel if there are many.
+     * Edits update the cached values and are encrypted together when they are committed or
+     * applied. This trades keeping the plain text in memory for the time saved, which is
+     * significant for files with many entries or which are read often.
+     *
+     * @param fileName                  The name of the file to open; can not contain path
+     *                                  separators.
+     * @param masterKey                 The master key to use.
+     * @param prefKeyEncryptionScheme   The scheme to use for encrypting keys.
+     * @param prefValueEncryptionScheme The scheme to use for encrypting values.
+     * @param cacheDecryptedValues      Whether to keep the decrypted entries in memory.
+     * @return The SharedPreferences instance that encrypts all data.
+     * @throws GeneralSecurityException when a bad master key or keyset has been attempted
+     * @throws IOException              when fileName can not be used
+     */
+    @NonNull
+    public static SharedPreferences create(@NonNull Context context,
+            @NonNull String fileName,
+            @NonNull MasterKey masterKey,
+            @NonNull PrefKeyEncryptionScheme prefKeyEncryptionScheme,
+            @NonNull PrefValueEncryptionScheme prefValueEncryptionScheme,
+            boolean cacheDecryptedValues)
+            throws GeneralSecurityException, IOException {
+        return create(fileName, masterKey.getKeyAlias(), context,
+                prefKeyEncryptionScheme, prefValueEncryptionScheme, cacheDecryptedValues);
     }
 
     /**
@@ -143,6 +210,18 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             @NonNull PrefKeyEncryptionScheme prefKeyEncryptionScheme,
             @NonNull PrefValueEncryptionScheme prefValueEncryptionScheme)
             throws GeneralSecurityException, IOException {
+        return create(fileName, masterKeyAlias, context, prefKeyEncryptionScheme,
+                prefValueEncryptionScheme, false);
+    }
+
+    @NonNull
+    private static SharedPreferences create(@NonNull String fileName,
+            @NonNull String masterKeyAlias,
+            @NonNull Context context,
+            @NonNull PrefKeyEncryptionScheme prefKeyEncryptionScheme,
+            @NonNull PrefValueEncryptionScheme prefValueEncryptionScheme,
+            boolean cacheDecryptedValues)
+            throws GeneralSecurityException, IOException {
         TinkConfig.register();
 
         final Context applicationContext = context.getApplicationContext();
@@ -162,7 +241,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
 
         return new EncryptedSharedPreferences(fileName, masterKeyAlias,
                 applicationContext.getSharedPreferences(fileName, Context.MODE_PRIVATE), aead,
-                daead);
+                daead, cacheDecryptedValues);
     }
 
     /**
@@ -218,6 +297,11 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         private final SharedPreferences.Editor mEditor;
         private final List<String> mKeysChanged;
         private AtomicBoolean mClearRequested = new AtomicBoolean(false);
+        // When decrypted values are cached, values are encrypted all at once when the edits are
+        // committed or applied. Both are keyed by the plain text key and guarded by this editor,
+        // the removed keys map to their encrypted key.
+        private final Map<String, Pair<byte[], Object>> mPendingValues = new LinkedHashMap<>();
+        private final Map<String, String> mRemovedKeys = new HashMap<>();
 
         Editor(EncryptedSharedPreferences encryptedSharedPreferences,
                 SharedPreferences.Editor editor) {
@@ -229,6 +313,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         @Override
         @NonNull
         public SharedPreferences.Editor putString(@Nullable String key, @Nullable String value) {
+            final String plainValue = value;
             if (value == null) {
                 value = NULL_VALUE;
             }
@@ -239,7 +324,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             buffer.putInt(EncryptedType.STRING.getId());
             buffer.putInt(stringByteLength);
             buffer.put(stringBytes);
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), plainValue);
             return this;
         }
 
@@ -247,6 +332,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         @NonNull
         public SharedPreferences.Editor putStringSet(@Nullable String key,
                 @Nullable Set<String> values) {
+            final Set<String> plainValue = values == null ? null : new ArraySet<>(values);
             if (values == null) {
                 values = new ArraySet<>();
                 values.add(NULL_VALUE);
@@ -265,7 +351,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
                 buffer.putInt(bytes.length);
                 buffer.put(bytes);
             }
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), plainValue);
             return this;
         }
 
@@ -275,7 +361,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Integer.BYTES);
             buffer.putInt(EncryptedType.INT.getId());
             buffer.putInt(value);
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), value);
             return this;
         }
 
@@ -285,7 +371,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
             buffer.putInt(EncryptedType.LONG.getId());
             buffer.putLong(value);
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), value);
             return this;
         }
 
@@ -295,7 +381,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Float.BYTES);
             buffer.putInt(EncryptedType.FLOAT.getId());
             buffer.putFloat(value);
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), value);
             return this;
         }
 
@@ -305,7 +391,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Byte.BYTES);
             buffer.putInt(EncryptedType.BOOLEAN.getId());
             buffer.put(value ? (byte) 1 : (byte) 0);
-            putEncryptedObject(key, buffer.array());
+            putEncryptedObject(key, buffer.array(), value);
             return this;
         }
 
@@ -315,8 +401,15 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             if (mEncryptedSharedPreferences.isReservedKey(key)) {
                 throw new SecurityException(key + " is a reserved key for the encryption keyset.");
             }
-            mEditor.remove(mEncryptedSharedPreferences.encryptKey(key));
+            final String encryptedKey = mEncryptedSharedPreferences.encryptKey(key);
+            mEditor.remove(encryptedKey);
             mKeysChanged.remove(key);
+            if (mEncryptedSharedPreferences.mCacheDecryptedValues) {
+                synchronized (this) {
+                    mPendingValues.remove(key == null ? NULL_VALUE : key);
+                    mRemovedKeys.put(key == null ? NULL_VALUE : key, encryptedKey);
+                }
+            }
             return this;
         }
 
@@ -333,9 +426,11 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         @Override
         public boolean commit() {
             clearKeysIfNeeded();
+            final List<CachedEntry> entries = encryptPendingValues();
             try {
                 return mEditor.commit();
             } finally {
+                updateCachedEntries(entries);
                 notifyListeners();
                 mKeysChanged.clear();
             }
@@ -344,7 +439,9 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         @Override
         public void apply() {
             clearKeysIfNeeded();
+            final List<CachedEntry> entries = encryptPendingValues();
             mEditor.apply();
+            updateCachedEntries(entries);
             notifyListeners();
             mKeysChanged.clear();
         }
@@ -356,13 +453,19 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
                 for (String key : mEncryptedSharedPreferences.getAll().keySet()) {
                     if (!mKeysChanged.contains(key)
                             && !mEncryptedSharedPreferences.isReservedKey(key)) {
-                        mEditor.remove(mEncryptedSharedPreferences.encryptKey(key));
+                        final String encryptedKey = mEncryptedSharedPreferences.encryptKey(key);
+                        mEditor.remove(encryptedKey);
+                        if (mEncryptedSharedPreferences.mCacheDecryptedValues) {
+                            synchronized (this) {
+                                mRemovedKeys.put(key == null ? NULL_VALUE : key, encryptedKey);
+                            }
+                        }
                     }
                 }
             }
         }
 
-        private void putEncryptedObject(String key, byte[] value) {
+        private void putEncryptedObject(String key, byte[] value, Object plainValue) {
             if (mEncryptedSharedPreferences.isReservedKey(key)) {
                 throw new SecurityException(key + " is a reserved key for the encryption keyset.");
             }
@@ -370,6 +473,13 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             if (key == null) {
                 key = NULL_VALUE;
             }
+            if (mEncryptedSharedPreferences.mCacheDecryptedValues) {
+                synchronized (this) {
+                    mPendingValues.put(key, new Pair<>(value, plainValue));
+                    mRemovedKeys.remove(key);
+                }
+                return;
+            }
             try {
                 Pair<String, String> encryptedPair = mEncryptedSharedPreferences
                         .encryptKeyValuePair(key, value);
@@ -379,6 +489,62 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
             }
         }
 
+        /**
+         * Encrypts the values put since the last commit, in parallel if there are many, and puts
+         * them in the underlying editor.
+         *
+         * @return the entries put, with their plain text values
+         */
+        private List<CachedEntry> encryptPendingValues() {
+            if (!mEncryptedSharedPreferences.mCacheDecryptedValues) {
+                return null;
+            }
+            final List<Map.Entry<String, Pair<byte[], Object>>> entries;
+            synchronized (this) {
+                entries = new ArrayList<>(mPendingValues.entrySet());
+                mPendingValues.clear();
+            }
+            final String[] encryptedEntries = new String[entries.size() * 2];
+            runInParallel(entries.size(), new RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        final Map.Entry<String, Pair<byte[], Object>> entry = entries.get(i);
+                        try {
+                            Pair<String, String> encryptedPair = mEncryptedSharedPreferences
+                                    .encryptKeyValuePair(entry.getKey(), entry.getValue().first);
+                            encryptedEntries[i * 2] = encryptedPair.first;
+                            encryptedEntries[i * 2 + 1] = encryptedPair.second;
+                        } catch (GeneralSecurityException ex) {
+                            throw new SecurityException("Could not encrypt data: "
+                                    + ex.getMessage(), ex);
+                        }
+                    }
+                }
+            });
+            final List<CachedEntry> cachedEntries = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                mEditor.putString(encryptedEntries[i * 2], encryptedEntries[i * 2 + 1]);
+                cachedEntries.add(new CachedEntry(entries.get(i).getKey(), encryptedEntries[i * 2],
+                        encryptedEntries[i * 2 + 1], entries.get(i).getValue().second));
+            }
+            return cachedEntries;
+        }
+
+        private void updateCachedEntries(List<CachedEntry> entries) {
+            if (!mEncryptedSharedPreferences.mCacheDecryptedValues) {
+                return;
+            }
+            synchronized (this) {
+                for (Map.Entry<String, String> removedKey : mRemovedKeys.entrySet()) {
+                    entries.add(new CachedEntry(removedKey.getKey(), removedKey.getValue(), null,
+                            null));
+                }
+                mRemovedKeys.clear();
+            }
+            mEncryptedSharedPreferences.putCachedEntries(entries);
+        }
+
         private void notifyListeners() {
             for (OnSharedPreferenceChangeListener listener :
                     mEncryptedSharedPreferences.mListeners) {
@@ -395,6 +561,13 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
     @NonNull
     public Map<String, ?> getAll() {
         Map<String, ? super Object> allEntries = new HashMap<>();
+        if (mCacheDecryptedValues) {
+            for (CachedEntry entry : getAllCachedEntries()) {
+                allEntries.put(NULL_VALUE.equals(entry.mKey) ? null : entry.mKey,
+                        copyIfStringSet(entry.mValue));
+            }
+            return allEntries;
+        }
         for (Map.Entry<String, ?> entry : mSharedPreferences.getAll().entrySet()) {
             if (!isReservedKey(entry.getKey())) {
                 String decryptedKey = decryptKey(entry.getKey());
@@ -419,7 +592,7 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         Set<String> returnValues;
         Object value = getDecryptedObject(key);
         if (value instanceof Set) {
-            returnValues = (Set<String>) value;
+            returnValues = (Set<String>) copyIfStringSet(value);
         } else {
             returnValues = new ArraySet<>();
         }
@@ -455,6 +628,9 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         if (isReservedKey(key)) {
             throw new SecurityException(key + " is a reserved key for the encryption keyset.");
         }
+        if (mCacheDecryptedValues) {
+            return getCachedEntry(key == null ? NULL_VALUE : key).mEncryptedValue != null;
+        }
         String encryptedKey = encryptKey(key);
         return mSharedPreferences.contains(encryptedKey);
     }
@@ -524,62 +700,268 @@ public final class EncryptedSharedPreferences implements SharedPreferences {
         if (key == null) {
             key = NULL_VALUE;
         }
+        if (mCacheDecryptedValues) {
+            return getCachedEntry(key).mValue;
+        }
+        String encryptedKey = encryptKey(key);
+        String encryptedValue = mSharedPreferences.getString(encryptedKey, null);
+        return encryptedValue != null ? decryptValue(encryptedKey, encryptedValue) : null;
+    }
+
+    Object decryptValue(String encryptedKey, String encryptedValue) {
         Object returnValue = null;
         try {
-            String encryptedKey = encryptKey(key);
-            String encryptedValue = mSharedPreferences.getString(encryptedKey, null);
-            if (encryptedValue != null) {
-                byte[] cipherText = Base64.decode(encryptedValue, Base64.DEFAULT);
-                byte[] value = mValueAead.decrypt(cipherText, encryptedKey.getBytes(UTF_8));
-                ByteBuffer buffer = ByteBuffer.wrap(value);
-                buffer.position(0);
-                int typeId = buffer.getInt();
-                EncryptedType type = EncryptedType.fromId(typeId);
-                switch (type) {
-                    case STRING:
-                        int stringLength = buffer.getInt();
-                        ByteBuffer stringSlice = buffer.slice();
-                        buffer.limit(stringLength);
-                        String stringValue = UTF_8.decode(stringSlice).toString();
-                        if (stringValue.equals(NULL_VALUE)) {
-                            returnValue = null;
-                        } else {
-                            returnValue = stringValue;
+            byte[] cipherText = Base64.decode(encryptedValue, Base64.DEFAULT);
+            byte[] value = mValueAead.decrypt(cipherText, encryptedKey.getBytes(UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(value);
+            buffer.position(0);
+            int typeId = buffer.getInt();
+            EncryptedType type = EncryptedType.fromId(typeId);
+            switch (type) {
+                case STRING:
+                    int stringLength = buffer.getInt();
+                    ByteBuffer stringSlice = buffer.slice();
+                    buffer.limit(stringLength);
+                    String stringValue = UTF_8.decode(stringSlice).toString();
+                    if (stringValue.equals(NULL_VALUE)) {
+                        returnValue = null;
+                    } else {
+                        returnValue = stringValue;
+                    }
+                    break;
+                case INT:
+                    returnValue = buffer.getInt();
+                    break;
+                case LONG:
+                    returnValue = buffer.getLong();
+                    break;
+                case FLOAT:
+                    returnValue = buffer.getFloat();
+                    break;
+                case BOOLEAN:
+                    returnValue = buffer.get() != (byte) 0;
+                    break;
+                case STRING_SET:
+                    ArraySet<String> stringSet = new ArraySet<>();
+                    while (buffer.hasRemaining()) {
+                        int subStringLength = buffer.getInt();
+                        ByteBuffer subStringSlice = buffer.slice();
+                        subStringSlice.limit(subStringLength);
+                        buffer.position(buffer.position() + subStringLength);
+                        stringSet.add(UTF_8.decode(subStringSlice).toString());
+                    }
+                    if (stringSet.size() == 1 && NULL_VALUE.equals(stringSet.valueAt(0))) {
+                        returnValue = null;
+                    } else {
+                        returnValue = stringSet;
+                    }
+                    break;
+            }
+        } catch (GeneralSecurityException ex) {
+            throw new SecurityException("Could not decrypt value. " + ex.getMessage(), ex);
+        }
+        return returnValue;
+    }
+
+    /**
+     * A decrypted entry, with the encrypted value it was decrypted from.
+     */
+    static final class CachedEntry {
+        // The plain text key, NULL_VALUE for the null key.
+        final String mKey;
+        final String mEncryptedKey;
+        // Null if the preferences don't contain the key.
+        @Nullable
+        final String mEncryptedValue;
+        @Nullable
+        final Object mValue;
+
+        CachedEntry(@NonNull String key, @NonNull String encryptedKey,
+                @Nullable String encryptedValue, @Nullable Object value) {
+            mKey = key;
+            mEncryptedKey = encryptedKey;
+            mEncryptedValue = encryptedValue;
+            mValue = value;
+        }
+
+        boolean isCurrent(@Nullable Object encryptedValue) {
+            return mEncryptedValue == null ? encryptedValue == null
+                    : mEncryptedValue.equals(encryptedValue);
+        }
+    }
+
+    /**
+     * Returns the entry for the plain text key, decrypting its value if it changed since it was
+     * cached.
+     */
+    @NonNull
+    CachedEntry getCachedEntry(@NonNull String key) {
+        CachedEntry entry;
+        synchronized (mCacheLock) {
+            entry = mCachedEntries.get(key);
+        }
+        final String encryptedKey = entry != null ? entry.mEncryptedKey : encryptKey(key);
+        final String encryptedValue = mSharedPreferences.getString(encryptedKey, null);
+        if (entry != null && entry.isCurrent(encryptedValue)) {
+            return entry;
+        }
+        entry = new CachedEntry(key, encryptedKey, encryptedValue,
+                encryptedValue != null ? decryptValue(encryptedKey, encryptedValue) : null);
+        putCachedEntry(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the entries of the underlying preferences, decrypting the ones which aren't cached
+     * or changed since they were cached, in parallel if there are many.
+     */
+    @NonNull
+    List<CachedEntry> getAllCachedEntries() {
+        final List<CachedEntry> entries = new ArrayList<>();
+        final List<Map.Entry<String, ?>> changedEntries = new ArrayList<>();
+        final List<CachedEntry> previousEntries = new ArrayList<>();
+        synchronized (mCacheLock) {
+            for (Map.Entry<String, ?> entry : mSharedPreferences.getAll().entrySet()) {
+                if (isReservedKey(entry.getKey())) {
+                    continue;
+                }
+                final CachedEntry cachedEntry = mCachedEntriesByEncryptedKey.get(entry.getKey());
+                if (cachedEntry != null && cachedEntry.isCurrent(entry.getValue())) {
+                    entries.add(cachedEntry);
+                } else {
+                    changedEntries.add(entry);
+                    previousEntries.add(cachedEntry);
+                }
+            }
+        }
+        final CachedEntry[] decryptedEntries = new CachedEntry[changedEntries.size()];
+        runInParallel(changedEntries.size(), new RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    final String encryptedKey = changedEntries.get(i).getKey();
+                    final String encryptedValue = (String) changedEntries.get(i).getValue();
+                    String key;
+                    if (previousEntries.get(i) != null) {
+                        key = previousEntries.get(i).mKey;
+                    } else {
+                        key = decryptKey(encryptedKey);
+                        if (key == null) {
+                            key = NULL_VALUE;
                         }
+                    }
+                    decryptedEntries[i] = new CachedEntry(key, encryptedKey, encryptedValue,
+                            decryptValue(encryptedKey, encryptedValue));
+                }
+            }
+        });
+        final List<CachedEntry> newEntries = Arrays.asList(decryptedEntries);
+        putCachedEntries(newEntries);
+        entries.addAll(newEntries);
+        return entries;
+    }
+
+    void putCachedEntries(@NonNull List<CachedEntry> entries) {
+        synchronized (mCacheLock) {
+            for (CachedEntry entry : entries) {
+                putCachedEntry(entry);
+            }
+        }
+    }
+
+    private void putCachedEntry(@NonNull CachedEntry entry) {
+        synchronized (mCacheLock) {
+            mCachedEntries.put(entry.mKey, entry);
+            mCachedEntriesByEncryptedKey.put(entry.mEncryptedKey, entry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyIfStringSet(Object value) {
+        return value instanceof Set ? new ArraySet<>((Set<String>) value) : value;
+    }
+
+    /**
+     * Work on a range of indices, which may run on any thread.
+     */
+    interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs the task on all the indices from 0 to count, splitting them between the calling
+     * thread and the crypto executor when there are enough of them. Tink primitives are thread
+     * safe, so entries can be encrypted and decrypted in parallel.
+     */
+    static void runInParallel(int count, @NonNull final RangeTask task) {
+        final int parallelism = Math.min(Runtime.getRuntime().availableProcessors(),
+                count / MIN_ENTRIES_FOR_PARALLEL_CRYPTO);
+        if (parallelism <= 1) {
+            task.run(0, count);
+            return;
+        }
+        final ThreadPoolExecutor executor = getCryptoExecutor();
+        final List<Future<Void>> futures = new ArrayList<>(parallelism - 1);
+        for (int i = 1; i < parallelism; i++) {
+            final int from = count * i / parallelism;
+            final int to = count * (i + 1) / parallelism;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    task.run(from, to);
+                    return null;
+                }
+            }));
+        }
+        task.run(0, count / parallelism);
+
+        boolean interrupted = false;
+        try {
+            for (Future<Void> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
                         break;
-                    case INT:
-                        returnValue = buffer.getInt();
-                        break;
-                    case LONG:
-                        returnValue = buffer.getLong();
-                        break;
-                    case FLOAT:
-                        returnValue = buffer.getFloat();
-                        break;
-                    case BOOLEAN:
-                        returnValue = buffer.get() != (byte) 0;
-                        break;
-                    case STRING_SET:
-                        ArraySet<String> stringSet = new ArraySet<>();
-                        while (buffer.hasRemaining()) {
-                            int subStringLength = buffer.getInt();
-                            ByteBuffer subStringSlice = buffer.slice();
-                            subStringSlice.limit(subStringLength);
-                            buffer.position(buffer.position() + subStringLength);
-                            stringSet.add(UTF_8.decode(subStringSlice).toString());
-                        }
-                        if (stringSet.size() == 1 && NULL_VALUE.equals(stringSet.valueAt(0))) {
-                            returnValue = null;
-                        } else {
-                            returnValue = stringSet;
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    } catch (ExecutionException ex) {
+                        final Throwable cause = ex.getCause();
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        } else if (cause instanceof Error) {
+                            throw (Error) cause;
                         }
-                        break;
+                        throw new SecurityException(cause);
+                    }
                 }
             }
-        } catch (GeneralSecurityException ex) {
-            throw new SecurityException("Could not decrypt value. " + ex.getMessage(), ex);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor getCryptoExecutor() {
+        synchronized (sCryptoExecutorLock) {
+            if (sCryptoExecutor == null) {
+                final int threadCount = Runtime.getRuntime().availableProcessors();
+                sCryptoExecutor = new ThreadPoolExecutor(threadCount, threadCount, 1,
+                        TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable runnable) {
+                                final Thread thread = new Thread(runnable,
+                                        "EncryptedSharedPreferences-crypto");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+                // Don't keep idle threads around, decrypting everything happens once.
+                sCryptoExecutor.allowCoreThreadTimeOut(true);
+            }
+            return sCryptoExecutor;
         }
-        return returnValue;
     }
 
     String encryptKey(String key) {
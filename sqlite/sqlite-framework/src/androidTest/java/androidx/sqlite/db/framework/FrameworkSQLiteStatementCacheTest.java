@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.db.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class FrameworkSQLiteStatementCacheTest {
+    private static final String INSERT = "INSERT INTO Foo (value) VALUES (?)";
+    private static final String SELECT = "SELECT ?";
+
+    private SupportSQLiteOpenHelper mOpenHelper;
+    private SupportSQLiteDatabase mDatabase;
+    private FrameworkSQLiteStatementCache mCache;
+
+    @Before
+    public void openDatabase() {
+        mOpenHelper = createOpenHelper(2);
+        mDatabase = mOpenHelper.getWritableDatabase();
+        mCache = FrameworkSQLiteStatementCache.from(mDatabase);
+    }
+
+    @After
+    public void closeDatabase() {
+        mOpenHelper.close();
+    }
+
+    @Test
+    public void noCacheByDefault() {
+        SupportSQLiteOpenHelper openHelper = createOpenHelper(0);
+        try {
+            assertNull(FrameworkSQLiteStatementCache.from(openHelper.getWritableDatabase()));
+        } finally {
+            openHelper.close();
+        }
+    }
+
+    @Test
+    public void hitAfterClose() throws Exception {
+        SupportSQLiteStatement statement = mDatabase.compileStatement(INSERT);
+        statement.bindString(1, "a");
+        statement.executeInsert();
+        statement.close();
+        assertEquals(1, mCache.size());
+
+        SupportSQLiteStatement cached = mDatabase.compileStatement(INSERT);
+        assertSame(statement, cached);
+        assertEquals(0, mCache.size());
+        assertEquals(1, mCache.getHitCount());
+        assertEquals(1, mCache.getMissCount());
+    }
+
+    @Test
+    public void missWhileInUse() throws Exception {
+        SupportSQLiteStatement first = mDatabase.compileStatement(INSERT);
+        SupportSQLiteStatement second = mDatabase.compileStatement(INSERT);
+        assertNotSame(first, second);
+        assertEquals(0, mCache.getHitCount());
+        assertEquals(2, mCache.getMissCount());
+
+        // only one statement is kept for each SQL
+        first.close();
+        second.close();
+        assertEquals(1, mCache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedAtCapacity() throws Exception {
+        mDatabase.compileStatement("SELECT 1").close();
+        mDatabase.compileStatement("SELECT 2").close();
+        // use the first statement again, so that the second is the least recently used
+        mDatabase.compileStatement("SELECT 1").close();
+        mDatabase.compileStatement("SELECT 3").close();
+        assertEquals(2, mCache.size());
+        assertEquals(1, mCache.getEvictionCount());
+
+        mDatabase.compileStatement("SELECT 1").close();
+        mDatabase.compileStatement("SELECT 3").close();
+        assertEquals(3, mCache.getHitCount());
+        mDatabase.compileStatement("SELECT 2").close();
+        assertEquals(4, mCache.getMissCount());
+    }
+
+    @Test
+    public void evict() throws Exception {
+        mDatabase.compileStatement("SELECT 1").close();
+        mDatabase.compileStatement("SELECT 2").close();
+        mCache.evict("SELECT 1");
+        assertEquals(1, mCache.size());
+        mCache.evictAll();
+        assertEquals(0, mCache.size());
+        assertEquals(2, mCache.getEvictionCount());
+    }
+
+    @Test
+    public void bindingsClearedWhenCached() throws Exception {
+        SupportSQLiteStatement statement = mDatabase.compileStatement(SELECT);
+        statement.bindString(1, "stale");
+        assertEquals("stale", statement.simpleQueryForString());
+        statement.close();
+
+        SupportSQLiteStatement cached = mDatabase.compileStatement(SELECT);
+        assertSame(statement, cached);
+        assertNull(cached.simpleQueryForString());
+    }
+
+    @Test
+    public void closedTwiceIsCachedOnce() throws Exception {
+        SupportSQLiteStatement statement = mDatabase.compileStatement(SELECT);
+        statement.close();
+        statement.close();
+        assertEquals(1, mCache.size());
+
+        SupportSQLiteStatement cached = mDatabase.compileStatement(SELECT);
+        cached.bindString(1, "value");
+        // the statement closed twice is checked out, so it isn't handed out again
+        SupportSQLiteStatement other = mDatabase.compileStatement(SELECT);
+        assertNotSame(cached, other);
+        assertNull(other.simpleQueryForString());
+        assertEquals("value", cached.simpleQueryForString());
+    }
+
+    @Test
+    public void statementClosedAfterDatabaseIsNotCached() throws Exception {
+        SupportSQLiteStatement statement = mDatabase.compileStatement(INSERT);
+        mDatabase.compileStatement(SELECT).close();
+        assertEquals(1, mCache.size());
+
+        mOpenHelper.close();
+        assertEquals(0, mCache.size());
+        statement.close();
+        assertEquals(0, mCache.size());
+
+        // the reopened database has a cache of its own
+        SupportSQLiteDatabase database = mOpenHelper.getWritableDatabase();
+        FrameworkSQLiteStatementCache cache = FrameworkSQLiteStatementCache.from(database);
+        assertNotNull(cache);
+        assertNotSame(mCache, cache);
+        SupportSQLiteStatement reopened = database.compileStatement(INSERT);
+        assertNotSame(statement, reopened);
+        reopened.bindString(1, "b");
+        reopened.executeInsert();
+        reopened.close();
+        assertEquals(1, cache.size());
+    }
+
+    private static SupportSQLiteOpenHelper createOpenHelper(int statementCacheSize) {
+        return new FrameworkSQLiteOpenHelperFactory(statementCacheSize).create(
+                SupportSQLiteOpenHelper.Configuration.builder(
+                        ApplicationProvider.getApplicationContext())
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                                db.execSQL("CREATE TABLE Foo (value TEXT)");
+                            }
+
+                            @Override
+                            public void onUpgrade(@NonNull SupportSQLiteDatabase db,
+                                    int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+    }
+}
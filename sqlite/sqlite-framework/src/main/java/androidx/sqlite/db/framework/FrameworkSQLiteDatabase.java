@@ -30,6 +30,7 @@ import android.os.Build;
 import android.os.CancellationSignal;
 import android.util.Pair;
 
+import androidx.annotation.Nullable;
 import androidx.sqlite.db.SimpleSQLiteQuery;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteQuery;
@@ -49,6 +50,8 @@ class FrameworkSQLiteDatabase implements SupportSQLiteDatabase {
     private static final String[] EMPTY_STRING_ARRAY = new String[0];
 
     private final SQLiteDatabase mDelegate;
+    @Nullable
+    private final FrameworkSQLiteStatementCache mStatementCache;
 
     /**
      * Creates a wrapper around {@link SQLiteDatabase}.
@@ -56,14 +59,35 @@ class FrameworkSQLiteDatabase implements SupportSQLiteDatabase {
      * @param delegate The delegate to receive all calls.
      */
     FrameworkSQLiteDatabase(SQLiteDatabase delegate) {
+        this(delegate, 0);
+    }
+
+    /**
+     * Creates a wrapper around {@link SQLiteDatabase} which caches compiled statements.
+     *
+     * @param delegate The delegate to receive all calls.
+     * @param statementCacheSize The maximum number of statements to cache, or 0 to not cache
+     *                           statements.
+     */
+    FrameworkSQLiteDatabase(SQLiteDatabase delegate, int statementCacheSize) {
         mDelegate = delegate;
+        mStatementCache = statementCacheSize > 0
+                ? new FrameworkSQLiteStatementCache(delegate, statementCacheSize) : null;
     }
 
     @Override
     public SupportSQLiteStatement compileStatement(String sql) {
+        if (mStatementCache != null) {
+            return mStatementCache.acquire(sql);
+        }
         return new FrameworkSQLiteStatement(mDelegate.compileStatement(sql));
     }
 
+    @Nullable
+    FrameworkSQLiteStatementCache getStatementCache() {
+        return mStatementCache;
+    }
+
     @Override
     public void beginTransaction() {
         mDelegate.beginTransaction();
@@ -194,8 +218,12 @@ class FrameworkSQLiteDatabase implements SupportSQLiteDatabase {
         String query = "DELETE FROM " + table
                 + (isEmpty(whereClause) ? "" : " WHERE " + whereClause);
         SupportSQLiteStatement statement = compileStatement(query);
-        SimpleSQLiteQuery.bind(statement, whereArgs);
-        return statement.executeUpdateDelete();
+        try {
+            SimpleSQLiteQuery.bind(statement, whereArgs);
+            return statement.executeUpdateDelete();
+        } finally {
+            closeStatement(statement);
+        }
     }
 
 
@@ -233,8 +261,20 @@ class FrameworkSQLiteDatabase implements SupportSQLiteDatabase {
             sql.append(whereClause);
         }
         SupportSQLiteStatement stmt = compileStatement(sql.toString());
-        SimpleSQLiteQuery.bind(stmt, bindArgs);
-        return stmt.executeUpdateDelete();
+        try {
+            SimpleSQLiteQuery.bind(stmt, bindArgs);
+            return stmt.executeUpdateDelete();
+        } finally {
+            closeStatement(stmt);
+        }
+    }
+
+    private static void closeStatement(SupportSQLiteStatement statement) {
+        try {
+            statement.close();
+        } catch (IOException e) {
+            // Closing a framework statement doesn't throw.
+        }
     }
 
     @Override
@@ -312,6 +352,9 @@ class FrameworkSQLiteDatabase implements SupportSQLiteDatabase {
 
     @Override
     public void close() throws IOException {
+        if (mStatementCache != null) {
+            mStatementCache.close();
+        }
         mDelegate.close();
     }
 
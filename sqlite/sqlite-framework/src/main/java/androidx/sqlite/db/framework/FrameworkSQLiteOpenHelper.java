@@ -33,6 +33,7 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
     private final String mName;
     private final Callback mCallback;
     private final boolean mUseNoBackupDirectory;
+    private final int mStatementCacheSize;
     private final Object mLock;
 
     // Delegate is created lazily
@@ -51,10 +52,20 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
             String name,
             Callback callback,
             boolean useNoBackupDirectory) {
+        this(context, name, callback, useNoBackupDirectory, 0);
+    }
+
+    FrameworkSQLiteOpenHelper(
+            Context context,
+            String name,
+            Callback callback,
+            boolean useNoBackupDirectory,
+            int statementCacheSize) {
         mContext = context;
         mName = name;
         mCallback = callback;
         mUseNoBackupDirectory = useNoBackupDirectory;
+        mStatementCacheSize = statementCacheSize;
         mLock = new Object();
     }
 
@@ -73,9 +84,11 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
                         && mName != null
                         && mUseNoBackupDirectory) {
                     File file = new File(mContext.getNoBackupFilesDir(), mName);
-                    mDelegate = new OpenHelper(mContext, file.getAbsolutePath(), dbRef, mCallback);
+                    mDelegate = new OpenHelper(mContext, file.getAbsolutePath(), dbRef, mCallback,
+                            mStatementCacheSize);
                 } else {
-                    mDelegate = new OpenHelper(mContext, mName, dbRef, mCallback);
+                    mDelegate = new OpenHelper(mContext, mName, dbRef, mCallback,
+                            mStatementCacheSize);
                 }
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
                     mDelegate.setWriteAheadLoggingEnabled(mWriteAheadLoggingEnabled);
@@ -124,20 +137,23 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
          */
         final FrameworkSQLiteDatabase[] mDbRef;
         final Callback mCallback;
+        final int mStatementCacheSize;
         // see b/78359448
         private boolean mMigrated;
 
         OpenHelper(Context context, String name, final FrameworkSQLiteDatabase[] dbRef,
-                final Callback callback) {
+                final Callback callback, final int statementCacheSize) {
             super(context, name, null, callback.version,
                     new DatabaseErrorHandler() {
                         @Override
                         public void onCorruption(SQLiteDatabase dbObj) {
-                            callback.onCorruption(getWrappedDb(dbRef, dbObj));
+                            callback.onCorruption(
+                                    getWrappedDb(dbRef, dbObj, statementCacheSize));
                         }
                     });
             mCallback = callback;
             mDbRef = dbRef;
+            mStatementCacheSize = statementCacheSize;
         }
 
         synchronized SupportSQLiteDatabase getWritableSupportDatabase() {
@@ -163,7 +179,7 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
         }
 
         FrameworkSQLiteDatabase getWrappedDb(SQLiteDatabase sqLiteDatabase) {
-            return getWrappedDb(mDbRef, sqLiteDatabase);
+            return getWrappedDb(mDbRef, sqLiteDatabase, mStatementCacheSize);
         }
 
         @Override
@@ -179,6 +195,11 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
 
         @Override
         public void onConfigure(SQLiteDatabase db) {
+            if (mStatementCacheSize > 0) {
+                // Also keep as many statements prepared on each connection, which queries use.
+                db.setMaxSqlCacheSize(
+                        Math.min(mStatementCacheSize, SQLiteDatabase.MAX_SQL_CACHE_SIZE));
+            }
             mCallback.onConfigure(getWrappedDb(db));
         }
 
@@ -198,15 +219,19 @@ class FrameworkSQLiteOpenHelper implements SupportSQLiteOpenHelper {
 
         @Override
         public synchronized void close() {
+            final FrameworkSQLiteDatabase db = mDbRef[0];
+            if (db != null && db.getStatementCache() != null) {
+                db.getStatementCache().close();
+            }
             super.close();
             mDbRef[0] = null;
         }
 
         static FrameworkSQLiteDatabase getWrappedDb(FrameworkSQLiteDatabase[] refHolder,
-                SQLiteDatabase sqLiteDatabase) {
+                SQLiteDatabase sqLiteDatabase, int statementCacheSize) {
             FrameworkSQLiteDatabase dbRef = refHolder[0];
             if (dbRef == null || !dbRef.isDelegate(sqLiteDatabase)) {
-                refHolder[0] = new FrameworkSQLiteDatabase(sqLiteDatabase);
+                refHolder[0] = new FrameworkSQLiteDatabase(sqLiteDatabase, statementCacheSize);
             }
             return refHolder[0];
         }
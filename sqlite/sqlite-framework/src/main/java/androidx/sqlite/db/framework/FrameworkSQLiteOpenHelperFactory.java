@@ -16,7 +16,9 @@
 
 package androidx.sqlite.db.framework;
 
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteOpenHelper;
 
 /**
@@ -25,6 +27,36 @@ import androidx.sqlite.db.SupportSQLiteOpenHelper;
  */
 @SuppressWarnings("unused")
 public final class FrameworkSQLiteOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+    private final int mStatementCacheSize;
+
+    /**
+     * Creates a factory whose databases compile a new statement for each call to
+     * {@link SupportSQLiteDatabase#compileStatement(String)}.
+     */
+    public FrameworkSQLiteOpenHelperFactory() {
+        this(0);
+    }
+
+    /**
+     * Creates a factory whose databases keep a cache of compiled statements.
+     * <p>
+     * Closing a statement returned by {@link SupportSQLiteDatabase#compileStatement(String)}
+     * returns it to the cache, so that compiling the same SQL again doesn't have to prepare it
+     * again. The size also bounds the number of statements SQLite keeps prepared on each
+     * connection, which speeds up queries run repeatedly.
+     *
+     * @param statementCacheSize The maximum number of idle statements to cache for each database,
+     *                           or 0 to not cache statements.
+     * @see FrameworkSQLiteStatementCache
+     */
+    public FrameworkSQLiteOpenHelperFactory(@IntRange(from = 0) int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative, was "
+                    + statementCacheSize);
+        }
+        mStatementCacheSize = statementCacheSize;
+    }
+
     @NonNull
     @Override
     public SupportSQLiteOpenHelper create(
@@ -33,6 +65,7 @@ public final class FrameworkSQLiteOpenHelperFactory implements SupportSQLiteOpen
                 configuration.context,
                 configuration.name,
                 configuration.callback,
-                configuration.useNoBackupDirectory);
+                configuration.useNoBackupDirectory,
+                mStatementCacheSize);
     }
 }
@@ -18,6 +18,7 @@ package androidx.sqlite.db.framework;
 
 import android.database.sqlite.SQLiteStatement;
 
+import androidx.annotation.Nullable;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
 /**
@@ -25,6 +26,11 @@ import androidx.sqlite.db.SupportSQLiteStatement;
  */
 class FrameworkSQLiteStatement extends FrameworkSQLiteProgram implements SupportSQLiteStatement {
     private final SQLiteStatement mDelegate;
+    @Nullable
+    private final FrameworkSQLiteStatementCache mCache;
+    final String mSql;
+    // Guarded by mCache.
+    boolean mCheckedOut;
 
     /**
      * Creates a wrapper around a framework {@link SQLiteStatement}.
@@ -32,8 +38,39 @@ class FrameworkSQLiteStatement extends FrameworkSQLiteProgram implements Support
      * @param delegate The SQLiteStatement to delegate calls to.
      */
     FrameworkSQLiteStatement(SQLiteStatement delegate) {
+        this(delegate, null, null);
+    }
+
+    /**
+     * Creates a wrapper around a framework {@link SQLiteStatement} which goes back to the given
+     * cache when it is closed.
+     *
+     * @param delegate The SQLiteStatement to delegate calls to.
+     * @param cache The cache to return the statement to, if any.
+     * @param sql The SQL the statement was compiled from.
+     */
+    FrameworkSQLiteStatement(SQLiteStatement delegate,
+            @Nullable FrameworkSQLiteStatementCache cache, String sql) {
         super(delegate);
         mDelegate = delegate;
+        mCache = cache;
+        mSql = sql;
+    }
+
+    @Override
+    public void close() {
+        if (mCache != null) {
+            mCache.release(this);
+        } else {
+            super.close();
+        }
+    }
+
+    /**
+     * Closes the framework statement, even if the statement belongs to a cache.
+     */
+    void closeDelegate() {
+        super.close();
     }
 
     @Override
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.db.framework;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least recently used cache of compiled statements of a database opened by a
+ * {@link FrameworkSQLiteOpenHelperFactory} created with a statement cache size.
+ * <p>
+ * {@link SupportSQLiteDatabase#compileStatement(String)} takes the statement compiled for the
+ * same SQL out of the cache if there is one, and closing the statement puts it back, with its
+ * bindings cleared. A statement which isn't closed is never shared, so statements don't need to
+ * be closed for the cache to be correct, only for it to be useful.
+ */
+public final class FrameworkSQLiteStatementCache {
+    private final SQLiteDatabase mDatabase;
+    private final int mMaxSize;
+    // Idle statements, at most one for each SQL, in access order.
+    private final LinkedHashMap<String, FrameworkSQLiteStatement> mStatements;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+    private boolean mClosed;
+
+    FrameworkSQLiteStatementCache(SQLiteDatabase database, int maxSize) {
+        mDatabase = database;
+        mMaxSize = maxSize;
+        mStatements = new LinkedHashMap<>(0, 0.75f, true);
+    }
+
+    /**
+     * Returns the statement cache of the given database.
+     *
+     * @param database The database, as returned by a {@link FrameworkSQLiteOpenHelperFactory}
+     *                 helper.
+     * @return The statement cache of the database, or {@code null} if the database wasn't opened
+     * by a {@link FrameworkSQLiteOpenHelperFactory} with a statement cache.
+     */
+    @Nullable
+    public static FrameworkSQLiteStatementCache from(@NonNull SupportSQLiteDatabase database) {
+        if (database instanceof FrameworkSQLiteDatabase) {
+            return ((FrameworkSQLiteDatabase) database).getStatementCache();
+        }
+        return null;
+    }
+
+    SupportSQLiteStatement acquire(String sql) {
+        synchronized (this) {
+            final FrameworkSQLiteStatement statement = mStatements.remove(sql);
+            if (statement != null) {
+                mHitCount++;
+                statement.mCheckedOut = true;
+                return statement;
+            }
+            mMissCount++;
+        }
+        final FrameworkSQLiteStatement statement =
+                new FrameworkSQLiteStatement(mDatabase.compileStatement(sql), this, sql);
+        statement.mCheckedOut = true;
+        return statement;
+    }
+
+    void release(FrameworkSQLiteStatement statement) {
+        final List<FrameworkSQLiteStatement> toClose;
+        synchronized (this) {
+            if (!statement.mCheckedOut) {
+                // Closed twice.
+                return;
+            }
+            statement.mCheckedOut = false;
+            statement.clearBindings();
+            if (mClosed || mStatements.containsKey(statement.mSql)) {
+                toClose = new ArrayList<>(1);
+                toClose.add(statement);
+            } else {
+                mStatements.put(statement.mSql, statement);
+                toClose = trimLocked(mMaxSize);
+            }
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Closes and removes the statement cached for the given SQL, if any.
+     *
+     * @param sql The SQL of the statement.
+     */
+    public void evict(@NonNull String sql) {
+        final FrameworkSQLiteStatement statement;
+        synchronized (this) {
+            statement = mStatements.remove(sql);
+            if (statement != null) {
+                mEvictionCount++;
+            }
+        }
+        if (statement != null) {
+            statement.closeDelegate();
+        }
+    }
+
+    /**
+     * Closes and removes all cached statements.
+     */
+    public void evictAll() {
+        final List<FrameworkSQLiteStatement> toClose;
+        synchronized (this) {
+            toClose = trimLocked(0);
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Evicts all statements, and closes the statements released from now on.
+     */
+    void close() {
+        synchronized (this) {
+            mClosed = true;
+        }
+        evictAll();
+    }
+
+    /**
+     * Returns the number of statements in the cache.
+     *
+     * @return The number of idle statements in the cache.
+     */
+    public synchronized int size() {
+        return mStatements.size();
+    }
+
+    /**
+     * Returns the maximum number of statements kept in the cache.
+     *
+     * @return The maximum number of idle statements in the cache.
+     */
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of times a compiled statement was taken from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of times a statement had to be compiled.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of statements closed to keep the cache within its maximum size, or
+     * because they were evicted.
+     *
+     * @return The number of cache evictions.
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    private List<FrameworkSQLiteStatement> trimLocked(int maxSize) {
+        List<FrameworkSQLiteStatement> evicted = null;
+        final Iterator<Map.Entry<String, FrameworkSQLiteStatement>> iterator =
+                mStatements.entrySet().iterator();
+        while (mStatements.size() > maxSize) {
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(iterator.next().getValue());
+            iterator.remove();
+            mEvictionCount++;
+        }
+        return evicted;
+    }
+
+    private static void closeAll(@Nullable List<FrameworkSQLiteStatement> statements) {
+        if (statements != null) {
+            for (FrameworkSQLiteStatement statement : statements) {
+                statement.closeDelegate();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.work.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.filters.LargeTest
+import androidx.work.Data
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.io.ByteArrayOutputStream
+import java.io.ObjectOutputStream
+
+@RunWith(Parameterized::class)
+@LargeTest
+class DataSerializationBenchmark(private val entries: Int) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val data = Data.Builder().apply {
+        for (i in 0 until entries) {
+            when (i % 4) {
+                0 -> putString("string$i", "value$i")
+                1 -> putLong("long$i", i.toLong())
+                2 -> putBoolean("boolean$i", i % 3 == 0)
+                else -> putIntArray("ints$i", IntArray(8) { it * i })
+            }
+        }
+    }.build()
+
+    private val bytes = data.toByteArray()
+
+    // The format written by versions of WorkManager that used Java serialization.
+    private val legacyBytes = ByteArrayOutputStream().also { outputStream ->
+        ObjectOutputStream(outputStream).use { objectOutputStream ->
+            objectOutputStream.writeInt(data.keyValueMap.size)
+            for ((key, value) in data.keyValueMap) {
+                objectOutputStream.writeUTF(key)
+                objectOutputStream.writeObject(value)
+            }
+        }
+    }.toByteArray()
+
+    @Test
+    fun serialize() {
+        benchmarkRule.measureRepeated {
+            data.toByteArray()
+        }
+    }
+
+    @Test
+    fun deserialize() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    @Test
+    fun deserializeLegacy() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(legacyBytes)
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "entries={0}")
+        fun parameters() = listOf(1, 10, 100)
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.filters.LargeTest
+import androidx.work.impl.utils.LockFreeSerialExecutor
+import androidx.work.impl.utils.SerialExecutor
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares [SerialExecutor] with [LockFreeSerialExecutor] when several threads enqueue small
+ * commands at the same time, as happens with bursts of status updates.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class SerialExecutorBenchmark(private val lockFree: Boolean) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val delegate = Executors.newFixedThreadPool(4)
+    private val producers = Executors.newFixedThreadPool(PRODUCER_COUNT)
+    private val executor =
+        if (lockFree) LockFreeSerialExecutor(delegate) else SerialExecutor(delegate)
+
+    @After
+    fun tearDown() {
+        producers.shutdown()
+        delegate.shutdown()
+    }
+
+    @Test
+    fun executeConcurrently() {
+        benchmarkRule.measureRepeated {
+            val latch = CountDownLatch(PRODUCER_COUNT * COMMANDS_PER_PRODUCER)
+            val command = Runnable { latch.countDown() }
+            repeat(PRODUCER_COUNT) {
+                producers.execute {
+                    repeat(COMMANDS_PER_PRODUCER) {
+                        executor.execute(command)
+                    }
+                }
+            }
+            latch.await(10, TimeUnit.SECONDS)
+        }
+    }
+
+    companion object {
+        private const val PRODUCER_COUNT = 4
+        private const val COMMANDS_PER_PRODUCER = 1000
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "lockFree={0}")
+        fun data() = listOf(false, true)
+    }
+}
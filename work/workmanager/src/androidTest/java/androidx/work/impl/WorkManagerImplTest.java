@@ -114,6 +114,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -250,6 +251,27 @@ public class WorkManagerImplTest {
         assertThat(workSpecDao.getWorkSpec(work3.getStringId()), is(notNullValue()));
     }
 
+    @Test
+    @MediumTest
+    public void testEnqueue_insertLargeBatch() throws ExecutionException, InterruptedException {
+        List<OneTimeWorkRequest> work = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            work.add(new OneTimeWorkRequest.Builder(TestWorker.class).addTag("batch").build());
+        }
+
+        mWorkManagerImpl.beginUniqueWork("name", KEEP, work)
+                .enqueue()
+                .getResult()
+                .get();
+
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        for (OneTimeWorkRequest request : work) {
+            assertThat(workSpecDao.getWorkSpec(request.getStringId()), is(notNullValue()));
+        }
+        assertThat(mDatabase.workTagDao().getWorkSpecIdsWithTag("batch").size(), is(500));
+        assertThat(mDatabase.workNameDao().getWorkSpecIdsWithName("name").size(), is(500));
+    }
+
     @Test
     @MediumTest
     public void testEnqueue_insertWithDependencies()
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.impl.utils
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class LockFreeSerialExecutorTest {
+
+    private lateinit var delegate: ExecutorService
+    private lateinit var executor: LockFreeSerialExecutor
+
+    @Before
+    fun setUp() {
+        delegate = Executors.newCachedThreadPool()
+        executor = LockFreeSerialExecutor(delegate)
+    }
+
+    @After
+    fun tearDown() {
+        delegate.shutdownNow()
+    }
+
+    @Test
+    fun testCommandsFromOneThreadRunInOrder() {
+        val count = 1000
+        val latch = CountDownLatch(count)
+        val order = ArrayList<Int>()
+        repeat(count) { index ->
+            executor.execute {
+                order.add(index)
+                latch.countDown()
+            }
+        }
+        assertThat(latch.await(5, TimeUnit.SECONDS), `is`(true))
+        assertThat(order, `is`((0 until count).toList()))
+    }
+
+    @Test
+    fun testCommandsNeverOverlap() {
+        val producers = 4
+        val perProducer = 500
+        val latch = CountDownLatch(producers * perProducer)
+        val running = AtomicBoolean()
+        val overlapped = AtomicBoolean()
+        val producerThreads = Executors.newFixedThreadPool(producers)
+        repeat(producers) {
+            producerThreads.execute {
+                repeat(perProducer) {
+                    executor.execute {
+                        if (!running.compareAndSet(false, true)) {
+                            overlapped.set(true)
+                        }
+                        running.set(false)
+                        latch.countDown()
+                    }
+                }
+            }
+        }
+        assertThat(latch.await(5, TimeUnit.SECONDS), `is`(true))
+        producerThreads.shutdown()
+        assertThat(overlapped.get(), `is`(false))
+        assertThat(executor.hasPendingTasks(), `is`(false))
+    }
+
+    @Test
+    fun testFailingCommandDoesNotStallQueue() {
+        // Swallow the failure so it doesn't reach the default uncaught exception handler.
+        executor = LockFreeSerialExecutor { command ->
+            delegate.execute {
+                try {
+                    command.run()
+                } catch (expected: IllegalStateException) {
+                }
+            }
+        }
+        val latch = CountDownLatch(1)
+        executor.execute { throw IllegalStateException("Expected") }
+        executor.execute { latch.countDown() }
+        assertThat(latch.await(1, TimeUnit.SECONDS), `is`(true))
+    }
+}
@@ -76,6 +76,8 @@ public final class Configuration {
     @SuppressWarnings("WeakerAccess")
     final int mMaxSchedulerLimit;
     private final boolean mIsUsingDefaultTaskExecutor;
+    @SuppressWarnings("WeakerAccess")
+    final boolean mLockFreeTaskExecution;
 
     Configuration(@NonNull Configuration.Builder builder) {
         if (builder.mExecutor == null) {
@@ -119,6 +121,7 @@ public final class Configuration {
         mMaxSchedulerLimit = builder.mMaxSchedulerLimit;
         mExceptionHandler = builder.mExceptionHandler;
         mDefaultProcessName = builder.mDefaultProcessName;
+        mLockFreeTaskExecution = builder.mLockFreeTaskExecution;
     }
 
     /**
@@ -244,6 +247,15 @@ public final class Configuration {
         return mIsUsingDefaultTaskExecutor;
     }
 
+    /**
+     * @return {@code true} If commands on the task {@link Executor} are serialized without locking
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public boolean isLockFreeTaskExecutionEnabled() {
+        return mLockFreeTaskExecution;
+    }
+
     /**
      * @return the {@link InitializationExceptionHandler} that can be used to intercept
      * exceptions caused when trying to initialize {@link WorkManager}.
@@ -278,6 +290,7 @@ public final class Configuration {
         int mMinJobSchedulerId;
         int mMaxJobSchedulerId;
         int mMaxSchedulerLimit;
+        boolean mLockFreeTaskExecution;
 
         /**
          * Creates a new {@link Configuration.Builder}.
@@ -311,6 +324,7 @@ public final class Configuration {
             mRunnableScheduler = configuration.mRunnableScheduler;
             mExceptionHandler = configuration.mExceptionHandler;
             mDefaultProcessName = configuration.mDefaultProcessName;
+            mLockFreeTaskExecution = configuration.mLockFreeTaskExecution;
         }
 
         /**
@@ -364,6 +378,26 @@ public final class Configuration {
             return this;
         }
 
+        /**
+         * Specifies whether WorkManager serializes its internal book-keeping on the task
+         * {@link Executor} without taking a lock.
+         *
+         * When enabled, commands are queued in a lock-free queue and drained in order, which
+         * avoids contention when many commands are enqueued concurrently, for instance when work
+         * reports a large number of status updates. Commands still run one at a time, in the order
+         * they were enqueued.
+         *
+         * The default value is {@code false}.
+         *
+         * @param enabled {@code true} to serialize internal book-keeping without locking
+         * @return This {@link Builder} instance
+         */
+        @NonNull
+        public Builder setLockFreeTaskExecutionEnabled(boolean enabled) {
+            mLockFreeTaskExecution = enabled;
+            return this;
+        }
+
         /**
          * Specifies the range of {@link android.app.job.JobInfo} IDs that can be used by
          * {@link WorkManager}.  WorkManager needs a range of at least {@code 1000} IDs.
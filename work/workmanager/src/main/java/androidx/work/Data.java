@@ -27,9 +27,12 @@ import androidx.room.TypeConverter;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.UTFDataFormatException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -63,6 +66,24 @@ public final class Data {
     @SuppressLint("MinMaxConstant")
     public static final int MAX_DATA_BYTES = 10 * 1024;    // 10KB
 
+    // Serialized Data starts with this magic number followed by a version byte. Java
+    // serialization, which was used before, starts with ObjectStreamConstants.STREAM_MAGIC.
+    private static final short STREAM_MAGIC = (short) 0xABEF;
+    private static final int STREAM_VERSION = 1;
+
+    // Each value is written after a type tag. Arrays set TYPE_ARRAY on the tag of their element
+    // type, and TYPE_NULLABLE_ELEMENTS if every element is preceded by a presence flag.
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_BOOLEAN = 1;
+    private static final int TYPE_BYTE = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_FLOAT = 5;
+    private static final int TYPE_DOUBLE = 6;
+    private static final int TYPE_STRING = 7;
+    private static final int TYPE_NULLABLE_ELEMENTS = 0x20;
+    private static final int TYPE_ARRAY = 0x40;
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     Map<String, Object> mValues;
 
@@ -385,29 +406,26 @@ public final class Data {
     @TypeConverter
     public static @NonNull byte[] toByteArrayInternal(@NonNull Data data) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ObjectOutputStream objectOutputStream = null;
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
         try {
-            objectOutputStream = new ObjectOutputStream(outputStream);
-            objectOutputStream.writeInt(data.size());
+            dataOutputStream.writeShort(STREAM_MAGIC);
+            dataOutputStream.writeByte(STREAM_VERSION);
+            dataOutputStream.writeInt(data.size());
             for (Map.Entry<String, Object> entry : data.mValues.entrySet()) {
-                objectOutputStream.writeUTF(entry.getKey());
-                objectOutputStream.writeObject(entry.getValue());
+                dataOutputStream.writeUTF(entry.getKey());
+                writeValue(dataOutputStream, entry.getValue());
             }
+        } catch (UTFDataFormatException e) {
+            // Strings are only too long to encode when they are far bigger than MAX_DATA_BYTES.
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES
+                            + " bytes when serialized", e);
         } catch (IOException e) {
             Log.e(TAG, "Error in Data#toByteArray: ", e);
             return outputStream.toByteArray();
         } finally {
-            if (objectOutputStream != null) {
-                try {
-                    // NOTE: this writes something to the output stream for bookkeeping purposes.
-                    // Don't get the byteArray before we do this!
-                    objectOutputStream.close();
-                } catch (IOException e) {
-                    Log.e(TAG, "Error in Data#toByteArray: ", e);
-                }
-            }
             try {
-                outputStream.close();
+                dataOutputStream.close();
             } catch (IOException e) {
                 Log.e(TAG, "Error in Data#toByteArray: ", e);
             }
@@ -435,6 +453,47 @@ public final class Data {
                     "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
         }
 
+        if (isLegacyFormat(bytes)) {
+            return fromLegacyByteArray(bytes);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        try {
+            if (dataInputStream.readShort() != STREAM_MAGIC) {
+                throw new IOException("Magic number mismatch");
+            }
+            int version = dataInputStream.readUnsignedByte();
+            if (version != STREAM_VERSION) {
+                throw new IOException("Unsupported version " + version);
+            }
+            for (int i = dataInputStream.readInt(); i > 0; i--) {
+                map.put(dataInputStream.readUTF(), readValue(dataInputStream));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error in Data#fromByteArray: ", e);
+        } finally {
+            try {
+                dataInputStream.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error in Data#fromByteArray: ", e);
+            }
+        }
+        return new Data(map);
+    }
+
+    /**
+     * Returns {@code true} if the given bytes were written by Java serialization, which versions
+     * of WorkManager prior to the compact binary format used.
+     */
+    private static boolean isLegacyFormat(@NonNull byte[] bytes) {
+        return bytes.length >= 2
+                && (short) (((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF))
+                == ObjectStreamConstants.STREAM_MAGIC;
+    }
+
+    private static @NonNull Data fromLegacyByteArray(@NonNull byte[] bytes) {
         Map<String, Object> map = new HashMap<>();
         ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
         ObjectInputStream objectInputStream = null;
@@ -462,6 +521,171 @@ public final class Data {
         return new Data(map);
     }
 
+    private static void writeValue(@NonNull DataOutputStream out, @Nullable Object value)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            int elementType = elementTypeOf(array);
+            boolean hasNulls = false;
+            for (Object element : array) {
+                hasNulls |= element == null;
+            }
+            out.writeByte(TYPE_ARRAY | (hasNulls ? TYPE_NULLABLE_ELEMENTS : 0) | elementType);
+            out.writeInt(array.length);
+            for (Object element : array) {
+                if (hasNulls) {
+                    out.writeBoolean(element != null);
+                    if (element == null) {
+                        continue;
+                    }
+                }
+                writeElement(out, elementType, element);
+            }
+        } else {
+            // Builder only accepts the types above, so this cannot happen.
+            throw new IllegalArgumentException("Value has invalid type " + value.getClass());
+        }
+    }
+
+    private static int elementTypeOf(@NonNull Object[] array) {
+        Class<?> arrayType = array.getClass();
+        if (arrayType == Boolean[].class) {
+            return TYPE_BOOLEAN;
+        } else if (arrayType == Byte[].class) {
+            return TYPE_BYTE;
+        } else if (arrayType == Integer[].class) {
+            return TYPE_INTEGER;
+        } else if (arrayType == Long[].class) {
+            return TYPE_LONG;
+        } else if (arrayType == Float[].class) {
+            return TYPE_FLOAT;
+        } else if (arrayType == Double[].class) {
+            return TYPE_DOUBLE;
+        } else if (arrayType == String[].class) {
+            return TYPE_STRING;
+        }
+        // Builder only accepts the types above, so this cannot happen.
+        throw new IllegalArgumentException("Array has invalid type " + arrayType);
+    }
+
+    private static void writeElement(@NonNull DataOutputStream out, int type,
+            @NonNull Object element) throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                out.writeBoolean((Boolean) element);
+                break;
+            case TYPE_BYTE:
+                out.writeByte((Byte) element);
+                break;
+            case TYPE_INTEGER:
+                out.writeInt((Integer) element);
+                break;
+            case TYPE_LONG:
+                out.writeLong((Long) element);
+                break;
+            case TYPE_FLOAT:
+                out.writeFloat((Float) element);
+                break;
+            case TYPE_DOUBLE:
+                out.writeDouble((Double) element);
+                break;
+            default:
+                out.writeUTF((String) element);
+                break;
+        }
+    }
+
+    private static @Nullable Object readValue(@NonNull DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        if ((type & TYPE_ARRAY) == 0) {
+            return type == TYPE_NULL ? null : readElement(in, type);
+        }
+
+        int elementType = type & ~(TYPE_ARRAY | TYPE_NULLABLE_ELEMENTS);
+        boolean hasNulls = (type & TYPE_NULLABLE_ELEMENTS) != 0;
+        int length = in.readInt();
+        if (length < 0 || length > MAX_DATA_BYTES) {
+            throw new IOException("Invalid array length " + length);
+        }
+        Object[] array;
+        switch (elementType) {
+            case TYPE_BOOLEAN:
+                array = new Boolean[length];
+                break;
+            case TYPE_BYTE:
+                array = new Byte[length];
+                break;
+            case TYPE_INTEGER:
+                array = new Integer[length];
+                break;
+            case TYPE_LONG:
+                array = new Long[length];
+                break;
+            case TYPE_FLOAT:
+                array = new Float[length];
+                break;
+            case TYPE_DOUBLE:
+                array = new Double[length];
+                break;
+            case TYPE_STRING:
+                array = new String[length];
+                break;
+            default:
+                throw new IOException("Unknown array type " + type);
+        }
+        for (int i = 0; i < length; i++) {
+            if (!hasNulls || in.readBoolean()) {
+                array[i] = readElement(in, elementType);
+            }
+        }
+        return array;
+    }
+
+    private static @NonNull Object readElement(@NonNull DataInputStream in, int type)
+            throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown type " + type);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -194,7 +194,8 @@ public class WorkManagerImpl extends WorkManager {
                     sDefaultInstance = new WorkManagerImpl(
                             context,
                             configuration,
-                            new WorkManagerTaskExecutor(configuration.getTaskExecutor()));
+                            new WorkManagerTaskExecutor(configuration.getTaskExecutor(),
+                                    configuration.isLockFreeTaskExecutionEnabled()));
                 }
                 sDelegatedInstance = sDefaultInstance;
             }
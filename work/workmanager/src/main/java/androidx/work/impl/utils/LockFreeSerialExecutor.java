@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.impl.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link SerialExecutor} which doesn't take a lock to enqueue or schedule commands.
+ * <p>
+ * Commands are added to a lock-free queue, and an atomic count of the commands which are queued
+ * or running decides which thread has to schedule the drain loop on the delegated
+ * {@link Executor}: only the thread that moves the count away from zero does. The drain loop runs
+ * the commands in order, and hands the loop back to the delegated {@link Executor} after a few
+ * commands so that a long queue doesn't hold on to one of its threads.
+ */
+public class LockFreeSerialExecutor extends SerialExecutor {
+    private static final int MAX_COMMANDS_PER_DRAIN = 16;
+
+    private final ConcurrentLinkedQueue<Runnable> mCommands;
+    // The number of commands queued or running.
+    private final AtomicInteger mPendingCount;
+    private final Runnable mDrainTask;
+
+    public LockFreeSerialExecutor(@NonNull Executor executor) {
+        super(executor);
+        mCommands = new ConcurrentLinkedQueue<>();
+        mPendingCount = new AtomicInteger();
+        mDrainTask = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        mCommands.offer(command);
+        if (mPendingCount.getAndIncrement() == 0) {
+            scheduleNext();
+        }
+    }
+
+    @Override
+    void scheduleNext() {
+        getDelegatedExecutor().execute(mDrainTask);
+    }
+
+    // Synthetic access
+    void drain() {
+        boolean hasMoreCommands = true;
+        try {
+            for (int i = 0; i < MAX_COMMANDS_PER_DRAIN && hasMoreCommands; i++) {
+                // Every increment of the count happens after its command is offered, so the
+                // queue isn't empty as long as the count is positive.
+                Runnable command = mCommands.poll();
+                try {
+                    command.run();
+                } finally {
+                    hasMoreCommands = mPendingCount.decrementAndGet() != 0;
+                }
+            }
+        } finally {
+            if (hasMoreCommands) {
+                scheduleNext();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasPendingTasks() {
+        return !mCommands.isEmpty();
+    }
+}
@@ -21,6 +21,7 @@ import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
+import androidx.work.impl.utils.LockFreeSerialExecutor;
 import androidx.work.impl.utils.SerialExecutor;
 
 import java.util.concurrent.Executor;
@@ -35,9 +36,15 @@ public class WorkManagerTaskExecutor implements TaskExecutor {
     private final SerialExecutor mBackgroundExecutor;
 
     public WorkManagerTaskExecutor(@NonNull Executor backgroundExecutor) {
+        this(backgroundExecutor, false);
+    }
+
+    public WorkManagerTaskExecutor(@NonNull Executor backgroundExecutor, boolean lockFree) {
         // Wrap it with a serial executor so we have ordering guarantees on commands
         // being executed.
-        mBackgroundExecutor = new SerialExecutor(backgroundExecutor);
+        mBackgroundExecutor = lockFree
+                ? new LockFreeSerialExecutor(backgroundExecutor)
+                : new SerialExecutor(backgroundExecutor);
     }
 
     private final Handler mMainThreadHandler = new Handler(Looper.getMainLooper());
@@ -27,6 +27,9 @@ import androidx.annotation.NonNull;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -89,6 +92,56 @@ public class DataTest {
         assertThat(restoredData.getIntArray(KEY2), is(equalTo(expectedValue2)));
     }
 
+    @Test
+    public void testSerializeAllTypes() {
+        Data data = new Data.Builder()
+                .putBoolean("boolean", true)
+                .putBooleanArray("boolean array", new boolean[]{true, false})
+                .putByte("byte", (byte) 1)
+                .putByteArray("byte array", new byte[]{1, 2})
+                .putInt("int", 1)
+                .putIntArray("int array", new int[0])
+                .putLong("long", Long.MAX_VALUE)
+                .putLongArray("long array", new long[]{Long.MIN_VALUE})
+                .putFloat("float", 1.5f)
+                .putFloatArray("float array", new float[]{Float.NaN})
+                .putDouble("double", 2.5)
+                .putDoubleArray("double array", new double[]{Double.MAX_VALUE})
+                .putString("string", "\u00e9t\u00e9")
+                .putString("null", null)
+                .putStringArray("string array", new String[]{"a", null})
+                .put("boxed array", new Integer[]{1, null})
+                .build();
+
+        Data restoredData = Data.fromByteArray(data.toByteArray());
+
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testDeserializeLegacyFormat() throws IOException {
+        Data data = createData();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeInt(data.size());
+        for (Map.Entry<String, Object> entry : data.getKeyValueMap().entrySet()) {
+            objectOutputStream.writeUTF(entry.getKey());
+            objectOutputStream.writeObject(entry.getValue());
+        }
+        objectOutputStream.close();
+
+        Data restoredData = Data.fromByteArray(outputStream.toByteArray());
+
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testSerializedSizeExcludesClassDescriptors() {
+        Data data = new Data.Builder().putIntArray(KEY1, new int[1000]).build();
+        // Four bytes per element, plus a small header.
+        assertThat(data.toByteArray().length < 4100, is(true));
+    }
+
     @Test
     public void testSerializePastMaxSize() {
         int[] payload = new int[Data.MAX_DATA_BYTES + 1];